@@ -34,9 +34,10 @@ const AdminPanel = () => {
       ]);
       
       setStats(statsResponse.data);
-      setUsers(usersResponse.data);
-      setDecks(decksResponse.data);
-      setFeedback(feedbackResponse.data);
+      // Listings are paged; the panel shows the most recent page of each
+      setUsers(usersResponse.data.items);
+      setDecks(decksResponse.data.items);
+      setFeedback(feedbackResponse.data.items);
     } catch (error) {
       console.error('Error fetching admin data:', error);
       toast.error('Failed to load admin data');
@@ -0,0 +1,117 @@
+package com.flashcards.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result file with the checked-in baseline and prints time and allocation per
+ * operation side by side. A benchmark regresses when either grows by more than the threshold; with
+ * fail-on-regression set the process exits non-zero so the build fails.
+ *
+ * <p>Usage: {@code BaselineComparison <baseline.json> <result.json> <threshold> <fail-on-regression>}
+ */
+public final class BaselineComparison {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    private record Score(double time, String unit, double bytesPerOp) {
+    }
+
+    private BaselineComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparison <baseline.json> <result.json> [threshold] [fail-on-regression]");
+            System.exit(2);
+        }
+        File baselineFile = new File(args[0]);
+        File resultFile = new File(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 0.25;
+        boolean failOnRegression = args.length > 3 && Boolean.parseBoolean(args[3]);
+
+        if (!resultFile.exists()) {
+            System.out.println("No benchmark results at " + resultFile + ", nothing to compare");
+            return;
+        }
+        if (!baselineFile.exists()) {
+            System.out.println("No baseline at " + baselineFile + " - copy " + resultFile + " there to create one");
+            return;
+        }
+
+        Map<String, Score> baseline = read(baselineFile);
+        Map<String, Score> current = read(resultFile);
+        List<String> regressions = new ArrayList<>();
+
+        System.out.printf("%-75s %14s %14s %8s %12s %12s %8s%n",
+                "Benchmark", "baseline", "current", "time", "base B/op", "B/op", "alloc");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-75s %14s %11.3f %-2s (new)%n", entry.getKey(), "-", now.time, now.unit);
+                continue;
+            }
+            double timeChange = change(before.time, now.time);
+            double allocationChange = change(before.bytesPerOp, now.bytesPerOp);
+            boolean regressed = timeChange > threshold || allocationChange > threshold;
+            System.out.printf("%-75s %11.3f %-2s %11.3f %-2s %+7.1f%% %12.0f %12.0f %+7.1f%%%s%n",
+                    entry.getKey(), before.time, before.unit, now.time, now.unit, timeChange * 100,
+                    before.bytesPerOp, now.bytesPerOp, allocationChange * 100, regressed ? "  REGRESSION" : "");
+            if (regressed) {
+                regressions.add(entry.getKey());
+            }
+        }
+
+        if (regressions.isEmpty()) {
+            System.out.println("No benchmark is more than " + Math.round(threshold * 100) + "% slower or allocating more than the baseline");
+            return;
+        }
+        System.out.println(regressions.size() + " benchmark(s) regressed by more than " + Math.round(threshold * 100)
+                + "%: " + String.join(", ", regressions));
+        if (failOnRegression) {
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Score> read(File file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            JsonNode primary = run.path("primaryMetric");
+            double bytesPerOp = Double.NaN;
+            Iterator<Map.Entry<String, JsonNode>> secondary = run.path("secondaryMetrics").fields();
+            while (secondary.hasNext()) {
+                Map.Entry<String, JsonNode> metric = secondary.next();
+                // Older JMH versions prefix profiler metrics with a middle dot
+                if (metric.getKey().replace("·", "").equals(ALLOCATION)) {
+                    bytesPerOp = metric.getValue().path("score").asDouble();
+                }
+            }
+            scores.put(key(run), new Score(primary.path("score").asDouble(), primary.path("scoreUnit").asText(), bytesPerOp));
+        }
+        return scores;
+    }
+
+    private static String key(JsonNode run) {
+        String name = run.path("benchmark").asText().replace("com.flashcards.", "");
+        Map<String, String> params = new TreeMap<>();
+        run.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+        return params.isEmpty() ? name : name + params;
+    }
+
+    private static double change(double before, double now) {
+        if (Double.isNaN(before) || Double.isNaN(now) || before == 0) {
+            return 0;
+        }
+        return (now - before) / before;
+    }
+}
@@ -0,0 +1,69 @@
+package com.flashcards.benchmark;
+
+import java.util.Random;
+
+/**
+ * Deterministic study-material text for benchmarks, so runs are comparable with the baseline.
+ */
+public final class BenchmarkData {
+
+    private static final String[] SUBJECTS = {
+            "Photosynthesis", "The mitochondrion", "A binary search tree", "The French Revolution", "Osmosis",
+            "A hash table", "The Krebs cycle", "Plate tectonics", "The TCP handshake", "Supply and demand",
+            "An enzyme", "The Treaty of Versailles", "A linked list", "Newton's second law", "The immune system"
+    };
+    private static final String[] VERBS = {
+            "is defined as", "refers to", "describes", "is responsible for", "is used for", "depends on", "consists of"
+    };
+    private static final String[] OBJECTS = {
+            "the conversion of light energy into chemical energy stored in glucose",
+            "the production of ATP through cellular respiration in eukaryotic cells",
+            "ordered lookups in logarithmic time when the tree stays balanced",
+            "the political upheaval that ended the absolute monarchy in 1789",
+            "the movement of water across a semipermeable membrane",
+            "constant time lookups by hashing keys into an array of buckets",
+            "the gradual movement of the lithosphere over the asthenosphere",
+            "a three step exchange of SYN, SYN-ACK and ACK segments",
+            "the relationship between the price of a good and the quantity sold",
+            "lowering the activation energy of a biochemical reaction"
+    };
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * About {@code chars} characters of plain sentences, the same for a given length on every run.
+     */
+    public static String text(int chars) {
+        Random random = new Random(chars);
+        StringBuilder text = new StringBuilder(chars + 200);
+        while (text.length() < chars) {
+            text.append(SUBJECTS[random.nextInt(SUBJECTS.length)]).append(' ')
+                    .append(VERBS[random.nextInt(VERBS.length)]).append(' ')
+                    .append(OBJECTS[random.nextInt(OBJECTS.length)]).append(". ");
+        }
+        return text.toString().trim();
+    }
+
+    /**
+     * The same material as an HTML article body with headings, paragraphs, lists and some markup to strip.
+     */
+    public static String html(int chars) {
+        Random random = new Random(chars);
+        StringBuilder html = new StringBuilder(chars + 500);
+        int section = 0;
+        while (html.length() < chars) {
+            html.append("<h2 id=\"s").append(section).append("\">Section ").append(section++).append("</h2>\n");
+            html.append("<p class=\"lead\">").append(text(300 + random.nextInt(400))).append("</p>\n");
+            html.append("<ul><li>").append(OBJECTS[random.nextInt(OBJECTS.length)]).append("&nbsp;&mdash; note</li>")
+                    .append("<li>").append(OBJECTS[random.nextInt(OBJECTS.length)]).append("</li></ul>\n");
+            html.append("<script>track('s").append(section).append("');</script>\n");
+            html.append("<div style=\"display:none\"><span>\r\n  ").append(text(120)).append(" </span></div>\n");
+        }
+        return html.toString();
+    }
+
+    public static String answer(int i) {
+        return OBJECTS[i % OBJECTS.length].substring(0, 12 + i % 30) + " " + (i / OBJECTS.length);
+    }
+}
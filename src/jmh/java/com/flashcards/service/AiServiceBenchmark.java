@@ -0,0 +1,76 @@
+package com.flashcards.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flashcards.benchmark.BenchmarkData;
+import com.flashcards.dto.AiGenerationRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing an OpenAI reply and the local fallback generators, which run on the request thread whenever
+ * no API key is configured or the provider fails.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AiServiceBenchmark {
+
+    private static final int CARDS = 10;
+
+    @Param({"2000", "100000"})
+    public int textLength;
+
+    private AiService aiService;
+    private String text;
+    private String openAiReply;
+    private AiGenerationRequest request;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        aiService = new AiService(null, new ObjectMapper(), new ContentProcessingService(registry, Tracer.NOOP),
+                new PromptTemplates(), new TokenBudget(), registry, Tracer.NOOP);
+        text = BenchmarkData.text(textLength);
+
+        StringBuilder reply = new StringBuilder("```json\n[\n");
+        for (int i = 0; i < 20; i++) {
+            reply.append(i > 0 ? ",\n" : "")
+                    .append("  {\"question\": \"What does item ").append(i).append(" describe?\", \"answer\": \"")
+                    .append(BenchmarkData.answer(i)).append("\"}");
+        }
+        openAiReply = reply.append("\n]\n```").toString();
+
+        request = new AiGenerationRequest();
+        request.setText(text);
+        request.setTopic("Biology");
+        request.setNumberOfCards(CARDS);
+    }
+
+    @Benchmark
+    public List<AiService.FlashcardData> parseFlashcards() {
+        return aiService.parseFlashcards(openAiReply);
+    }
+
+    @Benchmark
+    public List<AiService.FlashcardData> generateTopicBasedFlashcards() {
+        return aiService.generateTopicBasedFlashcards(text, "Biology", CARDS);
+    }
+
+    @Benchmark
+    public List<AiService.FlashcardData> generateFromKeyTerms() {
+        return aiService.generateFromKeyTerms(text, "Biology", CARDS);
+    }
+
+    @Benchmark
+    public List<AiService.FlashcardData> generateFlashcardsFallback() {
+        // No API key is set, so this is the whole request path minus the controller
+        return aiService.generateFlashcards(request);
+    }
+}
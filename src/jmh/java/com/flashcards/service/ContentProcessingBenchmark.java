@@ -0,0 +1,88 @@
+package com.flashcards.service;
+
+import com.flashcards.benchmark.BenchmarkData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Text extraction: HTML page cleanup and normalization (the URL path minus the fetch), PDF text
+ * extraction and the pass-through for plain text.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentProcessingBenchmark {
+
+    private static final int PDF_PAGES = 10;
+    private static final int LINES_PER_PAGE = 40;
+
+    private ContentProcessingService service;
+    private String html;
+    private String text;
+    private byte[] pdf;
+
+    @Setup
+    public void setUp() throws IOException {
+        service = new ContentProcessingService(new SimpleMeterRegistry(), Tracer.NOOP);
+        html = BenchmarkData.html(200_000);
+        text = BenchmarkData.text(100_000);
+        pdf = createPdf();
+    }
+
+    @Benchmark
+    public String htmlToText() {
+        return ContentProcessingService.htmlToText(html);
+    }
+
+    @Benchmark
+    public String extractTextFromPdf() throws IOException {
+        return service.extractTextFromPdf(pdf);
+    }
+
+    @Benchmark
+    public String extractPlainText() throws IOException {
+        return service.extractTextFromDocument(text, "text");
+    }
+
+    private static byte[] createPdf() throws IOException {
+        String[] words = BenchmarkData.text(PDF_PAGES * LINES_PER_PAGE * 80).split(" ");
+        int word = 0;
+        try (PDDocument document = new PDDocument(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            for (int p = 0; p < PDF_PAGES; p++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.setFont(font, 10);
+                    content.beginText();
+                    content.setLeading(14);
+                    content.newLineAtOffset(40, 750);
+                    for (int line = 0; line < LINES_PER_PAGE; line++) {
+                        StringBuilder row = new StringBuilder();
+                        while (row.length() < 90 && word < words.length) {
+                            row.append(words[word++]).append(' ');
+                        }
+                        content.showText(row.toString());
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+}
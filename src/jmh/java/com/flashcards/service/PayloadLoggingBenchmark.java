@@ -0,0 +1,123 @@
+package com.flashcards.service;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.flashcards.benchmark.BenchmarkData;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Cost to the request thread of logging an OpenAI prompt: the System.out.println AI generation used to
+ * do, against the logging setup in logback-spring.xml (an AsyncAppender in front of the console appender)
+ * with and without the payload cut to ai.log.payload-max-chars. Both write to the null device through a
+ * FileOutputStream, so each write is still a system call but the JMH output and the disk stay clean.
+ * The {@code slow} sink also parks for {@value #SLOW_WRITE_MICROS}us per write, like a terminal or a
+ * container log driver that is behind.
+ *
+ * <p>The AsyncAppender never blocks: once its queue is 80% full, DEBUG events are dropped, so the async
+ * scores are the enqueue cost while the writer thread keeps up, or the cost of dropping when it does not.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadLoggingBenchmark {
+
+    private static final int PAYLOAD_MAX_CHARS = 200;
+    // Same as Boot's console pattern, so formatting costs what it does in the application
+    private static final String PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p ${PID:- } --- [%15.15t] %-40.40logger{39} : %m%n";
+
+    private static final long SLOW_WRITE_MICROS = 50;
+
+    @Param({"2000", "100000"})
+    public int payloadLength;
+
+    @Param({"null", "slow"})
+    public String sink;
+
+    private String prompt;
+    private PrintStream stdout;
+    private LoggerContext context;
+    private Logger logger;
+
+    @Setup
+    public void setUp() throws IOException {
+        prompt = BenchmarkData.text(payloadLength);
+        // System.out flushes on every println
+        stdout = new PrintStream(openSink(), true);
+
+        context = new LoggerContext();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> console = new OutputStreamAppender<>();
+        console.setContext(context);
+        console.setEncoder(encoder);
+        console.setOutputStream(openSink());
+        console.start();
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(8192);
+        async.setNeverBlock(true);
+        async.setIncludeCallerData(false);
+        async.addAppender(console);
+        async.start();
+
+        logger = context.getLogger(AiService.class);
+        logger.setLevel(Level.DEBUG);
+        logger.setAdditive(false);
+        logger.addAppender(async);
+    }
+
+    private OutputStream openSink() throws IOException {
+        File nullDevice = new File(System.getProperty("os.name").startsWith("Windows") ? "NUL" : "/dev/null");
+        OutputStream out = new FileOutputStream(nullDevice);
+        if (!"slow".equals(sink)) {
+            return out;
+        }
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(SLOW_WRITE_MICROS));
+                out.write(bytes, offset, length);
+            }
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.stop();
+        stdout.close();
+    }
+
+    @Benchmark
+    public void systemOut() {
+        stdout.println("OpenAI Prompt: " + prompt);
+    }
+
+    @Benchmark
+    public void asyncFullPayload() {
+        logger.debug("OpenAI prompt: {}", prompt);
+    }
+
+    @Benchmark
+    public void asyncTruncatedPayload() {
+        logger.debug("OpenAI prompt: {}", AiService.truncateForLog(prompt, PAYLOAD_MAX_CHARS));
+    }
+}
@@ -0,0 +1,55 @@
+package com.flashcards.service;
+
+import com.flashcards.benchmark.BenchmarkData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request routing on large texts: the keyword automaton against the lowercase/contains/regex checks it
+ * replaced, which ran once per routing decision.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromptRouterBenchmark {
+
+    @Param({"2000", "100000"})
+    public int textLength;
+
+    private String text;
+
+    @Setup
+    public void setUp() {
+        text = BenchmarkData.text(textLength);
+    }
+
+    @Benchmark
+    public PromptRouter.Intent classify() {
+        return PromptRouter.classify(text, "Biology", "english");
+    }
+
+    @Benchmark
+    public boolean legacyChecks() {
+        // generateFlashcards, generateCustomFlashcards and generateSimpleFlashcards each lowercased the text
+        String lower = text.toLowerCase();
+        boolean whenToUse = lower.contains("question should be when") || lower.contains("when we can use")
+                || lower.contains("when to use");
+        lower = text.toLowerCase();
+        boolean languageLearning = lower.matches(
+                ".*\\b(in|to) (hindi|spanish|french|german|italian|japanese|chinese|korean|portuguese|russian|arabic)\\b.*")
+                || lower.contains("translate to ") || lower.contains("translation cards") || lower.contains("language learning");
+        String normalized = text.toLowerCase().trim();
+        boolean whenToUseFallback = normalized.contains("question should be when") || normalized.contains("when we can use")
+                || normalized.contains("when to use") || normalized.contains("when should we use")
+                || normalized.contains("particular data structure");
+        String clean = text.toLowerCase().trim();
+        boolean subject = (clean.contains("car") && (clean.contains("brand") || clean.contains("origin") || clean.contains("country")))
+                || clean.contains("country") || clean.contains("nation")
+                || clean.contains("animal") || clean.contains("pet") || clean.contains("wildlife");
+        return whenToUse | languageLearning | whenToUseFallback | subject;
+    }
+}
@@ -0,0 +1,50 @@
+package com.flashcards.service;
+
+import com.flashcards.benchmark.BenchmarkData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering the default prompt around the source text, against the String.format call it replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromptTemplateBenchmark {
+
+    @Param({"2000", "100000"})
+    public int textLength;
+
+    private String text;
+    private PromptTemplate template;
+
+    @Setup
+    public void setUp() {
+        text = BenchmarkData.text(textLength);
+        template = new PromptTemplates().get(PromptTemplates.Kind.DEFAULT, "english");
+    }
+
+    @Benchmark
+    public String render() {
+        return template.render(Integer.toString(10), "english", "Biology", "medium", text);
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        return String.format(
+                "Generate %d flashcards from the following text in %s language. " +
+                "Topic: %s, Difficulty: %s\n\n" +
+                "Text: %s\n\n" +
+                "Please respond with JSON format:\n" +
+                "[\n" +
+                "  {\"question\": \"Question 1\", \"answer\": \"Answer 1\"},\n" +
+                "  {\"question\": \"Question 2\", \"answer\": \"Answer 2\"}\n" +
+                "]\n\n" +
+                "Make questions clear and answers concise. Generate all content in %s language.",
+                10, "english", "Biology", "medium", text, "english");
+    }
+}
@@ -0,0 +1,78 @@
+package com.flashcards.service;
+
+import com.flashcards.benchmark.BenchmarkData;
+import com.flashcards.model.Flashcard;
+import com.flashcards.model.Quiz;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Question building: one question the old way, a ten-question quiz from a shared answer pool, and the
+ * same quiz with distractors picked from the per-deck similarity index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuizBenchmark {
+
+    private static final int QUESTIONS = 10;
+
+    @Param({"100", "2000"})
+    public int deckSize;
+
+    private QuizService quizService;
+    private List<Flashcard> cards;
+    private AnswerSimilarityIndex similarAnswers;
+    private Random random;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        quizService = new QuizService(null, null, null, null, new SimpleMeterRegistry());
+        cards = new ArrayList<>(deckSize);
+        similarAnswers = new AnswerSimilarityIndex();
+        for (int i = 0; i < deckSize; i++) {
+            Flashcard card = new Flashcard("Question " + i, BenchmarkData.answer(i), "deck-1", "user-1");
+            card.setId(Integer.toHexString(0x100000 + i));
+            cards.add(card);
+            similarAnswers.add(card.getBack());
+        }
+        random = new Random(42);
+    }
+
+    @Benchmark
+    public Quiz.QuizQuestion createQuizQuestion() {
+        return quizService.createQuizQuestion(cards.get(next++ % deckSize), cards);
+    }
+
+    @Benchmark
+    public List<Quiz.QuizQuestion> buildQuiz() {
+        return build(new QuizBuilder(cards, random));
+    }
+
+    @Benchmark
+    public List<Quiz.QuizQuestion> buildQuizWithSimilarDistractors() {
+        return build(new QuizBuilder(cards, random, similarAnswers));
+    }
+
+    @Benchmark
+    public List<String> nearestAnswers() {
+        return similarAnswers.nearest(cards.get(next++ % deckSize).getBack(), QuizBuilder.OPTIONS_PER_QUESTION - 1);
+    }
+
+    private List<Quiz.QuizQuestion> build(QuizBuilder builder) {
+        List<Quiz.QuizQuestion> questions = new ArrayList<>(QUESTIONS);
+        for (int i = 0; i < QUESTIONS; i++) {
+            questions.add(builder.buildQuestion(cards.get(next++ % deckSize)));
+        }
+        return questions;
+    }
+}
@@ -0,0 +1,89 @@
+package com.flashcards.service;
+
+import com.flashcards.benchmark.BenchmarkData;
+import com.flashcards.model.Flashcard;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Embedded Lucene card index: applying a batch of card saves, and fuzzy searches over 20k cards.
+ * Deck name completion from the in-memory trie is measured alongside.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchIndexBenchmark {
+
+    private static final int INDEXED_CARDS = 20_000;
+    private static final int BATCH = 500;
+    private static final String[] TERMS = {"photosynthesis", "mitochondria", "hash", "treaty", "osmosis", "enzyme"};
+
+    private Path indexDir;
+    private LuceneCardIndex index;
+    private CompletionTrie trie;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        indexDir = Files.createTempDirectory("card-index-bench");
+        index = new LuceneCardIndex(null);
+        ReflectionTestUtils.setField(index, "enabled", true);
+        index.open(indexDir);
+        for (int i = 0; i < INDEXED_CARDS; i++) {
+            index.onCardSaved(card(i));
+        }
+        index.applyPending();
+
+        trie = new CompletionTrie();
+        for (int i = 0; i < INDEXED_CARDS; i++) {
+            trie.put("deck-" + i, BenchmarkData.text(20 + i % 40).substring(0, 20 + i % 20), i % 500);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        index.stop();
+        try (Stream<Path> files = Files.walk(indexDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int indexCardUpdates() throws IOException {
+        // Rewrites existing cards, so the index size stays constant across iterations
+        for (int i = 0; i < BATCH; i++) {
+            index.onCardSaved(card(next++ % INDEXED_CARDS));
+        }
+        return index.applyPending();
+    }
+
+    @Benchmark
+    public List<String> search() throws IOException {
+        return index.search(TERMS[next++ % TERMS.length], "user-" + (next % 50), null, 0, 20);
+    }
+
+    @Benchmark
+    public int completeDeckName() {
+        return trie.complete(TERMS[next++ % TERMS.length].substring(0, 3), 10).size();
+    }
+
+    private static Flashcard card(int i) {
+        Flashcard card = new Flashcard(BenchmarkData.text(60 + i % 120), BenchmarkData.answer(i),
+                "deck-" + (i % 400), "user-" + (i % 50));
+        card.setId(Integer.toHexString(0x100000 + i));
+        card.setDeckPublic(i % 3 == 0);
+        return card;
+    }
+}
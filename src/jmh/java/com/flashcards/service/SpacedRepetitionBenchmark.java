@@ -0,0 +1,48 @@
+package com.flashcards.service;
+
+import com.flashcards.model.UserProgress;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SM-2 scheduling for one review, without the repository round trip.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpacedRepetitionBenchmark {
+
+    private SpacedRepetitionService service;
+    private UserProgress progress;
+    private int review;
+
+    @Setup
+    public void setUp() {
+        service = new SpacedRepetitionService(null, new SimpleMeterRegistry());
+        progress = new UserProgress("user-1", "card-1", "deck-1");
+        progress.setNextReviewDate(LocalDateTime.now());
+    }
+
+    @Benchmark
+    public LocalDateTime schedule() {
+        // Scores cycle through 0-5 so failed reviews keep resetting the interval
+        service.updateIntervalAndEaseFactor(progress, review++ % 6);
+        return service.calculateNextReviewDate(progress);
+    }
+
+    @Benchmark
+    public boolean isCardDue() {
+        return service.isCardDue(progress);
+    }
+
+    @Benchmark
+    public double cardDifficulty() {
+        return service.getCardDifficulty(progress);
+    }
+}
@@ -0,0 +1,173 @@
+package com.flashcards.loadtest;
+
+import com.flashcards.model.Deck;
+import com.flashcards.model.Flashcard;
+import com.flashcards.model.User;
+import com.flashcards.model.UserProgress;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills a fresh database with users, their decks, cards and study progress. A fixed seed gives the same
+ * shape of data on every run, so results of two runs can be compared.
+ */
+final class DataSeeder {
+
+    static final String PASSWORD = "loadtest-password";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String[][] TOPICS = {
+            {"Cell Biology", "biology", "mitochondria", "ribosome", "membrane", "nucleus", "enzyme", "chloroplast"},
+            {"Spanish Vocabulary", "spanish", "casa", "perro", "libro", "ventana", "cocina", "mercado"},
+            {"World History", "history", "renaissance", "revolution", "empire", "treaty", "dynasty", "republic"},
+            {"Python Basics", "python", "list", "dictionary", "generator", "decorator", "tuple", "comprehension"},
+            {"Organic Chemistry", "chemistry", "alkane", "benzene", "isomer", "ester", "polymer", "catalyst"},
+            {"Music Theory", "music", "interval", "cadence", "scale", "chord", "tempo", "modulation"},
+            {"Human Anatomy", "anatomy", "femur", "ventricle", "cortex", "tendon", "alveoli", "pancreas"},
+            {"Microeconomics", "economics", "elasticity", "monopoly", "utility", "equilibrium", "subsidy", "tariff"}
+    };
+
+    record SeededUser(String email, List<String> deckIds) {
+    }
+
+    record SeededData(List<SeededUser> users, List<String> publicDeckIds, List<String> searchTerms) {
+    }
+
+    private final LoadTestConfig config;
+
+    DataSeeder(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    SeededData seed(String mongoUri, String database) {
+        try (MongoClient client = MongoClients.create(mongoUri)) {
+            MongoTemplate mongoTemplate = new MongoTemplate(client, database);
+            mongoTemplate.getDb().drop();
+            return seed(mongoTemplate);
+        }
+    }
+
+    private SeededData seed(MongoTemplate mongoTemplate) {
+        Random random = new Random(config.seed);
+        LocalDateTime now = LocalDateTime.now();
+        // Hashing is deliberately slow, and every seeded user shares the password anyway
+        String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < config.users; i++) {
+            User user = new User("loadtest-user-" + i + "@example.com", "loadtest" + i, passwordHash, "Load Test User " + i);
+            user.setCreatedAt(now.minusDays(random.nextInt(365)));
+            users.add(user);
+        }
+        insertInBatches(mongoTemplate, users, User.class);
+
+        List<SeededUser> seededUsers = new ArrayList<>();
+        List<String> publicDeckIds = new ArrayList<>();
+        List<String> searchTerms = new ArrayList<>();
+        for (String[] topic : TOPICS) {
+            searchTerms.add(topic[1]);
+        }
+
+        List<Flashcard> cards = new ArrayList<>();
+        List<UserProgress> progress = new ArrayList<>();
+        for (User user : users) {
+            // Decks, cards and progress are owned by the principal name, which is the email
+            String owner = user.getEmail();
+            List<Deck> decks = new ArrayList<>();
+            for (int d = 0; d < config.decksPerUser; d++) {
+                String[] topic = TOPICS[random.nextInt(TOPICS.length)];
+                Deck deck = new Deck(topic[0] + " " + (d + 1), "Flashcards on " + topic[0].toLowerCase(), owner);
+                deck.setPublic(random.nextDouble() < config.publicDeckRatio);
+                deck.setTags(List.of(topic[1], "loadtest"));
+                deck.setCardCount(config.cardsPerDeck);
+                deck.setFlashcardCount(config.cardsPerDeck);
+                deck.setTotalViews(random.nextInt(5000));
+                deck.setCreatedAt(now.minusDays(random.nextInt(180)));
+                deck.setUpdatedAt(deck.getCreatedAt());
+                decks.add(deck);
+            }
+            mongoTemplate.insert(decks, Deck.class);
+
+            List<String> deckIds = new ArrayList<>();
+            for (Deck deck : decks) {
+                deckIds.add(deck.getId());
+                if (deck.isPublic()) {
+                    publicDeckIds.add(deck.getId());
+                }
+                String term = deck.getTags().get(0);
+                String[] topic = topicFor(term);
+                for (int c = 0; c < config.cardsPerDeck; c++) {
+                    String word = topic[2 + random.nextInt(topic.length - 2)];
+                    Flashcard card = new Flashcard(
+                            "In " + topic[0].toLowerCase() + ", what is meant by \"" + word + "\" (" + (c + 1) + ")?",
+                            "A " + word + " is concept " + (c + 1) + " of " + topic[0].toLowerCase()
+                                    + ", usually introduced alongside " + topic[2 + random.nextInt(topic.length - 2)] + ".",
+                            deck.getId(), owner);
+                    card.setDeckPublic(deck.isPublic());
+                    card.setOrderIndex(c);
+                    card.setLanguage("english");
+                    card.setTags(List.of(term));
+                    card.setCreatedAt(deck.getCreatedAt());
+                    card.setUpdatedAt(deck.getCreatedAt());
+                    cards.add(card);
+                }
+            }
+            seededUsers.add(new SeededUser(owner, deckIds));
+
+            if (cards.size() >= BATCH_SIZE) {
+                flushCards(mongoTemplate, cards, progress, random, now);
+            }
+        }
+        flushCards(mongoTemplate, cards, progress, random, now);
+        insertInBatches(mongoTemplate, progress, UserProgress.class);
+
+        return new SeededData(seededUsers, publicDeckIds, searchTerms);
+    }
+
+    /**
+     * Inserts the pending cards and gives their owners a review history, roughly a third of it due now.
+     */
+    private void flushCards(MongoTemplate mongoTemplate, List<Flashcard> cards, List<UserProgress> progress,
+                            Random random, LocalDateTime now) {
+        if (cards.isEmpty()) {
+            return;
+        }
+        mongoTemplate.insert(cards, Flashcard.class);
+        for (Flashcard card : cards) {
+            if (random.nextDouble() < 0.6) {
+                UserProgress entry = new UserProgress(card.getUserId(), card.getId(), card.getDeckId());
+                entry.setCorrectCount(random.nextInt(6));
+                entry.setIncorrectCount(random.nextInt(3));
+                entry.setLastReviewed(now.minusDays(1 + random.nextInt(30)));
+                entry.setNextReviewDate(random.nextDouble() < 0.35
+                        ? now.minusHours(1 + random.nextInt(72))
+                        : now.plusDays(1 + random.nextInt(20)));
+                progress.add(entry);
+            }
+        }
+        cards.clear();
+    }
+
+    private static String[] topicFor(String term) {
+        for (String[] topic : TOPICS) {
+            if (topic[1].equals(term)) {
+                return topic;
+            }
+        }
+        throw new IllegalArgumentException(term);
+    }
+
+    private static <T> void insertInBatches(MongoTemplate mongoTemplate, List<T> documents, Class<T> type) {
+        for (int from = 0; from < documents.size(); from += BATCH_SIZE) {
+            mongoTemplate.insert(documents.subList(from, Math.min(from + BATCH_SIZE, documents.size())), type);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.flashcards.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stand-in for the OpenAI chat completions endpoint. Answers after a configurable latency with as many
+ * flashcards as the prompt asks for, and fails a configurable share of calls with a 500 so the
+ * fallback path gets exercised too. Nothing leaves the machine.
+ */
+final class FakeOpenAiServer implements AutoCloseable {
+
+    static final String PATH = "/v1/chat/completions";
+
+    private static final Pattern CARD_COUNT = Pattern.compile("Generate (\\d+)");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double errorRate;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    FakeOpenAiServer(long latencyMillis, long jitterMillis, double errorRate) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.errorRate = errorRate;
+        // One thread per in-flight call, like a remote API that never queues on our behalf
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-openai-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext(PATH, this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    long errors() {
+        return errors.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            // The health probe only checks that the endpoint answers
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            JsonNode request;
+            try (InputStream body = exchange.getRequestBody()) {
+                request = objectMapper.readTree(body);
+            }
+            requests.incrementAndGet();
+            sleep();
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextDouble() < errorRate) {
+                errors.incrementAndGet();
+                send(exchange, 500, "{\"error\":{\"message\":\"Simulated failure\",\"type\":\"server_error\"}}");
+                return;
+            }
+
+            String prompt = request.path("messages").path(0).path("content").asText();
+            send(exchange, 200, objectMapper.writeValueAsString(completion(prompt)));
+        }
+    }
+
+    private ObjectNode completion(String prompt) throws IOException {
+        Matcher matcher = CARD_COUNT.matcher(prompt);
+        int count = matcher.find() ? Integer.parseInt(matcher.group(1)) : 5;
+
+        ArrayNode cards = objectMapper.createArrayNode();
+        for (int i = 1; i <= count; i++) {
+            cards.addObject()
+                    .put("question", "What does term " + i + " of the passage describe?")
+                    .put("answer", "The concept introduced in sentence " + i + ".");
+        }
+
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("id", "chatcmpl-loadtest-" + requests.get());
+        response.put("object", "chat.completion");
+        response.put("model", "gpt-3.5-turbo");
+        ObjectNode choice = response.putArray("choices").addObject();
+        choice.put("index", 0);
+        choice.put("finish_reason", "stop");
+        choice.putObject("message")
+                .put("role", "assistant")
+                .put("content", objectMapper.writeValueAsString(cards));
+        return response;
+    }
+
+    private void sleep() {
+        long jitter = jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(-jitterMillis, jitterMillis + 1) : 0;
+        long delay = Math.max(0, latencyMillis + jitter);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,226 @@
+package com.flashcards.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flashcards.loadtest.DataSeeder.SeededData;
+import com.flashcards.loadtest.DataSeeder.SeededUser;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop load: each worker plays a random seeded user through a scenario picked by the configured
+ * weights, waits the think time, and starts over. Latencies are only recorded once the warmup is over.
+ */
+final class LoadDriver {
+
+    private static final String[] SORTS = {"newest", "popular", "trending"};
+
+    private static final String AI_TEXT = "The French Revolution began in 1789 with the convening of the Estates-General. "
+            + "The storming of the Bastille on 14 July became its symbol. The National Assembly abolished feudal "
+            + "privileges and adopted the Declaration of the Rights of Man and of the Citizen. The monarchy fell in "
+            + "1792, and the Reign of Terror followed under the Committee of Public Safety until Robespierre's fall "
+            + "in 1794. Napoleon Bonaparte seized power in the coup of 18 Brumaire in 1799.";
+
+    private final LoadTestConfig config;
+    private final String baseUrl;
+    private final SeededData data;
+    private final Map<String, String> tokens;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private final Scenario[] weightedScenarios;
+    private volatile boolean recording;
+    private volatile boolean running = true;
+
+    LoadDriver(LoadTestConfig config, String baseUrl, SeededData data, Map<String, String> tokens) {
+        this.config = config;
+        this.baseUrl = baseUrl;
+        this.data = data;
+        this.tokens = tokens;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        List<Scenario> weighted = new ArrayList<>();
+        config.mix.forEach((scenario, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(scenario);
+            }
+        });
+        if (weighted.isEmpty()) {
+            throw new IllegalArgumentException("Scenario mix has no weight: " + config.mix);
+        }
+        this.weightedScenarios = weighted.toArray(new Scenario[0]);
+    }
+
+    /**
+     * Runs the warmup and the measured period, and returns the stats of every endpoint that was called.
+     */
+    List<EndpointStats> run() throws InterruptedException {
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < config.concurrency; i++) {
+            Thread worker = new Thread(this::work, "loadtest-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+
+        System.out.printf("Warming up for %ds with %d workers...%n", config.warmupSeconds, config.concurrency);
+        TimeUnit.SECONDS.sleep(config.warmupSeconds);
+        stats.clear();
+        recording = true;
+        System.out.printf("Measuring for %ds...%n", config.durationSeconds);
+        TimeUnit.SECONDS.sleep(config.durationSeconds);
+        recording = false;
+        running = false;
+
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        List<EndpointStats> result = new ArrayList<>(stats.values());
+        result.sort((a, b) -> a.endpoint().compareTo(b.endpoint()));
+        return result;
+    }
+
+    private void work() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running) {
+            SeededUser user = data.users().get(random.nextInt(data.users().size()));
+            Scenario scenario = weightedScenarios[random.nextInt(weightedScenarios.length)];
+            try {
+                switch (scenario) {
+                    case STUDY -> study(user, random);
+                    case QUIZ -> quiz(user, random);
+                    case BROWSE -> browse(user, random);
+                    case AI -> generate(user);
+                }
+                if (config.thinkMillis > 0) {
+                    Thread.sleep(config.thinkMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                // Recorded as an error of the failed call; carry on with the next iteration
+            }
+        }
+    }
+
+    private void study(SeededUser user, ThreadLocalRandom random) throws IOException, InterruptedException {
+        String deckId = pick(user.deckIds(), random);
+        JsonNode due = call("GET /api/study/due/{deckId}", user, get("/api/study/due/" + deckId));
+        if (due == null) {
+            return;
+        }
+        int reviewed = 0;
+        for (JsonNode progress : due) {
+            if (reviewed++ == 10) {
+                break;
+            }
+            Map<String, Object> review = new HashMap<>();
+            review.put("flashcardId", progress.path("flashcardId").asText());
+            review.put("deckId", progress.path("deckId").asText());
+            review.put("score", random.nextInt(6));
+            review.put("studyMode", "spaced");
+            call("POST /api/study/session", user, post("/api/study/session", review));
+        }
+    }
+
+    private void quiz(SeededUser user, ThreadLocalRandom random) throws IOException, InterruptedException {
+        String deckId = pick(user.deckIds(), random);
+        JsonNode quiz = call("POST /api/quiz/deck/{deckId}", user, post("/api/quiz/deck/" + deckId + "?questions=10", null));
+        if (quiz == null) {
+            return;
+        }
+        Map<String, Integer> answers = new HashMap<>();
+        for (JsonNode question : quiz.path("questions")) {
+            int options = Math.max(1, Math.max(question.path("options").size(), question.path("optionCardIds").size()));
+            answers.put(question.path("questionId").asText(), random.nextInt(options));
+        }
+        call("POST /api/quiz/{quizId}/submit", user, post("/api/quiz/" + quiz.path("id").asText() + "/submit", answers));
+    }
+
+    private void browse(SeededUser user, ThreadLocalRandom random) throws IOException, InterruptedException {
+        String deckId;
+        if (random.nextInt(5) == 0) {
+            String term = pick(data.searchTerms(), random);
+            JsonNode decks = call("GET /api/decks/search", user,
+                    get("/api/decks/search?q=" + URLEncoder.encode(term, StandardCharsets.UTF_8)));
+            if (decks == null || decks.isEmpty()) {
+                return;
+            }
+            deckId = decks.path(random.nextInt(decks.size())).path("id").asText();
+        } else {
+            JsonNode page = call("GET /api/decks/public", user, get("/api/decks/public?sort=" + SORTS[random.nextInt(SORTS.length)]));
+            if (page == null || page.path("decks").isEmpty()) {
+                return;
+            }
+            JsonNode decks = page.path("decks");
+            deckId = decks.path(random.nextInt(decks.size())).path("id").asText();
+        }
+        call("GET /api/decks/{deckId}", user, get("/api/decks/" + deckId));
+        call("GET /api/flashcards/deck/{deckId}", user, get("/api/flashcards/deck/" + deckId));
+    }
+
+    private void generate(SeededUser user) throws IOException, InterruptedException {
+        Map<String, Object> request = new HashMap<>();
+        request.put("text", AI_TEXT);
+        request.put("numberOfCards", 5);
+        request.put("contentType", "text");
+        call("POST /api/ai/generate", user, post("/api/ai/generate", request));
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+    }
+
+    private HttpRequest.Builder post(String path, Object body) throws IOException {
+        HttpRequest.BodyPublisher publisher = body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(publisher);
+    }
+
+    /**
+     * Sends the request as the given user and records it under {@code endpoint}. Returns the parsed body
+     * of a 2xx response, or null for any other status.
+     */
+    private JsonNode call(String endpoint, SeededUser user, HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpRequest built = request
+                .header("Authorization", "Bearer " + tokens.get(user.email()))
+                .timeout(Duration.ofSeconds(60))
+                .build();
+        long started = System.nanoTime();
+        boolean success = false;
+        try {
+            HttpResponse<byte[]> response = httpClient.send(built, HttpResponse.BodyHandlers.ofByteArray());
+            success = response.statusCode() / 100 == 2;
+            return success ? objectMapper.readTree(response.body()) : null;
+        } finally {
+            if (recording) {
+                stats.computeIfAbsent(endpoint, EndpointStats::new).record(System.nanoTime() - started, success);
+            }
+        }
+    }
+
+    private static <T> T pick(List<T> values, ThreadLocalRandom random) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
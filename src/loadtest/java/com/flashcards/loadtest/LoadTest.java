@@ -0,0 +1,146 @@
+package com.flashcards.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.flashcards.FlashcardsAiApplication;
+import com.flashcards.loadtest.DataSeeder.SeededData;
+import com.flashcards.loadtest.DataSeeder.SeededUser;
+import com.flashcards.security.JwtUtil;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test entry point: starts MongoDB (embedded unless an external one is given), seeds it, starts the
+ * fake OpenAI server and the application, drives the configured scenario mix against it and reports
+ * throughput and latency percentiles per endpoint. Everything runs on this machine.
+ *
+ * <p>Run with {@code mvn -Ploadtest verify}, see TESTING.md for the options.
+ */
+public final class LoadTest {
+
+    static final String DATABASE = "flashcards_loadtest";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        TransitionWalker.ReachedState<RunningMongodProcess> embeddedMongo = null;
+        ConfigurableApplicationContext context = null;
+        try (FakeOpenAiServer openAi = new FakeOpenAiServer(config.aiLatencyMillis, config.aiLatencyJitterMillis, config.aiErrorRate)) {
+            String mongoUri = config.mongoUri;
+            if (mongoUri == null) {
+                // The first run downloads the MongoDB binary into ~/.embedmongo; later runs work offline
+                System.out.println("Starting embedded MongoDB...");
+                embeddedMongo = Mongod.instance().start(Version.Main.V7_0);
+                var address = embeddedMongo.current().getServerAddress();
+                mongoUri = "mongodb://" + address.getHost() + ":" + address.getPort();
+            }
+
+            System.out.printf("Seeding %d users x %d decks x %d cards...%n",
+                    config.users, config.decksPerUser, config.cardsPerDeck);
+            long seedStarted = System.nanoTime();
+            SeededData data = new DataSeeder(config).seed(mongoUri, DATABASE);
+            System.out.printf("Seeded in %ds%n", (System.nanoTime() - seedStarted) / 1_000_000_000L);
+
+            String baseUrl;
+            JwtUtil jwtUtil;
+            if (config.baseUrl == null) {
+                // Started after seeding, so the startup jobs (index builds, backfills) see the data
+                context = startApplication(config, mongoUri, openAi.url());
+                baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+                jwtUtil = context.getBean(JwtUtil.class);
+            } else {
+                baseUrl = config.baseUrl;
+                jwtUtil = new JwtUtil();
+                ReflectionTestUtils.setField(jwtUtil, "secret", config.jwtSecret);
+                ReflectionTestUtils.setField(jwtUtil, "expiration", 86_400_000L);
+            }
+
+            Map<String, String> tokens = new HashMap<>();
+            for (SeededUser user : data.users()) {
+                tokens.put(user.email(), jwtUtil.generateToken(user.email(), user.email()));
+            }
+
+            List<EndpointStats> stats = new LoadDriver(config, baseUrl, data, tokens).run();
+            report(config, stats, openAi);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            if (embeddedMongo != null) {
+                embeddedMongo.close();
+            }
+        }
+        // Leftover non-daemon threads of the app or the driver must not keep the build waiting
+        System.exit(0);
+    }
+
+    private static ConfigurableApplicationContext startApplication(LoadTestConfig config, String mongoUri, String openAiUrl) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.data.mongodb.uri=" + mongoUri + "/" + DATABASE,
+                "--spring.data.mongodb.database=" + DATABASE,
+                "--openai.api.url=" + openAiUrl,
+                "--openai.api.key=loadtest",
+                "--autocomplete.snapshot-path=" + config.reportDir.resolve("autocomplete.snapshot"),
+                "--search.lucene.path=" + config.reportDir.resolve("search-index"),
+                "--logging.level.com.flashcards=WARN",
+                "--logging.level.org.springframework.security=WARN"));
+        // Given last, so they win over the defaults above
+        args.addAll(config.appArgs);
+        System.out.println("Starting application...");
+        return new SpringApplication(FlashcardsAiApplication.class).run(args.toArray(new String[0]));
+    }
+
+    private static void report(LoadTestConfig config, List<EndpointStats> stats, FakeOpenAiServer openAi) throws Exception {
+        double seconds = config.durationSeconds;
+        long totalRequests = 0;
+        long totalErrors = 0;
+
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%n%-36s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        for (EndpointStats endpoint : stats) {
+            totalRequests += endpoint.requests();
+            totalErrors += endpoint.errors();
+            table.append(String.format("%-36s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint.endpoint(), endpoint.requests(), endpoint.errors(), endpoint.requests() / seconds,
+                    endpoint.percentileMillis(50), endpoint.percentileMillis(90), endpoint.percentileMillis(99),
+                    endpoint.maxMillis()));
+            endpoints.add(endpoint.toMap(seconds));
+        }
+        table.append(String.format("%-36s %9d %7d %9.1f%n", "total", totalRequests, totalErrors, totalRequests / seconds));
+        table.append(String.format("fake OpenAI: %d calls, %d simulated failures%n", openAi.requests(), openAi.errors()));
+        System.out.print(table);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("finishedAt", Instant.now().toString());
+        report.put("config", config.toMap());
+        report.put("totalRequests", totalRequests);
+        report.put("totalErrors", totalErrors);
+        report.put("throughputPerSecond", Math.round(totalRequests / seconds * 100) / 100.0);
+        report.put("endpoints", endpoints);
+        report.put("fakeOpenAi", Map.of("requests", openAi.requests(), "errors", openAi.errors()));
+
+        Files.createDirectories(config.reportDir);
+        Path file = config.reportDir.resolve("loadtest-report.json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        System.out.println("Report written to " + file);
+    }
+}
@@ -0,0 +1,120 @@
+package com.flashcards.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test settings. Options are passed as {@code --loadtest.<name>=<value>}; every other argument is
+ * handed to the application, so its properties can be overridden the usual Spring way.
+ */
+final class LoadTestConfig {
+
+    private static final String PREFIX = "--loadtest.";
+
+    // Seed data
+    final int users;
+    final int decksPerUser;
+    final int cardsPerDeck;
+    final double publicDeckRatio;
+    final long seed;
+
+    // Load shape
+    final int concurrency;
+    final int warmupSeconds;
+    final int durationSeconds;
+    final long thinkMillis;
+    final Map<Scenario, Integer> mix;
+
+    // Fake OpenAI
+    final long aiLatencyMillis;
+    final long aiLatencyJitterMillis;
+    final double aiErrorRate;
+
+    // Where to run: an external MongoDB and/or an already running app instead of the embedded ones
+    final String mongoUri;
+    final String baseUrl;
+    final String jwtSecret;
+
+    final Path reportDir;
+    final List<String> appArgs;
+
+    private LoadTestConfig(Map<String, String> options, List<String> appArgs) {
+        this.users = Integer.parseInt(options.getOrDefault("users", "200"));
+        this.decksPerUser = Integer.parseInt(options.getOrDefault("decks-per-user", "5"));
+        this.cardsPerDeck = Integer.parseInt(options.getOrDefault("cards-per-deck", "50"));
+        this.publicDeckRatio = Double.parseDouble(options.getOrDefault("public-deck-ratio", "0.3"));
+        this.seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        this.concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        this.warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "20"));
+        this.durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        this.thinkMillis = Long.parseLong(options.getOrDefault("think-ms", "0"));
+        this.mix = parseMix(options.getOrDefault("mix", "study:40,quiz:20,browse:35,ai:5"));
+        this.aiLatencyMillis = Long.parseLong(options.getOrDefault("ai.latency-ms", "1500"));
+        this.aiLatencyJitterMillis = Long.parseLong(options.getOrDefault("ai.jitter-ms", "500"));
+        this.aiErrorRate = Double.parseDouble(options.getOrDefault("ai.error-rate", "0"));
+        this.mongoUri = options.get("mongo-uri");
+        this.baseUrl = options.get("base-url");
+        this.jwtSecret = options.get("jwt-secret");
+        this.reportDir = Paths.get(options.getOrDefault("report-dir", "target/loadtest"));
+        this.appArgs = appArgs;
+        if (baseUrl != null && (mongoUri == null || jwtSecret == null)) {
+            throw new IllegalArgumentException("--loadtest.base-url needs --loadtest.mongo-uri and --loadtest.jwt-secret "
+                    + "of that instance, to seed its database and sign tokens its users are accepted with");
+        }
+    }
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.isBlank()) {
+                continue;
+            }
+            if (!arg.startsWith(PREFIX)) {
+                appArgs.add(arg);
+                continue;
+            }
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Expected " + PREFIX + "<name>=<value>, got " + arg);
+            }
+            options.put(arg.substring(PREFIX.length(), equals), arg.substring(equals + 1));
+        }
+        return new LoadTestConfig(options, appArgs);
+    }
+
+    private static Map<Scenario, Integer> parseMix(String mix) {
+        Map<Scenario, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] nameAndWeight = part.trim().split(":");
+            weights.put(Scenario.valueOf(nameAndWeight[0].trim().toUpperCase()), Integer.parseInt(nameAndWeight[1].trim()));
+        }
+        return weights;
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("users", users);
+        map.put("decksPerUser", decksPerUser);
+        map.put("cardsPerDeck", cardsPerDeck);
+        map.put("publicDeckRatio", publicDeckRatio);
+        map.put("seed", seed);
+        map.put("concurrency", concurrency);
+        map.put("warmupSeconds", warmupSeconds);
+        map.put("durationSeconds", durationSeconds);
+        map.put("thinkMillis", thinkMillis);
+        map.put("mix", mix);
+        map.put("aiLatencyMillis", aiLatencyMillis);
+        map.put("aiLatencyJitterMillis", aiLatencyJitterMillis);
+        map.put("aiErrorRate", aiErrorRate);
+        map.put("mongo", mongoUri != null ? "external" : "embedded");
+        map.put("app", baseUrl != null ? baseUrl : "in-process");
+        map.put("appArgs", appArgs);
+        return map;
+    }
+}
@@ -0,0 +1,15 @@
+package com.flashcards.loadtest;
+
+/**
+ * What one virtual user does in one iteration. See {@link LoadDriver} for the requests each makes.
+ */
+enum Scenario {
+    /** Due cards for one of the user's decks, then a review recorded for up to ten of them. */
+    STUDY,
+    /** A ten-question quiz on one of the user's decks, answered and submitted. */
+    QUIZ,
+    /** A page of public decks, one deck and its cards; every fifth browse is a search instead of a page. */
+    BROWSE,
+    /** Flashcards generated from a few paragraphs of text, served by the fake OpenAI server. */
+    AI
+}
@@ -0,0 +1,231 @@
+package com.flashcards.service;
+
+import com.flashcards.model.Deck;
+import com.flashcards.model.JobCheckpoint;
+import com.flashcards.model.User;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Deletes a user with a few thousand documents from a real MongoDB: embedded, or the one given with
+ * {@code -Dloadtest.mongo-uri}. The job is stopped part way through a stage, the way a restart stops
+ * it, and a new instance resumes it from the checkpoint.
+ *
+ * <p>Run with {@code mvn -Ploadtest test -Dtest=UserDeletionJobMongoTest}, see TESTING.md.
+ */
+class UserDeletionJobMongoTest {
+
+    private static final String DATABASE = "flashcards_deletion_test";
+    private static final int BATCH_SIZE = 200;
+
+    private static TransitionWalker.ReachedState<RunningMongodProcess> embeddedMongo;
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+
+    private DeckForkService deckForkService;
+    private User owner;
+    private User other;
+    // Documents seeded for the owner, per collection
+    private final Map<String, Integer> owned = new LinkedHashMap<>();
+
+    @BeforeAll
+    static void startMongo() {
+        String uri = System.getProperty("loadtest.mongo-uri");
+        if (uri == null) {
+            // The first run downloads the MongoDB binary into ~/.embedmongo; later runs work offline
+            embeddedMongo = Mongod.instance().start(Version.Main.V7_0);
+            var address = embeddedMongo.current().getServerAddress();
+            uri = "mongodb://" + address.getHost() + ":" + address.getPort();
+        }
+        client = MongoClients.create(uri);
+        mongoTemplate = new MongoTemplate(client, DATABASE);
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        if (client != null) {
+            client.getDatabase(DATABASE).drop();
+            client.close();
+        }
+        if (embeddedMongo != null) {
+            embeddedMongo.close();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        client.getDatabase(DATABASE).drop();
+        deckForkService = mock(DeckForkService.class);
+
+        owner = mongoTemplate.insert(new User("owner@example.com", "owner", "hash", "Owner"));
+        other = mongoTemplate.insert(new User("other@example.com", "other", "hash", "Other"));
+
+        List<String> deckIds = seed("decks", 30, i -> new Document());
+        seed("flashcards", 3000, i -> new Document("deckId", deckIds.get(i % deckIds.size())).append("question", "Q" + i));
+        seed("user_progress", 1500, i -> new Document("flashcardId", "card-" + i));
+        seed("quizzes", 450, i -> new Document("deckId", deckIds.get(i % deckIds.size())));
+        seed("user_activities", 2000, i -> new Document("type", "REVIEW"));
+        seed("user_preferences", 1, i -> new Document("theme", "dark"));
+        seed("feedback", 5, i -> new Document("message", "Feedback " + i));
+        mongoTemplate.insert(List.of(new Document("email", owner.getEmail()).append("token", "t1"),
+                new Document("email", other.getEmail()).append("token", "t2")), "password_reset_tokens");
+        owned.put("password_reset_tokens", 1);
+        owned.put("users", 1);
+
+        // Someone else's data, including a fork of one of the owner's decks
+        mongoTemplate.insert(List.of(
+                new Document("userId", other.getId()).append("name", "Own deck"),
+                new Document("userId", other.getId()).append("baseDeckId", deckIds.get(0)).append("name", "Fork")), "decks");
+        mongoTemplate.insert(List.of(new Document("userId", other.getId()).append("question", "Kept")), "flashcards");
+    }
+
+    private interface Seed {
+        Document document(int i);
+    }
+
+    /**
+     * Inserts {@code count} documents owned by the owner and returns their ids.
+     */
+    private List<String> seed(String collection, int count, Seed seed) {
+        List<Document> documents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            documents.add(seed.document(i).append("_id", new ObjectId()).append("userId", owner.getId()));
+        }
+        mongoTemplate.insert(documents, collection);
+        owned.put(collection, count);
+        List<String> ids = new ArrayList<>(count);
+        for (Document document : documents) {
+            ids.add(document.getObjectId("_id").toHexString());
+        }
+        return ids;
+    }
+
+    private UserDeletionJob newJob(long batchPauseMillis) {
+        UserDeletionJob job = new UserDeletionJob(mongoTemplate, deckForkService, mock(DistractorIndexService.class),
+                mock(SearchService.class), mock(AutocompleteService.class), mock(PublicCatalogService.class));
+        ReflectionTestUtils.setField(job, "batchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(job, "batchPauseMillis", batchPauseMillis);
+        job.start();
+        return job;
+    }
+
+    private JobCheckpoint checkpoint() {
+        return mongoTemplate.findById(UserDeletionJob.JOB_PREFIX + owner.getId(), JobCheckpoint.class);
+    }
+
+    private long count(String collection, String userId) {
+        return mongoTemplate.count(new Query(Criteria.where("userId").is(userId)), collection);
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Stops the job like a shutdown does and waits for its thread to finish the batch it is on.
+     */
+    private static void kill(UserDeletionJob job) throws InterruptedException {
+        job.stop();
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(job, "executor");
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testDeletion_KilledMidStage_ResumesFromCheckpoint() throws InterruptedException {
+        UserDeletionJob first = newJob(20);
+        first.submit(owner.getId());
+        // Stopped between two batches of the flashcards stage
+        awaitCondition(() -> {
+            JobCheckpoint checkpoint = checkpoint();
+            return "flashcards".equals(checkpoint.getStage()) && checkpoint.getItemsDone() >= 2 * BATCH_SIZE;
+        });
+        kill(first);
+
+        JobCheckpoint interrupted = checkpoint();
+        assertEquals(UserDeletionJob.STATUS_RUNNING, interrupted.getStatus());
+        assertEquals("flashcards", interrupted.getStage());
+        // Whole batches only, each one checkpointed
+        assertEquals(0, interrupted.getItemsDone() % BATCH_SIZE);
+        long cardsLeft = count("flashcards", owner.getId());
+        assertTrue(cardsLeft > 0, "flashcards stage finished before the job was stopped");
+        assertEquals(owned.get("flashcards") - interrupted.getItemsDone(), cardsLeft);
+        assertEquals((long) owned.get("decks"), count("decks", owner.getId()));
+        assertFalse(mongoTemplate.findById(owner.getId(), User.class).isEnabled());
+
+        // A new instance, as after a restart, picks the deletion up on start
+        newJob(0);
+        awaitCondition(() -> UserDeletionJob.STATUS_DONE.equals(checkpoint().getStatus()));
+
+        JobCheckpoint done = checkpoint();
+        assertNull(done.getStage());
+        assertEquals(owned.values().stream().mapToLong(Integer::longValue).sum(), done.getItemsDone());
+        for (String collection : owned.keySet()) {
+            if (!collection.equals("users") && !collection.equals("password_reset_tokens")) {
+                assertEquals(0, count(collection, owner.getId()), collection);
+            }
+        }
+        // Stored with an ObjectId _id; the job deletes it by its String id
+        assertNull(mongoTemplate.findById(owner.getId(), User.class));
+        assertEquals(0, mongoTemplate.count(new Query(Criteria.where("email").is(owner.getEmail())), "password_reset_tokens"));
+
+        assertNotNull(mongoTemplate.findById(other.getId(), User.class));
+        assertEquals(2, count("decks", other.getId()));
+        assertEquals(1, count("flashcards", other.getId()));
+        assertEquals(1, mongoTemplate.count(new Query(), "password_reset_tokens"));
+        verify(deckForkService).materialize(argThat((Deck fork) -> "Fork".equals(fork.getName())));
+    }
+
+    @Test
+    void testDeletion_ResumedAtUsersStage_DeletesUserByObjectId() throws InterruptedException {
+        // Everything else already gone, the checkpoint left at the last stage
+        for (String collection : owned.keySet()) {
+            if (!collection.equals("users")) {
+                mongoTemplate.remove(new Query(Criteria.where("userId").is(owner.getId())), collection);
+            }
+        }
+        JobCheckpoint checkpoint = new JobCheckpoint(UserDeletionJob.JOB_PREFIX + owner.getId());
+        checkpoint.setStatus(UserDeletionJob.STATUS_RUNNING);
+        checkpoint.setStage("users");
+        mongoTemplate.save(checkpoint);
+        assertTrue(client.getDatabase(DATABASE).getCollection("users")
+                .find(new Document("_id", new ObjectId(owner.getId()))).iterator().hasNext());
+
+        newJob(0);
+        awaitCondition(() -> UserDeletionJob.STATUS_DONE.equals(checkpoint().getStatus()));
+
+        assertEquals(1, checkpoint().getItemsDone());
+        assertNull(mongoTemplate.findById(owner.getId(), User.class));
+        assertNotNull(mongoTemplate.findById(other.getId(), User.class));
+    }
+}
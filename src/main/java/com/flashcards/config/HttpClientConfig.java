@@ -1,6 +1,12 @@
 package com.flashcards.config;
 
+import com.flashcards.security.RequestIdFilter;
+import com.flashcards.service.CircuitBreaker;
+import com.flashcards.service.RetryBudget;
 import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -16,6 +22,37 @@ public class HttpClientConfig {
                 .readTimeout(30, TimeUnit.SECONDS)
                 .writeTimeout(30, TimeUnit.SECONDS)
                 .retryOnConnectionFailure(true)
+                .addInterceptor(chain -> {
+                    // Lets upstream logs be matched to ours; background threads have no request id
+                    String requestId = MDC.get(RequestIdFilter.MDC_KEY);
+                    Request request = chain.request();
+                    if (requestId != null && request.header(RequestIdFilter.HEADER) == null) {
+                        request = request.newBuilder().header(RequestIdFilter.HEADER, requestId).build();
+                    }
+                    return chain.proceed(request);
+                })
                 .build();
     }
+
+    /**
+     * Trips when half the recent OpenAI calls failed or took longer than the slow-call threshold, so
+     * requests stop waiting out the timeouts above while the API is down.
+     */
+    @Bean
+    public CircuitBreaker openAiCircuitBreaker(@Value("${ai.openai.breaker.window-size:20}") int windowSize,
+                                               @Value("${ai.openai.breaker.minimum-calls:10}") int minimumCalls,
+                                               @Value("${ai.openai.breaker.failure-rate-percent:50}") int failureRatePercent,
+                                               @Value("${ai.openai.breaker.slow-call-ms:20000}") long slowCallMs,
+                                               @Value("${ai.openai.breaker.slow-call-rate-percent:50}") int slowCallRatePercent,
+                                               @Value("${ai.openai.breaker.open-ms:30000}") long openMs,
+                                               @Value("${ai.openai.breaker.half-open-calls:3}") int halfOpenCalls) {
+        return new CircuitBreaker(windowSize, minimumCalls, failureRatePercent, slowCallMs, slowCallRatePercent,
+                openMs, halfOpenCalls);
+    }
+
+    @Bean
+    public RetryBudget openAiRetryBudget(@Value("${ai.openai.retry.budget-ratio:0.2}") double ratio,
+                                         @Value("${ai.openai.retry.budget-max:10}") int max) {
+        return new RetryBudget(ratio, max);
+    }
 }
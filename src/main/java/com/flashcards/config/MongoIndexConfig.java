@@ -0,0 +1,197 @@
+package com.flashcards.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+
+import java.time.Duration;
+
+/**
+ * Creates the indexes the paged/keyset queries rely on. Auto index creation is off in Spring Boot,
+ * so they are ensured explicitly once the application is up.
+ */
+@Configuration
+public class MongoIndexConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexConfig.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${activity.retention.days:365}")
+    private int activityRetentionDays;
+
+    public MongoIndexConfig(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        // Each group on its own, so one conflicting or failing index doesn't leave the rest missing
+        ensure("user activity", this::ensureUserActivityIndexes, false);
+        ensure("email outbox", this::ensureEmailOutboxIndexes, false);
+        ensure("flashcard", this::ensureFlashcardIndexes, false);
+        ensure("quiz", this::ensureQuizIndexes, false);
+        // $text queries fail outright without these, the others only get slower
+        ensure("search", this::ensureSearchIndexes, true);
+        ensure("catalog", this::ensureCatalogIndexes, false);
+        ensure("dashboard", this::ensureDashboardIndexes, false);
+        ensure("owner", this::ensureOwnerIndexes, false);
+        ensure("admin listing", this::ensureAdminListingIndexes, false);
+    }
+
+    private void ensure(String group, Runnable indexes, boolean required) {
+        try {
+            indexes.run();
+        } catch (Exception e) {
+            // Don't keep the app from starting over an index
+            if (required) {
+                logger.error("Could not ensure MongoDB {} indexes, queries that need them will fail", group, e);
+            } else {
+                logger.warn("Could not ensure MongoDB {} indexes: {}", group, e.getMessage());
+            }
+        }
+    }
+
+    private void ensureUserActivityIndexes() {
+        IndexOperations ops = mongoTemplate.indexOps("user_activities");
+
+        // Serves recent activity and keyset pages: equality on userId, then (createdAt, _id) descending
+        ops.ensureIndex(new Index()
+                .on("userId", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("userId_createdAt_id"));
+
+        // Retention policy: Mongo's TTL monitor drops activity older than the configured window
+        if (activityRetentionDays > 0) {
+            ops.ensureIndex(new Index()
+                    .on("createdAt", Sort.Direction.ASC)
+                    .expire(Duration.ofDays(activityRetentionDays))
+                    .named("createdAt_ttl"));
+        }
+    }
+
+    private void ensureFlashcardIndexes() {
+        // Deck listing, quiz answer pools and $sample all filter on deckId
+        mongoTemplate.indexOps("flashcards").ensureIndex(new Index()
+                .on("deckId", Sort.Direction.ASC)
+                .on("orderIndex", Sort.Direction.ASC)
+                .named("deckId_orderIndex"));
+    }
+
+    private void ensureQuizIndexes() {
+        // Quiz history pages, per user and per user+deck, newest first
+        IndexOperations ops = mongoTemplate.indexOps("quizzes");
+        ops.ensureIndex(new Index()
+                .on("userId", Sort.Direction.ASC)
+                .on("startedAt", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("userId_startedAt_id"));
+        ops.ensureIndex(new Index()
+                .on("deckId", Sort.Direction.ASC)
+                .on("userId", Sort.Direction.ASC)
+                .on("startedAt", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("deckId_userId_startedAt_id"));
+        // Quizzes started since the last popularity run
+        ops.ensureIndex(new Index()
+                .on("startedAt", Sort.Direction.ASC)
+                .named("startedAt"));
+    }
+
+    private void ensureCatalogIndexes() {
+        // Public catalog pages, newest, most popular and trending first
+        IndexOperations ops = mongoTemplate.indexOps("decks");
+        ops.ensureIndex(new Index()
+                .on("isPublic", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("isPublic_createdAt_id"));
+        ops.ensureIndex(new Index()
+                .on("isPublic", Sort.Direction.ASC)
+                .on("popularityScore", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("isPublic_popularityScore_id"));
+        ops.ensureIndex(new Index()
+                .on("isPublic", Sort.Direction.ASC)
+                .on("trendingScore", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("isPublic_trendingScore_id"));
+        // Duplicates created since the last popularity run
+        ops.ensureIndex(new Index()
+                .on("createdAt", Sort.Direction.ASC)
+                .on("copiedFromDeckId", Sort.Direction.ASC)
+                .named("createdAt_copiedFromDeckId"));
+        // Forks to materialize when their base deck is deleted
+        ops.ensureIndex(new Index()
+                .on("baseDeckId", Sort.Direction.ASC)
+                .sparse()
+                .named("baseDeckId"));
+        mongoTemplate.indexOps("user_progress").ensureIndex(new Index()
+                .on("lastReviewed", Sort.Direction.ASC)
+                .named("lastReviewed"));
+    }
+
+    private void ensureDashboardIndexes() {
+        // Active user counts by last login, pending feedback count
+        mongoTemplate.indexOps("users").ensureIndex(new Index()
+                .on("lastLoginAt", Sort.Direction.ASC)
+                .named("lastLoginAt"));
+        mongoTemplate.indexOps("feedback").ensureIndex(new Index()
+                .on("status", Sort.Direction.ASC)
+                .named("status"));
+    }
+
+    private void ensureOwnerIndexes() {
+        // User listings and user deletion select by owner (quizzes and activity are covered above)
+        for (String collection : new String[] {"decks", "flashcards", "user_progress", "user_preferences", "feedback"}) {
+            mongoTemplate.indexOps(collection).ensureIndex(new Index()
+                    .on("userId", Sort.Direction.ASC)
+                    .named("userId"));
+        }
+    }
+
+    private void ensureAdminListingIndexes() {
+        // Admin listings and exports page by (createdAt, _id), newest first unless asked otherwise
+        for (String collection : new String[] {"users", "decks", "feedback"}) {
+            mongoTemplate.indexOps(collection).ensureIndex(new Index()
+                    .on("createdAt", Sort.Direction.DESC)
+                    .on("_id", Sort.Direction.DESC)
+                    .named("createdAt_id"));
+        }
+    }
+
+    private void ensureSearchIndexes() {
+        // One text index per collection; weights rank name/question matches above description/answer
+        mongoTemplate.indexOps("decks").ensureIndex(new TextIndexDefinition.TextIndexDefinitionBuilder()
+                .onField("name", 10F)
+                .onField("tags", 5F)
+                .onField("description", 2F)
+                .withLanguageOverride("searchLanguage")
+                .named("deck_text")
+                .build());
+        mongoTemplate.indexOps("flashcards").ensureIndex(new TextIndexDefinition.TextIndexDefinitionBuilder()
+                .onField("question", 5F)
+                .onField("tags", 3F)
+                .onField("answer", 2F)
+                .withLanguageOverride("searchLanguage")
+                .named("flashcard_text")
+                .build());
+    }
+
+    private void ensureEmailOutboxIndexes() {
+        // Outbox workers claim the oldest due message per status
+        mongoTemplate.indexOps("email_outbox").ensureIndex(new Index()
+                .on("status", Sort.Direction.ASC)
+                .on("nextAttemptAt", Sort.Direction.ASC)
+                .named("status_nextAttemptAt"));
+    }
+}
@@ -0,0 +1,140 @@
+package com.flashcards.config;
+
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Tracks MongoDB connection pool usage from driver events, per server, so pool saturation can be
+ * reported without asking the server. One saturated server (usually the primary) counts as
+ * saturated even when the pools of the other servers are idle.
+ */
+@Configuration
+public class MongoPoolMonitor implements ConnectionPoolListener {
+
+    private static final class Pool {
+        final int maxSize;
+        final AtomicInteger open = new AtomicInteger();
+        final AtomicInteger inUse = new AtomicInteger();
+        final AtomicInteger waiting = new AtomicInteger();
+
+        Pool(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        boolean isSaturated() {
+            return maxSize > 0 && inUse.get() >= maxSize && waiting.get() > 0;
+        }
+    }
+
+    private final ConcurrentHashMap<ServerId, Pool> pools = new ConcurrentHashMap<>();
+    private final AtomicInteger checkOutFailures = new AtomicInteger();
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoPoolMonitorCustomizer() {
+        return builder -> builder.applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(this));
+    }
+
+    @Override
+    public void connectionPoolCreated(ConnectionPoolCreatedEvent event) {
+        pools.put(event.getServerId(), new Pool(event.getSettings().getMaxSize()));
+    }
+
+    @Override
+    public void connectionPoolClosed(ConnectionPoolClosedEvent event) {
+        pools.remove(event.getServerId());
+    }
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        update(event.getConnectionId().getServerId(), pool -> pool.open.incrementAndGet());
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        update(event.getConnectionId().getServerId(), pool -> pool.open.decrementAndGet());
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        update(event.getServerId(), pool -> pool.waiting.incrementAndGet());
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        update(event.getConnectionId().getServerId(), pool -> {
+            pool.waiting.decrementAndGet();
+            pool.inUse.incrementAndGet();
+        });
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        update(event.getServerId(), pool -> pool.waiting.decrementAndGet());
+        checkOutFailures.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        update(event.getConnectionId().getServerId(), pool -> pool.inUse.decrementAndGet());
+    }
+
+    private void update(ServerId serverId, Consumer<Pool> change) {
+        // Events of a pool that was already closed are dropped along with it
+        Pool pool = pools.get(serverId);
+        if (pool != null) {
+            change.accept(pool);
+        }
+    }
+
+    /**
+     * True when, on any server, every connection is checked out and requests are queueing for one.
+     */
+    public boolean isSaturated() {
+        for (Pool pool : pools.values()) {
+            if (pool.isSaturated()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        List<Map<String, Object>> servers = new ArrayList<>();
+        for (Map.Entry<ServerId, Pool> entry : pools.entrySet()) {
+            Pool pool = entry.getValue();
+            Map<String, Object> server = new HashMap<>();
+            server.put("address", entry.getKey().getAddress().toString());
+            server.put("maxSize", pool.maxSize);
+            server.put("open", pool.open.get());
+            server.put("inUse", pool.inUse.get());
+            server.put("waiting", pool.waiting.get());
+            server.put("utilization", pool.maxSize > 0 ? (double) pool.inUse.get() / pool.maxSize : 0.0);
+            server.put("saturated", pool.isSaturated());
+            servers.add(server);
+        }
+        stats.put("servers", servers);
+        stats.put("checkOutFailures", checkOutFailures.get());
+        stats.put("saturated", isSaturated());
+        return stats;
+    }
+}
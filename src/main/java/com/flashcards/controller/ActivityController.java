@@ -0,0 +1,46 @@
+package com.flashcards.controller;
+
+import com.flashcards.model.UserActivity;
+import com.flashcards.service.UserActivityService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/activities")
+@CrossOrigin(origins = "*")
+public class ActivityController {
+
+    private final UserActivityService userActivityService;
+
+    public ActivityController(UserActivityService userActivityService) {
+        this.userActivityService = userActivityService;
+    }
+
+    @GetMapping("/recent")
+    public ResponseEntity<List<UserActivity>> getRecentActivity(@RequestParam(defaultValue = "10") int limit,
+                                                               Authentication authentication) {
+        if (authentication == null) {
+            return ResponseEntity.status(401).build();
+        }
+        String userId = authentication.getName();
+        return ResponseEntity.ok(userActivityService.getUserRecentActivity(userId, limit));
+    }
+
+    @GetMapping("/older")
+    public ResponseEntity<List<UserActivity>> getOlderActivity(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @RequestParam String lastId,
+            @RequestParam(defaultValue = "10") int limit,
+            Authentication authentication) {
+        if (authentication == null) {
+            return ResponseEntity.status(401).build();
+        }
+        String userId = authentication.getName();
+        return ResponseEntity.ok(userActivityService.getUserActivityBefore(userId, before, lastId, limit));
+    }
+}
@@ -1,14 +1,16 @@
 package com.flashcards.controller;
 
+import com.flashcards.dto.ListingPage;
 import com.flashcards.model.User;
 import com.flashcards.model.Deck;
 import com.flashcards.model.Feedback;
 import com.flashcards.service.AdminService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -33,9 +35,10 @@ public class AdminController {
     }
 
     @GetMapping("/users")
-    public ResponseEntity<List<User>> getAllUsers(Authentication authentication) {
+    public ResponseEntity<ListingPage<User>> getUsers(@RequestParam Map<String, String> params,
+                                                      Authentication authentication) {
         try {
-            List<User> users = adminService.getAllUsers();
+            ListingPage<User> users = adminService.listUsers(params);
             return ResponseEntity.ok(users);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -55,20 +58,32 @@ public class AdminController {
     }
 
     @DeleteMapping("/users/{userId}")
-    public ResponseEntity<Void> deleteUser(@PathVariable String userId, 
-                                         Authentication authentication) {
+    public ResponseEntity<Map<String, Object>> deleteUser(@PathVariable String userId, 
+                                                        Authentication authentication) {
         try {
-            adminService.deleteUser(userId);
-            return ResponseEntity.ok().build();
+            Map<String, Object> progress = adminService.deleteUser(userId);
+            return ResponseEntity.accepted().body(progress);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/users/{userId}/deletion")
+    public ResponseEntity<Map<String, Object>> getUserDeletionProgress(@PathVariable String userId,
+                                                                     Authentication authentication) {
+        try {
+            Map<String, Object> progress = adminService.getUserDeletionProgress(userId);
+            return ResponseEntity.ok(progress);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
     @GetMapping("/decks")
-    public ResponseEntity<List<Deck>> getAllDecks(Authentication authentication) {
+    public ResponseEntity<ListingPage<Deck>> getDecks(@RequestParam Map<String, String> params,
+                                                      Authentication authentication) {
         try {
-            List<Deck> decks = adminService.getAllDecks();
+            ListingPage<Deck> decks = adminService.listDecks(params);
             return ResponseEntity.ok(decks);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -87,9 +102,10 @@ public class AdminController {
     }
 
     @GetMapping("/feedback")
-    public ResponseEntity<List<Feedback>> getAllFeedback(Authentication authentication) {
+    public ResponseEntity<ListingPage<Feedback>> getFeedback(@RequestParam Map<String, String> params,
+                                                             Authentication authentication) {
         try {
-            List<Feedback> feedback = adminService.getAllFeedback();
+            ListingPage<Feedback> feedback = adminService.listFeedback(params);
             return ResponseEntity.ok(feedback);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -108,6 +124,61 @@ public class AdminController {
         }
     }
 
+    @GetMapping("/export/{collection}")
+    public ResponseEntity<ResponseBodyEmitter> export(@PathVariable String collection,
+                                                      @RequestParam Map<String, String> params,
+                                                      Authentication authentication) {
+        try {
+            ResponseBodyEmitter body = adminService.export(collection, params);
+            return ResponseEntity.ok()
+                    .contentType(AdminService.NDJSON)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + collection + ".ndjson\"")
+                    .body(body);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/email-queue")
+    public ResponseEntity<Map<String, Object>> getEmailQueueStats(Authentication authentication) {
+        try {
+            Map<String, Object> stats = adminService.getEmailQueueStats();
+            return ResponseEntity.ok(stats);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/search-index")
+    public ResponseEntity<Map<String, Object>> getSearchIndexStats(Authentication authentication) {
+        try {
+            Map<String, Object> stats = adminService.getSearchIndexStats();
+            return ResponseEntity.ok(stats);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/popularity-job")
+    public ResponseEntity<Map<String, Object>> getPopularityJobStats(Authentication authentication) {
+        try {
+            Map<String, Object> stats = adminService.getPopularityJobStats();
+            return ResponseEntity.ok(stats);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/search-index/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSearchIndex(Authentication authentication) {
+        try {
+            Map<String, Object> result = adminService.rebuildSearchIndex();
+            return ResponseEntity.accepted().body(result);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> getSystemHealth(Authentication authentication) {
         try {
@@ -2,6 +2,8 @@ package com.flashcards.controller;
 
 import com.flashcards.dto.AiGenerationRequest;
 import com.flashcards.service.AiService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -12,6 +14,8 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class AiController {
 
+    private static final Logger logger = LoggerFactory.getLogger(AiController.class);
+
     private final AiService aiService;
 
     public AiController(AiService aiService) {
@@ -21,16 +25,11 @@ public class AiController {
     @PostMapping("/generate")
     public ResponseEntity<List<AiService.FlashcardData>> generateFlashcards(@RequestBody AiGenerationRequest request) {
         try {
-            System.out.println("AI Generation Request: " + request.getText() + ", Cards: " + request.getNumberOfCards());
             List<AiService.FlashcardData> flashcards = aiService.generateFlashcards(request);
-            System.out.println("Generated " + flashcards.size() + " flashcards");
-            for (AiService.FlashcardData card : flashcards) {
-                System.out.println("Card: " + card.getFront() + " -> " + card.getBack());
-            }
+            logger.debug("Generated {} of {} requested flashcards", flashcards.size(), request.getNumberOfCards());
             return ResponseEntity.ok(flashcards);
         } catch (Exception e) {
-            System.err.println("AI Generation Error: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("AI generation error", e);
             return ResponseEntity.badRequest().build();
         }
     }
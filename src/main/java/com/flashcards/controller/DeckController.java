@@ -1,7 +1,10 @@
 package com.flashcards.controller;
 
+import com.flashcards.dto.AutocompleteSuggestion;
+import com.flashcards.dto.DeckPage;
 import com.flashcards.dto.DeckRequest;
 import com.flashcards.model.Deck;
+import com.flashcards.service.AutocompleteService;
 import com.flashcards.service.DeckService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -15,9 +18,11 @@ import java.util.List;
 public class DeckController {
 
     private final DeckService deckService;
+    private final AutocompleteService autocompleteService;
 
-    public DeckController(DeckService deckService) {
+    public DeckController(DeckService deckService, AutocompleteService autocompleteService) {
         this.deckService = deckService;
+        this.autocompleteService = autocompleteService;
     }
 
     @PostMapping
@@ -39,9 +44,15 @@ public class DeckController {
     }
 
     @GetMapping("/public")
-    public ResponseEntity<List<Deck>> getPublicDecks() {
-        List<Deck> decks = deckService.getPublicDecks();
-        return ResponseEntity.ok(decks);
+    public ResponseEntity<DeckPage> getPublicDecks(@RequestParam(defaultValue = "newest") String sort,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "20") int size) {
+        try {
+            DeckPage page = deckService.getPublicDecks(sort, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{deckId}")
@@ -86,9 +97,21 @@ public class DeckController {
         }
     }
 
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<AutocompleteSuggestion>> autocomplete(@RequestParam String q,
+                                                                     @RequestParam(defaultValue = "10") int limit) {
+        List<AutocompleteSuggestion> suggestions = autocompleteService.complete(q, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<List<Deck>> searchDecks(@RequestParam String q) {
-        List<Deck> decks = deckService.searchDecks(q);
+    public ResponseEntity<List<Deck>> searchDecks(@RequestParam String q,
+                                                  @RequestParam(defaultValue = "0") int page,
+                                                  @RequestParam(defaultValue = "20") int size,
+                                                  Authentication authentication) {
+        // Anonymous callers only see public decks
+        String userId = authentication != null ? authentication.getName() : null;
+        List<Deck> decks = deckService.searchDecks(q, userId, page, size);
         return ResponseEntity.ok(decks);
     }
 
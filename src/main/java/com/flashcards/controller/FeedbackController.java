@@ -1,6 +1,7 @@
 package com.flashcards.controller;
 
 import com.flashcards.dto.FeedbackRequest;
+import com.flashcards.dto.ListingPage;
 import com.flashcards.model.Feedback;
 import com.flashcards.service.FeedbackService;
 import org.springframework.http.ResponseEntity;
@@ -8,6 +9,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/feedback")
@@ -45,9 +47,10 @@ public class FeedbackController {
 
     // Admin endpoints
     @GetMapping("/all")
-    public ResponseEntity<List<Feedback>> getAllFeedback(Authentication authentication) {
+    public ResponseEntity<ListingPage<Feedback>> getAllFeedback(@RequestParam Map<String, String> params,
+                                                                Authentication authentication) {
         try {
-            List<Feedback> feedback = feedbackService.getAllFeedback();
+            ListingPage<Feedback> feedback = feedbackService.getAllFeedback(params);
             return ResponseEntity.ok(feedback);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
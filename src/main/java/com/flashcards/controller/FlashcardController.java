@@ -84,8 +84,13 @@ public class FlashcardController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Flashcard>> searchFlashcards(@RequestParam String q) {
-        List<Flashcard> flashcards = flashcardService.searchFlashcards(q);
+    public ResponseEntity<List<Flashcard>> searchFlashcards(@RequestParam String q,
+                                                          @RequestParam(defaultValue = "0") int page,
+                                                          @RequestParam(defaultValue = "20") int size,
+                                                          @RequestParam(required = false) String lang,
+                                                          Authentication authentication) {
+        String userId = authentication.getName();
+        List<Flashcard> flashcards = flashcardService.searchFlashcards(q, userId, lang, page, size);
         return ResponseEntity.ok(flashcards);
     }
 
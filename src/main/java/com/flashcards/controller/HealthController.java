@@ -0,0 +1,39 @@
+package com.flashcards.controller;
+
+import com.flashcards.service.HealthService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Unauthenticated checks for load balancers and orchestrators. Neither touches MongoDB, and both
+ * return only a status; the details behind it are on the admin health endpoint.
+ */
+@RestController
+@RequestMapping("/api/health")
+@CrossOrigin(origins = "*")
+public class HealthController {
+
+    private final HealthService healthService;
+
+    public HealthController(HealthService healthService) {
+        this.healthService = healthService;
+    }
+
+    @GetMapping("/live")
+    public ResponseEntity<Map<String, Object>> liveness() {
+        return ResponseEntity.ok(Map.of("status", "UP"));
+    }
+
+    @GetMapping("/ready")
+    public ResponseEntity<Map<String, Object>> readiness() {
+        String status = healthService.readinessStatus();
+        Map<String, Object> health = Map.of("status", status);
+        if ("DOWN".equals(status)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(health);
+        }
+        return ResponseEntity.ok(health);
+    }
+}
@@ -1,11 +1,14 @@
 package com.flashcards.controller;
 
+import com.flashcards.dto.QuizSummary;
 import com.flashcards.model.Quiz;
 import com.flashcards.service.QuizService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -47,10 +50,14 @@ public class QuizController {
     }
 
     @GetMapping("/history")
-    public ResponseEntity<List<Quiz>> getUserQuizHistory(Authentication authentication) {
+    public ResponseEntity<List<QuizSummary>> getUserQuizHistory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @RequestParam(required = false) String lastId,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication) {
         try {
             String userId = authentication.getName();
-            List<Quiz> history = quizService.getUserQuizHistory(userId);
+            List<QuizSummary> history = quizService.getUserQuizHistory(userId, before, lastId, limit);
             return ResponseEntity.ok(history);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
@@ -58,11 +65,15 @@ public class QuizController {
     }
 
     @GetMapping("/deck/{deckId}/history")
-    public ResponseEntity<List<Quiz>> getDeckQuizHistory(@PathVariable String deckId,
-                                                        Authentication authentication) {
+    public ResponseEntity<List<QuizSummary>> getDeckQuizHistory(
+            @PathVariable String deckId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+            @RequestParam(required = false) String lastId,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication) {
         try {
             String userId = authentication.getName();
-            List<Quiz> history = quizService.getDeckQuizHistory(deckId, userId);
+            List<QuizSummary> history = quizService.getDeckQuizHistory(deckId, userId, before, lastId, limit);
             return ResponseEntity.ok(history);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
@@ -5,8 +5,8 @@ import com.flashcards.dto.ExportStatsRequest;
 import com.flashcards.model.UserProgress;
 import com.flashcards.model.Deck;
 import com.flashcards.repository.UserProgressRepository;
-import com.flashcards.repository.FlashcardRepository;
 import com.flashcards.repository.DeckRepository;
+import com.flashcards.service.DeckForkService;
 import com.flashcards.service.SpacedRepetitionService;
 import com.flashcards.service.StatsExportService;
 import org.springframework.http.ResponseEntity;
@@ -24,18 +24,18 @@ public class StudyController {
     private final SpacedRepetitionService spacedRepetitionService;
     private final UserProgressRepository userProgressRepository;
     private final StatsExportService statsExportService;
-    private final FlashcardRepository flashcardRepository;
+    private final DeckForkService deckForkService;
     private final DeckRepository deckRepository;
 
     public StudyController(SpacedRepetitionService spacedRepetitionService, 
                           UserProgressRepository userProgressRepository,
                           StatsExportService statsExportService,
-                          FlashcardRepository flashcardRepository,
+                          DeckForkService deckForkService,
                           DeckRepository deckRepository) {
         this.spacedRepetitionService = spacedRepetitionService;
         this.userProgressRepository = userProgressRepository;
         this.statsExportService = statsExportService;
-        this.flashcardRepository = flashcardRepository;
+        this.deckForkService = deckForkService;
         this.deckRepository = deckRepository;
     }
 
@@ -77,7 +77,7 @@ public class StudyController {
         List<Deck> userDecks = deckRepository.findByUserId(userId);
         long totalCards = 0;
         for (Deck deck : userDecks) {
-            totalCards += flashcardRepository.countByDeckId(deck.getId());
+            totalCards += deckForkService.countCards(deck);
         }
         
         // Calculate study stats from progress
@@ -0,0 +1,17 @@
+package com.flashcards.dto;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+/**
+ * One search-box completion: a public deck (with its id) or a tag.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AutocompleteSuggestion {
+    private String type; // deck, tag
+    private String text;
+    private String deckId;
+}
@@ -0,0 +1,21 @@
+package com.flashcards.dto;
+
+import com.flashcards.model.Deck;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the public deck catalog. Pass nextCursor back to get the following page; it is null
+ * on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeckPage {
+    private List<Deck> decks;
+    private String nextCursor;
+    private long total; // Number of public decks
+}
@@ -10,6 +10,7 @@ public class FlashcardRequest {
     private String front; // Alternative field name for question
     private String back;  // Alternative field name for answer
     private List<String> tags;
+    private String language;
     private int orderIndex;
     
     // Getter methods that handle both field names
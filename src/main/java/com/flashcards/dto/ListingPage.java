@@ -0,0 +1,19 @@
+package com.flashcards.dto;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of an admin listing. Pass nextCursor back, with the same sort and filters, to get the
+ * following page; it is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListingPage<T> {
+    private List<T> items;
+    private String nextCursor;
+}
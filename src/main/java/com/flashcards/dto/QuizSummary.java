@@ -0,0 +1,22 @@
+package com.flashcards.dto;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Quiz history row - the quiz without its questions.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizSummary {
+    private String id;
+    private String deckId;
+    private int score;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private String status;
+}
@@ -32,6 +32,15 @@ public class Deck {
     // Study statistics
     private int totalViews = 0;
     private int totalCopies = 0;
+    private String copiedFromDeckId; // Set on duplicates; counted towards the original's popularity
+    private String baseDeckId; // Lazy fork: cards are read from this deck, overlaid with this deck's own
+    
+    // Forward-decayed scores maintained by DeckPopularityJob. Only meaningful relative to each other:
+    // both grow over time instead of older activity shrinking, which keeps the ordering the same.
+    private double popularityScore = 0;
+    private double trendingScore = 0;
+    private LocalDateTime scoresUntil; // Job window last added to the scores, so a replayed window is skipped
+    private LocalDateTime scoresLandmarkAt; // Landmark the scores were last rebased to
     
     public Deck(String name, String description, String userId) {
         this.name = name;
@@ -0,0 +1,38 @@
+package com.flashcards.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "email_outbox")
+public class EmailOutboxMessage {
+    
+    @Id
+    private String id;
+    
+    private String toEmail;
+    private String subject;
+    private String body;
+    private String status = "pending"; // pending, sending, sent, failed
+    private int attempts = 0;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime nextAttemptAt; // Not picked up by a worker before this time
+    private LocalDateTime claimedAt; // Set when a worker takes the message; stale claims are retried
+    private LocalDateTime sentAt;
+    
+    public EmailOutboxMessage(String toEmail, String subject, String body) {
+        this.toEmail = toEmail;
+        this.subject = subject;
+        this.body = body;
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+}
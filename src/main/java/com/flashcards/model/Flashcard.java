@@ -22,8 +22,14 @@ public class Flashcard {
     private String answer;
     private String deckId;
     private String userId; // Creator of the card
+    private boolean deckPublic = false; // Copy of the deck's visibility so search can scope cards without a join
     private List<String> tags;
+    private String language; // Language the card is written in, as in AiGenerationRequest; null if unknown
     private int orderIndex; // Position in deck
+    
+    // Forked decks only (see DeckForkService): the base card this card replaces, and whether it hides it
+    private String baseCardId;
+    private boolean hidden = false;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
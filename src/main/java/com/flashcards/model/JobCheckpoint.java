@@ -0,0 +1,41 @@
+package com.flashcards.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a background job, one document per job (the id is the job name).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "job_checkpoints")
+public class JobCheckpoint {
+    
+    @Id
+    private String id;
+    
+    private LocalDateTime processedUntil; // Everything up to this time has been processed
+    private LocalDateTime landmarkAt; // Reference time for forward-decayed scores
+    private LocalDateTime pendingUntil; // Window (processedUntil, pendingUntil] claimed but not yet finished
+    private LocalDateTime pendingLandmarkAt; // Landmark the pending window is scored against
+    private LocalDateTime claimedAt; // When the pending window was claimed; older claims can be taken over
+    private LocalDateTime lastRunAt;
+    private long lastRunMillis;
+    private long lastRunItems;
+    
+    // One-off jobs that run through a fixed list of stages
+    private String status;
+    private String stage; // Stage in progress; earlier stages are complete
+    private long itemsDone;
+    private LocalDateTime startedAt;
+    
+    public JobCheckpoint(String id) {
+        this.id = id;
+    }
+}
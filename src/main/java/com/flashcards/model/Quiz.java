@@ -15,6 +15,8 @@ import java.util.List;
 @Document(collection = "quizzes")
 public class Quiz {
     
+    public static final int COMPACT_STORAGE_VERSION = 2;
+    
     @Id
     private String id;
     
@@ -28,13 +30,15 @@ public class Quiz {
     private LocalDateTime completedAt;
     private String status; // "in_progress", "completed", "abandoned"
     private List<QuizQuestion> questions;
+    private int storageVersion; // 2 = questions stored as card references, text resolved on read
     
     @NoArgsConstructor
     @AllArgsConstructor
     public static class QuizQuestion {
-        private String questionId;
-        private String question;
-        private List<String> options;
+        private String questionId; // Flashcard the question was built from
+        private String question; // Resolved from the flashcard; only stored on legacy quizzes
+        private List<String> options; // Resolved from optionCardIds; only stored on legacy quizzes
+        private List<String> optionCardIds; // Flashcard whose answer is each option, null for filler options
         private int correctOptionIndex;
         private int selectedOptionIndex;
         private boolean isCorrect;
@@ -49,6 +53,9 @@ public class Quiz {
         public List<String> getOptions() { return options; }
         public void setOptions(List<String> options) { this.options = options; }
         
+        public List<String> getOptionCardIds() { return optionCardIds; }
+        public void setOptionCardIds(List<String> optionCardIds) { this.optionCardIds = optionCardIds; }
+        
         public int getCorrectOptionIndex() { return correctOptionIndex; }
         public void setCorrectOptionIndex(int correctOptionIndex) { this.correctOptionIndex = correctOptionIndex; }
         
@@ -66,6 +73,7 @@ public class Quiz {
         this.totalQuestions = totalQuestions;
         this.startedAt = LocalDateTime.now();
         this.status = "in_progress";
+        this.storageVersion = COMPACT_STORAGE_VERSION;
     }
     
     // Manual getters and setters for compatibility
@@ -101,4 +109,7 @@ public class Quiz {
     
     public List<QuizQuestion> getQuestions() { return questions; }
     public void setQuestions(List<QuizQuestion> questions) { this.questions = questions; }
+    
+    public int getStorageVersion() { return storageVersion; }
+    public void setStorageVersion(int storageVersion) { this.storageVersion = storageVersion; }
 } 
\ No newline at end of file
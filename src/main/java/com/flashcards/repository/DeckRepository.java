@@ -3,16 +3,36 @@ package com.flashcards.repository;
 import com.flashcards.model.Deck;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface DeckRepository extends MongoRepository<Deck, String> {
     List<Deck> findByUserId(String userId);
-    List<Deck> findByIsPublicTrue();
+    long countByIsPublicTrue();
+    List<Deck> findByBaseDeckId(String baseDeckId);
+
+    @Query("{'_id': ?0}")
+    @Update("{'$inc': {'totalCopies': 1}}")
+    void incrementTotalCopiesById(String deckId);
+
+    // Decks are changed field by field rather than saved whole: a save would write back the scores and
+    // counters DeckPopularityJob and duplication increment in place, undoing increments made meanwhile
+    @Query("{'_id': ?0}")
+    @Update("{'$inc': {'cardCount': ?1}, '$set': {'updatedAt': ?2}}")
+    void incrementCardCountById(String deckId, int delta, LocalDateTime updatedAt);
+
+    @Query("{'_id': ?0}")
+    @Update("{'$set': {'name': ?1, 'description': ?2, 'isPublic': ?3, 'tags': ?4, 'coverImageUrl': ?5, 'updatedAt': ?6}}")
+    void updateDetailsById(String deckId, String name, String description, boolean isPublic, List<String> tags,
+                           String coverImageUrl, LocalDateTime updatedAt);
+
+    @Query("{'_id': ?0}")
+    @Update("{'$set': {'baseDeckId': ?1, 'cardCount': ?2}}")
+    void updateCardsById(String deckId, String baseDeckId, int cardCount);
+
     List<Deck> findByTagsContaining(String tag);
-    
-    @Query("{'$or': [{'name': {'$regex': ?0, '$options': 'i'}}, {'description': {'$regex': ?0, '$options': 'i'}}]}")
-    List<Deck> searchByNameOrDescription(String searchTerm);
 } 
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.flashcards.repository;
+
+import com.flashcards.model.EmailOutboxMessage;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EmailOutboxRepository extends MongoRepository<EmailOutboxMessage, String> {
+    long countByStatus(String status);
+}
@@ -1,11 +1,14 @@
 package com.flashcards.repository;
 
 import com.flashcards.model.Flashcard;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface FlashcardRepository extends MongoRepository<Flashcard, String> {
@@ -14,7 +17,24 @@ public interface FlashcardRepository extends MongoRepository<Flashcard, String>
     List<Flashcard> findByTagsContaining(String tag);
     long countByDeckId(String deckId);
     long countByUserId(String userId);
+    long countByDeckIdAndBaseCardIdIsNotNull(String deckId);
+    long countByDeckIdAndHiddenFalse(String deckId);
+    Optional<Flashcard> findByDeckIdAndBaseCardId(String deckId, String baseCardId);
+    void deleteByDeckIdAndHiddenTrue(String deckId);
     
-    @Query("{'$or': [{'question': {'$regex': ?0, '$options': 'i'}}, {'answer': {'$regex': ?0, '$options': 'i'}}]}")
-    List<Flashcard> searchByQuestionOrAnswer(String searchTerm);
+    // Answer pool for quiz distractors - only _id and answer leave the server
+    @Query(value = "{'deckId': ?0}", fields = "{'_id': 1, 'answer': 1}")
+    List<Flashcard> findAnswersByDeckId(String deckId);
+    
+    // Random question selection done by Mongo instead of shuffling the whole deck in memory
+    @Aggregation(pipeline = {
+        "{'$match': {'deckId': ?0}}",
+        "{'$sample': {'size': ?1}}",
+        "{'$project': {'question': 1, 'answer': 1}}"
+    })
+    List<Flashcard> sampleByDeckId(String deckId, int size);
+    
+    // Question/answer text for resolving stored card references
+    @Query(value = "{'_id': {'$in': ?0}}", fields = "{'_id': 1, 'question': 1, 'answer': 1}")
+    List<Flashcard> findTextsByIdIn(Collection<String> ids);
 } 
\ No newline at end of file
@@ -1,9 +1,14 @@
 package com.flashcards.repository;
 
+import com.flashcards.dto.QuizSummary;
 import com.flashcards.model.Quiz;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -11,4 +16,19 @@ public interface QuizRepository extends MongoRepository<Quiz, String> {
     List<Quiz> findByUserIdOrderByStartedAtDesc(String userId);
     List<Quiz> findByDeckIdAndUserIdOrderByStartedAtDesc(String deckId, String userId);
     List<Quiz> findByUserIdAndStatusOrderByStartedAtDesc(String userId, String status);
-} 
\ No newline at end of file
+    
+    // History summaries - questions never leave the server; sort (startedAt, _id) comes from the Pageable
+    @Query(value = "{'userId': ?0}", fields = "{'deckId': 1, 'score': 1, 'startedAt': 1, 'completedAt': 1, 'status': 1}")
+    List<QuizSummary> findSummariesByUserId(String userId, Pageable pageable);
+    
+    @Query(value = "{'userId': ?0, '$or': [{'startedAt': {'$lt': ?1}}, {'startedAt': ?1, '_id': {'$lt': ?2}}]}",
+           fields = "{'deckId': 1, 'score': 1, 'startedAt': 1, 'completedAt': 1, 'status': 1}")
+    List<QuizSummary> findSummariesByUserIdOlderThan(String userId, LocalDateTime startedAt, ObjectId lastId, Pageable pageable);
+    
+    @Query(value = "{'deckId': ?0, 'userId': ?1}", fields = "{'deckId': 1, 'score': 1, 'startedAt': 1, 'completedAt': 1, 'status': 1}")
+    List<QuizSummary> findSummariesByDeckIdAndUserId(String deckId, String userId, Pageable pageable);
+    
+    @Query(value = "{'deckId': ?0, 'userId': ?1, '$or': [{'startedAt': {'$lt': ?2}}, {'startedAt': ?2, '_id': {'$lt': ?3}}]}",
+           fields = "{'deckId': 1, 'score': 1, 'startedAt': 1, 'completedAt': 1, 'status': 1}")
+    List<QuizSummary> findSummariesByDeckIdAndUserIdOlderThan(String deckId, String userId, LocalDateTime startedAt, ObjectId lastId, Pageable pageable);
+}
@@ -1,13 +1,24 @@
 package com.flashcards.repository;
 
 import com.flashcards.model.UserActivity;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface UserActivityRepository extends MongoRepository<UserActivity, String> {
     List<UserActivity> findByUserIdOrderByCreatedAtDesc(String userId);
     List<UserActivity> findByUserIdAndActivityTypeOrderByCreatedAtDesc(String userId, String activityType);
-} 
\ No newline at end of file
+    
+    // Paged variant - sort is supplied by the Pageable so (createdAt, _id) ordering stays stable
+    List<UserActivity> findByUserId(String userId, Pageable pageable);
+    
+    // Keyset page: everything strictly older than the (createdAt, _id) of the last item already seen
+    @Query("{'userId': ?0, '$or': [{'createdAt': {'$lt': ?1}}, {'createdAt': ?1, '_id': {'$lt': ?2}}]}")
+    List<UserActivity> findOlderThan(String userId, LocalDateTime createdAt, ObjectId lastId, Pageable pageable);
+}
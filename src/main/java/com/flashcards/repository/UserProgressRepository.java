@@ -14,6 +14,7 @@ public interface UserProgressRepository extends MongoRepository<UserProgress, St
     List<UserProgress> findByUserId(String userId);
     List<UserProgress> findByUserIdAndDeckId(String userId, String deckId);
     Optional<UserProgress> findByUserIdAndFlashcardId(String userId, String flashcardId);
+    List<UserProgress> findByFlashcardId(String flashcardId);
     
     @Query("{'userId': ?0, 'nextReviewDate': {'$lte': ?1}}")
     List<UserProgress> findDueCards(String userId, LocalDateTime now);
@@ -0,0 +1,268 @@
+package com.flashcards.service;
+
+import com.flashcards.dto.ListingPage;
+import com.flashcards.model.Deck;
+import com.flashcards.model.Feedback;
+import com.flashcards.model.User;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Admin listings of users, decks and feedback: filtered, sorted and paged with an opaque keyset
+ * cursor. With the default createdAt sort the (createdAt, _id) indexes from MongoIndexConfig serve
+ * every page, so a page costs the same however deep it is; other sorts and filters are unindexed and
+ * scan. The same queries can be exported as newline-delimited JSON streamed straight from a MongoDB
+ * cursor, in constant memory.
+ *
+ * <p>Only whitelisted fields can be sorted and filtered on; password hashes are never returned.
+ */
+@Service
+public class AdminListingService {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+    private static final int EXPORT_BATCH_SIZE = 1000;
+    private static final JsonWriterSettings EXPORT_JSON = JsonWriterSettings.builder().outputMode(JsonMode.RELAXED).build();
+
+    /**
+     * What may be listed from one collection.
+     */
+    static final class Listing<T> {
+        final Class<T> type;
+        final String collection;
+        final Set<String> sortFields;
+        final Map<String, Function<String, Object>> filters; // Request parameter (= field) -> value parser
+        final Set<String> hiddenFields;
+
+        Listing(Class<T> type, String collection, Set<String> sortFields,
+                Map<String, Function<String, Object>> filters, Set<String> hiddenFields) {
+            this.type = type;
+            this.collection = collection;
+            this.sortFields = sortFields;
+            this.filters = filters;
+            this.hiddenFields = hiddenFields;
+        }
+    }
+
+    static final Listing<User> USERS = new Listing<>(User.class, "users",
+            Set.of("createdAt", "lastLoginAt", "email"),
+            Map.of("role", value -> value, "enabled", Boolean::parseBoolean),
+            Set.of("password"));
+    static final Listing<Deck> DECKS = new Listing<>(Deck.class, "decks",
+            Set.of("createdAt", "updatedAt", "name", "popularityScore"),
+            Map.of("userId", value -> value, "isPublic", Boolean::parseBoolean),
+            Set.of());
+    static final Listing<Feedback> FEEDBACK = new Listing<>(Feedback.class, "feedback",
+            Set.of("createdAt", "updatedAt", "rating"),
+            Map.of("status", value -> value, "category", value -> value, "userId", value -> value),
+            Set.of());
+    private static final Map<String, Listing<?>> EXPORTABLE = Map.of(
+            USERS.collection, USERS, DECKS.collection, DECKS, FEEDBACK.collection, FEEDBACK);
+
+    private final MongoTemplate mongoTemplate;
+
+    public AdminListingService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public ListingPage<User> listUsers(Map<String, String> params) {
+        return list(USERS, params);
+    }
+
+    public ListingPage<Deck> listDecks(Map<String, String> params) {
+        return list(DECKS, params);
+    }
+
+    public ListingPage<Feedback> listFeedback(Map<String, String> params) {
+        return list(FEEDBACK, params);
+    }
+
+    /**
+     * Supported params: sort (a listed field, default createdAt), order (asc|desc, default desc),
+     * size, cursor, createdAfter/createdBefore (ISO date-time) and the listing's filters.
+     */
+    <T> ListingPage<T> list(Listing<T> listing, Map<String, String> params) {
+        String sortField = sortField(listing, params);
+        boolean ascending = "asc".equalsIgnoreCase(params.get("order"));
+        int size = DEFAULT_PAGE_SIZE;
+        if (params.get("size") != null) {
+            size = Math.max(1, Math.min(Integer.parseInt(params.get("size")), MAX_PAGE_SIZE));
+        }
+
+        Query query = filterQuery(listing, params);
+        String cursor = params.get("cursor");
+        if (cursor != null && !cursor.isBlank()) {
+            query.addCriteria(after(sortField, ascending, Cursor.decode(cursor)));
+        }
+        query.with(sort(sortField, ascending)).limit(size + 1);
+
+        List<Document> documents = mongoTemplate.find(query, Document.class, listing.collection);
+        String nextCursor = null;
+        if (documents.size() > size) {
+            documents = documents.subList(0, size);
+            Document last = documents.get(size - 1);
+            nextCursor = new Cursor(last.get(sortField), last.getObjectId("_id")).encode();
+        }
+        List<T> items = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            items.add(mongoTemplate.getConverter().read(listing.type, document));
+        }
+        return new ListingPage<>(items, nextCursor);
+    }
+
+    /**
+     * The whole filtered collection as NDJSON. Parameters are validated here, before the response starts.
+     */
+    public StreamingResponseBody export(String collection, Map<String, String> params) {
+        Listing<?> listing = EXPORTABLE.get(collection);
+        if (listing == null) {
+            throw new RuntimeException("Unknown collection");
+        }
+        String sortField = params.containsKey("sort") ? sortField(listing, params) : "_id";
+        Query query = filterQuery(listing, params)
+                .with(sort(sortField, !"desc".equalsIgnoreCase(params.get("order"))))
+                .cursorBatchSize(EXPORT_BATCH_SIZE);
+        return out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, listing.collection)) {
+                Iterator<Document> iterator = documents.iterator();
+                while (iterator.hasNext()) {
+                    writer.write(iterator.next().toJson(EXPORT_JSON));
+                    writer.write('\n');
+                }
+            }
+            writer.flush();
+        };
+    }
+
+    private static String sortField(Listing<?> listing, Map<String, String> params) {
+        String sort = params.getOrDefault("sort", "createdAt");
+        if (!listing.sortFields.contains(sort)) {
+            throw new RuntimeException("Cannot sort by " + sort);
+        }
+        return sort;
+    }
+
+    private static Query filterQuery(Listing<?> listing, Map<String, String> params) {
+        Query query = new Query();
+        for (Map.Entry<String, Function<String, Object>> filter : listing.filters.entrySet()) {
+            String value = params.get(filter.getKey());
+            if (value != null && !value.isBlank()) {
+                query.addCriteria(Criteria.where(filter.getKey()).is(filter.getValue().apply(value)));
+            }
+        }
+        if (params.containsKey("createdAfter") || params.containsKey("createdBefore")) {
+            Criteria created = Criteria.where("createdAt");
+            if (params.containsKey("createdAfter")) {
+                created = created.gte(LocalDateTime.parse(params.get("createdAfter")));
+            }
+            if (params.containsKey("createdBefore")) {
+                created = created.lt(LocalDateTime.parse(params.get("createdBefore")));
+            }
+            query.addCriteria(created);
+        }
+        for (String hidden : listing.hiddenFields) {
+            query.fields().exclude(hidden);
+        }
+        return query;
+    }
+
+    private static Sort sort(String field, boolean ascending) {
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return "_id".equals(field) ? Sort.by(direction, "_id") : Sort.by(direction, field, "_id");
+    }
+
+    /**
+     * Everything after the cursor position in (field, _id) order. MongoDB sorts missing and null
+     * values before all others, so they come first ascending and last descending.
+     */
+    static Criteria after(String field, boolean ascending, Cursor cursor) {
+        Criteria sameValueLaterId = ascending
+                ? Criteria.where(field).is(cursor.value).and("_id").gt(cursor.lastId)
+                : Criteria.where(field).is(cursor.value).and("_id").lt(cursor.lastId);
+        if (cursor.value == null) {
+            return ascending
+                    ? new Criteria().orOperator(sameValueLaterId, Criteria.where(field).ne(null))
+                    : sameValueLaterId;
+        }
+        Criteria laterValue = ascending ? Criteria.where(field).gt(cursor.value) : Criteria.where(field).lt(cursor.value);
+        return ascending
+                ? new Criteria().orOperator(laterValue, sameValueLaterId)
+                : new Criteria().orOperator(laterValue, sameValueLaterId, Criteria.where(field).is(null));
+    }
+
+    /**
+     * Sort value and id of the last item on a page. The value keeps its BSON type: d = date,
+     * n = number, s = string, z = null.
+     */
+    static final class Cursor {
+        final Object value;
+        final ObjectId lastId;
+
+        Cursor(Object value, ObjectId lastId) {
+            this.value = value;
+            this.lastId = lastId;
+        }
+
+        String encode() {
+            String typed;
+            if (value == null) {
+                typed = "z:";
+            } else if (value instanceof Date) {
+                typed = "d:" + ((Date) value).getTime();
+            } else if (value instanceof Number) {
+                typed = "n:" + ((Number) value).doubleValue();
+            } else {
+                typed = "s:" + value;
+            }
+            String raw = lastId.toHexString() + "|" + typed;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                ObjectId lastId = new ObjectId(raw.substring(0, 24));
+                String typed = raw.substring(25);
+                String value = typed.substring(2);
+                switch (typed.charAt(0)) {
+                    case 'z':
+                        return new Cursor(null, lastId);
+                    case 'd':
+                        return new Cursor(new Date(Long.parseLong(value)), lastId);
+                    case 'n':
+                        return new Cursor(Double.parseDouble(value), lastId);
+                    case 's':
+                        return new Cursor(value, lastId);
+                    default:
+                        throw new IllegalArgumentException();
+                }
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+    }
+}
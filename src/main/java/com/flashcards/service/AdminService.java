@@ -1,60 +1,77 @@
 package com.flashcards.service;
 
+import com.flashcards.dto.ListingPage;
 import com.flashcards.model.User;
 import com.flashcards.model.Deck;
 import com.flashcards.model.Feedback;
 import com.flashcards.repository.UserRepository;
 import com.flashcards.repository.DeckRepository;
 import com.flashcards.repository.FeedbackRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @Service
 public class AdminService {
 
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final UserRepository userRepository;
     private final DeckRepository deckRepository;
     private final FeedbackRepository feedbackRepository;
+    private final EmailOutboxWorker emailOutboxWorker;
+    private final LuceneCardIndex cardIndex;
+    private final DeckPopularityJob deckPopularityJob;
+    private final DashboardStatsService dashboardStatsService;
+    private final AdminListingService adminListingService;
+    private final UserDeletionJob userDeletionJob;
+    private final HealthService healthService;
+    private final TaskExecutor exportExecutor;
+
+    @Value("${admin.export.timeout-ms:1800000}")
+    private long exportTimeoutMillis = 1800000;
 
     public AdminService(UserRepository userRepository, 
                        DeckRepository deckRepository, 
-                       FeedbackRepository feedbackRepository) {
+                       FeedbackRepository feedbackRepository,
+                       EmailOutboxWorker emailOutboxWorker,
+                       LuceneCardIndex cardIndex,
+                       DeckPopularityJob deckPopularityJob,
+                       DashboardStatsService dashboardStatsService,
+                       AdminListingService adminListingService,
+                       UserDeletionJob userDeletionJob,
+                       HealthService healthService,
+                       @Qualifier("applicationTaskExecutor") TaskExecutor exportExecutor) {
         this.userRepository = userRepository;
         this.deckRepository = deckRepository;
         this.feedbackRepository = feedbackRepository;
+        this.emailOutboxWorker = emailOutboxWorker;
+        this.cardIndex = cardIndex;
+        this.deckPopularityJob = deckPopularityJob;
+        this.dashboardStatsService = dashboardStatsService;
+        this.adminListingService = adminListingService;
+        this.userDeletionJob = userDeletionJob;
+        this.healthService = healthService;
+        this.exportExecutor = exportExecutor;
     }
 
     public Map<String, Object> getDashboardStats() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        // User stats
-        long totalUsers = userRepository.count();
-        long activeUsers = userRepository.count(); // Simplified - in real app, check last login
-        
-        // Deck stats
-        long totalDecks = deckRepository.count();
-        long publicDecks = deckRepository.findByIsPublicTrue().size();
-        
-        // Feedback stats
-        long totalFeedback = feedbackRepository.count();
-        long pendingFeedback = feedbackRepository.findByStatus("pending").size();
-        
-        stats.put("totalUsers", totalUsers);
-        stats.put("activeUsers", activeUsers);
-        stats.put("totalDecks", totalDecks);
-        stats.put("publicDecks", publicDecks);
-        stats.put("totalFeedback", totalFeedback);
-        stats.put("pendingFeedback", pendingFeedback);
-        
-        return stats;
+        return dashboardStatsService.getSnapshot();
     }
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public ListingPage<User> listUsers(Map<String, String> params) {
+        return adminListingService.listUsers(params);
     }
 
     public User updateUserRole(String userId, String role) {
@@ -65,20 +82,44 @@ public class AdminService {
         return userRepository.save(user);
     }
 
-    public void deleteUser(String userId) {
-        userRepository.deleteById(userId);
+    public Map<String, Object> deleteUser(String userId) {
+        return userDeletionJob.submit(userId);
+    }
+
+    public Map<String, Object> getUserDeletionProgress(String userId) {
+        return userDeletionJob.getProgress(userId);
     }
 
-    public List<Deck> getAllDecks() {
-        return deckRepository.findAll();
+    public ListingPage<Deck> listDecks(Map<String, String> params) {
+        return adminListingService.listDecks(params);
     }
 
     public void deleteDeck(String deckId) {
         deckRepository.deleteById(deckId);
     }
 
-    public List<Feedback> getAllFeedback() {
-        return feedbackRepository.findAll();
+    public ListingPage<Feedback> listFeedback(Map<String, String> params) {
+        return adminListingService.listFeedback(params);
+    }
+
+    /**
+     * Streams the export from a task executor thread. Exports run far longer than any other request,
+     * so they get their own timeout instead of raising the one every async request shares.
+     */
+    public ResponseBodyEmitter export(String collection, Map<String, String> params) {
+        StreamingResponseBody body = adminListingService.export(collection, params);
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(exportTimeoutMillis);
+        exportExecutor.execute(() -> {
+            try (OutputStream out = new EmitterOutputStream(emitter)) {
+                body.writeTo(out);
+            } catch (Exception e) {
+                // Timed out, client gone, or MongoDB failed; the response is cut short either way
+                emitter.completeWithError(e);
+                return;
+            }
+            emitter.complete();
+        });
+        return emitter;
     }
 
     public Feedback updateFeedbackStatus(String feedbackId, String status) {
@@ -91,21 +132,68 @@ public class AdminService {
         return feedbackRepository.save(feedback);
     }
 
+    public Map<String, Object> getEmailQueueStats() {
+        return emailOutboxWorker.getStats();
+    }
+
+    public Map<String, Object> getSearchIndexStats() {
+        return cardIndex.getStats();
+    }
+
+    public Map<String, Object> getPopularityJobStats() {
+        return deckPopularityJob.getStats();
+    }
+
+    public Map<String, Object> rebuildSearchIndex() {
+        Map<String, Object> result = new HashMap<>(cardIndex.getStats());
+        result.put("rebuildStarted", cardIndex.requestRebuild());
+        return result;
+    }
+
     public Map<String, Object> getSystemHealth() {
-        Map<String, Object> health = new HashMap<>();
-        
-        try {
-            // Check database connectivity
-            long userCount = userRepository.count();
-            health.put("database", "healthy");
-            health.put("userCount", userCount);
-        } catch (Exception e) {
-            health.put("database", "unhealthy");
-            health.put("error", e.getMessage());
+        return healthService.details();
+    }
+
+    /**
+     * Passes what is written on to the emitter in large chunks, since the emitter flushes every send.
+     */
+    private static final class EmitterOutputStream extends OutputStream {
+        private static final int CHUNK_SIZE = 64 * 1024;
+
+        private final ResponseBodyEmitter emitter;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(CHUNK_SIZE);
+
+        EmitterOutputStream(ResponseBodyEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            buffer.write(b);
+            if (buffer.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            buffer.write(bytes, offset, length);
+            if (buffer.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (buffer.size() > 0) {
+                emitter.send(buffer.toByteArray(), NDJSON);
+                buffer.reset();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
         }
-        
-        health.put("timestamp", LocalDateTime.now());
-        
-        return health;
     }
-} 
\ No newline at end of file
+}
@@ -5,7 +5,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.flashcards.dto.AiGenerationRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
 import okhttp3.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -14,189 +20,142 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class AiService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AiService.class);
+
     @Value("${openai.api.key}")
     private String apiKey;
 
     @Value("${openai.api.url}")
     private String apiUrl;
 
-    private final OkHttpClient httpClient;
+    // Prompts carry up to 100KB of extracted text, so debug logs show the head unless the request is sampled
+    @Value("${ai.log.payload-max-chars:200}")
+    private int payloadMaxChars = 200;
+
+    @Value("${ai.log.payload-sample-rate:0.01}")
+    private double payloadSampleRate = 0.01;
+
+    @Value("${ai.openai.coalesce.enabled:true}")
+    private boolean coalesceEnabled = true;
+
+    // As long as a caller's own call could take (the OkHttp timeouts)
+    @Value("${ai.openai.coalesce.wait-ms:30000}")
+    private long coalesceWaitMs = 30000;
+
+    @Value("${ai.openai.coalesce.shuffle:false}")
+    private boolean coalesceShuffle = false;
+
+    private final OpenAiUpstream openAiUpstream;
     private final ObjectMapper objectMapper;
     private final ContentProcessingService contentProcessingService;
+    private final PromptTemplates promptTemplates;
+    private final TokenBudget tokenBudget;
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
+    private final SingleFlight<PromptKey, List<FlashcardData>> openAiCalls = new SingleFlight<>();
 
-    public AiService(OkHttpClient httpClient, ObjectMapper objectMapper, ContentProcessingService contentProcessingService) {
-        this.httpClient = httpClient;
+    public AiService(OpenAiUpstream openAiUpstream, ObjectMapper objectMapper, ContentProcessingService contentProcessingService,
+                     PromptTemplates promptTemplates, TokenBudget tokenBudget, MeterRegistry meterRegistry, Tracer tracer) {
+        this.openAiUpstream = openAiUpstream;
         this.objectMapper = objectMapper;
         this.contentProcessingService = contentProcessingService;
+        this.promptTemplates = promptTemplates;
+        this.tokenBudget = tokenBudget;
+        this.meterRegistry = meterRegistry;
+        this.tracer = tracer;
     }
 
     public List<FlashcardData> generateFlashcards(AiGenerationRequest request) {
-        System.out.println("AI Generation Request: " + request.getText() + " | Cards: " + request.getNumberOfCards());
+        String text = request.getText() != null ? request.getText() : "";
+        logger.info("AI generation request: {} chars, {} cards", text.length(), request.getNumberOfCards());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Span span = tracer.nextSpan().name("ai.generate")
+                .tag("text.length", text.length())
+                .tag("cards.requested", request.getNumberOfCards())
+                .start();
+        String path = "fallback";
+        List<FlashcardData> flashcards;
+        // Keyword checks for every later routing decision, in one pass over the text
+        PromptRouter.Intent intent = PromptRouter.classify(request);
         
-        try {
-            String text = request.getText() != null ? request.getText() : "";
-            
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
             // Check if we should use OpenAI API for custom prompts
             if (apiKey != null && !apiKey.trim().isEmpty() && 
-                (text.toLowerCase().contains("question should be when") || 
-                 text.toLowerCase().contains("when we can use") ||
-                 text.toLowerCase().contains("when to use") ||
-                 text.length() > 100)) {
+                (intent.whenToUse() || text.length() > 100) && openAiUpstream.acceptsCalls()) {
                 
-                System.out.println("Using OpenAI API for flashcard generation");
-                return generateWithOpenAI(request);
+                logger.debug("Using OpenAI API for flashcard generation");
+                Generation generation = generateWithOpenAI(request, intent);
+                path = generation.path();
+                flashcards = generation.cards();
             } else {
-                System.out.println("Using fallback generation method");
-                return generateCustomFlashcards(request);
+                logger.debug("Using fallback generation method");
+                flashcards = generateCustomFlashcards(request, intent);
             }
         } catch (Exception e) {
-            System.err.println("Error in generateFlashcards: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error in generateFlashcards", e);
+            span.error(e);
             // Fallback to custom generation
-            return generateCustomFlashcards(request);
+            path = "fallback";
+            flashcards = generateCustomFlashcards(request, intent);
         }
+
+        span.tag("path", path).tag("cards.generated", flashcards.size()).end();
+        sample.stop(meterRegistry.timer("flashcards.ai.generate", "path", path));
+        meterRegistry.summary("flashcards.ai.generate.cards", "path", path).record(flashcards.size());
+        return flashcards;
     }
 
-    private String buildPrompt(AiGenerationRequest request) {
-        String text = request.getText() != null ? request.getText() : "";
+    /**
+     * The prompt template for the request: language learning, "when to use" questions or plain text cards.
+     */
+    private PromptTemplate selectPrompt(AiGenerationRequest request, PromptRouter.Intent intent) {
+        if (intent.languageLearning()) {
+            return promptTemplates.get(PromptTemplates.Kind.LANGUAGE_LEARNING, intent.targetLanguage());
+        }
+        String language = request.getLanguage() != null ? request.getLanguage() : "english";
+        return promptTemplates.get(intent.whenToUse() ? PromptTemplates.Kind.WHEN_TO_USE : PromptTemplates.Kind.DEFAULT,
+                language);
+    }
+
+    private String buildPrompt(PromptTemplate template, AiGenerationRequest request, PromptRouter.Intent intent, String text) {
         String topic = request.getTopic() != null ? request.getTopic() : "General";
         String language = request.getLanguage() != null ? request.getLanguage() : "english";
-        
-        // Check if this is a translation/language learning request
-        if (isLanguageLearningRequest(text, topic, language)) {
-            return buildLanguageLearningPrompt(request);
+        String cards = Integer.toString(request.getNumberOfCards());
+
+        // Arguments in the order of PromptTemplates.Kind parameters
+        if (intent.languageLearning()) {
+            return template.render(cards, topic, text, intent.targetLanguage());
         }
-        
-        // Check if the text contains specific instructions for flashcard format
-        if (text.toLowerCase().contains("question should be when") || 
-            text.toLowerCase().contains("when we can use") ||
-            text.toLowerCase().contains("when to use")) {
-            
-            // Custom prompt for "when to use" format
-            return String.format(
-                "Generate %d flashcards about %s in %s language. " +
-                "Follow this specific format:\n" +
-                "- Each question should ask 'When do we use X?' or 'When should we use X?'\n" +
-                "- Each answer should be the specific data structure, algorithm, or concept name\n" +
-                "- Generate all content in %s language\n\n" +
-                "Instructions: %s\n\n" +
-                "Please respond with JSON format:\n" +
-                "[\n" +
-                "  {\"question\": \"When do we use X?\", \"answer\": \"Data Structure Name\"},\n" +
-                "  {\"question\": \"When should we use Y?\", \"answer\": \"Another Data Structure\"}\n" +
-                "]\n\n" +
-                "Make sure each question asks about WHEN to use something, and the answer is the specific name. Generate everything in %s.",
-                request.getNumberOfCards(),
-                topic,
-                language,
-                language,
-                text,
-                language
-            );
-        } else {
-            // Default prompt for regular flashcards
-            return String.format(
-                "Generate %d flashcards from the following text in %s language. " +
-                "Topic: %s, Difficulty: %s\n\n" +
-                "Text: %s\n\n" +
-                "Please respond with JSON format:\n" +
-                "[\n" +
-                "  {\"question\": \"Question 1\", \"answer\": \"Answer 1\"},\n" +
-                "  {\"question\": \"Question 2\", \"answer\": \"Answer 2\"}\n" +
-                "]\n\n" +
-                "Make questions clear and answers concise. Generate all content in %s language.",
-                request.getNumberOfCards(),
-                language,
-                topic,
-                request.getDifficulty(),
-                text,
-                language
-            );
+        if (intent.whenToUse()) {
+            return template.render(cards, topic, language, text);
         }
+        return template.render(cards, language, topic, request.getDifficulty(), text);
     }
-    
-    private boolean isLanguageLearningRequest(String text, String topic, String language) {
-        String lowerText = text.toLowerCase();
-        String lowerTopic = topic.toLowerCase();
-        
-        // Only consider it a language learning request if there are explicit language learning indicators
-        // Only trigger when explicitly about language learning/translation, not generic mentions
-        return (
-                lowerText.matches(".*\\b(in|to) (hindi|spanish|french|german|italian|japanese|chinese|korean|portuguese|russian|arabic)\\b.*") ||
-                lowerText.contains("translate to ") ||
-                lowerText.contains("translation cards") ||
-                lowerText.contains("language learning") ||
-                lowerTopic.matches(".*\\b(to|in) (hindi|spanish|french|german|italian|japanese|chinese|korean|portuguese|russian|arabic)\\b.*")
-        );
+
+    /**
+     * A rendered prompt and the model and completion budget it was sized for.
+     */
+    private record PreparedPrompt(String prompt, TokenBudget.Plan plan) {
     }
-    
-    private String buildLanguageLearningPrompt(AiGenerationRequest request) {
+
+    private PreparedPrompt preparePrompt(PromptTemplate template, AiGenerationRequest request, PromptRouter.Intent intent) {
         String text = request.getText() != null ? request.getText() : "";
-        String topic = request.getTopic() != null ? request.getTopic() : "General";
-        String language = request.getLanguage() != null ? request.getLanguage() : "english";
-        
-        // Extract the target language from topic or text
-        String targetLanguage = extractTargetLanguage(text, topic, language);
-        
-        return String.format(
-            "Generate %d language learning flashcards. " +
-            "Topic: %s\n" +
-            "Request: %s\n" +
-            "Target Language: %s\n\n" +
-            "Create flashcards that help learn %s vocabulary/phrases:\n" +
-            "- Questions should be in English asking for the %s translation\n" +
-            "- Answers should be in %s\n" +
-            "- Focus on practical, useful vocabulary\n\n" +
-            "Please respond with JSON format:\n" +
-            "[\n" +
-            "  {\"question\": \"What is 'apple' in %s?\", \"answer\": \"सेब\"},\n" +
-            "  {\"question\": \"What is 'banana' in %s?\", \"answer\": \"केला\"}\n" +
-            "]\n\n" +
-            "Generate useful vocabulary flashcards for learning %s.",
-            request.getNumberOfCards(),
-            topic,
-            text,
-            targetLanguage,
-            targetLanguage,
-            targetLanguage,
-            targetLanguage,
-            targetLanguage,
-            targetLanguage,
-            targetLanguage
-        );
-    }
-    
-    private String extractTargetLanguage(String text, String topic, String language) {
-        String combined = (text + " " + topic + " " + language).toLowerCase();
-        
-        // Map language codes to language names
-        if (language.equals("hi") || combined.contains("hindi")) return "Hindi";
-        if (language.equals("es") || combined.contains("spanish") || combined.contains("español")) return "Spanish";
-        if (language.equals("fr") || combined.contains("french") || combined.contains("français")) return "French";
-        if (language.equals("de") || combined.contains("german") || combined.contains("deutsch")) return "German";
-        if (language.equals("it") || combined.contains("italian")) return "Italian";
-        if (language.equals("ja") || combined.contains("japanese") || combined.contains("日本語")) return "Japanese";
-        if (language.equals("zh") || combined.contains("chinese") || combined.contains("中文")) return "Chinese";
-        if (language.equals("ko") || combined.contains("korean") || combined.contains("한국어")) return "Korean";
-        if (language.equals("pt") || combined.contains("portuguese")) return "Portuguese";
-        if (language.equals("ru") || combined.contains("russian")) return "Russian";
-        if (language.equals("ar") || combined.contains("arabic")) return "Arabic";
-        
-        // If language is not English, try to capitalize it
-        if (!language.equals("en") && !language.equals("english")) {
-            return language.substring(0, 1).toUpperCase() + language.substring(1);
+        TokenBudget.Plan plan = tokenBudget.plan(buildPrompt(template, request, intent, ""), text, request.getNumberOfCards());
+        if (plan.trimmed()) {
+            meterRegistry.counter("flashcards.ai.prompt.trimmed").increment();
         }
-        
-        return "English"; // Default to English unless explicitly specified
+        meterRegistry.summary("flashcards.ai.prompt.tokens", "model", plan.model()).record(plan.promptTokens());
+        return new PreparedPrompt(buildPrompt(template, request, intent, plan.text()), plan);
     }
 
-    private String callOpenAI(String prompt) throws IOException {
+    private String callOpenAI(String prompt, String model, int maxTokens) throws IOException {
         ObjectNode requestBody = objectMapper.createObjectNode();
-        requestBody.put("model", "gpt-3.5-turbo");
+        requestBody.put("model", model);
         
         ArrayNode messages = objectMapper.createArrayNode();
         ObjectNode message = objectMapper.createObjectNode();
@@ -205,7 +164,7 @@ public class AiService {
         messages.add(message);
         
         requestBody.set("messages", messages);
-        requestBody.put("max_tokens", 1000);
+        requestBody.put("max_tokens", maxTokens);
         requestBody.put("temperature", 0.7);
 
         Request request = new Request.Builder()
@@ -218,33 +177,137 @@ public class AiService {
                 ))
                 .build();
 
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                throw new IOException("Unexpected response: " + response);
+        JsonNode responseJson = objectMapper.readTree(openAiUpstream.send(request));
+        JsonNode choice = responseJson.path("choices").path(0);
+        if ("length".equals(choice.path("finish_reason").asText())) {
+            // Cut off at max_tokens, which leaves the JSON array unterminated
+            logger.warn("OpenAI reply hit max_tokens={} with model {}", maxTokens, model);
+            meterRegistry.counter("flashcards.ai.openai.truncated", "model", model).increment();
+        }
+        return choice.path("message").path("content").asText();
+    }
+
+    /**
+     * What the prompt for a request is rendered from, with runs of whitespace in the text collapsed;
+     * requests with equal keys get the same cards from the model.
+     */
+    private record PromptKey(String template, String version, String text, String topic, String language,
+                             String difficulty, int cards) {
+    }
+
+    private static PromptKey promptKey(PromptTemplate template, AiGenerationRequest request) {
+        return new PromptKey(template.name(), template.version(), collapseWhitespace(request.getText()),
+                request.getTopic(), request.getLanguage(), request.getDifficulty(), request.getNumberOfCards());
+    }
+
+    private static String collapseWhitespace(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder collapsed = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = collapsed.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    collapsed.append(' ');
+                    pendingSpace = false;
+                }
+                collapsed.append(c);
             }
-            
-            JsonNode responseJson = objectMapper.readTree(response.body().string());
-            return responseJson.path("choices").path(0).path("message").path("content").asText();
         }
+        return collapsed.toString();
+    }
+
+    /**
+     * Generated cards and the path that produced them: "openai", or "fallback" when the OpenAI call
+     * could not be used.
+     */
+    private record Generation(List<FlashcardData> cards, String path) {
     }
 
-    private List<FlashcardData> generateWithOpenAI(AiGenerationRequest request) {
+    private Generation generateWithOpenAI(AiGenerationRequest request, PromptRouter.Intent intent) {
+        String promptVersion = "none";
         try {
-            String prompt = buildPrompt(request);
-            System.out.println("OpenAI Prompt: " + prompt);
-            
-            String response = callOpenAI(prompt);
-            System.out.println("OpenAI Response: " + response);
-            
-            return parseFlashcards(response);
+            PromptTemplate template = selectPrompt(request, intent);
+            promptVersion = template.version();
+            if (!coalesceEnabled) {
+                return new Generation(requestFlashcards(template, request, intent), "openai");
+            }
+            SingleFlight.Result<List<FlashcardData>> result = openAiCalls.execute(promptKey(template, request),
+                    () -> requestFlashcards(template, request, intent), coalesceWaitMs);
+            if (!result.shared()) {
+                return new Generation(result.value(), "openai");
+            }
+            logger.debug("Shared the OpenAI call of an identical request in flight");
+            meterRegistry.counter("flashcards.ai.openai.coalesced").increment();
+            Span span = tracer.currentSpan();
+            if (span != null) {
+                span.tag("coalesced", true);
+            }
+            // The list is the leader's; callers get their own
+            List<FlashcardData> cards = new ArrayList<>(result.value());
+            if (coalesceShuffle) {
+                Collections.shuffle(cards, ThreadLocalRandom.current());
+            }
+            return new Generation(cards, "openai");
+        } catch (OpenAiUpstream.CircuitOpenException e) {
+            // Opened since generateFlashcards checked; counted as a rejection, not an unusable reply
+            logger.debug("OpenAI circuit breaker is open, using fallback generation");
+            return new Generation(generateCustomFlashcards(request, intent), "fallback");
         } catch (Exception e) {
-            System.err.println("Error calling OpenAI: " + e.getMessage());
-            e.printStackTrace();
-            return generateCustomFlashcards(request);
+            logger.error("Error calling OpenAI, using fallback generation: {}", e.getMessage());
+            // Tagged by prompt version, so a prompt experiment shows up in the share of unusable replies
+            meterRegistry.counter("flashcards.ai.openai.fallbacks", "version", promptVersion).increment();
+            return new Generation(generateCustomFlashcards(request, intent), "fallback");
         }
     }
-    
-    private List<FlashcardData> parseFlashcards(String response) {
+
+    /**
+     * Builds the prompt, calls OpenAI and parses the cards; any failure, including a reply without
+     * cards, is thrown for the caller to fall back on.
+     */
+    private List<FlashcardData> requestFlashcards(PromptTemplate template, AiGenerationRequest request,
+                                                  PromptRouter.Intent intent) throws IOException {
+        boolean logFullPayloads = ThreadLocalRandom.current().nextDouble() < payloadSampleRate;
+        PreparedPrompt prepared = Spans.inSpan(tracer, "ai.prompt.build", span -> {
+            PreparedPrompt built = preparePrompt(template, request, intent);
+            span.tag("prompt.name", template.name())
+                    .tag("prompt.version", template.version())
+                    .tag("prompt.length", built.prompt().length())
+                    .tag("prompt.tokens", built.plan().promptTokens())
+                    .tag("prompt.trimmed", built.plan().trimmed())
+                    .tag("model", built.plan().model())
+                    .tag("max_tokens", built.plan().maxTokens());
+            return built;
+        });
+        String prompt = prepared.prompt();
+        if (logger.isDebugEnabled()) {
+            logger.debug("OpenAI prompt: {}", payloadForLog(prompt, logFullPayloads));
+        }
+        
+        String response = Spans.inSpan(tracer, "ai.openai.call", span -> {
+            String content = callOpenAI(prompt, prepared.plan().model(), prepared.plan().maxTokens());
+            span.tag("response.length", content.length());
+            return content;
+        });
+        if (logger.isDebugEnabled()) {
+            logger.debug("OpenAI response: {}", payloadForLog(response, logFullPayloads));
+        }
+        
+        return Spans.inSpan(tracer, "ai.response.parse", span -> {
+            List<FlashcardData> parsed = parseFlashcards(response);
+            span.tag("cards.parsed", parsed.size());
+            if (parsed.isEmpty()) {
+                throw new IOException("No flashcards in OpenAI reply");
+            }
+            return parsed;
+        });
+    }
+
+    List<FlashcardData> parseFlashcards(String response) {
         List<FlashcardData> flashcards = new ArrayList<>();
         try {
             // Clean the response - remove any markdown formatting
@@ -276,55 +339,58 @@ public class AiService {
                 }
             }
         } catch (Exception e) {
-            System.err.println("Error parsing AI response: " + e.getMessage());
-            System.err.println("Raw response: " + response);
+            logger.warn("Error parsing AI response: {} - raw response: {}", e.getMessage(),
+                    payloadForLog(response, false));
         }
         return flashcards;
     }
 
-    private List<FlashcardData> generateCustomFlashcards(AiGenerationRequest request) {
+    /**
+     * The payload itself for sampled requests, otherwise its first characters and total length.
+     */
+    private String payloadForLog(String payload, boolean full) {
+        return full ? payload : truncateForLog(payload, payloadMaxChars);
+    }
+
+    static String truncateForLog(String payload, int maxChars) {
+        if (payload == null || payload.length() <= maxChars) {
+            return payload;
+        }
+        return payload.substring(0, maxChars) + "... [" + payload.length() + " chars]";
+    }
+
+    private List<FlashcardData> generateCustomFlashcards(AiGenerationRequest request, PromptRouter.Intent intent) {
         String text = request.getText() != null ? request.getText() : "";
         String topic = request.getTopic() != null ? request.getTopic() : "General";
         String language = request.getLanguage() != null ? request.getLanguage() : "english";
         int numberOfCards = Math.max(1, request.getNumberOfCards());
         
-        System.out.println("Custom Generation - Text: '" + text + "', Topic: '" + topic + "', Language: '" + language + "', Cards: " + numberOfCards);
-        
-        String normalizedText = text.toLowerCase().trim();
-        String normalizedTopic = topic.toLowerCase().trim();
+        logger.debug("Custom generation - text: {} chars, topic: '{}', language: '{}', cards: {}",
+                text.length(), topic, language, numberOfCards);
         
         // Check for language learning requests first
-        if (isLanguageLearningRequest(text, topic, language)) {
-            System.out.println("Detected language learning request - generating translation flashcards");
-            return generateLanguageLearningFlashcards(request);
+        if (intent.languageLearning()) {
+            logger.debug("Detected language learning request - generating translation flashcards");
+            return generateLanguageLearningFlashcards(request, intent);
         }
         
         // Check for specific "when to use" format request
-        if (normalizedText.contains("question should be when") || 
-            normalizedText.contains("when we can use") ||
-            normalizedText.contains("when to use") ||
-            normalizedText.contains("when should we use") ||
-            normalizedText.contains("particular data structure") ||
-            (normalizedTopic.equals("pds") || normalizedTopic.contains("data structure"))) {
-            
-            System.out.println("Detected 'when to use' format request - generating specialized flashcards");
+        if (intent.whenToUseFallback()) {
+            logger.debug("Detected 'when to use' format request - generating specialized flashcards");
             return generateWhenToUseFlashcards(topic, numberOfCards);
         }
         
-        return generateSimpleFlashcards(request);
+        return generateSimpleFlashcards(request, intent.subject());
     }
     
-    private List<FlashcardData> generateLanguageLearningFlashcards(AiGenerationRequest request) {
-        String text = request.getText() != null ? request.getText() : "";
-        String topic = request.getTopic() != null ? request.getTopic() : "General";
-        String language = request.getLanguage() != null ? request.getLanguage() : "english";
+    private List<FlashcardData> generateLanguageLearningFlashcards(AiGenerationRequest request, PromptRouter.Intent intent) {
         int numberOfCards = Math.max(1, request.getNumberOfCards());
         
         List<FlashcardData> flashcards = new ArrayList<>();
-        String targetLanguage = extractTargetLanguage(text, topic, language);
+        String targetLanguage = intent.targetLanguage();
         
         // Generate language learning flashcards based on the request
-        if (text.toLowerCase().contains("fruit name") || text.toLowerCase().contains("fruits")) {
+        if (intent.fruitVocabulary()) {
             // Fruit vocabulary flashcards
             String[] fruitCards = getFruitVocabulary(targetLanguage);
             
@@ -519,21 +585,19 @@ public class AiService {
         return flashcards;
     }
     
-    private List<FlashcardData> generateSimpleFlashcards(AiGenerationRequest request) {
+    private List<FlashcardData> generateSimpleFlashcards(AiGenerationRequest request, PromptRouter.Subject subject) {
         List<FlashcardData> flashcards = new ArrayList<>();
         String text = request.getText() != null ? request.getText() : "";
         String topic = request.getTopic() != null ? request.getTopic() : "General";
         int numberOfCards = Math.max(1, request.getNumberOfCards());
         
-        System.out.println("AI Generation Request - Text: '" + text + "', Topic: '" + topic + "', Cards: " + numberOfCards);
+        logger.debug("Simple generation - text: {} chars, topic: '{}', cards: {}", text.length(), topic, numberOfCards);
         
         // If text is provided, analyze it and generate relevant flashcards
         if (!text.trim().isEmpty()) {
             // If the contentType is 'pdf', we already received extracted full text
-            String cleanText = text.toLowerCase().trim();
-            
             // Check if it's about car brands and countries
-            if (cleanText.contains("car") && (cleanText.contains("brand") || cleanText.contains("origin") || cleanText.contains("country"))) {
+            if (subject == PromptRouter.Subject.CAR_BRANDS) {
                 String[] carBrandCards = {
                     "Tesla is from which country?|USA",
                     "Toyota is from which country?|Japan",
@@ -566,7 +630,7 @@ public class AiService {
                 }
             }
             // Check if it's about countries
-            else if (cleanText.contains("country") || cleanText.contains("nation")) {
+            else if (subject == PromptRouter.Subject.COUNTRIES) {
                 String[] countryCards = {
                     "What is the capital of France?|Paris",
                     "What is the capital of Japan?|Tokyo",
@@ -594,7 +658,7 @@ public class AiService {
                 }
             }
             // Check if it's about animals
-            else if (cleanText.contains("animal") || cleanText.contains("pet") || cleanText.contains("wildlife")) {
+            else if (subject == PromptRouter.Subject.ANIMALS) {
                 String[] animalCards = {
                     "What is the fastest land animal?|Cheetah",
                     "What is the largest land animal?|African Elephant",
@@ -662,7 +726,7 @@ public class AiService {
         return flashcards;
     }
     
-    private List<FlashcardData> generateTopicBasedFlashcards(String text, String topic, int count) {
+    List<FlashcardData> generateTopicBasedFlashcards(String text, String topic, int count) {
         try {
             // Clean and normalize the text
             String cleanText = text.replaceAll("\\s+", " ").trim();
@@ -703,13 +767,12 @@ public class AiService {
             return generateFromKeyTerms(cleanText, topic, count);
             
         } catch (Exception e) {
-            System.err.println("Error in generateTopicBasedFlashcards: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error in generateTopicBasedFlashcards", e);
             return getFallbackFlashcards(topic, count);
         }
     }
     
-    private List<FlashcardData> generateFromKeyTerms(String text, String topic, int count) {
+    List<FlashcardData> generateFromKeyTerms(String text, String topic, int count) {
         // Extract key terms (nouns and proper nouns)
         List<String> keyTerms = new ArrayList<>();
         String[] words = text.split("\\s+");
@@ -0,0 +1,237 @@
+package com.flashcards.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Character trigram TF-IDF index over the distinct answers of one deck. Answers are scored against a
+ * query through an inverted index, so a lookup only touches answers sharing at least one trigram with
+ * it. Answers can be added and removed incrementally; IDF weights and vector norms are recomputed
+ * lazily on the next lookup after a change.
+ */
+class AnswerSimilarityIndex {
+
+    // Answers this similar to the query are treated as the same answer, not as distractors
+    private static final double DUPLICATE_THRESHOLD = 0.999;
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+
+    private static class Postings {
+        int[] slots = new int[4];
+        int[] counts = new int[4];
+        int size;
+        int liveDocs;
+        double idf;
+
+        void add(int slot, int count) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            slots[size] = slot;
+            counts[size] = count;
+            size++;
+            liveDocs++;
+        }
+    }
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<String, Integer> slotByAnswer = new HashMap<>();
+    private final List<String> answers = new ArrayList<>();
+    private final List<Map<Long, Integer>> gramCounts = new ArrayList<>();
+    private final List<Integer> refCounts = new ArrayList<>();
+    private double[] norms = new double[0];
+    private double[] scratchScores = new double[0];
+    private int[] touched = new int[0];
+    private int liveAnswers;
+    private boolean dirty;
+
+    synchronized void add(String answer) {
+        if (answer == null || answer.isBlank()) {
+            return;
+        }
+        Integer slot = slotByAnswer.get(answer);
+        if (slot != null) {
+            refCounts.set(slot, refCounts.get(slot) + 1);
+            return;
+        }
+        int newSlot = answers.size();
+        Map<Long, Integer> grams = trigrams(answer);
+        answers.add(answer);
+        gramCounts.add(grams);
+        refCounts.add(1);
+        slotByAnswer.put(answer, newSlot);
+        for (Map.Entry<Long, Integer> gram : grams.entrySet()) {
+            postings.computeIfAbsent(gram.getKey(), key -> new Postings()).add(newSlot, gram.getValue());
+        }
+        liveAnswers++;
+        dirty = true;
+    }
+
+    synchronized void remove(String answer) {
+        if (answer == null) {
+            return;
+        }
+        Integer slot = slotByAnswer.get(answer);
+        if (slot == null) {
+            return;
+        }
+        int refs = refCounts.get(slot) - 1;
+        refCounts.set(slot, refs);
+        if (refs > 0) {
+            return;
+        }
+        // Tombstone the slot; postings entries for it are skipped until the next compaction
+        slotByAnswer.remove(answer);
+        for (Long gram : gramCounts.get(slot).keySet()) {
+            Postings list = postings.get(gram);
+            if (list != null) {
+                list.liveDocs--;
+            }
+        }
+        answers.set(slot, null);
+        gramCounts.set(slot, null);
+        liveAnswers--;
+        dirty = true;
+        if (answers.size() > 64 && liveAnswers < answers.size() / 2) {
+            compact();
+        }
+    }
+
+    synchronized int size() {
+        return liveAnswers;
+    }
+
+    /**
+     * Up to {@code limit} answers most similar to {@code answer}, best first, excluding the answer itself.
+     */
+    synchronized List<String> nearest(String answer, int limit) {
+        if (answer == null || liveAnswers == 0 || limit <= 0) {
+            return List.of();
+        }
+        if (dirty) {
+            recomputeWeights();
+        }
+
+        Map<Long, Integer> queryGrams = trigrams(answer);
+        double queryNorm = 0;
+        int touchedCount = 0;
+        for (Map.Entry<Long, Integer> gram : queryGrams.entrySet()) {
+            Postings list = postings.get(gram.getKey());
+            if (list == null || list.liveDocs == 0) {
+                continue;
+            }
+            double queryWeight = gram.getValue() * list.idf;
+            queryNorm += queryWeight * queryWeight;
+            for (int i = 0; i < list.size; i++) {
+                int slot = list.slots[i];
+                if (answers.get(slot) == null) {
+                    continue;
+                }
+                if (scratchScores[slot] == 0) {
+                    touched[touchedCount++] = slot;
+                }
+                scratchScores[slot] += queryWeight * list.counts[i] * list.idf;
+            }
+        }
+        queryNorm = Math.sqrt(queryNorm);
+
+        // Small fixed-size top-k selection; limit is the number of distractors, typically 3
+        int[] bestSlots = new int[limit];
+        double[] bestScores = new double[limit];
+        int found = 0;
+        for (int t = 0; t < touchedCount; t++) {
+            int slot = touched[t];
+            double score = queryNorm > 0 && norms[slot] > 0 ? scratchScores[slot] / (queryNorm * norms[slot]) : 0;
+            scratchScores[slot] = 0;
+            if (score <= 0 || score >= DUPLICATE_THRESHOLD || answer.equals(answers.get(slot))) {
+                continue;
+            }
+            if (found < limit) {
+                found++;
+            } else if (score <= bestScores[limit - 1]) {
+                continue;
+            }
+            int pos = found - 1;
+            while (pos > 0 && bestScores[pos - 1] < score) {
+                bestScores[pos] = bestScores[pos - 1];
+                bestSlots[pos] = bestSlots[pos - 1];
+                pos--;
+            }
+            bestScores[pos] = score;
+            bestSlots[pos] = slot;
+        }
+
+        List<String> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            result.add(answers.get(bestSlots[i]));
+        }
+        return result;
+    }
+
+    private void recomputeWeights() {
+        double liveCount = Math.max(1, liveAnswers);
+        for (Postings list : postings.values()) {
+            list.idf = list.liveDocs > 0 ? Math.log(1 + liveCount / list.liveDocs) : 0;
+        }
+        int slots = answers.size();
+        norms = new double[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            Map<Long, Integer> grams = gramCounts.get(slot);
+            if (grams == null) {
+                continue;
+            }
+            double sum = 0;
+            for (Map.Entry<Long, Integer> gram : grams.entrySet()) {
+                double weight = gram.getValue() * postings.get(gram.getKey()).idf;
+                sum += weight * weight;
+            }
+            norms[slot] = Math.sqrt(sum);
+        }
+        if (scratchScores.length < slots) {
+            scratchScores = new double[slots];
+            touched = new int[slots];
+        }
+        dirty = false;
+    }
+
+    private void compact() {
+        List<String> live = new ArrayList<>(liveAnswers);
+        List<Integer> liveRefs = new ArrayList<>(liveAnswers);
+        for (int slot = 0; slot < answers.size(); slot++) {
+            if (answers.get(slot) != null) {
+                live.add(answers.get(slot));
+                liveRefs.add(refCounts.get(slot));
+            }
+        }
+        postings.clear();
+        slotByAnswer.clear();
+        answers.clear();
+        gramCounts.clear();
+        refCounts.clear();
+        liveAnswers = 0;
+        for (int i = 0; i < live.size(); i++) {
+            add(live.get(i));
+            refCounts.set(i, liveRefs.get(i));
+        }
+    }
+
+    /**
+     * Character trigrams of the lowercased, whitespace-collapsed answer padded with one space on
+     * each side, packed into a long (three UTF-16 chars) to avoid substring allocation.
+     */
+    static Map<Long, Integer> trigrams(String text) {
+        String normalized = " " + WHITESPACE_PATTERN.matcher(text.toLowerCase().trim()).replaceAll(" ") + " ";
+        Map<Long, Integer> grams = new HashMap<>();
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            long key = ((long) normalized.charAt(i) << 32)
+                    | ((long) normalized.charAt(i + 1) << 16)
+                    | normalized.charAt(i + 2);
+            grams.merge(key, 1, Integer::sum);
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,315 @@
+package com.flashcards.service;
+
+import com.flashcards.dto.AutocompleteSuggestion;
+import com.flashcards.model.Deck;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Search-box completions over public deck names and their tags, served from an in-memory
+ * {@link CompletionTrie}. Deck writes update the trie directly; a full rebuild from MongoDB runs in the
+ * background on startup, after a snapshot on local disk has been loaded so completions are available
+ * immediately. Tags are weighted by the number of public decks using them.
+ */
+@Service
+public class AutocompleteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutocompleteService.class);
+    static final int MAX_LIMIT = 20;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private static final class IndexedDeck {
+        final String name;
+        final long weight;
+        final List<String> tags;
+
+        IndexedDeck(String name, long weight, List<String> tags) {
+            this.name = name;
+            this.weight = weight;
+            this.tags = tags != null ? tags : List.of();
+        }
+    }
+
+    /**
+     * The trie plus the per-deck bookkeeping needed to update it incrementally.
+     */
+    private static final class Completions {
+        final CompletionTrie trie = new CompletionTrie();
+        final Map<String, IndexedDeck> decks = new HashMap<>();
+        final Map<String, Integer> tagCounts = new HashMap<>();
+
+        void apply(Deck deck) {
+            IndexedDeck previous = decks.remove(deck.getId());
+            if (previous != null) {
+                trie.remove("deck:" + deck.getId());
+                for (String tag : previous.tags) {
+                    adjustTag(tag, -1);
+                }
+            }
+            if (deck.isPublic() && deck.getName() != null) {
+                index(deck.getId(), new IndexedDeck(deck.getName(), deckWeight(deck), deck.getTags()));
+            }
+        }
+
+        void index(String deckId, IndexedDeck deck) {
+            decks.put(deckId, deck);
+            trie.put("deck:" + deckId, deck.name, deck.weight);
+            for (String tag : deck.tags) {
+                adjustTag(tag, 1);
+            }
+        }
+
+        private void adjustTag(String tag, int delta) {
+            String key = CompletionTrie.normalize(tag);
+            if (key.isEmpty()) {
+                return;
+            }
+            int count = tagCounts.getOrDefault(key, 0) + delta;
+            if (count <= 0) {
+                tagCounts.remove(key);
+                trie.remove("tag:" + key);
+            } else {
+                tagCounts.put(key, count);
+                trie.put("tag:" + key, key, count);
+            }
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+
+    // Guarded by this
+    private Completions completions = new Completions();
+    private List<Deck> changedDuringRebuild;
+    private boolean dirty;
+
+    @Value("${autocomplete.snapshot-path:./data/autocomplete.snapshot}")
+    private String snapshotPath = "./data/autocomplete.snapshot";
+
+    @Value("${autocomplete.snapshot-interval-minutes:10}")
+    private long snapshotIntervalMinutes = 10;
+
+    private ScheduledExecutorService executor;
+
+    public AutocompleteService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "autocomplete");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(this::loadSnapshotSafely);
+        // The snapshot may miss decks deleted or changed while the application was down
+        executor.execute(this::rebuildSafely);
+        executor.scheduleWithFixedDelay(this::saveSnapshotSafely,
+                snapshotIntervalMinutes, snapshotIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            saveSnapshotSafely();
+        }
+    }
+
+    public List<AutocompleteSuggestion> complete(String prefix, int limit) {
+        CompletionTrie current;
+        synchronized (this) {
+            current = completions.trie;
+        }
+        List<AutocompleteSuggestion> suggestions = new ArrayList<>();
+        for (CompletionTrie.Entry entry : current.complete(prefix, Math.max(1, Math.min(limit, MAX_LIMIT)))) {
+            boolean isDeck = entry.id.startsWith("deck:");
+            suggestions.add(new AutocompleteSuggestion(
+                    isDeck ? "deck" : "tag",
+                    entry.text,
+                    isDeck ? entry.id.substring("deck:".length()) : null));
+        }
+        return suggestions;
+    }
+
+    /**
+     * Call after a deck is created or updated; private decks are removed from the completions.
+     */
+    public synchronized void onDeckSaved(Deck deck) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(deck);
+        }
+        completions.apply(deck);
+        dirty = true;
+    }
+
+    public synchronized void onDeckDeleted(String deckId) {
+        Deck removed = new Deck();
+        removed.setId(deckId);
+        onDeckSaved(removed); // Treated like a deck that is no longer public
+    }
+
+    public synchronized int size() {
+        return completions.trie.size();
+    }
+
+    private void loadSnapshotSafely() {
+        Path snapshot = Paths.get(snapshotPath);
+        if (!Files.exists(snapshot)) {
+            return;
+        }
+        try {
+            int loaded = loadSnapshot(snapshot);
+            logger.info("Loaded {} decks into autocomplete from snapshot", loaded);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable autocomplete snapshot: {}", e.getMessage());
+            stopTrackingChanges();
+        }
+    }
+
+    private void rebuildSafely() {
+        try {
+            long started = System.currentTimeMillis();
+            int count = rebuild();
+            logger.info("Rebuilt autocomplete from {} public decks in {} ms", count, System.currentTimeMillis() - started);
+            saveSnapshotSafely();
+        } catch (Exception e) {
+            logger.warn("Autocomplete rebuild did not complete: {}", e.getMessage());
+            stopTrackingChanges();
+        }
+    }
+
+    /**
+     * Builds fresh structures from all public decks and swaps them in. Deck writes that happen while the
+     * scan runs are replayed onto the new structures, so none are lost. Loading a snapshot works the same way.
+     */
+    int rebuild() {
+        startTrackingChanges();
+        Query publicDecks = new Query(Criteria.where("isPublic").is(true));
+        publicDecks.fields().include("name").include("tags").include("isPublic")
+                .include("totalViews").include("totalCopies");
+        Completions fresh = new Completions();
+        try (Stream<Deck> stream = mongoTemplate.stream(publicDecks, Deck.class)) {
+            Iterator<Deck> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                fresh.apply(iterator.next());
+            }
+        }
+        swapIn(fresh);
+        return fresh.decks.size();
+    }
+
+    private synchronized void startTrackingChanges() {
+        changedDuringRebuild = new ArrayList<>();
+    }
+
+    private synchronized void stopTrackingChanges() {
+        changedDuringRebuild = null;
+    }
+
+    private synchronized void swapIn(Completions fresh) {
+        for (Deck deck : changedDuringRebuild) {
+            fresh.apply(deck);
+        }
+        changedDuringRebuild = null;
+        completions = fresh;
+        dirty = true;
+    }
+
+    static long deckWeight(Deck deck) {
+        return 1L + deck.getTotalViews() + 5L * deck.getTotalCopies();
+    }
+
+    private void saveSnapshotSafely() {
+        try {
+            saveSnapshot(Paths.get(snapshotPath));
+        } catch (IOException e) {
+            logger.warn("Could not write autocomplete snapshot: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the indexed decks to a temporary file and moves it into place, so a crash never leaves a
+     * partial snapshot behind. Nothing is written if there were no changes since the last snapshot.
+     */
+    void saveSnapshot(Path path) throws IOException {
+        Map<String, IndexedDeck> current;
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            current = new HashMap<>(completions.decks);
+            dirty = false;
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(current.size());
+            for (Map.Entry<String, IndexedDeck> entry : current.entrySet()) {
+                IndexedDeck deck = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeUTF(deck.name);
+                out.writeLong(deck.weight);
+                out.writeInt(deck.tags.size());
+                for (String tag : deck.tags) {
+                    out.writeUTF(tag);
+                }
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    int loadSnapshot(Path path) throws IOException {
+        startTrackingChanges();
+        Completions fresh = new Completions();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("unsupported snapshot version");
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String deckId = in.readUTF();
+                String name = in.readUTF();
+                long weight = in.readLong();
+                int tagCount = in.readInt();
+                List<String> tags = new ArrayList<>(tagCount);
+                for (int t = 0; t < tagCount; t++) {
+                    tags.add(in.readUTF());
+                }
+                fresh.index(deckId, new IndexedDeck(name, weight, tags));
+            }
+            swapIn(fresh);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.flashcards.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Stops calls to an upstream that keeps failing or answering slowly. The outcomes of the last
+ * {@code windowSize} calls are kept; once at least {@code minimumCalls} of them are in and the share of
+ * failures or of slow calls reaches its threshold, the breaker opens and refuses calls. After the open
+ * period a few trial calls are let through: the breaker closes when all of them succeed in time and
+ * opens again on the first one that does not.
+ */
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRatePercent;
+    private final long slowCallNanos;
+    private final int slowCallRatePercent;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    // Ring of the last outcomes, bit 0 = failed, bit 1 = slow
+    private final byte[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int trialPermits;
+    private int trialSuccesses;
+    private BiConsumer<State, State> onTransition = (from, to) -> { };
+
+    public CircuitBreaker(int windowSize, int minimumCalls, int failureRatePercent, long slowCallMillis,
+                          int slowCallRatePercent, long openMillis, int halfOpenCalls) {
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.failureRatePercent = failureRatePercent;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        this.slowCallRatePercent = slowCallRatePercent;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.outcomes = new byte[this.windowSize];
+    }
+
+    /**
+     * Called with the old and new state on every change, while the breaker is locked.
+     */
+    synchronized void onTransition(BiConsumer<State, State> listener) {
+        this.onTransition = listener;
+    }
+
+    /**
+     * Whether a call may be made now, without taking a trial permit. For skipping work that only makes
+     * sense if the call can go ahead; {@link #tryAcquire} still decides.
+     */
+    synchronized boolean isCallPermitted() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> System.nanoTime() - openedAt >= openNanos;
+            case HALF_OPEN -> trialPermits > 0;
+        };
+    }
+
+    /**
+     * Asks to make a call. Every granted call must be followed by {@link #record} or {@link #release}.
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            transition(State.HALF_OPEN);
+            trialPermits = halfOpenCalls;
+            trialSuccesses = 0;
+        }
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (trialPermits > 0) {
+                    trialPermits--;
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Records the outcome of a granted call.
+     */
+    synchronized void record(boolean failed, long durationNanos) {
+        boolean slow = durationNanos >= slowCallNanos;
+        if (state == State.HALF_OPEN) {
+            if (failed || slow) {
+                open();
+            } else if (++trialSuccesses >= halfOpenCalls) {
+                transition(State.CLOSED);
+                clearWindow();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return; // Granted before another call opened the breaker
+        }
+
+        if (recorded == windowSize) {
+            byte evicted = outcomes[next];
+            failures -= evicted & 1;
+            slowCalls -= (evicted >> 1) & 1;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = (byte) ((failed ? 1 : 0) | (slow ? 2 : 0));
+        next = (next + 1) % windowSize;
+        failures += failed ? 1 : 0;
+        slowCalls += slow ? 1 : 0;
+
+        if (recorded >= minimumCalls
+                && (failures * 100 >= failureRatePercent * recorded || slowCalls * 100 >= slowCallRatePercent * recorded)) {
+            open();
+        }
+    }
+
+    /**
+     * Gives back a granted call that was not made, or whose outcome says nothing about the upstream.
+     */
+    synchronized void release() {
+        if (state == State.HALF_OPEN) {
+            trialPermits++;
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    private void open() {
+        transition(State.OPEN);
+        openedAt = System.nanoTime();
+        clearWindow();
+    }
+
+    private void clearWindow() {
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+
+    private void transition(State to) {
+        State from = state;
+        state = to;
+        if (from != to) {
+            onTransition.accept(from, to);
+        }
+    }
+}
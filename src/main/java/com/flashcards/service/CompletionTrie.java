@@ -0,0 +1,333 @@
+package com.flashcards.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Weighted prefix completion over short texts (deck names, tags). Keys live in a radix tree whose
+ * nodes record the highest weight in their subtree, so the top k completions of a prefix are found
+ * best-first without visiting the rest of the subtree. A text is also reachable from the start of
+ * each of its first few words, so "bio" completes "Intro to Biology".
+ */
+class CompletionTrie {
+
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+    private static final int MAX_WORD_KEYS = 4;
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final char[] NO_FIRST_CHARS = new char[0];
+
+    /**
+     * One completable item. The id is unique across the trie, e.g. "deck:&lt;deckId&gt;" or "tag:java".
+     */
+    static final class Entry {
+        final String id;
+        final String text;
+        final long weight;
+        final String[] keys;
+
+        Entry(String id, String text, long weight) {
+            this.id = id;
+            this.text = text;
+            this.weight = weight;
+            this.keys = keysFor(text);
+        }
+    }
+
+    private static final class Node {
+        String label;
+        Node[] children = NO_CHILDREN;
+        char[] firstChars = NO_FIRST_CHARS; // First label char of each child, scanned without touching the children
+        Entry[] entries = NO_ENTRIES;
+        long maxWeight = Long.MIN_VALUE;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char first) {
+            for (int i = 0; i < firstChars.length; i++) {
+                if (firstChars[i] == first) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        void setChildren(Node[] nodes) {
+            children = nodes;
+            firstChars = new char[nodes.length];
+            for (int i = 0; i < nodes.length; i++) {
+                firstChars[i] = nodes[i].label.charAt(0);
+            }
+        }
+
+        void recomputeMaxWeight() {
+            long max = Long.MIN_VALUE;
+            for (Entry entry : entries) {
+                max = Math.max(max, entry.weight);
+            }
+            for (Node child : children) {
+                max = Math.max(max, child.maxWeight);
+            }
+            maxWeight = max;
+        }
+    }
+
+    private final Node root = new Node("");
+    private final Map<String, Entry> entriesById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return entriesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Collection<Entry> entries() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(entriesById.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the entry, replacing any entry with the same id.
+     */
+    void put(String id, String text, long weight) {
+        if (text == null || text.isBlank()) {
+            remove(id);
+            return;
+        }
+        Entry entry = new Entry(id, text, weight);
+        lock.writeLock().lock();
+        try {
+            Entry previous = entriesById.put(id, entry);
+            if (previous != null) {
+                for (String key : previous.keys) {
+                    removeEntry(root, key, 0, id);
+                }
+            }
+            for (String key : entry.keys) {
+                insert(root, key, 0, entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entriesById.remove(id);
+            if (previous != null) {
+                for (String key : previous.keys) {
+                    removeEntry(root, key, 0, id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} entries having a key that starts with the prefix, highest weight first.
+     */
+    List<Entry> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node start = find(key);
+            if (start == null) {
+                return List.of();
+            }
+            // Nodes are queued by their subtree maximum and entries by their own weight; popping an entry
+            // therefore means nothing left in the queue can outrank it
+            PriorityQueue<Object[]> queue = new PriorityQueue<>((a, b) -> Long.compare((long) b[0], (long) a[0]));
+            queue.add(new Object[] {start.maxWeight, start});
+            List<Entry> results = new ArrayList<>(limit);
+            Set<String> seen = new HashSet<>();
+            while (!queue.isEmpty() && results.size() < limit) {
+                Object item = queue.poll()[1];
+                if (item instanceof Entry entry) {
+                    if (seen.add(entry.id)) {
+                        results.add(entry);
+                    }
+                    continue;
+                }
+                Node node = (Node) item;
+                for (Entry entry : node.entries) {
+                    queue.add(new Object[] {entry.weight, entry});
+                }
+                for (Node child : node.children) {
+                    queue.add(new Object[] {child.maxWeight, child});
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The node whose subtree holds every key starting with the prefix, or null if there is none.
+     */
+    private Node find(String prefix) {
+        Node node = root;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            Node child = node.child(prefix.charAt(pos));
+            if (child == null) {
+                return null;
+            }
+            String label = child.label;
+            int common = commonPrefixLength(label, prefix, pos);
+            if (pos + common == prefix.length()) {
+                return child; // Prefix ends on or inside this edge
+            }
+            if (common < label.length()) {
+                return null;
+            }
+            pos += common;
+            node = child;
+        }
+        return node;
+    }
+
+    private static void insert(Node node, String key, int pos, Entry entry) {
+        if (pos == key.length()) {
+            node.entries = Arrays.copyOf(node.entries, node.entries.length + 1);
+            node.entries[node.entries.length - 1] = entry;
+        } else {
+            Node child = node.child(key.charAt(pos));
+            if (child == null) {
+                Node leaf = new Node(key.substring(pos));
+                leaf.entries = new Entry[] {entry};
+                leaf.maxWeight = entry.weight;
+                node.children = Arrays.copyOf(node.children, node.children.length + 1);
+                node.children[node.children.length - 1] = leaf;
+                node.firstChars = Arrays.copyOf(node.firstChars, node.firstChars.length + 1);
+                node.firstChars[node.firstChars.length - 1] = leaf.label.charAt(0);
+            } else {
+                int common = commonPrefixLength(child.label, key, pos);
+                if (common < child.label.length()) {
+                    split(child, common);
+                }
+                insert(child, key, pos + common, entry);
+            }
+        }
+        node.maxWeight = Math.max(node.maxWeight, entry.weight);
+    }
+
+    /**
+     * Splits the node's edge after {@code at} characters; the node keeps the head of the label and a
+     * new child takes over the tail together with the node's entries and children.
+     */
+    private static void split(Node node, int at) {
+        Node tail = new Node(node.label.substring(at));
+        tail.children = node.children;
+        tail.firstChars = node.firstChars;
+        tail.entries = node.entries;
+        tail.maxWeight = node.maxWeight;
+        node.label = node.label.substring(0, at);
+        node.setChildren(new Node[] {tail});
+        node.entries = NO_ENTRIES;
+    }
+
+    /**
+     * Removes the entry from the node holding the key and prunes nodes left empty.
+     * Returns true if the node itself became empty.
+     */
+    private static boolean removeEntry(Node node, String key, int pos, String id) {
+        if (pos == key.length()) {
+            for (int i = 0; i < node.entries.length; i++) {
+                if (node.entries[i].id.equals(id)) {
+                    Entry[] remaining = new Entry[node.entries.length - 1];
+                    System.arraycopy(node.entries, 0, remaining, 0, i);
+                    System.arraycopy(node.entries, i + 1, remaining, i, remaining.length - i);
+                    node.entries = remaining;
+                    break;
+                }
+            }
+        } else {
+            Node child = node.child(key.charAt(pos));
+            if (child == null || !key.startsWith(child.label, pos)) {
+                return false;
+            }
+            if (removeEntry(child, key, pos + child.label.length(), id)) {
+                Node[] remaining = new Node[node.children.length - 1];
+                int j = 0;
+                for (Node other : node.children) {
+                    if (other != child) {
+                        remaining[j++] = other;
+                    }
+                }
+                node.setChildren(remaining);
+            } else if (child.entries.length == 0 && child.children.length == 1) {
+                // Keep the tree compressed: fold a pass-through node into its only child
+                Node only = child.children[0];
+                child.label = child.label + only.label;
+                child.children = only.children;
+                child.firstChars = only.firstChars;
+                child.entries = only.entries;
+                child.maxWeight = only.maxWeight;
+            }
+        }
+        node.recomputeMaxWeight();
+        return node.entries.length == 0 && node.children.length == 0;
+    }
+
+    private static int commonPrefixLength(String label, String key, int pos) {
+        int max = Math.min(label.length(), key.length() - pos);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(pos + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return WHITESPACE_PATTERN.matcher(text.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+
+    /**
+     * The full text plus the suffixes starting at each of its next few words.
+     */
+    static String[] keysFor(String text) {
+        String normalized = normalize(text);
+        List<String> keys = new ArrayList<>(MAX_WORD_KEYS + 1);
+        keys.add(normalized);
+        int from = 0;
+        while (keys.size() <= MAX_WORD_KEYS) {
+            int space = normalized.indexOf(' ', from);
+            if (space < 0) {
+                break;
+            }
+            from = space + 1;
+            keys.add(normalized.substring(from));
+        }
+        return keys.toArray(new String[0]);
+    }
+}
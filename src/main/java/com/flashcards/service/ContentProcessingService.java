@@ -1,5 +1,9 @@
 package com.flashcards.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
 import org.apache.pdfbox.Loader;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
@@ -12,6 +16,7 @@ import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 
 import java.util.Arrays;
 import java.util.HashSet;
@@ -28,10 +33,25 @@ public class ContentProcessingService {
     private static final int MAX_CONTENT_LENGTH = 100000; // 100KB max content length
     private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
 
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
+
+    public ContentProcessingService(MeterRegistry meterRegistry, Tracer tracer) {
+        this.meterRegistry = meterRegistry;
+        this.tracer = tracer;
+    }
+
     /**
      * Extract text content from a PDF file
      */
     public String extractTextFromPdf(byte[] pdfBytes) throws IOException {
+        return Spans.inSpan(tracer, "content.extract.pdf", span -> {
+            span.tag("input.bytes", pdfBytes != null ? pdfBytes.length : 0);
+            return tagTextLength(span, readPdf(pdfBytes));
+        });
+    }
+
+    private String readPdf(byte[] pdfBytes) throws IOException {
         if (pdfBytes == null || pdfBytes.length == 0) {
             throw new IllegalArgumentException("PDF content cannot be null or empty");
         }
@@ -40,6 +60,8 @@ public class ContentProcessingService {
             throw new IOException("PDF file size exceeds maximum allowed size (10MB)");
         }
 
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try (PDDocument document = Loader.loadPDF(pdfBytes)) {
             PDFTextStripper stripper = new PDFTextStripper();
             stripper.setSortByPosition(true);
@@ -60,10 +82,14 @@ public class ContentProcessingService {
                 text = text.substring(0, MAX_CONTENT_LENGTH) + "\n[Content truncated due to length]";
             }
 
+            outcome = "success";
+            recordBytes("pdf", pdfBytes.length, text);
             return text;
         } catch (Exception e) {
             logger.error("Error extracting text from PDF", e);
             throw new IOException("Failed to extract text from PDF: " + e.getMessage(), e);
+        } finally {
+            stopExtraction(sample, "pdf", outcome);
         }
     }
 
@@ -71,6 +97,12 @@ public class ContentProcessingService {
      * Extract text content from a URL
      */
     public String extractTextFromUrl(String urlString) throws IOException {
+        return Spans.inSpan(tracer, "content.extract.url", span -> tagTextLength(span, fetchUrlText(urlString)));
+    }
+
+    private String fetchUrlText(String urlString) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             URL url = new URL(urlString);
 
@@ -97,32 +129,44 @@ public class ContentProcessingService {
                 throw new IOException("HTTP error fetching URL: " + statusCode);
             }
 
-            // Clean the HTML and get the cleaned HTML as a string
-            String cleanedHtml = Jsoup.clean(doc.body().html(), Safelist.relaxed()
-                    .addTags("p", "h1", "h2", "h3", "h4", "h5", "h6", "ul", "ol", "li", "pre", "code"));
-            
-            // Parse the cleaned HTML to a new document
-            Document cleanedDoc = Jsoup.parse(cleanedHtml);
-
-            // Extract and clean text
-            String text = cleanedDoc.text()
-                    .replaceAll("\u00A0", " ")  // Replace non-breaking spaces
-                    .replaceAll("\u2013|\u2014", "-")  // Replace en/em dashes
-                    .replaceAll("\\s*[\\r\\n]+\\s*", "\\n")  // Normalize newlines
-                    .replaceAll("\\s*[\\u2028\\u2029]\\s*", "\\n")  // Line/paragraph separators
-                    .replaceAll(WHITESPACE_PATTERN.pattern(), " ")  // Normalize spaces
-                    .trim();
+            String bodyHtml = doc.body().html();
+            String text = htmlToText(bodyHtml);
 
             if (text.length() > MAX_CONTENT_LENGTH) {
                 text = text.substring(0, MAX_CONTENT_LENGTH) + "\n[Content truncated due to length]";
             }
 
+            outcome = "success";
+            recordBytes("url", bodyHtml.length(), text);
             return text;
         } catch (Exception e) {
             throw new IOException("Failed to extract content from URL: " + e.getMessage(), e);
+        } finally {
+            stopExtraction(sample, "url", outcome);
         }
     }
 
+    /**
+     * Readable text of a page body - unsafe markup dropped, whitespace and punctuation normalized
+     */
+    static String htmlToText(String bodyHtml) {
+        // Clean the HTML and get the cleaned HTML as a string
+        String cleanedHtml = Jsoup.clean(bodyHtml, Safelist.relaxed()
+                .addTags("p", "h1", "h2", "h3", "h4", "h5", "h6", "ul", "ol", "li", "pre", "code"));
+        
+        // Parse the cleaned HTML to a new document
+        Document cleanedDoc = Jsoup.parse(cleanedHtml);
+
+        // Extract and clean text
+        return cleanedDoc.text()
+                .replaceAll("\u00A0", " ")  // Replace non-breaking spaces
+                .replaceAll("\u2013|\u2014", "-")  // Replace en/em dashes
+                .replaceAll("\\s*[\\r\\n]+\\s*", "\\n")  // Normalize newlines
+                .replaceAll("\\s*[\\u2028\\u2029]\\s*", "\\n")  // Line/paragraph separators
+                .replaceAll(WHITESPACE_PATTERN.pattern(), " ")  // Normalize spaces
+                .trim();
+    }
+
     /**
      * Extract text content from a text document
      */
@@ -141,6 +185,7 @@ public class ContentProcessingService {
             switch (contentType.toLowerCase()) {
                 case "text":
                     processedContent = content;
+                    recordBytes("text", content.getBytes(StandardCharsets.UTF_8).length, content);
                     break;
                 case "url":
                     processedContent = extractTextFromUrl(content);
@@ -171,6 +216,24 @@ public class ContentProcessingService {
         }
     }
 
+    /**
+     * Input size against what is left after extraction; URL input is measured as the characters of the fetched page body.
+     */
+    private void recordBytes(String contentType, long inputBytes, String text) {
+        meterRegistry.summary("flashcards.content.input.bytes", "type", contentType).record(inputBytes);
+        meterRegistry.summary("flashcards.content.extracted.bytes", "type", contentType)
+                .record(text.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static String tagTextLength(Span span, String text) {
+        span.tag("text.length", text.length());
+        return text;
+    }
+
+    private void stopExtraction(Timer.Sample sample, String contentType, String outcome) {
+        sample.stop(meterRegistry.timer("flashcards.content.extraction", "type", contentType, "outcome", outcome));
+    }
+
     private boolean isAllowedDomain(String host) {
         return ALLOWED_DOMAINS.contains(host);
     }
@@ -0,0 +1,113 @@
+package com.flashcards.service;
+
+import com.flashcards.model.Deck;
+import com.flashcards.model.Feedback;
+import com.flashcards.model.User;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admin dashboard counters. They are computed in the background on a fixed schedule and kept as an
+ * immutable snapshot, so serving the dashboard never touches MongoDB. Collection totals use the
+ * collection's metadata count; filtered counts are index-backed countDocuments queries.
+ */
+@Service
+public class DashboardStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardStatsService.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${admin.stats.refresh-seconds:60}")
+    private long refreshSeconds = 60;
+
+    @Value("${admin.stats.active-days:30}")
+    private int activeDays = 30;
+
+    private volatile Map<String, Object> snapshot;
+    private ScheduledExecutorService executor;
+
+    public DashboardStatsService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::refreshSafely, 0, refreshSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * The latest snapshot; computed on the caller's thread only if none has been taken yet.
+     */
+    public Map<String, Object> getSnapshot() {
+        Map<String, Object> current = snapshot;
+        return current != null ? current : refresh();
+    }
+
+    private void refreshSafely() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            // Never let an exception cancel the scheduled task; the previous snapshot stays in place
+            logger.warn("Dashboard stats refresh failed: {}", e.getMessage());
+        }
+    }
+
+    synchronized Map<String, Object> refresh() {
+        long started = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Object> stats = new HashMap<>();
+
+        // User stats - active means logged in within the window
+        stats.put("totalUsers", mongoTemplate.estimatedCount(User.class));
+        stats.put("activeUsers", countUsersActiveSince(now.minusDays(activeDays)));
+        stats.put("activeUsersToday", countUsersActiveSince(now.minusDays(1)));
+        stats.put("activeUsersThisWeek", countUsersActiveSince(now.minusDays(7)));
+
+        // Deck stats
+        stats.put("totalDecks", mongoTemplate.estimatedCount(Deck.class));
+        stats.put("publicDecks", mongoTemplate.count(new Query(Criteria.where("isPublic").is(true)), Deck.class));
+
+        // Feedback stats
+        stats.put("totalFeedback", mongoTemplate.estimatedCount(Feedback.class));
+        stats.put("pendingFeedback", mongoTemplate.count(new Query(Criteria.where("status").is("pending")), Feedback.class));
+
+        stats.put("generatedAt", now);
+        stats.put("refreshMillis", System.currentTimeMillis() - started);
+        Map<String, Object> fresh = Collections.unmodifiableMap(stats);
+        snapshot = fresh;
+        return fresh;
+    }
+
+    private long countUsersActiveSince(LocalDateTime since) {
+        return mongoTemplate.count(new Query(Criteria.where("lastLoginAt").gte(since)), User.class);
+    }
+}
@@ -0,0 +1,255 @@
+package com.flashcards.service;
+
+import com.flashcards.model.Deck;
+import com.flashcards.model.Flashcard;
+import com.flashcards.model.UserProgress;
+import com.flashcards.repository.DeckRepository;
+import com.flashcards.repository.FlashcardRepository;
+import com.flashcards.repository.UserProgressRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Copy-on-write deck duplication. A fork stores a reference to its base deck plus only the cards its
+ * owner added, edited or deleted (the overlay); every other card is read through from the base deck.
+ * Untouched base cards are presented under a virtual id, "forkDeckId~baseCardId", so that editing or
+ * deleting one can be routed to the fork, where it is materialized as an overlay card at that point.
+ * Study progress recorded against the virtual id moves to the overlay card with it.
+ *
+ * <p>Edits to a base card show up in its forks until they override it. Forks are never chained: forking
+ * a fork shares the original base and copies the overlay. Deleting a base deck turns its forks into
+ * ordinary decks first.
+ */
+@Service
+public class DeckForkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeckForkService.class);
+    static final String VIRTUAL_ID_SEPARATOR = "~";
+
+    private final DeckRepository deckRepository;
+    private final FlashcardRepository flashcardRepository;
+    private final SearchService searchService;
+    private final UserProgressRepository userProgressRepository;
+
+    @Value("${deck.duplicate.lazy:true}")
+    private boolean lazy = true;
+
+    public DeckForkService(DeckRepository deckRepository,
+                           FlashcardRepository flashcardRepository,
+                           SearchService searchService,
+                           UserProgressRepository userProgressRepository) {
+        this.deckRepository = deckRepository;
+        this.flashcardRepository = flashcardRepository;
+        this.searchService = searchService;
+        this.userProgressRepository = userProgressRepository;
+    }
+
+    public boolean isEnabled() {
+        return lazy;
+    }
+
+    public static boolean isVirtualId(String flashcardId) {
+        return flashcardId != null && flashcardId.contains(VIRTUAL_ID_SEPARATOR);
+    }
+
+    /**
+     * Makes the already saved {@code copy} a fork of {@code source}; no base cards are copied.
+     */
+    public Deck fork(Deck source, Deck copy) {
+        if (source.getBaseDeckId() == null) {
+            copy.setBaseDeckId(source.getId());
+        } else {
+            // Share the source's base and carry its overlay over, so reads never follow a chain of forks
+            copy.setBaseDeckId(source.getBaseDeckId());
+            List<Flashcard> overlay = new ArrayList<>();
+            for (Flashcard card : flashcardRepository.findByDeckIdOrderByOrderIndex(source.getId())) {
+                Flashcard overlayCopy = copyOf(card, copy);
+                overlayCopy.setBaseCardId(card.getBaseCardId());
+                overlayCopy.setHidden(card.isHidden());
+                overlay.add(overlayCopy);
+            }
+            for (Flashcard saved : flashcardRepository.saveAll(overlay)) {
+                if (!saved.isHidden()) {
+                    searchService.onCardSaved(saved);
+                }
+            }
+        }
+        copy.setCardCount((int) countCards(copy));
+        deckRepository.updateCardsById(copy.getId(), copy.getBaseDeckId(), copy.getCardCount());
+        return copy;
+    }
+
+    /**
+     * The deck if it is a fork, otherwise null.
+     */
+    public Deck findFork(String deckId) {
+        return deckRepository.findById(deckId)
+                .filter(deck -> deck.getBaseDeckId() != null)
+                .orElse(null);
+    }
+
+    /**
+     * The fork's cards in deck order, untouched base cards under their virtual ids.
+     */
+    public List<Flashcard> getCards(Deck fork) {
+        return merge(fork, true);
+    }
+
+    /**
+     * The fork's cards under the ids they are stored with, for references that must keep resolving
+     * (quiz questions) even if the card is overridden later.
+     */
+    List<Flashcard> getStoredCards(Deck fork) {
+        return merge(fork, false);
+    }
+
+    private List<Flashcard> merge(Deck fork, boolean virtualIds) {
+        List<Flashcard> merged = new ArrayList<>();
+        Map<String, Flashcard> overrides = new HashMap<>();
+        for (Flashcard card : flashcardRepository.findByDeckIdOrderByOrderIndex(fork.getId())) {
+            if (card.getBaseCardId() != null) {
+                overrides.put(card.getBaseCardId(), card);
+            } else {
+                merged.add(card);
+            }
+        }
+        for (Flashcard base : flashcardRepository.findByDeckIdOrderByOrderIndex(fork.getBaseDeckId())) {
+            Flashcard override = overrides.remove(base.getId());
+            if (override == null) {
+                merged.add(virtualIds ? present(base, fork) : base);
+            } else if (!override.isHidden()) {
+                merged.add(override);
+            }
+        }
+        for (Flashcard override : overrides.values()) {
+            // Edited in the fork and since deleted from the base deck: the edited card stays
+            if (!override.isHidden()) {
+                merged.add(override);
+            }
+        }
+        merged.sort(Comparator.comparingInt(Flashcard::getOrderIndex));
+        return merged;
+    }
+
+    /**
+     * Number of cards in the deck, without loading them.
+     */
+    public long countCards(Deck deck) {
+        if (deck.getBaseDeckId() == null) {
+            return flashcardRepository.countByDeckId(deck.getId());
+        }
+        // Approximate only when cards overridden in the fork were later deleted from the base deck
+        long count = flashcardRepository.countByDeckId(deck.getBaseDeckId())
+                - flashcardRepository.countByDeckIdAndBaseCardIdIsNotNull(deck.getId())
+                + flashcardRepository.countByDeckIdAndHiddenFalse(deck.getId());
+        return Math.max(0, count);
+    }
+
+    /**
+     * The card a virtual id stands for, as presented in the fork. Saving it without its id makes it an
+     * overlay card overriding the base card.
+     */
+    public Optional<Flashcard> resolve(String virtualId) {
+        int separator = virtualId.indexOf(VIRTUAL_ID_SEPARATOR);
+        String forkId = virtualId.substring(0, separator);
+        String baseCardId = virtualId.substring(separator + VIRTUAL_ID_SEPARATOR.length());
+        Deck fork = findFork(forkId);
+        if (fork == null || flashcardRepository.findByDeckIdAndBaseCardId(forkId, baseCardId).isPresent()) {
+            return Optional.empty(); // Not a fork, or the card was already overridden or deleted there
+        }
+        return flashcardRepository.findById(baseCardId)
+                .filter(base -> fork.getBaseDeckId().equals(base.getDeckId()))
+                .map(base -> present(base, fork));
+    }
+
+    /**
+     * Turns the fork into an ordinary deck holding its own copy of every card.
+     */
+    public Deck materialize(Deck fork) {
+        List<Flashcard> cards = merge(fork, true);
+        List<Flashcard> owned = new ArrayList<>();
+        // Virtual id of each card in owned, null for overlay cards that keep their id
+        List<String> virtualIds = new ArrayList<>();
+        for (Flashcard card : cards) {
+            if (card.getBaseCardId() != null) {
+                if (isVirtualId(card.getId())) {
+                    virtualIds.add(card.getId());
+                    card.setId(null);
+                } else {
+                    virtualIds.add(null);
+                }
+                card.setBaseCardId(null);
+                owned.add(card);
+            }
+        }
+        List<Flashcard> saved = flashcardRepository.saveAll(owned);
+        for (int i = 0; i < saved.size(); i++) {
+            if (virtualIds.get(i) != null) {
+                moveProgress(virtualIds.get(i), saved.get(i).getId());
+            }
+            searchService.onCardSaved(saved.get(i));
+        }
+        flashcardRepository.deleteByDeckIdAndHiddenTrue(fork.getId());
+        fork.setBaseDeckId(null);
+        fork.setCardCount(cards.size());
+        deckRepository.updateCardsById(fork.getId(), null, fork.getCardCount());
+        return fork;
+    }
+
+    /**
+     * Points the study progress recorded against a virtual id at the card now stored in its place, so
+     * the card's spaced-repetition history carries over.
+     */
+    void moveProgress(String virtualId, String flashcardId) {
+        List<UserProgress> progress = userProgressRepository.findByFlashcardId(virtualId);
+        if (progress.isEmpty()) {
+            return;
+        }
+        for (UserProgress row : progress) {
+            row.setFlashcardId(flashcardId);
+        }
+        userProgressRepository.saveAll(progress);
+    }
+
+    /**
+     * Call before a deck is deleted, so its forks keep their cards.
+     */
+    public void materializeForksOf(String baseDeckId) {
+        List<Deck> forks = deckRepository.findByBaseDeckId(baseDeckId);
+        for (Deck fork : forks) {
+            materialize(fork);
+        }
+        if (!forks.isEmpty()) {
+            logger.info("Materialized {} forks of deleted deck {}", forks.size(), baseDeckId);
+        }
+    }
+
+    private static Flashcard present(Flashcard base, Deck fork) {
+        Flashcard card = copyOf(base, fork);
+        card.setId(fork.getId() + VIRTUAL_ID_SEPARATOR + base.getId());
+        card.setBaseCardId(base.getId());
+        card.setCreatedAt(base.getCreatedAt());
+        card.setUpdatedAt(base.getUpdatedAt());
+        return card;
+    }
+
+    private static Flashcard copyOf(Flashcard card, Deck deck) {
+        Flashcard copy = new Flashcard(card.getQuestion(), card.getAnswer(), deck.getId(), deck.getUserId());
+        copy.setTags(card.getTags());
+        copy.setOrderIndex(card.getOrderIndex());
+        copy.setLanguage(card.getLanguage());
+        copy.setAiGenerated(card.getAiGenerated());
+        copy.setSourceText(card.getSourceText());
+        copy.setDeckPublic(deck.isPublic());
+        return copy;
+    }
+}
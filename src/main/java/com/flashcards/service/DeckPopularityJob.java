@@ -0,0 +1,314 @@
+package com.flashcards.service;
+
+import com.flashcards.model.Deck;
+import com.flashcards.model.JobCheckpoint;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically folds new deck usage into the popularity and trending scores stored on each deck.
+ * Only events since the last checkpoint are aggregated, inside MongoDB, so a run costs the same
+ * however much history there is.
+ *
+ * <p>Scores use forward decay: an event at time t adds {@code weight * 2^((t - landmark) / halfLife)}.
+ * Relative to "now" that is the usual exponential decay, but decks without new activity never need
+ * rewriting. When the exponent gets large, the landmark moves forward and all scores are rescaled once.
+ *
+ * <p>Several instances may run the job. Each window is claimed in the checkpoint before anything is
+ * written, and a claim left behind by an instance that died is taken over after a timeout and the
+ * window run again. Every deck records the last window added to its scores and the landmark it was
+ * rescaled to, so running a window again only changes the decks the first attempt did not reach.
+ */
+@Service
+public class DeckPopularityJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeckPopularityJob.class);
+    static final String JOB_ID = "deck-popularity";
+
+    // Relative value of one event of each kind
+    static final double COPY_WEIGHT = 5;
+    static final double QUIZ_WEIGHT = 3;
+    static final double REVIEW_WEIGHT = 1;
+
+    // 2^600 is far from overflowing a double, and leaves room for the largest per-deck sums
+    private static final double MAX_EXPONENT = 600;
+    // Events committed slightly out of timestamp order are still picked up by the next run
+    private static final Duration SETTLE_DELAY = Duration.ofSeconds(30);
+
+    private final MongoTemplate mongoTemplate;
+    private final PublicCatalogService publicCatalogService;
+
+    @Value("${popularity.job.interval-minutes:15}")
+    private long intervalMinutes = 15;
+
+    @Value("${popularity.half-life-days:30}")
+    private double popularityHalfLifeDays = 30;
+
+    @Value("${popularity.trending.half-life-days:2}")
+    private double trendingHalfLifeDays = 2;
+
+    @Value("${popularity.job.claim-timeout-minutes:10}")
+    private long claimTimeoutMinutes = 10;
+
+    private ScheduledExecutorService executor;
+
+    public DeckPopularityJob(MongoTemplate mongoTemplate, PublicCatalogService publicCatalogService) {
+        this.mongoTemplate = mongoTemplate;
+        this.publicCatalogService = publicCatalogService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (intervalMinutes <= 0) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "deck-popularity");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::runSafely, 1, intervalMinutes * 60, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private void runSafely() {
+        try {
+            run(LocalDateTime.now().minus(SETTLE_DELAY));
+        } catch (Exception e) {
+            // Never let an exception cancel the scheduled task
+            logger.error("Deck popularity job failed", e);
+        }
+    }
+
+    /**
+     * Processes events in (checkpoint, until] and moves the checkpoint to {@code until}, or first
+     * finishes a window another instance claimed and abandoned. Returns the number of decks whose
+     * scores changed.
+     */
+    synchronized int run(LocalDateTime until) {
+        long started = System.currentTimeMillis();
+        JobCheckpoint checkpoint = claim(until);
+        if (checkpoint == null) {
+            return 0;
+        }
+        LocalDateTime from = checkpoint.getProcessedUntil();
+        LocalDateTime to = checkpoint.getPendingUntil();
+        LocalDateTime landmark = checkpoint.getPendingLandmarkAt();
+        if (!landmark.equals(checkpoint.getLandmarkAt())) {
+            rebase(checkpoint.getLandmarkAt(), landmark);
+        }
+
+        // deckId -> {popularity increment, trending increment}
+        Map<String, double[]> increments = new HashMap<>();
+        accumulate(increments, "decks", "copiedFromDeckId", "createdAt", COPY_WEIGHT, from, to, landmark);
+        accumulate(increments, "quizzes", "deckId", "startedAt", QUIZ_WEIGHT, from, to, landmark);
+        accumulate(increments, "user_progress", "deckId", "lastReviewed", REVIEW_WEIGHT, from, to, landmark);
+
+        if (!increments.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Deck.class);
+            for (Map.Entry<String, double[]> entry : increments.entrySet()) {
+                // Skips decks that already have this window, when it is run again
+                bulk.updateOne(new Query(Criteria.where("_id").is(entry.getKey()).and("scoresUntil").not().gte(to)),
+                        new Update().inc("popularityScore", entry.getValue()[0]).inc("trendingScore", entry.getValue()[1])
+                                .set("scoresUntil", to));
+            }
+            bulk.execute();
+            publicCatalogService.invalidate();
+        }
+
+        long millis = System.currentTimeMillis() - started;
+        Update done = new Update()
+                .set("processedUntil", to)
+                .set("landmarkAt", landmark)
+                .unset("pendingUntil")
+                .unset("pendingLandmarkAt")
+                .unset("claimedAt")
+                .set("lastRunAt", LocalDateTime.now())
+                .set("lastRunMillis", millis)
+                .set("lastRunItems", increments.size());
+        if (mongoTemplate.updateFirst(claimedBy(checkpoint), done, JobCheckpoint.class).getModifiedCount() == 0) {
+            logger.warn("Deck popularity window up to {} was taken over by another instance", to);
+        } else {
+            logger.info("Deck popularity updated for {} decks in {} ms", increments.size(), millis);
+        }
+        return increments.size();
+    }
+
+    /**
+     * Claims the next window for this instance and returns the checkpoint with it in pendingUntil:
+     * an abandoned window if there is one, else (processedUntil, until]. Returns null when another
+     * instance holds a live claim or there is nothing new to process.
+     */
+    private JobCheckpoint claim(LocalDateTime until) {
+        JobCheckpoint checkpoint = mongoTemplate.findById(JOB_ID, JobCheckpoint.class);
+        if (checkpoint == null) {
+            backfillScores();
+            checkpoint = new JobCheckpoint(JOB_ID);
+            checkpoint.setLandmarkAt(until);
+            try {
+                mongoTemplate.insert(checkpoint);
+            } catch (DuplicateKeyException e) {
+                return null; // Another instance created it first and runs this window
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime pendingUntil = checkpoint.getPendingUntil();
+        LocalDateTime pendingLandmark = checkpoint.getPendingLandmarkAt();
+        if (pendingUntil != null) {
+            if (checkpoint.getClaimedAt().isAfter(now.minusMinutes(claimTimeoutMinutes))) {
+                return null;
+            }
+            logger.warn("Taking over deck popularity window up to {}, claimed at {}",
+                    checkpoint.getPendingUntil(), checkpoint.getClaimedAt());
+        } else {
+            LocalDateTime from = checkpoint.getProcessedUntil();
+            if (from != null && !until.isAfter(from)) {
+                return null;
+            }
+            pendingUntil = until;
+            pendingLandmark = checkpoint.getLandmarkAt();
+            if (exponent(until, pendingLandmark, trendingHalfLifeDays) > MAX_EXPONENT) {
+                pendingLandmark = until;
+            }
+        }
+        Update claim = new Update()
+                .set("pendingUntil", pendingUntil)
+                .set("pendingLandmarkAt", pendingLandmark)
+                .set("claimedAt", now);
+        // Only succeeds if nobody claimed or finished a window since the checkpoint was read
+        if (mongoTemplate.updateFirst(claimedBy(checkpoint), claim, JobCheckpoint.class).getModifiedCount() == 0) {
+            return null;
+        }
+        checkpoint.setPendingUntil(pendingUntil);
+        checkpoint.setPendingLandmarkAt(pendingLandmark);
+        checkpoint.setClaimedAt(now);
+        return checkpoint;
+    }
+
+    /**
+     * Matches the checkpoint only while it is in the state it was read or claimed in.
+     */
+    private static Query claimedBy(JobCheckpoint checkpoint) {
+        return new Query(Criteria.where("_id").is(JOB_ID)
+                .and("processedUntil").is(checkpoint.getProcessedUntil())
+                .and("claimedAt").is(checkpoint.getClaimedAt()));
+    }
+
+    /**
+     * Sets missing scores to 0. The catalog pages through decks by score, and decks stored before the
+     * scores existed would otherwise sort after every page boundary and never be listed.
+     */
+    private void backfillScores() {
+        for (String field : List.of("popularityScore", "trendingScore")) {
+            long updated = mongoTemplate.updateMulti(new Query(Criteria.where(field).exists(false)),
+                    new Update().set(field, 0.0), Deck.class).getModifiedCount();
+            if (updated > 0) {
+                logger.info("Set {} to 0 on {} decks that had none", field, updated);
+            }
+        }
+    }
+
+    /**
+     * Sums the decayed weight of the collection's events per deck, server side, and adds them to the map.
+     */
+    private void accumulate(Map<String, double[]> increments, String collection, String deckField, String timeField,
+                            double weight, LocalDateTime from, LocalDateTime until, LocalDateTime landmark) {
+        Criteria window = Criteria.where(timeField).lte(toDate(until));
+        if (from != null) {
+            window = window.gt(toDate(from));
+        }
+        Date landmarkDate = toDate(landmark);
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(window.and(deckField).ne(null)),
+                Aggregation.group(deckField)
+                        .sum(decayed(timeField, landmarkDate, popularityHalfLifeDays)).as("popularity")
+                        .sum(decayed(timeField, landmarkDate, trendingHalfLifeDays)).as("trending"));
+        for (Document row : mongoTemplate.aggregate(aggregation, collection, Document.class)) {
+            Object deckId = row.get("_id");
+            String key = deckId instanceof ObjectId ? ((ObjectId) deckId).toHexString() : String.valueOf(deckId);
+            double[] sums = increments.computeIfAbsent(key, k -> new double[2]);
+            sums[0] += weight * ((Number) row.get("popularity")).doubleValue();
+            sums[1] += weight * ((Number) row.get("trending")).doubleValue();
+        }
+    }
+
+    /**
+     * {@code 2^((timeField - landmark) / halfLife)} as an aggregation expression.
+     */
+    private static AggregationExpression decayed(String timeField, Date landmark, double halfLifeDays) {
+        double halfLifeMillis = halfLifeDays * 24 * 60 * 60 * 1000;
+        return context -> new Document("$pow", List.of(2,
+                new Document("$divide", List.of(new Document("$subtract", List.of("$" + timeField, landmark)), halfLifeMillis))));
+    }
+
+    /**
+     * Moves the landmark from {@code from} to {@code to}, scaling every stored score so orderings are
+     * unchanged. Decks already rescaled to {@code to} are left alone.
+     */
+    private void rebase(LocalDateTime from, LocalDateTime to) {
+        double popularityFactor = Math.pow(2, -exponent(to, from, popularityHalfLifeDays));
+        double trendingFactor = Math.pow(2, -exponent(to, from, trendingHalfLifeDays));
+        mongoTemplate.updateMulti(
+                new Query(new Criteria().orOperator(
+                        Criteria.where("popularityScore").gt(0), Criteria.where("trendingScore").gt(0))
+                        .and("scoresLandmarkAt").ne(to)),
+                new Update().multiply("popularityScore", popularityFactor).multiply("trendingScore", trendingFactor)
+                        .set("scoresLandmarkAt", to),
+                Deck.class);
+        logger.info("Rebased deck popularity scores to {}", to);
+    }
+
+    private static double exponent(LocalDateTime time, LocalDateTime landmark, double halfLifeDays) {
+        return Duration.between(landmark, time).toMillis() / (halfLifeDays * 24 * 60 * 60 * 1000);
+    }
+
+    private static Date toDate(LocalDateTime time) {
+        // Same conversion Spring Data applies when it writes LocalDateTime fields
+        return Date.from(time.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        JobCheckpoint checkpoint = mongoTemplate.findById(JOB_ID, JobCheckpoint.class);
+        if (checkpoint != null) {
+            stats.put("processedUntil", checkpoint.getProcessedUntil());
+            stats.put("lastRunAt", checkpoint.getLastRunAt());
+            stats.put("lastRunMillis", checkpoint.getLastRunMillis());
+            stats.put("lastRunDecks", checkpoint.getLastRunItems());
+        }
+        return stats;
+    }
+}
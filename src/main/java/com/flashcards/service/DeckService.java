@@ -1,5 +1,6 @@
 package com.flashcards.service;
 
+import com.flashcards.dto.DeckPage;
 import com.flashcards.dto.DeckRequest;
 import com.flashcards.model.Deck;
 import com.flashcards.model.Flashcard;
@@ -16,10 +17,26 @@ public class DeckService {
 
     private final DeckRepository deckRepository;
     private final FlashcardRepository flashcardRepository;
-
-    public DeckService(DeckRepository deckRepository, FlashcardRepository flashcardRepository) {
+    private final DistractorIndexService distractorIndexService;
+    private final SearchService searchService;
+    private final AutocompleteService autocompleteService;
+    private final PublicCatalogService publicCatalogService;
+    private final DeckForkService deckForkService;
+
+    public DeckService(DeckRepository deckRepository, 
+                      FlashcardRepository flashcardRepository,
+                      DistractorIndexService distractorIndexService,
+                      SearchService searchService,
+                      AutocompleteService autocompleteService,
+                      PublicCatalogService publicCatalogService,
+                      DeckForkService deckForkService) {
         this.deckRepository = deckRepository;
         this.flashcardRepository = flashcardRepository;
+        this.distractorIndexService = distractorIndexService;
+        this.searchService = searchService;
+        this.autocompleteService = autocompleteService;
+        this.publicCatalogService = publicCatalogService;
+        this.deckForkService = deckForkService;
     }
 
     public Deck createDeck(DeckRequest request, String userId) {
@@ -28,7 +45,12 @@ public class DeckService {
         deck.setTags(request.getTags());
         deck.setCoverImageUrl(request.getCoverImageUrl());
         
-        return deckRepository.save(deck);
+        Deck savedDeck = deckRepository.save(deck);
+        autocompleteService.onDeckSaved(savedDeck);
+        if (savedDeck.isPublic()) {
+            publicCatalogService.invalidate();
+        }
+        return savedDeck;
     }
 
     public List<Deck> getUserDecks(String userId) {
@@ -36,15 +58,15 @@ public class DeckService {
         
         // Add flashcard counts to each deck
         for (Deck deck : decks) {
-            long flashcardCount = flashcardRepository.countByDeckId(deck.getId());
+            long flashcardCount = deckForkService.countCards(deck);
             deck.setFlashcardCount((int) flashcardCount);
         }
         
         return decks;
     }
 
-    public List<Deck> getPublicDecks() {
-        return deckRepository.findByIsPublicTrue();
+    public DeckPage getPublicDecks(String sort, String cursor, int size) {
+        return publicCatalogService.getPublicDecks(sort, cursor, size);
     }
 
     public Optional<Deck> getDeck(String deckId) {
@@ -59,6 +81,8 @@ public class DeckService {
             throw new RuntimeException("Not authorized to update this deck");
         }
 
+        boolean wasPublic = deck.isPublic();
+        boolean visibilityChanged = wasPublic != request.isPublic();
         deck.setName(request.getName());
         deck.setDescription(request.getDescription());
         deck.setPublic(request.isPublic());
@@ -66,7 +90,16 @@ public class DeckService {
         deck.setCoverImageUrl(request.getCoverImageUrl());
         deck.setUpdatedAt(LocalDateTime.now());
 
-        return deckRepository.save(deck);
+        deckRepository.updateDetailsById(deckId, deck.getName(), deck.getDescription(), deck.isPublic(), deck.getTags(),
+                deck.getCoverImageUrl(), deck.getUpdatedAt());
+        autocompleteService.onDeckSaved(deck);
+        if (visibilityChanged) {
+            searchService.updateCardVisibility(deckId, deck.isPublic());
+        }
+        if (wasPublic || deck.isPublic()) {
+            publicCatalogService.invalidate();
+        }
+        return deck;
     }
 
     public void deleteDeck(String deckId, String userId) {
@@ -77,18 +110,31 @@ public class DeckService {
             throw new RuntimeException("Not authorized to delete this deck");
         }
 
+        // Forks read their cards from this deck; give them their own copies first
+        deckForkService.materializeForksOf(deckId);
+
         // Delete all flashcards in the deck
         List<Flashcard> flashcards = flashcardRepository.findByDeckIdOrderByOrderIndex(deckId);
         flashcardRepository.deleteAll(flashcards);
 
         // Delete the deck
         deckRepository.delete(deck);
+        distractorIndexService.evictDeck(deckId);
+        searchService.onDeckDeleted(deckId);
+        autocompleteService.onDeckDeleted(deckId);
+        if (deck.isPublic()) {
+            publicCatalogService.invalidate();
+        }
     }
 
     public Deck duplicateDeck(String deckId, String userId) {
         Deck originalDeck = deckRepository.findById(deckId)
                 .orElseThrow(() -> new RuntimeException("Deck not found"));
 
+        if (!originalDeck.isPublic() && !originalDeck.getUserId().equals(userId)) {
+            throw new RuntimeException("Not authorized to duplicate this deck");
+        }
+
         // Create new deck
         Deck newDeck = new Deck(
             originalDeck.getName() + " (Copy)",
@@ -97,11 +143,20 @@ public class DeckService {
         );
         newDeck.setPublic(false); // Duplicated decks are private by default
         newDeck.setTags(originalDeck.getTags());
+        newDeck.setCopiedFromDeckId(deckId);
         
         Deck savedDeck = deckRepository.save(newDeck);
+        deckRepository.incrementTotalCopiesById(deckId);
+
+        if (deckForkService.isEnabled()) {
+            // Cards are shared with the original until the new owner changes them
+            return deckForkService.fork(originalDeck, savedDeck);
+        }
 
         // Copy all flashcards
-        List<Flashcard> originalCards = flashcardRepository.findByDeckIdOrderByOrderIndex(deckId);
+        List<Flashcard> originalCards = originalDeck.getBaseDeckId() != null
+                ? deckForkService.getCards(originalDeck)
+                : flashcardRepository.findByDeckIdOrderByOrderIndex(deckId);
         for (Flashcard originalCard : originalCards) {
             Flashcard newCard = new Flashcard(
                 originalCard.getQuestion(),
@@ -111,16 +166,18 @@ public class DeckService {
             );
             newCard.setTags(originalCard.getTags());
             newCard.setOrderIndex(originalCard.getOrderIndex());
-            flashcardRepository.save(newCard);
+            newCard.setLanguage(originalCard.getLanguage());
+            searchService.onCardSaved(flashcardRepository.save(newCard));
         }
 
         // Update card count
         savedDeck.setCardCount(originalCards.size());
-        return deckRepository.save(savedDeck);
+        deckRepository.updateCardsById(savedDeck.getId(), null, savedDeck.getCardCount());
+        return savedDeck;
     }
 
-    public List<Deck> searchDecks(String searchTerm) {
-        return deckRepository.searchByNameOrDescription(searchTerm);
+    public List<Deck> searchDecks(String searchTerm, String userId, int page, int size) {
+        return searchService.searchDecks(searchTerm, userId, page, size);
     }
 
     public List<Deck> getDecksByTag(String tag) {
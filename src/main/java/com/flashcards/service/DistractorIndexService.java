@@ -0,0 +1,142 @@
+package com.flashcards.service;
+
+import com.flashcards.model.Flashcard;
+import com.flashcards.repository.FlashcardRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches one {@link AnswerSimilarityIndex} per deck so quizzes can offer distractors that look like the
+ * correct answer. Indexes are built from the deck's answers on first use and kept current by the card
+ * write paths in {@link FlashcardService}. A fork's index also holds its base deck's answers, so it is
+ * dropped whenever a card of the base deck changes and rebuilt on next use.
+ */
+@Service
+public class DistractorIndexService {
+
+    // Deck versions are kept in a fixed number of counters shared by hash, so they take no memory per
+    // deck; decks sharing a counter only cost each other an occasional uncached build
+    private static final int VERSION_STRIPES = 1024;
+
+    private static final class Cached {
+        final AnswerSimilarityIndex index;
+        final String baseDeckId;
+
+        Cached(AnswerSimilarityIndex index, String baseDeckId) {
+            this.index = index;
+            this.baseDeckId = baseDeckId;
+        }
+    }
+
+    private final FlashcardRepository flashcardRepository;
+    private final Map<String, Cached> indexes;
+    // Guarded by indexes, like the map itself
+    private final long[] versions = new long[VERSION_STRIPES];
+
+    @Value("${quiz.distractors.similar:true}")
+    private boolean enabled = true;
+
+    public DistractorIndexService(FlashcardRepository flashcardRepository,
+                                  @Value("${quiz.distractors.cached-decks:500}") int maxCachedDecks) {
+        this.flashcardRepository = flashcardRepository;
+        this.indexes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                return size() > maxCachedDecks;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Changes whenever a card of the deck or of its base deck changes. Read it before reading the
+     * answer pool and pass it to {@link #getIndex}.
+     */
+    long version(String deckId, String baseDeckId) {
+        synchronized (indexes) {
+            return versions[stripe(deckId)] + (baseDeckId != null ? versions[stripe(baseDeckId)] : 0);
+        }
+    }
+
+    /**
+     * Index for the deck, built from the given answer pool on a cache miss. The build is only cached if
+     * no card of the deck (or of the base deck, for a fork) changed since {@code version} was read, as
+     * the pool may be missing that change and nothing would bring the cached index up to date.
+     */
+    AnswerSimilarityIndex getIndex(String deckId, String baseDeckId, long version, List<Flashcard> answerPool) {
+        synchronized (indexes) {
+            Cached cached = indexes.get(deckId);
+            if (cached != null) {
+                return cached.index;
+            }
+        }
+        AnswerSimilarityIndex built = new AnswerSimilarityIndex();
+        for (Flashcard card : answerPool) {
+            built.add(card.getBack());
+        }
+        synchronized (indexes) {
+            if (version(deckId, baseDeckId) != version) {
+                return built; // Good enough for this quiz; the next one builds again
+            }
+            return indexes.merge(deckId, new Cached(built, baseDeckId), (existing, ignored) -> existing).index;
+        }
+    }
+
+    public void onCardAdded(String deckId, String answer) {
+        AnswerSimilarityIndex index = changed(deckId);
+        if (index != null) {
+            index.add(answer);
+        }
+    }
+
+    public void onCardUpdated(String deckId, String oldAnswer, String newAnswer) {
+        AnswerSimilarityIndex index = changed(deckId);
+        if (index != null && (oldAnswer == null || !oldAnswer.equals(newAnswer))) {
+            index.remove(oldAnswer);
+            index.add(newAnswer);
+        }
+    }
+
+    public void onCardRemoved(String deckId, String answer) {
+        AnswerSimilarityIndex index = changed(deckId);
+        if (index != null) {
+            index.remove(answer);
+        }
+    }
+
+    public void evictDeck(String deckId) {
+        synchronized (indexes) {
+            versions[stripe(deckId)]++;
+            indexes.remove(deckId);
+            evictForksOf(deckId);
+        }
+    }
+
+    /**
+     * Records a change to one of the deck's cards and returns the deck's cached index to apply it to.
+     * Forks of the deck are evicted instead, since the change may be hidden or overridden in them.
+     */
+    private AnswerSimilarityIndex changed(String deckId) {
+        synchronized (indexes) {
+            versions[stripe(deckId)]++;
+            evictForksOf(deckId);
+            Cached cached = indexes.get(deckId);
+            return cached != null ? cached.index : null;
+        }
+    }
+
+    private void evictForksOf(String baseDeckId) {
+        indexes.values().removeIf(cached -> baseDeckId.equals(cached.baseDeckId));
+    }
+
+    private static int stripe(String deckId) {
+        return Math.floorMod(deckId.hashCode(), VERSION_STRIPES);
+    }
+}
@@ -0,0 +1,259 @@
+package com.flashcards.service;
+
+import com.flashcards.model.EmailOutboxMessage;
+import com.flashcards.repository.EmailOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the email outbox on a small pool of background workers. Each poll claims a batch of
+ * due messages and sends them over a single SMTP connection; failures are retried with
+ * exponential backoff until {@code email.outbox.max-attempts} is reached.
+ */
+@Service
+public class EmailOutboxWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxWorker.class);
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final MongoTemplate mongoTemplate;
+    private final JavaMailSender mailSender;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    @Value("${email.outbox.workers:2}")
+    private int workers = 2;
+
+    @Value("${email.outbox.batch-size:20}")
+    private int batchSize = 20;
+
+    @Value("${email.outbox.poll-interval-ms:2000}")
+    private long pollIntervalMs = 2000;
+
+    @Value("${email.outbox.max-attempts:6}")
+    private int maxAttempts = 6;
+
+    @Value("${email.outbox.base-backoff-ms:5000}")
+    private long baseBackoffMs = 5000;
+
+    @Value("${email.outbox.max-backoff-ms:3600000}")
+    private long maxBackoffMs = 3600000;
+
+    // Well past the longest a batch can take with the SMTP timeouts, so live sends are never reclaimed
+    @Value("${email.outbox.claim-timeout-ms:900000}")
+    private long claimTimeoutMs = 900000;
+
+    private ScheduledExecutorService executor;
+
+    // Send statistics since startup
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong totalSendMillis = new AtomicLong();
+    private final AtomicLong lastSendMillis = new AtomicLong();
+
+    public EmailOutboxWorker(EmailOutboxRepository emailOutboxRepository,
+                             MongoTemplate mongoTemplate,
+                             JavaMailSender mailSender) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.mailSender = mailSender;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = Executors.newScheduledThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "email-outbox-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            executor.scheduleWithFixedDelay(this::pollSafely, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private void pollSafely() {
+        try {
+            List<EmailOutboxMessage> batch;
+            do {
+                batch = claimBatch();
+                if (!batch.isEmpty()) {
+                    deliver(batch);
+                }
+            } while (batch.size() == batchSize);
+        } catch (Exception e) {
+            // Never let an exception cancel the scheduled task
+            logger.error("Email outbox poll failed", e);
+        }
+    }
+
+    /**
+     * Atomically claims up to batchSize due messages so concurrent workers never send the same one.
+     */
+    List<EmailOutboxMessage> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        releaseStaleClaims(now);
+        Query due = new Query(Criteria.where("status").is("pending").and("nextAttemptAt").lte(now))
+                .with(Sort.by("nextAttemptAt"));
+        Update claim = new Update().set("status", "sending").set("claimedAt", now);
+
+        List<EmailOutboxMessage> batch = new ArrayList<>();
+        while (batch.size() < batchSize) {
+            EmailOutboxMessage message = mongoTemplate.findAndModify(
+                    due, claim, FindAndModifyOptions.options().returnNew(true), EmailOutboxMessage.class);
+            if (message == null) {
+                break;
+            }
+            batch.add(message);
+        }
+        return batch;
+    }
+
+    /**
+     * Messages still "sending" after the claim timeout belong to a worker that died mid-send. That send
+     * counts as an attempt: the message fails if it was the last one, otherwise it is due again now.
+     */
+    private void releaseStaleClaims(LocalDateTime now) {
+        Criteria stale = Criteria.where("status").is("sending")
+                .and("claimedAt").lt(now.minusNanos(TimeUnit.MILLISECONDS.toNanos(claimTimeoutMs)));
+        String error = "Claim expired while sending";
+
+        long failed = mongoTemplate.updateMulti(new Query(stale).addCriteria(Criteria.where("attempts").gte(maxAttempts - 1)),
+                new Update().set("status", "failed").set("lastError", error).unset("claimedAt").inc("attempts", 1),
+                EmailOutboxMessage.class).getModifiedCount();
+        long released = mongoTemplate.updateMulti(new Query(stale),
+                new Update().set("status", "pending").set("nextAttemptAt", now).set("lastError", error)
+                        .unset("claimedAt").inc("attempts", 1),
+                EmailOutboxMessage.class).getModifiedCount();
+        if (failed > 0 || released > 0) {
+            failedCount.addAndGet(failed);
+            retryCount.addAndGet(released);
+            logger.warn("Email outbox claims expired: {} messages retried, {} given up", released, failed);
+        }
+    }
+
+    /**
+     * Sends a claimed batch over one SMTP connection and records the outcome of every message.
+     */
+    void deliver(List<EmailOutboxMessage> batch) {
+        SimpleMailMessage[] mails = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            EmailOutboxMessage message = batch.get(i);
+            SimpleMailMessage mail = new SimpleMailMessage();
+            mail.setFrom(fromEmail);
+            mail.setTo(message.getToEmail());
+            mail.setSubject(message.getSubject());
+            mail.setText(message.getBody());
+            mails[i] = mail;
+        }
+
+        // SimpleMailMessage equality is by content, so track failures by identity
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        long start = System.nanoTime();
+        try {
+            mailSender.send(mails);
+        } catch (MailSendException e) {
+            failures.putAll(e.getFailedMessages());
+            if (failures.isEmpty()) {
+                for (SimpleMailMessage mail : mails) {
+                    failures.put(mail, e);
+                }
+            }
+        } catch (Exception e) {
+            for (SimpleMailMessage mail : mails) {
+                failures.put(mail, e);
+            }
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        batchCount.incrementAndGet();
+        totalSendMillis.addAndGet(elapsedMillis);
+        lastSendMillis.set(elapsedMillis);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < batch.size(); i++) {
+            EmailOutboxMessage message = batch.get(i);
+            Exception failure = failures.get(mails[i]);
+            message.setAttempts(message.getAttempts() + 1);
+            message.setClaimedAt(null);
+            if (failure == null) {
+                message.setStatus("sent");
+                message.setSentAt(now);
+                message.setLastError(null);
+                sentCount.incrementAndGet();
+            } else if (message.getAttempts() >= maxAttempts) {
+                message.setStatus("failed");
+                message.setLastError(failure.getMessage());
+                failedCount.incrementAndGet();
+                logger.warn("Giving up on email {} to {} after {} attempts: {}",
+                        message.getId(), message.getToEmail(), message.getAttempts(), failure.getMessage());
+            } else {
+                message.setStatus("pending");
+                message.setLastError(failure.getMessage());
+                message.setNextAttemptAt(now.plusNanos(TimeUnit.MILLISECONDS.toNanos(backoffMillis(message.getAttempts()))));
+                retryCount.incrementAndGet();
+            }
+        }
+        emailOutboxRepository.saveAll(batch);
+    }
+
+    /**
+     * Exponential backoff with full jitter: a random delay in [base, base * 2^(attempt - 1)], capped.
+     */
+    long backoffMillis(int attempt) {
+        long ceiling = baseBackoffMs << Math.min(attempt - 1, 20);
+        ceiling = Math.min(Math.max(ceiling, baseBackoffMs), maxBackoffMs);
+        return baseBackoffMs >= ceiling ? ceiling : ThreadLocalRandom.current().nextLong(baseBackoffMs, ceiling + 1);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long batches = batchCount.get();
+        stats.put("pending", emailOutboxRepository.countByStatus("pending"));
+        stats.put("sending", emailOutboxRepository.countByStatus("sending"));
+        stats.put("failed", emailOutboxRepository.countByStatus("failed"));
+        stats.put("sentSinceStartup", sentCount.get());
+        stats.put("failedSinceStartup", failedCount.get());
+        stats.put("retriesSinceStartup", retryCount.get());
+        stats.put("batchesSinceStartup", batches);
+        stats.put("avgBatchSendMillis", batches > 0 ? totalSendMillis.get() / batches : 0);
+        stats.put("lastBatchSendMillis", lastSendMillis.get());
+        return stats;
+    }
+}
@@ -1,35 +1,60 @@
 package com.flashcards.service;
 
+import com.flashcards.model.EmailOutboxMessage;
+import com.flashcards.model.Feedback;
+import com.flashcards.repository.EmailOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+/**
+ * Builds outgoing emails and queues them in the outbox. Delivery happens on
+ * {@link EmailOutboxWorker} threads so a slow SMTP server never blocks a request.
+ */
 @Service
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
 
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    private final EmailOutboxRepository emailOutboxRepository;
 
-    public EmailService(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    @Value("${app.admin.email:}")
+    private String adminEmail;
+
+    public EmailService(EmailOutboxRepository emailOutboxRepository) {
+        this.emailOutboxRepository = emailOutboxRepository;
     }
 
     public void sendPasswordResetEmail(String toEmail, String resetToken) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(toEmail);
-        message.setSubject("Password Reset Request - Flashcards AI");
-        message.setText(
+        enqueue(toEmail,
+            "Password Reset Request - Flashcards AI",
             "You have requested a password reset for your Flashcards AI account.\n\n" +
             "Click the following link to reset your password:\n" +
             "http://localhost:8080/reset-password?token=" + resetToken + "\n\n" +
             "If you didn't request this, please ignore this email.\n\n" +
             "This link will expire in 1 hour."
         );
+    }
+
+    public void sendFeedbackNotification(Feedback feedback) {
+        logger.info("New feedback received: {} from user: {}", feedback.getSubject(), feedback.getUserId());
+        
+        if (adminEmail == null || adminEmail.isBlank()) {
+            return; // No admin mailbox configured
+        }
         
-        mailSender.send(message);
+        enqueue(adminEmail,
+            "New Feedback - " + feedback.getSubject(),
+            "Category: " + feedback.getCategory() + "\n" +
+            "Rating: " + feedback.getRating() + "\n" +
+            "From user: " + feedback.getUserId() +
+            (feedback.getContactEmail() != null ? " (" + feedback.getContactEmail() + ")" : "") + "\n\n" +
+            feedback.getMessage()
+        );
+    }
+
+    private void enqueue(String toEmail, String subject, String body) {
+        emailOutboxRepository.save(new EmailOutboxMessage(toEmail, subject, body));
     }
-} 
\ No newline at end of file
+}
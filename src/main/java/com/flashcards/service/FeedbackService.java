@@ -1,22 +1,27 @@
 package com.flashcards.service;
 
 import com.flashcards.dto.FeedbackRequest;
+import com.flashcards.dto.ListingPage;
 import com.flashcards.model.Feedback;
 import com.flashcards.repository.FeedbackRepository;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class FeedbackService {
 
     private final FeedbackRepository feedbackRepository;
     private final EmailService emailService;
+    private final AdminListingService adminListingService;
 
-    public FeedbackService(FeedbackRepository feedbackRepository, EmailService emailService) {
+    public FeedbackService(FeedbackRepository feedbackRepository, EmailService emailService,
+                           AdminListingService adminListingService) {
         this.feedbackRepository = feedbackRepository;
         this.emailService = emailService;
+        this.adminListingService = adminListingService;
     }
 
     public Feedback submitFeedback(String userId, FeedbackRequest request) {
@@ -31,9 +36,9 @@ public class FeedbackService {
         
         Feedback savedFeedback = feedbackRepository.save(feedback);
         
-        // Send notification email to admin (if email service is configured)
+        // Queue notification email to admin - delivered by the outbox worker
         try {
-            sendFeedbackNotification(savedFeedback);
+            emailService.sendFeedbackNotification(savedFeedback);
         } catch (Exception e) {
             // Log error but don't fail the feedback submission
         }
@@ -45,8 +50,8 @@ public class FeedbackService {
         return feedbackRepository.findByUserId(userId);
     }
 
-    public List<Feedback> getAllFeedback() {
-        return feedbackRepository.findAll();
+    public ListingPage<Feedback> getAllFeedback(Map<String, String> params) {
+        return adminListingService.listFeedback(params);
     }
 
     public List<Feedback> getFeedbackByStatus(String status) {
@@ -66,10 +71,4 @@ public class FeedbackService {
         
         return feedbackRepository.save(feedback);
     }
-
-    private void sendFeedbackNotification(Feedback feedback) {
-        // This would send an email to admin about new feedback
-        // For now, we'll just log it
-        System.out.println("New feedback received: " + feedback.getSubject() + " from user: " + feedback.getUserId());
-    }
 } 
\ No newline at end of file
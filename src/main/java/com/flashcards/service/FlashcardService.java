@@ -16,10 +16,20 @@ public class FlashcardService {
 
     private final FlashcardRepository flashcardRepository;
     private final DeckRepository deckRepository;
-
-    public FlashcardService(FlashcardRepository flashcardRepository, DeckRepository deckRepository) {
+    private final DistractorIndexService distractorIndexService;
+    private final SearchService searchService;
+    private final DeckForkService deckForkService;
+
+    public FlashcardService(FlashcardRepository flashcardRepository, 
+                           DeckRepository deckRepository,
+                           DistractorIndexService distractorIndexService,
+                           SearchService searchService,
+                           DeckForkService deckForkService) {
         this.flashcardRepository = flashcardRepository;
         this.deckRepository = deckRepository;
+        this.distractorIndexService = distractorIndexService;
+        this.searchService = searchService;
+        this.deckForkService = deckForkService;
     }
 
     public Flashcard createFlashcard(FlashcardRequest request, String deckId, String userId) {
@@ -34,44 +44,67 @@ public class FlashcardService {
         Flashcard flashcard = new Flashcard(request.getQuestion(), request.getAnswer(), deckId, userId);
         flashcard.setTags(request.getTags());
         flashcard.setOrderIndex(request.getOrderIndex());
+        flashcard.setDeckPublic(deck.isPublic());
+        flashcard.setLanguage(request.getLanguage());
 
         Flashcard savedCard = flashcardRepository.save(flashcard);
+        distractorIndexService.onCardAdded(deckId, savedCard.getAnswer());
+        searchService.onCardSaved(savedCard);
 
         // Update deck card count
-        deck.setCardCount(deck.getCardCount() + 1);
-        deck.setUpdatedAt(LocalDateTime.now());
-        deckRepository.save(deck);
+        deckRepository.incrementCardCountById(deckId, 1, LocalDateTime.now());
 
         return savedCard;
     }
 
     public List<Flashcard> getDeckFlashcards(String deckId) {
+        Deck fork = deckForkService.findFork(deckId);
+        if (fork != null) {
+            return deckForkService.getCards(fork);
+        }
         return flashcardRepository.findByDeckIdOrderByOrderIndex(deckId);
     }
 
     public Optional<Flashcard> getFlashcard(String flashcardId) {
+        if (DeckForkService.isVirtualId(flashcardId)) {
+            return deckForkService.resolve(flashcardId);
+        }
         return flashcardRepository.findById(flashcardId);
     }
 
     public Flashcard updateFlashcard(String flashcardId, FlashcardRequest request, String userId) {
-        Flashcard flashcard = flashcardRepository.findById(flashcardId)
+        Flashcard flashcard = getFlashcard(flashcardId)
                 .orElseThrow(() -> new RuntimeException("Flashcard not found"));
 
         if (!flashcard.getUserId().equals(userId)) {
             throw new RuntimeException("Not authorized to update this flashcard");
         }
 
+        String oldAnswer = flashcard.getAnswer();
         flashcard.setQuestion(request.getQuestion());
         flashcard.setAnswer(request.getAnswer());
         flashcard.setTags(request.getTags());
         flashcard.setOrderIndex(request.getOrderIndex());
+        if (request.getLanguage() != null) {
+            flashcard.setLanguage(request.getLanguage());
+        }
         flashcard.setUpdatedAt(LocalDateTime.now());
+        String virtualId = DeckForkService.isVirtualId(flashcard.getId()) ? flashcard.getId() : null;
+        if (virtualId != null) {
+            flashcard.setId(null); // First edit of a base card in a fork: the fork gets its own copy
+        }
 
-        return flashcardRepository.save(flashcard);
+        Flashcard savedCard = flashcardRepository.save(flashcard);
+        if (virtualId != null) {
+            deckForkService.moveProgress(virtualId, savedCard.getId());
+        }
+        distractorIndexService.onCardUpdated(savedCard.getDeckId(), oldAnswer, savedCard.getAnswer());
+        searchService.onCardSaved(savedCard);
+        return savedCard;
     }
 
     public void deleteFlashcard(String flashcardId, String userId) {
-        Flashcard flashcard = flashcardRepository.findById(flashcardId)
+        Flashcard flashcard = getFlashcard(flashcardId)
                 .orElseThrow(() -> new RuntimeException("Flashcard not found"));
 
         if (!flashcard.getUserId().equals(userId)) {
@@ -79,13 +112,28 @@ public class FlashcardService {
         }
 
         // Update deck card count
-        Deck deck = deckRepository.findById(flashcard.getDeckId())
-                .orElseThrow(() -> new RuntimeException("Deck not found"));
-        deck.setCardCount(deck.getCardCount() - 1);
-        deck.setUpdatedAt(LocalDateTime.now());
-        deckRepository.save(deck);
-
-        flashcardRepository.delete(flashcard);
+        if (!deckRepository.existsById(flashcard.getDeckId())) {
+            throw new RuntimeException("Deck not found");
+        }
+        deckRepository.incrementCardCountById(flashcard.getDeckId(), -1, LocalDateTime.now());
+
+        String answer = flashcard.getAnswer();
+        if (flashcard.getBaseCardId() != null) {
+            // A card of a fork's base deck: keep a marker in the fork that hides it
+            if (DeckForkService.isVirtualId(flashcard.getId())) {
+                flashcard.setId(null);
+            }
+            flashcard.setHidden(true);
+            flashcard.setQuestion(null);
+            flashcard.setAnswer(null);
+            flashcard.setTags(null);
+            flashcard.setSourceText(null);
+            flashcard = flashcardRepository.save(flashcard);
+        } else {
+            flashcardRepository.delete(flashcard);
+        }
+        distractorIndexService.onCardRemoved(flashcard.getDeckId(), answer);
+        searchService.onCardDeleted(flashcard.getId());
     }
 
     public void reorderFlashcards(String deckId, List<String> flashcardIds, String userId) {
@@ -99,17 +147,28 @@ public class FlashcardService {
 
         // Update order index for each flashcard
         for (int i = 0; i < flashcardIds.size(); i++) {
-            Flashcard flashcard = flashcardRepository.findById(flashcardIds.get(i))
+            Flashcard flashcard = getFlashcard(flashcardIds.get(i))
                     .orElseThrow(() -> new RuntimeException("Flashcard not found"));
+            String virtualId = null;
+            if (DeckForkService.isVirtualId(flashcard.getId())) {
+                if (flashcard.getOrderIndex() == i) {
+                    continue; // Only base cards that actually moved are copied into the fork
+                }
+                virtualId = flashcard.getId();
+                flashcard.setId(null);
+            }
             
             flashcard.setOrderIndex(i);
             flashcard.setUpdatedAt(LocalDateTime.now());
-            flashcardRepository.save(flashcard);
+            Flashcard savedCard = flashcardRepository.save(flashcard);
+            if (virtualId != null) {
+                deckForkService.moveProgress(virtualId, savedCard.getId());
+            }
         }
     }
 
-    public List<Flashcard> searchFlashcards(String searchTerm) {
-        return flashcardRepository.searchByQuestionOrAnswer(searchTerm);
+    public List<Flashcard> searchFlashcards(String searchTerm, String userId, String language, int page, int size) {
+        return searchService.searchFlashcards(searchTerm, userId, language, page, size);
     }
 
     public List<Flashcard> getFlashcardsByTag(String tag) {
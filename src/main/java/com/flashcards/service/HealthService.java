@@ -0,0 +1,248 @@
+package com.flashcards.service;
+
+import com.flashcards.config.MongoPoolMonitor;
+import jakarta.annotation.PreDestroy;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Liveness and readiness for load balancer checks. Liveness only reads JVM state. Readiness is
+ * decided from probes run in the background - a MongoDB ping, and less often a request to the AI
+ * provider - so checks can be polled at any rate without adding load to MongoDB or the provider.
+ */
+@Service
+public class HealthService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HealthService.class);
+
+    /**
+     * Outcome of one probe.
+     */
+    static final class Probe {
+        final boolean up;
+        final long latencyMillis;
+        final String error;
+        final long checkedAt;
+
+        Probe(boolean up, long latencyMillis, String error) {
+            this.up = up;
+            this.latencyMillis = latencyMillis;
+            this.error = error;
+            this.checkedAt = System.currentTimeMillis();
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("status", up ? "UP" : "DOWN");
+            map.put("latencyMillis", latencyMillis);
+            map.put("ageMillis", System.currentTimeMillis() - checkedAt);
+            if (error != null) {
+                map.put("error", error);
+            }
+            return map;
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoPoolMonitor mongoPoolMonitor;
+    private final OkHttpClient aiProbeClient;
+    private final LuceneCardIndex cardIndex;
+    private final UserDeletionJob userDeletionJob;
+    private final long startedAt = System.currentTimeMillis();
+
+    @Value("${openai.api.url:}")
+    private String aiUrl = "";
+
+    @Value("${health.probe-interval-seconds:5}")
+    private long probeIntervalSeconds = 5;
+
+    @Value("${health.ai-probe-interval-seconds:60}")
+    private long aiProbeIntervalSeconds = 60;
+
+    private volatile Probe mongoProbe;
+    private volatile Probe aiProbe;
+    private ScheduledExecutorService executor;
+
+    public HealthService(MongoTemplate mongoTemplate,
+                         MongoPoolMonitor mongoPoolMonitor,
+                         OkHttpClient httpClient,
+                         LuceneCardIndex cardIndex,
+                         UserDeletionJob userDeletionJob) {
+        this.mongoTemplate = mongoTemplate;
+        this.mongoPoolMonitor = mongoPoolMonitor;
+        // Shares the connection pool with AiService, but gives up quickly
+        this.aiProbeClient = httpClient.newBuilder().callTimeout(5, TimeUnit.SECONDS).build();
+        this.cardIndex = cardIndex;
+        this.userDeletionJob = userDeletionJob;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "health-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::probeSafely, 0, probeIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void probeSafely() {
+        try {
+            probeMongo();
+            Probe ai = aiProbe;
+            if (ai == null || System.currentTimeMillis() - ai.checkedAt >= aiProbeIntervalSeconds * 1000) {
+                probeAi();
+            }
+        } catch (Exception e) {
+            // Never let an exception cancel the scheduled task
+            logger.warn("Health probe failed: {}", e.getMessage());
+        }
+    }
+
+    void probeMongo() {
+        long started = System.nanoTime();
+        try {
+            mongoTemplate.executeCommand(new Document("ping", 1));
+            mongoProbe = new Probe(true, elapsedMillis(started), null);
+        } catch (Exception e) {
+            mongoProbe = new Probe(false, elapsedMillis(started), e.getMessage());
+        }
+    }
+
+    void probeAi() {
+        if (aiUrl == null || aiUrl.isBlank()) {
+            return;
+        }
+        long started = System.nanoTime();
+        // Any HTTP response means the provider is reachable; no completion is requested
+        Request request = new Request.Builder().url(aiUrl).head().build();
+        try (Response response = aiProbeClient.newCall(request).execute()) {
+            aiProbe = new Probe(response.code() < 500, elapsedMillis(started),
+                    response.code() < 500 ? null : "HTTP " + response.code());
+        } catch (Exception e) {
+            aiProbe = new Probe(false, elapsedMillis(started), e.getMessage());
+        }
+    }
+
+    /**
+     * The process is up and able to serve requests. Reads JVM state only.
+     */
+    public Map<String, Object> liveness() {
+        Map<String, Object> health = new HashMap<>();
+        health.put("status", "UP");
+        health.put("uptimeSeconds", (System.currentTimeMillis() - startedAt) / 1000);
+        health.put("jvm", jvmStats());
+        return health;
+    }
+
+    /**
+     * Ready while the latest MongoDB ping succeeded recently. A saturated connection pool or an
+     * unreachable AI provider degrades the instance but does not take it out of rotation: under load
+     * every instance saturates together, and pulling them all would turn slow responses into none.
+     */
+    public boolean isReady() {
+        Probe mongo = mongoProbe;
+        return mongo != null && mongo.up && !isStale(mongo);
+    }
+
+    /**
+     * UP, DEGRADED or DOWN, without the details behind it.
+     */
+    public String readinessStatus() {
+        Probe ai = aiProbe;
+        boolean degraded = mongoPoolMonitor.isSaturated() || (ai != null && !ai.up);
+        return !isReady() ? "DOWN" : degraded ? "DEGRADED" : "UP";
+    }
+
+    public Map<String, Object> readiness() {
+        Probe ai = aiProbe;
+        Map<String, Object> health = new HashMap<>();
+        health.put("status", readinessStatus());
+        Probe mongo = mongoProbe;
+        Map<String, Object> mongoHealth = mongo != null ? mongo.toMap() : new HashMap<>(Map.of("status", "UNKNOWN"));
+        if (mongo != null && isStale(mongo)) {
+            mongoHealth.put("status", "STALE");
+        }
+        mongoHealth.put("pool", mongoPoolMonitor.getStats());
+        health.put("mongo", mongoHealth);
+        health.put("ai", ai != null ? ai.toMap() : Map.of("status", "UNKNOWN"));
+        Map<String, Object> queues = new HashMap<>();
+        queues.put("searchIndexUpdates", cardIndex.getPendingUpdateCount());
+        queues.put("userDeletions", userDeletionJob.getQueuedCount());
+        health.put("queues", queues);
+        return health;
+    }
+
+    /**
+     * Readiness and liveness details together, for the admin dashboard.
+     */
+    public Map<String, Object> details() {
+        Map<String, Object> health = liveness();
+        health.putAll(readiness());
+        health.put("timestamp", LocalDateTime.now());
+        return health;
+    }
+
+    private boolean isStale(Probe probe) {
+        // A probe thread that stopped or hangs must not keep reporting the last good result
+        return System.currentTimeMillis() - probe.checkedAt > 3 * probeIntervalSeconds * 1000;
+    }
+
+    private static Map<String, Object> jvmStats() {
+        Map<String, Object> jvm = new HashMap<>();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        MemoryUsage heap = memory.getHeapMemoryUsage();
+        jvm.put("heapUsedBytes", heap.getUsed());
+        jvm.put("heapCommittedBytes", heap.getCommitted());
+        jvm.put("heapMaxBytes", heap.getMax());
+        jvm.put("nonHeapUsedBytes", memory.getNonHeapMemoryUsage().getUsed());
+        List<Map<String, Object>> collectors = new ArrayList<>();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            Map<String, Object> collector = new HashMap<>();
+            collector.put("name", gc.getName());
+            collector.put("count", gc.getCollectionCount());
+            collector.put("timeMillis", gc.getCollectionTime());
+            collectors.add(collector);
+        }
+        jvm.put("gc", collectors);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        jvm.put("threads", threads.getThreadCount());
+        jvm.put("peakThreads", threads.getPeakThreadCount());
+        jvm.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        return jvm;
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+    }
+}
@@ -0,0 +1,553 @@
+package com.flashcards.service;
+
+import com.flashcards.model.Flashcard;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.DelegatingAnalyzerWrapper;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.de.GermanAnalyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.analysis.es.SpanishAnalyzer;
+import org.apache.lucene.analysis.fr.FrenchAnalyzer;
+import org.apache.lucene.analysis.it.ItalianAnalyzer;
+import org.apache.lucene.analysis.nl.DutchAnalyzer;
+import org.apache.lucene.analysis.pt.PortugueseAnalyzer;
+import org.apache.lucene.analysis.ru.RussianAnalyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Embedded Lucene index over flashcards for self-hosted deployments ({@code search.lucene.enabled}).
+ * Card writes are queued and applied by a single background thread, which refreshes the near-real-time
+ * searcher after every batch and commits to disk periodically. Question, answer and tags are indexed
+ * into per-language fields so each card is stemmed with the analyzer of the language it was written in.
+ */
+@Service
+public class LuceneCardIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LuceneCardIndex.class);
+
+    static final String FIELD_ID = "id";
+    static final String FIELD_DECK_ID = "deckId";
+    static final String FIELD_USER_ID = "userId";
+    static final String FIELD_DECK_PUBLIC = "deckPublic";
+    static final String DEFAULT_LANGUAGE = "standard";
+
+    private static final String[] TEXT_FIELDS = {"question", "answer", "tags"};
+    private static final float[] TEXT_BOOSTS = {3f, 2f, 1f};
+    private static final int MAX_QUERY_TOKENS = 8;
+    private static final int MAX_RESULT_WINDOW = 1000;
+    private static final int QUERY_CLAUSE_RESERVE = 16;
+
+    // Accepts both the names used by AiGenerationRequest.language and ISO codes
+    private static final Map<String, String> LANGUAGE_ALIASES = Map.ofEntries(
+            Map.entry("english", "english"), Map.entry("en", "english"),
+            Map.entry("spanish", "spanish"), Map.entry("es", "spanish"), Map.entry("español", "spanish"),
+            Map.entry("french", "french"), Map.entry("fr", "french"), Map.entry("français", "french"),
+            Map.entry("german", "german"), Map.entry("de", "german"), Map.entry("deutsch", "german"),
+            Map.entry("italian", "italian"), Map.entry("it", "italian"), Map.entry("italiano", "italian"),
+            Map.entry("portuguese", "portuguese"), Map.entry("pt", "portuguese"), Map.entry("português", "portuguese"),
+            Map.entry("dutch", "dutch"), Map.entry("nl", "dutch"),
+            Map.entry("russian", "russian"), Map.entry("ru", "russian")
+    );
+
+    private enum OpType { UPSERT_CARD, DELETE_CARD, REINDEX_DECK, DELETE_DECK }
+
+    private static final class IndexOp {
+        final OpType type;
+        final String key;
+        final Flashcard card;
+
+        IndexOp(OpType type, String key, Flashcard card) {
+            this.type = type;
+            this.key = key;
+            this.card = card;
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final BlockingQueue<IndexOp> pending = new LinkedBlockingQueue<>();
+    private final Analyzer analyzer = new LanguageAnalyzer();
+
+    @Value("${search.lucene.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${search.lucene.path:./data/search-index}")
+    private String indexPath = "./data/search-index";
+
+    @Value("${search.lucene.refresh-interval-ms:250}")
+    private long refreshIntervalMs = 250;
+
+    @Value("${search.lucene.commit-interval-ms:30000}")
+    private long commitIntervalMs = 30000;
+
+    @Value("${search.lucene.batch-size:500}")
+    private int batchSize = 500;
+
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private ScheduledExecutorService executor;
+    private long lastCommitMillis;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicLong opsApplied = new AtomicLong();
+    private final AtomicLong lastRebuildCards = new AtomicLong();
+    private final AtomicLong lastRebuildMillis = new AtomicLong();
+
+    public LuceneCardIndex(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Whether card searches should be served from this index rather than MongoDB.
+     */
+    public boolean isEnabled() {
+        return enabled && searcherManager != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            open(Paths.get(indexPath));
+        } catch (IOException e) {
+            logger.error("Could not open search index at {}, falling back to MongoDB search", indexPath, e);
+            enabled = false;
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "search-indexer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::applyPendingSafely, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+        if (writer.getDocStats().numDocs == 0) {
+            requestRebuild();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (writer == null) {
+            return;
+        }
+        try {
+            applyPending();
+            writer.commit();
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        } catch (IOException e) {
+            logger.warn("Search index did not close cleanly: {}", e.getMessage());
+        }
+    }
+
+    synchronized void open(Path path) throws IOException {
+        directory = new MMapDirectory(path);
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        writer = new IndexWriter(directory, config);
+        searcherManager = new SearcherManager(writer, null);
+        lastCommitMillis = System.currentTimeMillis();
+    }
+
+    // Write path: callers never block on Lucene, the background thread applies these in order
+
+    public void onCardSaved(Flashcard card) {
+        if (enabled && card != null && card.getId() != null) {
+            pending.add(new IndexOp(OpType.UPSERT_CARD, card.getId(), card));
+        }
+    }
+
+    public void onCardDeleted(String cardId) {
+        if (enabled && cardId != null) {
+            pending.add(new IndexOp(OpType.DELETE_CARD, cardId, null));
+        }
+    }
+
+    public void onDeckChanged(String deckId) {
+        if (enabled && deckId != null) {
+            pending.add(new IndexOp(OpType.REINDEX_DECK, deckId, null));
+        }
+    }
+
+    public void onDeckDeleted(String deckId) {
+        if (enabled && deckId != null) {
+            pending.add(new IndexOp(OpType.DELETE_DECK, deckId, null));
+        }
+    }
+
+    /**
+     * Schedules a full rebuild from MongoDB. Returns false if one is already running or the index is off.
+     * Searches keep using the previous snapshot until the rebuild has finished.
+     */
+    public boolean requestRebuild() {
+        if (!enabled || executor == null || !rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        executor.execute(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                logger.error("Search index rebuild failed", e);
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+        return true;
+    }
+
+    synchronized int rebuild() throws IOException {
+        long started = System.currentTimeMillis();
+        pending.clear(); // Everything queued so far is covered by the full scan
+        writer.deleteAll();
+        int count = 0;
+        org.springframework.data.mongodb.core.query.Query all = new org.springframework.data.mongodb.core.query.Query();
+        all.fields().include("question").include("answer").include("tags").include("deckId")
+                .include("userId").include("deckPublic").include("language");
+        try (Stream<Flashcard> cards = mongoTemplate.stream(all, Flashcard.class)) {
+            Iterator<Flashcard> iterator = cards.iterator();
+            while (iterator.hasNext()) {
+                Flashcard card = iterator.next();
+                writer.addDocument(toDocument(card));
+                count++;
+            }
+        }
+        commit();
+        searcherManager.maybeRefresh();
+        lastRebuildCards.set(count);
+        lastRebuildMillis.set(System.currentTimeMillis() - started);
+        logger.info("Rebuilt search index with {} cards in {} ms", count, lastRebuildMillis.get());
+        return count;
+    }
+
+    private void applyPendingSafely() {
+        try {
+            applyPending();
+        } catch (Exception e) {
+            // Never let an exception cancel the scheduled task
+            logger.error("Applying search index updates failed", e);
+        }
+    }
+
+    /**
+     * Applies everything queued so far, then makes it visible to searches.
+     */
+    synchronized int applyPending() throws IOException {
+        int applied = 0;
+        List<IndexOp> batch = new ArrayList<>(batchSize);
+        while (pending.drainTo(batch, batchSize) > 0) {
+            for (IndexOp op : batch) {
+                apply(op);
+            }
+            applied += batch.size();
+            batch.clear();
+        }
+        if (applied > 0) {
+            opsApplied.addAndGet(applied);
+            searcherManager.maybeRefresh();
+        }
+        if (writer.hasUncommittedChanges() && System.currentTimeMillis() - lastCommitMillis >= commitIntervalMs) {
+            commit();
+        }
+        return applied;
+    }
+
+    private void apply(IndexOp op) throws IOException {
+        switch (op.type) {
+            case UPSERT_CARD -> writer.updateDocument(new Term(FIELD_ID, op.key), toDocument(op.card));
+            case DELETE_CARD -> writer.deleteDocuments(new Term(FIELD_ID, op.key));
+            case DELETE_DECK -> writer.deleteDocuments(new Term(FIELD_DECK_ID, op.key));
+            case REINDEX_DECK -> {
+                org.springframework.data.mongodb.core.query.Query deckCards =
+                        new org.springframework.data.mongodb.core.query.Query(Criteria.where("deckId").is(op.key));
+                try (Stream<Flashcard> cards = mongoTemplate.stream(deckCards, Flashcard.class)) {
+                    Iterator<Flashcard> iterator = cards.iterator();
+                    while (iterator.hasNext()) {
+                        Flashcard card = iterator.next();
+                        writer.updateDocument(new Term(FIELD_ID, card.getId()), toDocument(card));
+                    }
+                }
+            }
+        }
+    }
+
+    private void commit() throws IOException {
+        writer.commit();
+        lastCommitMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Ids of the matching cards visible to the user, best match first. Every query word matches
+     * exactly, by prefix (the last word, for search-as-you-type) or within one or two edits.
+     *
+     * @param language restricts matching to cards of this language; null searches all languages
+     */
+    public List<String> search(String term, String userId, String language, int page, int size) throws IOException {
+        if (searcherManager == null || term == null || term.isBlank()) {
+            return List.of();
+        }
+        long start = (long) page * size;
+        if (start >= MAX_RESULT_WINDOW) {
+            return List.of();
+        }
+        int from = (int) start;
+        BooleanQuery.Builder visible = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(FIELD_DECK_PUBLIC, "true")), BooleanClause.Occur.SHOULD);
+        if (userId != null) {
+            visible.add(new TermQuery(new Term(FIELD_USER_ID, userId)), BooleanClause.Occur.SHOULD);
+        }
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            Query textQuery = buildTextQuery(term, language, searcher.getIndexReader());
+            if (textQuery == null) {
+                return List.of();
+            }
+            Query query = new BooleanQuery.Builder()
+                    .add(textQuery, BooleanClause.Occur.MUST)
+                    .add(visible.build(), BooleanClause.Occur.FILTER)
+                    .build();
+            TopDocs top = searcher.search(query, from + size);
+            StoredFields storedFields = searcher.storedFields();
+            List<String> ids = new ArrayList<>(size);
+            for (int i = from; i < top.scoreDocs.length; i++) {
+                ScoreDoc hit = top.scoreDocs[i];
+                ids.add(storedFields.document(hit.doc, Set.of(FIELD_ID)).get(FIELD_ID));
+            }
+            return ids;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * Term, prefix and fuzzy clauses for every query word in every field of the given language, or of
+     * each language that has cards in the index. Fuzzy clauses expand to several terms each, so their
+     * expansions are shared out to keep the rewritten query within Lucene's clause limit.
+     */
+    private Query buildTextQuery(String term, String language, IndexReader reader) throws IOException {
+        List<String> languages = new ArrayList<>();
+        if (language != null) {
+            languages.add(normalizeLanguage(language));
+        } else {
+            FieldInfos fields = FieldInfos.getMergedFieldInfos(reader);
+            for (String lang : LanguageAnalyzer.ANALYZERS.keySet()) {
+                for (String field : TEXT_FIELDS) {
+                    if (fields.fieldInfo(field + "." + lang) != null) {
+                        languages.add(lang);
+                        break;
+                    }
+                }
+            }
+        }
+
+        Map<String, List<String>> tokensByLanguage = new LinkedHashMap<>();
+        int directClauses = 0;
+        int fuzzyClauses = 0;
+        for (String lang : languages) {
+            List<String> tokens = analyze(TEXT_FIELDS[0] + "." + lang, term);
+            tokensByLanguage.put(lang, tokens);
+            for (int t = 0; t < tokens.size(); t++) {
+                boolean last = t == tokens.size() - 1;
+                directClauses += TEXT_FIELDS.length * (last && tokens.get(t).length() >= 2 ? 2 : 1);
+                fuzzyClauses += maxEdits(tokens.get(t)) > 0 ? TEXT_FIELDS.length : 0;
+            }
+        }
+        if (directClauses == 0) {
+            return null;
+        }
+        // Room is left for the visibility filter the caller adds
+        int fuzzyBudget = IndexSearcher.getMaxClauseCount() - directClauses - QUERY_CLAUSE_RESERVE;
+        int maxExpansions = fuzzyClauses > 0
+                ? Math.min(FuzzyQuery.defaultMaxExpansions, fuzzyBudget / fuzzyClauses)
+                : 0;
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (Map.Entry<String, List<String>> entry : tokensByLanguage.entrySet()) {
+            String lang = entry.getKey();
+            List<String> tokens = entry.getValue();
+            for (int t = 0; t < tokens.size(); t++) {
+                String token = tokens.get(t);
+                boolean last = t == tokens.size() - 1;
+                for (int f = 0; f < TEXT_FIELDS.length; f++) {
+                    Term indexTerm = new Term(TEXT_FIELDS[f] + "." + lang, token);
+                    float boost = TEXT_BOOSTS[f];
+                    query.add(new BoostQuery(new TermQuery(indexTerm), boost * 2), BooleanClause.Occur.SHOULD);
+                    if (last && token.length() >= 2) {
+                        query.add(new BoostQuery(new PrefixQuery(indexTerm), boost), BooleanClause.Occur.SHOULD);
+                    }
+                    int maxEdits = maxEdits(token);
+                    if (maxEdits > 0 && maxExpansions > 0) {
+                        query.add(new BoostQuery(new FuzzyQuery(indexTerm, maxEdits, FuzzyQuery.defaultPrefixLength,
+                                maxExpansions, FuzzyQuery.defaultTranspositions), boost / 2), BooleanClause.Occur.SHOULD);
+                    }
+                }
+            }
+        }
+        return query.build();
+    }
+
+    private List<String> analyze(String field, String text) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(field, text)) {
+            CharTermAttribute termAttribute = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken() && tokens.size() < MAX_QUERY_TOKENS) {
+                tokens.add(termAttribute.toString());
+            }
+            stream.end();
+        }
+        return tokens;
+    }
+
+    private static int maxEdits(String token) {
+        if (token.length() < 3) {
+            return 0;
+        }
+        return token.length() < 6 ? 1 : 2;
+    }
+
+    private Document toDocument(Flashcard card) {
+        String language = normalizeLanguage(card.getLanguage());
+        Document document = new Document();
+        document.add(new StringField(FIELD_ID, card.getId(), Field.Store.YES));
+        if (card.getDeckId() != null) {
+            document.add(new StringField(FIELD_DECK_ID, card.getDeckId(), Field.Store.NO));
+        }
+        if (card.getUserId() != null) {
+            document.add(new StringField(FIELD_USER_ID, card.getUserId(), Field.Store.NO));
+        }
+        document.add(new StringField(FIELD_DECK_PUBLIC, Boolean.toString(card.isDeckPublic()), Field.Store.NO));
+        if (card.getQuestion() != null) {
+            document.add(new TextField("question." + language, card.getQuestion(), Field.Store.NO));
+        }
+        if (card.getAnswer() != null) {
+            document.add(new TextField("answer." + language, card.getAnswer(), Field.Store.NO));
+        }
+        if (card.getTags() != null && !card.getTags().isEmpty()) {
+            document.add(new TextField("tags." + language, String.join(" ", card.getTags()), Field.Store.NO));
+        }
+        return document;
+    }
+
+    static String normalizeLanguage(String language) {
+        if (language == null || language.isBlank()) {
+            return DEFAULT_LANGUAGE;
+        }
+        return LANGUAGE_ALIASES.getOrDefault(language.trim().toLowerCase(), DEFAULT_LANGUAGE);
+    }
+
+    public int getPendingUpdateCount() {
+        return pending.size();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("pendingUpdates", pending.size());
+        stats.put("rebuilding", rebuilding.get());
+        stats.put("updatesAppliedSinceStartup", opsApplied.get());
+        stats.put("lastRebuildCards", lastRebuildCards.get());
+        stats.put("lastRebuildMillis", lastRebuildMillis.get());
+        if (writer != null) {
+            stats.put("documents", writer.getDocStats().numDocs);
+        }
+        return stats;
+    }
+
+    /**
+     * Picks the analyzer from the language suffix of the field name, e.g. "answer.spanish".
+     * Keyword fields (ids, flags) are not tokenized so never reach here.
+     */
+    private static final class LanguageAnalyzer extends DelegatingAnalyzerWrapper {
+
+        static final Map<String, Analyzer> ANALYZERS;
+
+        static {
+            Map<String, Analyzer> analyzers = new LinkedHashMap<>();
+            analyzers.put(DEFAULT_LANGUAGE, new StandardAnalyzer());
+            analyzers.put("english", new EnglishAnalyzer());
+            analyzers.put("spanish", new SpanishAnalyzer());
+            analyzers.put("french", new FrenchAnalyzer());
+            analyzers.put("german", new GermanAnalyzer());
+            analyzers.put("italian", new ItalianAnalyzer());
+            analyzers.put("portuguese", new PortugueseAnalyzer());
+            analyzers.put("dutch", new DutchAnalyzer());
+            analyzers.put("russian", new RussianAnalyzer());
+            ANALYZERS = analyzers;
+        }
+
+        LanguageAnalyzer() {
+            super(PER_FIELD_REUSE_STRATEGY);
+        }
+
+        @Override
+        protected Analyzer getWrappedAnalyzer(String fieldName) {
+            int dot = fieldName.lastIndexOf('.');
+            Analyzer analyzer = dot >= 0 ? ANALYZERS.get(fieldName.substring(dot + 1)) : null;
+            return analyzer != null ? analyzer : ANALYZERS.get(DEFAULT_LANGUAGE);
+        }
+    }
+}
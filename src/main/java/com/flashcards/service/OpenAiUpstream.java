@@ -0,0 +1,372 @@
+package com.flashcards.service;
+
+import com.flashcards.security.RequestIdFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends requests to the OpenAI API. A circuit breaker refuses calls while the API keeps failing or
+ * answering slowly, so requests go to the fallback generator at once instead of each waiting out the
+ * client timeout. 429 and 5xx replies are retried after a jittered backoff, within a retry budget, and
+ * a call still running after the recent p95 latency can be raced by a second (hedged) one.
+ */
+@Component
+public class OpenAiUpstream {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenAiUpstream.class);
+
+    private static final int IO_ERROR = -1;
+    private static final int LATENCY_SAMPLES = 200;
+
+    /**
+     * Thrown without calling when the circuit breaker is open.
+     */
+    static final class CircuitOpenException extends IOException {
+        CircuitOpenException() {
+            super("OpenAI circuit breaker is open");
+        }
+    }
+
+    /**
+     * Outcome of one HTTP call; {@code code} is {@link #IO_ERROR} when there was no response.
+     */
+    private record Attempt(int code, String body, IOException error, long retryAfterNanos, boolean hedge) {
+
+        // The breaker refused the call
+        static final Attempt REJECTED = new Attempt(IO_ERROR, null, null, 0, false);
+
+        boolean succeeded() {
+            return error == null;
+        }
+
+        String status() {
+            return OpenAiUpstream.status(code);
+        }
+    }
+
+    @Value("${ai.openai.retry.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    @Value("${ai.openai.retry.backoff-ms:250}")
+    private long backoffMs = 250;
+
+    // Also the longest Retry-After honoured; a longer one is not waited for
+    @Value("${ai.openai.retry.max-backoff-ms:4000}")
+    private long maxBackoffMs = 4000;
+
+    @Value("${ai.openai.hedge.enabled:false}")
+    private boolean hedgeEnabled = false;
+
+    @Value("${ai.openai.hedge.min-delay-ms:2000}")
+    private long hedgeMinDelayMs = 2000;
+
+    // Successful calls seen before hedging starts, so the p95 means something
+    @Value("${ai.openai.hedge.min-samples:20}")
+    private int hedgeMinSamples = 20;
+
+    private final OkHttpClient httpClient;
+    private final CircuitBreaker breaker;
+    private final RetryBudget retryBudget;
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
+
+    // Latencies of recent successful calls, for the hedge delay
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private int latencyCount;
+    private int nextLatency;
+
+    public OpenAiUpstream(OkHttpClient httpClient, CircuitBreaker openAiCircuitBreaker, RetryBudget openAiRetryBudget,
+                          MeterRegistry meterRegistry, Tracer tracer) {
+        this.httpClient = httpClient;
+        this.breaker = openAiCircuitBreaker;
+        this.retryBudget = openAiRetryBudget;
+        this.meterRegistry = meterRegistry;
+        this.tracer = tracer;
+
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            Gauge.builder("flashcards.ai.openai.breaker.state", breaker, b -> b.state() == state ? 1 : 0)
+                    .tag("state", state.name().toLowerCase(Locale.ROOT))
+                    .description("1 for the current state of the OpenAI circuit breaker")
+                    .register(meterRegistry);
+        }
+        Gauge.builder("flashcards.ai.openai.retry.budget", retryBudget, RetryBudget::tokens)
+                .description("Retries and hedged requests that can be made right now")
+                .register(meterRegistry);
+        breaker.onTransition((from, to) -> {
+            if (to == CircuitBreaker.State.OPEN) {
+                logger.warn("OpenAI circuit breaker opened (was {}), using fallback generation", from);
+            } else {
+                logger.info("OpenAI circuit breaker {} (was {})", to, from);
+            }
+            meterRegistry.counter("flashcards.ai.openai.breaker.transitions", "to",
+                    to.name().toLowerCase(Locale.ROOT)).increment();
+        });
+    }
+
+    /**
+     * Whether a call would be let through now; counts a rejection when not.
+     */
+    public boolean acceptsCalls() {
+        if (breaker.isCallPermitted()) {
+            return true;
+        }
+        meterRegistry.counter("flashcards.ai.openai.breaker.rejected").increment();
+        return false;
+    }
+
+    /**
+     * The body of a successful reply to {@code request}, retried and hedged as configured. Tags the
+     * current span with the final status and the number of calls made.
+     *
+     * @throws CircuitOpenException when the breaker refused the call
+     * @throws IOException          for the last failure when no call succeeded
+     */
+    public String send(Request request) throws IOException {
+        if (hedgeEnabled) {
+            // Hedged calls run on OkHttp's threads, where the request id is not in the MDC
+            String requestId = MDC.get(RequestIdFilter.MDC_KEY);
+            if (requestId != null && request.header(RequestIdFilter.HEADER) == null) {
+                request = request.newBuilder().header(RequestIdFilter.HEADER, requestId).build();
+            }
+        }
+        retryBudget.onCall();
+
+        Attempt attempt = null;
+        int attempts = 0;
+        while (true) {
+            Attempt next = hedgeEnabled ? executeHedged(request) : execute(request);
+            if (next == Attempt.REJECTED) {
+                if (attempt == null) {
+                    meterRegistry.counter("flashcards.ai.openai.breaker.rejected").increment();
+                    throw new CircuitOpenException();
+                }
+                break; // The breaker opened between attempts; report the failure before
+            }
+            attempt = next;
+            attempts++;
+            if (attempt.succeeded() || !retryable(attempt.code()) || attempts >= maxAttempts) {
+                break;
+            }
+            long backoffNanos = backoffNanos(attempts, attempt.retryAfterNanos());
+            if (backoffNanos < 0) {
+                logger.debug("Not retrying OpenAI {}, Retry-After is over {} ms", attempt.code(), maxBackoffMs);
+                break;
+            }
+            if (!retryBudget.tryRetry()) {
+                meterRegistry.counter("flashcards.ai.openai.retry.budget.exhausted").increment();
+                break;
+            }
+            meterRegistry.counter("flashcards.ai.openai.retries", "status", attempt.status()).increment();
+            logger.debug("OpenAI replied {}, retry {} in {} ms", attempt.code(), attempts,
+                    TimeUnit.NANOSECONDS.toMillis(backoffNanos));
+            try {
+                TimeUnit.NANOSECONDS.sleep(backoffNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted before retrying OpenAI call");
+            }
+        }
+
+        Span span = tracer.currentSpan();
+        if (span != null) {
+            span.tag("http.status_code", attempt.status()).tag("attempts", attempts);
+        }
+        if (!attempt.succeeded()) {
+            throw attempt.error();
+        }
+        return attempt.body();
+    }
+
+    private static String status(int code) {
+        return code == IO_ERROR ? "IO_ERROR" : String.valueOf(code);
+    }
+
+    private static boolean retryable(int code) {
+        return code == 429 || code == 500 || code == 502 || code == 503 || code == 504;
+    }
+
+    /**
+     * Exponential backoff with full jitter, or the Retry-After the API asked for when that is longer;
+     * negative when that is beyond the maximum backoff.
+     */
+    private long backoffNanos(int attempts, long retryAfterNanos) {
+        long maxNanos = TimeUnit.MILLISECONDS.toNanos(maxBackoffMs);
+        if (retryAfterNanos > maxNanos) {
+            return -1;
+        }
+        long capNanos = Math.min(maxNanos, TimeUnit.MILLISECONDS.toNanos(backoffMs) << Math.min(attempts - 1, 20));
+        return Math.max(retryAfterNanos, ThreadLocalRandom.current().nextLong(capNanos + 1));
+    }
+
+    private Attempt execute(Request request) {
+        if (!breaker.tryAcquire()) {
+            return Attempt.REJECTED;
+        }
+        Call call = httpClient.newCall(request);
+        long started = System.nanoTime();
+        try (Response response = call.execute()) {
+            return complete(call, response, null, started, false);
+        } catch (IOException e) {
+            return complete(call, null, e, started, false);
+        }
+    }
+
+    /**
+     * Makes the call and, if it has not answered after the hedge delay, a second one; the first
+     * successful reply wins and the other call is cancelled.
+     */
+    private Attempt executeHedged(Request request) throws InterruptedIOException {
+        BlockingQueue<Attempt> done = new LinkedBlockingQueue<>();
+        List<Call> calls = new ArrayList<>(2);
+        if (!enqueue(request, false, done, calls)) {
+            return Attempt.REJECTED;
+        }
+        try {
+            long delayNanos = hedgeDelayNanos();
+            Attempt first = delayNanos < 0 ? done.take() : done.poll(delayNanos, TimeUnit.NANOSECONDS);
+            if (first != null) {
+                return first;
+            }
+            int pending = 1;
+            if (retryBudget.tryRetry()) {
+                if (enqueue(request, true, done, calls)) {
+                    pending++;
+                    meterRegistry.counter("flashcards.ai.openai.hedges", "outcome", "sent").increment();
+                }
+            } else {
+                meterRegistry.counter("flashcards.ai.openai.retry.budget.exhausted").increment();
+            }
+            Attempt last = null;
+            while (pending > 0) {
+                Attempt attempt = done.take();
+                pending--;
+                if (attempt.succeeded()) {
+                    if (attempt.hedge()) {
+                        meterRegistry.counter("flashcards.ai.openai.hedges", "outcome", "won").increment();
+                    }
+                    return attempt;
+                }
+                last = attempt;
+            }
+            return last;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for OpenAI call");
+        } finally {
+            calls.forEach(Call::cancel);
+        }
+    }
+
+    private boolean enqueue(Request request, boolean hedge, BlockingQueue<Attempt> done, List<Call> calls) {
+        if (!breaker.tryAcquire()) {
+            return false;
+        }
+        Call call = httpClient.newCall(request);
+        calls.add(call);
+        long started = System.nanoTime();
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call failed, IOException e) {
+                done.add(complete(failed, null, e, started, hedge));
+            }
+
+            @Override
+            public void onResponse(Call answered, Response response) {
+                try (response) {
+                    done.add(complete(answered, response, null, started, hedge));
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Reads the reply and records the call with the breaker, the latency window and the request timer.
+     */
+    private Attempt complete(Call call, Response response, IOException error, long started, boolean hedge) {
+        int code = IO_ERROR;
+        String body = null;
+        long retryAfterNanos = 0;
+        if (response != null) {
+            code = response.code();
+            try {
+                if (response.isSuccessful()) {
+                    body = response.body().string();
+                } else {
+                    error = new IOException("Unexpected response: " + response);
+                    retryAfterNanos = retryAfterNanos(response.header("Retry-After"));
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+
+        if (call.isCanceled()) {
+            // Lost a hedge race; says nothing about the API
+            breaker.release();
+        } else {
+            breaker.record(error != null && (code == IO_ERROR || retryable(code)), elapsed);
+            if (error == null) {
+                recordLatency(elapsed);
+            }
+            // Covers reading the body, so slow streamed responses show up too
+            meterRegistry.timer("flashcards.ai.openai.requests", "status", status(code)).record(elapsed, TimeUnit.NANOSECONDS);
+        }
+        return new Attempt(code, body, error, retryAfterNanos, hedge);
+    }
+
+    private static long retryAfterNanos(String retryAfter) {
+        if (retryAfter == null) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toNanos(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            return 0; // An HTTP date; the backoff applies
+        }
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        latencies[nextLatency] = nanos;
+        nextLatency = (nextLatency + 1) % LATENCY_SAMPLES;
+        latencyCount = Math.min(latencyCount + 1, LATENCY_SAMPLES);
+    }
+
+    /**
+     * The p95 of recent successful calls, at least the minimum delay; negative while there are too few
+     * samples to hedge.
+     */
+    synchronized long hedgeDelayNanos() {
+        if (latencyCount < Math.max(1, hedgeMinSamples)) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        long p95 = sorted[Math.min(latencyCount - 1, (int) Math.ceil(latencyCount * 0.95) - 1)];
+        return Math.max(p95, TimeUnit.MILLISECONDS.toNanos(hedgeMinDelayMs));
+    }
+}
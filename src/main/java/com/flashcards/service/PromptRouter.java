@@ -0,0 +1,317 @@
+package com.flashcards.service;
+
+import com.flashcards.dto.AiGenerationRequest;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Decides how a generation request is handled (language learning, "when to use" cards, one of the
+ * canned subjects) from the keywords in its text and topic. All keywords are matched in a single pass
+ * over each string with an Aho-Corasick automaton built once, so a 100KB text is neither lowercased
+ * into a copy nor scanned once per keyword or regex.
+ */
+final class PromptRouter {
+
+    /** Canned fallback card sets, picked from keywords in the text. */
+    enum Subject { CAR_BRANDS, COUNTRIES, ANIMALS, NONE }
+
+    /**
+     * Everything AiService needs to route one request.
+     *
+     * @param languageLearning  translation/vocabulary request
+     * @param whenToUse         the text asks for "when to use" questions; decides OpenAI vs fallback and the prompt
+     * @param whenToUseFallback the wider "when to use" check of the local generator, which also looks at the topic
+     * @param targetLanguage    language to learn, e.g. "Spanish"
+     * @param fruitVocabulary   the text asks for fruit names
+     */
+    record Intent(boolean languageLearning, boolean whenToUse, boolean whenToUseFallback, String targetLanguage,
+                  boolean fruitVocabulary, Subject subject) {
+    }
+
+    // Keyword groups, one bit each
+    private static final int WHEN_TO_USE = 1;
+    private static final int WHEN_TO_USE_EXTRA = 1 << 1;
+    private static final int DATA_STRUCTURE = 1 << 2;
+    private static final int LANGUAGE_PHRASE = 1 << 3; // "in spanish", "to hindi", ... as whole words
+    private static final int TRANSLATION = 1 << 4;
+    private static final int FRUIT = 1 << 5;
+    private static final int CAR = 1 << 6;
+    private static final int BRAND_OR_ORIGIN = 1 << 7;
+    private static final int COUNTRY = 1 << 8;
+    private static final int NATION = 1 << 9;
+    private static final int ANIMAL = 1 << 10;
+    private static final int FIRST_LANGUAGE_BIT = 11;
+
+    // In the order they are preferred when several appear: name, language code, keywords
+    private static final String[][] LANGUAGES = {
+            {"Hindi", "hi", "hindi"},
+            {"Spanish", "es", "spanish", "español"},
+            {"French", "fr", "french", "français"},
+            {"German", "de", "german", "deutsch"},
+            {"Italian", "it", "italian"},
+            {"Japanese", "ja", "japanese", "日本語"},
+            {"Chinese", "zh", "chinese", "中文"},
+            {"Korean", "ko", "korean", "한국어"},
+            {"Portuguese", "pt", "portuguese"},
+            {"Russian", "ru", "russian"},
+            {"Arabic", "ar", "arabic"}
+    };
+
+    private static final Automaton AUTOMATON = buildAutomaton();
+
+    private PromptRouter() {
+    }
+
+    static Intent classify(AiGenerationRequest request) {
+        String text = request.getText() != null ? request.getText() : "";
+        String topic = request.getTopic() != null ? request.getTopic() : "General";
+        String language = request.getLanguage() != null ? request.getLanguage() : "english";
+        return classify(text, topic, language);
+    }
+
+    static Intent classify(String text, String topic, String language) {
+        int textMatches = AUTOMATON.scan(text);
+        int topicMatches = AUTOMATON.scan(topic);
+
+        boolean languageLearning = (textMatches & (LANGUAGE_PHRASE | TRANSLATION)) != 0
+                || (topicMatches & LANGUAGE_PHRASE) != 0;
+        boolean whenToUse = (textMatches & WHEN_TO_USE) != 0;
+        boolean whenToUseFallback = (textMatches & (WHEN_TO_USE | WHEN_TO_USE_EXTRA)) != 0
+                || (topicMatches & DATA_STRUCTURE) != 0
+                || topic.trim().equalsIgnoreCase("pds");
+
+        Subject subject = Subject.NONE;
+        if ((textMatches & CAR) != 0 && (textMatches & (BRAND_OR_ORIGIN | COUNTRY)) != 0) {
+            subject = Subject.CAR_BRANDS;
+        } else if ((textMatches & (COUNTRY | NATION)) != 0) {
+            subject = Subject.COUNTRIES;
+        } else if ((textMatches & ANIMAL) != 0) {
+            subject = Subject.ANIMALS;
+        }
+
+        int languageMatches = textMatches | topicMatches | AUTOMATON.scan(language);
+        return new Intent(languageLearning, whenToUse, whenToUseFallback,
+                targetLanguage(language, languageMatches), (textMatches & FRUIT) != 0, subject);
+    }
+
+    private static String targetLanguage(String language, int matches) {
+        for (int i = 0; i < LANGUAGES.length; i++) {
+            if (language.equals(LANGUAGES[i][1]) || (matches & (1 << (FIRST_LANGUAGE_BIT + i))) != 0) {
+                return LANGUAGES[i][0];
+            }
+        }
+        // Any other language than English is passed on as named
+        if (!language.isEmpty() && !language.equals("en") && !language.equals("english")) {
+            return language.substring(0, 1).toUpperCase() + language.substring(1);
+        }
+        return "English";
+    }
+
+    private static Automaton buildAutomaton() {
+        Automaton.Builder builder = new Automaton.Builder();
+        for (String phrase : new String[]{"question should be when", "when we can use", "when to use"}) {
+            builder.add(phrase, WHEN_TO_USE, false);
+        }
+        builder.add("when should we use", WHEN_TO_USE_EXTRA, false);
+        builder.add("particular data structure", WHEN_TO_USE_EXTRA, false);
+        builder.add("data structure", DATA_STRUCTURE, false);
+        for (String phrase : new String[]{"translate to ", "translation cards", "language learning"}) {
+            builder.add(phrase, TRANSLATION, false);
+        }
+        builder.add("fruit name", FRUIT, false);
+        builder.add("fruits", FRUIT, false);
+        builder.add("car", CAR, false);
+        builder.add("brand", BRAND_OR_ORIGIN, false);
+        builder.add("origin", BRAND_OR_ORIGIN, false);
+        builder.add("country", COUNTRY, false);
+        builder.add("nation", NATION, false);
+        for (String word : new String[]{"animal", "pet", "wildlife"}) {
+            builder.add(word, ANIMAL, false);
+        }
+        for (int i = 0; i < LANGUAGES.length; i++) {
+            String[] language = LANGUAGES[i];
+            for (int k = 2; k < language.length; k++) {
+                builder.add(language[k], 1 << (FIRST_LANGUAGE_BIT + i), false);
+            }
+            builder.add("in " + language[2], LANGUAGE_PHRASE, true);
+            builder.add("to " + language[2], LANGUAGE_PHRASE, true);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Case-insensitive multi-keyword matcher. Characters are lowercased one at a time while scanning, and
+     * each state's transitions are a row of a dense table over the keyword alphabet, so a scan is one
+     * table lookup per input character.
+     */
+    static final class Automaton {
+
+        private static final int[] NO_LENGTHS = new int[0];
+
+        private final int[] asciiSymbols; // Lowercase ASCII char -> symbol, 0 for chars in no keyword
+        private final Map<Character, Integer> otherSymbols;
+        private final int alphabetSize;
+        private final int[] transitions; // state * alphabetSize + symbol -> next state
+        private final int[] matches; // Bits of the keywords ending in a state, wherever they start
+        private final int[][] wholeWordLengths; // Lengths of whole-word keywords ending in a state
+        private final int[][] wholeWordBits;
+
+        private Automaton(int[] asciiSymbols, Map<Character, Integer> otherSymbols, int alphabetSize, int[] transitions,
+                          int[] matches, int[][] wholeWordLengths, int[][] wholeWordBits) {
+            this.asciiSymbols = asciiSymbols;
+            this.otherSymbols = otherSymbols;
+            this.alphabetSize = alphabetSize;
+            this.transitions = transitions;
+            this.matches = matches;
+            this.wholeWordLengths = wholeWordLengths;
+            this.wholeWordBits = wholeWordBits;
+        }
+
+        /**
+         * The bits of every keyword found in the text.
+         */
+        int scan(String text) {
+            int found = 0;
+            int state = 0;
+            int length = text.length();
+            for (int i = 0; i < length; i++) {
+                char c = Character.toLowerCase(text.charAt(i));
+                int symbol;
+                if (c < 128) {
+                    symbol = asciiSymbols[c];
+                } else {
+                    Integer other = otherSymbols.get(c);
+                    symbol = other != null ? other : 0;
+                }
+                state = transitions[state * alphabetSize + symbol];
+                found |= matches[state];
+
+                int[] lengths = wholeWordLengths[state];
+                for (int k = 0; k < lengths.length; k++) {
+                    int start = i - lengths[k] + 1;
+                    if ((start == 0 || !isWordChar(text.charAt(start - 1)))
+                            && (i + 1 == length || !isWordChar(text.charAt(i + 1)))) {
+                        found |= wholeWordBits[state][k];
+                    }
+                }
+            }
+            return found;
+        }
+
+        // Same as \b in java.util.regex without UNICODE_CHARACTER_CLASS
+        private static boolean isWordChar(char c) {
+            return c == '_' || Character.isLetterOrDigit(c);
+        }
+
+        static final class Builder {
+
+            private final List<Map<Integer, Integer>> children = new ArrayList<>();
+            private final List<Integer> matches = new ArrayList<>();
+            private final List<List<int[]>> wholeWords = new ArrayList<>(); // {length, bit}
+            private final int[] asciiSymbols = new int[128];
+            private final Map<Character, Integer> otherSymbols = new HashMap<>();
+            private int alphabetSize = 1;
+
+            Builder() {
+                newState();
+            }
+
+            /**
+             * Adds a lowercase keyword. Whole-word keywords only match between non-word characters.
+             */
+            Builder add(String keyword, int bit, boolean wholeWord) {
+                int state = 0;
+                for (int i = 0; i < keyword.length(); i++) {
+                    int symbol = symbol(keyword.charAt(i));
+                    Integer next = children.get(state).get(symbol);
+                    if (next == null) {
+                        next = newState();
+                        children.get(state).put(symbol, next);
+                    }
+                    state = next;
+                }
+                if (wholeWord) {
+                    wholeWords.get(state).add(new int[]{keyword.length(), bit});
+                } else {
+                    matches.set(state, matches.get(state) | bit);
+                }
+                return this;
+            }
+
+            Automaton build() {
+                int states = children.size();
+                int[] transitions = new int[states * alphabetSize];
+                int[] fail = new int[states];
+                int[] stateMatches = new int[states];
+                List<List<int[]>> stateWholeWords = new ArrayList<>();
+                for (int state = 0; state < states; state++) {
+                    stateMatches[state] = matches.get(state);
+                    stateWholeWords.add(new ArrayList<>(wholeWords.get(state)));
+                }
+
+                // Breadth first, so a state's failure target is complete before the state itself
+                Queue<Integer> queue = new ArrayDeque<>();
+                for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                    Integer child = children.get(0).get(symbol);
+                    if (child != null) {
+                        transitions[symbol] = child;
+                        queue.add(child);
+                    }
+                }
+                while (!queue.isEmpty()) {
+                    int state = queue.remove();
+                    stateMatches[state] |= stateMatches[fail[state]];
+                    stateWholeWords.get(state).addAll(stateWholeWords.get(fail[state]));
+                    for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                        Integer child = children.get(state).get(symbol);
+                        int fallback = transitions[fail[state] * alphabetSize + symbol];
+                        if (child != null) {
+                            fail[child] = fallback;
+                            transitions[state * alphabetSize + symbol] = child;
+                            queue.add(child);
+                        } else {
+                            transitions[state * alphabetSize + symbol] = fallback;
+                        }
+                    }
+                }
+
+                int[][] lengths = new int[states][];
+                int[][] bits = new int[states][];
+                for (int state = 0; state < states; state++) {
+                    List<int[]> words = stateWholeWords.get(state);
+                    lengths[state] = words.isEmpty() ? NO_LENGTHS : new int[words.size()];
+                    bits[state] = words.isEmpty() ? NO_LENGTHS : new int[words.size()];
+                    for (int k = 0; k < words.size(); k++) {
+                        lengths[state][k] = words.get(k)[0];
+                        bits[state][k] = words.get(k)[1];
+                    }
+                }
+                return new Automaton(Arrays.copyOf(asciiSymbols, asciiSymbols.length), new HashMap<>(otherSymbols),
+                        alphabetSize, transitions, stateMatches, lengths, bits);
+            }
+
+            private int newState() {
+                children.add(new HashMap<>());
+                matches.add(0);
+                wholeWords.add(new ArrayList<>());
+                return children.size() - 1;
+            }
+
+            private int symbol(char c) {
+                if (c < 128) {
+                    if (asciiSymbols[c] == 0) {
+                        asciiSymbols[c] = alphabetSize++;
+                    }
+                    return asciiSymbols[c];
+                }
+                return otherSymbols.computeIfAbsent(c, ignored -> alphabetSize++);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.flashcards.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A prompt with {@code {{name}}} placeholders, split once into literal segments and parameter slots.
+ * Rendering appends the segments and the values into a builder sized to the exact result, so a 100KB
+ * source text is copied once instead of going through format parsing and buffer growth.
+ */
+final class PromptTemplate {
+
+    private final String name;
+    private final String version;
+    private final String[] literals; // literals[i] comes before the value of slots[i]; one more literal than slots
+    private final int[] slots; // Index into the render arguments
+    private final int literalLength;
+
+    private PromptTemplate(String name, String version, String[] literals, int[] slots) {
+        this.name = name;
+        this.version = version;
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Parses a template. Placeholders must be among {@code parameters}, whose order is the order of the
+     * values passed to {@link #render}.
+     *
+     * @throws IllegalArgumentException for an unknown or unterminated placeholder
+     */
+    static PromptTemplate compile(String name, String version, String source, List<String> parameters) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = source.indexOf("{{", position);
+            if (open < 0) {
+                break;
+            }
+            int close = source.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unterminated placeholder in prompt " + version + "/" + name + " at " + open);
+            }
+            String parameter = source.substring(open + 2, close).trim();
+            int slot = parameters.indexOf(parameter);
+            if (slot < 0) {
+                throw new IllegalArgumentException("Unknown placeholder {{" + parameter + "}} in prompt " + version + "/" + name
+                        + ", expected one of " + parameters);
+            }
+            literals.add(source.substring(position, open));
+            slots.add(slot);
+            position = close + 2;
+        }
+        literals.add(source.substring(position));
+        return new PromptTemplate(name, version, literals.toArray(new String[0]),
+                slots.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    String name() {
+        return name;
+    }
+
+    String version() {
+        return version;
+    }
+
+    /**
+     * The prompt with every placeholder replaced by its value; null values render as "null", like
+     * String.format did.
+     */
+    String render(String... values) {
+        int length = literalLength;
+        for (int slot : slots) {
+            length += String.valueOf(values[slot]).length();
+        }
+        StringBuilder prompt = new StringBuilder(length);
+        for (int i = 0; i < slots.length; i++) {
+            prompt.append(literals[i]).append(values[slots[i]]);
+        }
+        return prompt.append(literals[slots.length]).toString();
+    }
+}
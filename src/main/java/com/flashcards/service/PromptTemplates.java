@@ -0,0 +1,161 @@
+package com.flashcards.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The AI prompts, compiled at startup from {@code prompts/<version>/<kind>[.<language>].txt} on the
+ * classpath. A language variant (e.g. {@code language-learning.spanish.txt}) is used for that language
+ * instead of the plain file, and a version only needs the files it changes - the rest come from the
+ * default version. A share of requests can be given an experiment version to compare two prompts.
+ */
+@Component
+public class PromptTemplates {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromptTemplates.class);
+
+    private static final String LOCATION = "classpath*:prompts/*/*.txt";
+
+    /** Prompts AiService renders, with their placeholders in argument order. */
+    enum Kind {
+        DEFAULT("default", List.of("cards", "language", "topic", "difficulty", "text")),
+        WHEN_TO_USE("when-to-use", List.of("cards", "topic", "language", "instructions")),
+        LANGUAGE_LEARNING("language-learning", List.of("cards", "topic", "request", "targetLanguage"));
+
+        final String fileName;
+        final List<String> parameters;
+
+        Kind(String fileName, List<String> parameters) {
+            this.fileName = fileName;
+            this.parameters = parameters;
+        }
+    }
+
+    @Value("${ai.prompt.version:v1}")
+    private String version = "v1";
+
+    @Value("${ai.prompt.experiment.version:}")
+    private String experimentVersion = "";
+
+    @Value("${ai.prompt.experiment.percent:0}")
+    private int experimentPercent = 0;
+
+    // "<version>/<kind file name>" or "<version>/<kind file name>.<language>"
+    private final Map<String, PromptTemplate> templates = new HashMap<>();
+    private final Set<String> versions = new HashSet<>();
+
+    public PromptTemplates() {
+        this(loadSources());
+    }
+
+    /**
+     * Compiles templates from sources keyed by path below {@code prompts/}, e.g. "v1/default.txt".
+     */
+    PromptTemplates(Map<String, String> sources) {
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            String path = source.getKey();
+            int slash = path.indexOf('/');
+            String templateVersion = path.substring(0, slash);
+            String name = path.substring(slash + 1, path.length() - ".txt".length());
+            int dot = name.indexOf('.');
+            Kind kind = kindOf(dot < 0 ? name : name.substring(0, dot));
+            if (kind == null) {
+                logger.warn("Ignoring prompt {} - no such prompt kind", path);
+                continue;
+            }
+            templates.put(templateVersion + "/" + name,
+                    PromptTemplate.compile(name, templateVersion, source.getValue(), kind.parameters));
+            versions.add(templateVersion);
+        }
+        logger.debug("Loaded {} prompt templates in versions {}", templates.size(), versions);
+    }
+
+    /**
+     * The template to render for a request: from the experiment version for the configured share of
+     * calls, otherwise from the configured version, in the variant for {@code language} when there is one.
+     */
+    PromptTemplate get(Kind kind, String language) {
+        String chosen = version;
+        if (experimentPercent > 0 && !experimentVersion.isEmpty()
+                && ThreadLocalRandom.current().nextInt(100) < experimentPercent) {
+            chosen = experimentVersion;
+        }
+        PromptTemplate template = find(chosen, kind, language);
+        if (template == null && !chosen.equals(version)) {
+            template = find(version, kind, language);
+        }
+        if (template == null) {
+            throw new IllegalStateException("No " + kind.fileName + " prompt in version " + chosen);
+        }
+        return template;
+    }
+
+    private PromptTemplate find(String templateVersion, Kind kind, String language) {
+        if (language != null && !language.isEmpty()) {
+            PromptTemplate variant = templates.get(templateVersion + "/" + kind.fileName + "." + language.toLowerCase(Locale.ROOT));
+            if (variant != null) {
+                return variant;
+            }
+        }
+        return templates.get(templateVersion + "/" + kind.fileName);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkConfiguredVersions() {
+        for (Kind kind : Kind.values()) {
+            if (find(version, kind, null) == null) {
+                logger.error("Prompt version {} has no {} prompt - AI generation will use the fallback generator", version, kind.fileName);
+            }
+        }
+        if (experimentPercent > 0 && !versions.contains(experimentVersion)) {
+            logger.error("Prompt experiment version '{}' does not exist, {}% of requests use {}", experimentVersion,
+                    experimentPercent, version);
+        }
+    }
+
+    private static Kind kindOf(String fileName) {
+        for (Kind kind : Kind.values()) {
+            if (kind.fileName.equals(fileName)) {
+                return kind;
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, String> loadSources() {
+        Map<String, String> sources = new HashMap<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+                String url = resource.getURL().toString();
+                int fileStart = url.lastIndexOf('/');
+                String path = url.substring(url.lastIndexOf('/', fileStart - 1) + 1);
+                try (InputStream in = resource.getInputStream()) {
+                    String source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                    // Files end with a line break, the prompts do not
+                    sources.put(path, source.endsWith("\n") ? source.substring(0, source.length() - 1) : source);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load prompt templates from " + LOCATION, e);
+        }
+        return sources;
+    }
+}
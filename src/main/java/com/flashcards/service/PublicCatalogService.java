@@ -0,0 +1,206 @@
+package com.flashcards.service;
+
+import com.flashcards.dto.DeckPage;
+import com.flashcards.model.Deck;
+import com.flashcards.repository.DeckRepository;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Public deck catalog, newest, most popular or trending first (scores from {@link DeckPopularityJob}),
+ * paged with an opaque keyset cursor. The first
+ * few pages of each ordering are what nearly every visitor loads, so they are cached for a short time
+ * and dropped as soon as a public deck changes. Concurrent misses on the same page share one query.
+ * Pages are cached by position, and a cursor is only served from the cache if it is the one the
+ * cached previous page handed out, so made-up cursors cannot add entries.
+ */
+@Service
+public class PublicCatalogService {
+
+    static final String SORT_NEWEST = "newest";
+    static final String SORT_POPULAR = "popular";
+    static final String SORT_TRENDING = "trending";
+    static final int MAX_PAGE_SIZE = 100;
+
+    private static final class CachedValue<T> {
+        final long generation;
+        final long expiresAt;
+        final CompletableFuture<T> value = new CompletableFuture<>();
+
+        CachedValue(long generation, long expiresAt) {
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isFresh(long currentGeneration, long now) {
+            return generation == currentGeneration && expiresAt > now;
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final DeckRepository deckRepository;
+    private final ConcurrentHashMap<String, CachedValue<DeckPage>> pages = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CachedValue<Long>> counts = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so a load that started before it is never served afterwards
+    private final AtomicLong generation = new AtomicLong();
+
+    @Value("${catalog.cache.ttl-seconds:60}")
+    private long cacheTtlSeconds = 60;
+
+    @Value("${catalog.cache.pages:3}")
+    private int cachedPages = 3;
+
+    public PublicCatalogService(MongoTemplate mongoTemplate, DeckRepository deckRepository) {
+        this.mongoTemplate = mongoTemplate;
+        this.deckRepository = deckRepository;
+    }
+
+    public DeckPage getPublicDecks(String sort, String cursor, int size) {
+        String order = SORT_POPULAR.equals(sort) || SORT_TRENDING.equals(sort) ? sort : SORT_NEWEST;
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Cursor after = cursor != null && !cursor.isBlank() ? Cursor.decode(cursor) : null;
+        int pageIndex = after != null ? after.pageIndex : 0;
+        if (pageIndex >= cachedPages || (after != null && !isIssued(order, pageSize, after, cursor))) {
+            return loadPage(order, after, pageSize);
+        }
+        return readThrough(pages, pageKey(order, pageSize, pageIndex), () -> loadPage(order, after, pageSize));
+    }
+
+    private static String pageKey(String order, int pageSize, int pageIndex) {
+        return order + "|" + pageSize + "|" + pageIndex;
+    }
+
+    /**
+     * Whether the cursor is the next cursor of the cached page before it.
+     */
+    private boolean isIssued(String order, int pageSize, Cursor after, String cursor) {
+        CachedValue<DeckPage> previous = pages.get(pageKey(order, pageSize, after.pageIndex - 1));
+        if (previous == null || !previous.isFresh(generation.get(), System.currentTimeMillis())
+                || !previous.value.isDone() || previous.value.isCompletedExceptionally()) {
+            return false;
+        }
+        return cursor.equals(previous.value.join().getNextCursor());
+    }
+
+    public long countPublicDecks() {
+        return readThrough(counts, "public", deckRepository::countByIsPublicTrue);
+    }
+
+    /**
+     * Call whenever a public deck is created, changed, deleted, or a deck is published or unpublished.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        pages.clear();
+        counts.clear();
+    }
+
+    private <T> T readThrough(ConcurrentHashMap<String, CachedValue<T>> cache, String key,
+                              Supplier<T> loader) {
+        long currentGeneration = generation.get();
+        long now = System.currentTimeMillis();
+        CachedValue<T> created = new CachedValue<>(currentGeneration, now + cacheTtlSeconds * 1000);
+        CachedValue<T> entry = cache.compute(key, (k, existing) ->
+                existing != null && existing.isFresh(currentGeneration, now) ? existing : created);
+        if (entry == created) {
+            try {
+                created.value.complete(loader.get());
+            } catch (RuntimeException e) {
+                cache.remove(key, created);
+                created.value.completeExceptionally(e);
+                throw e;
+            }
+        }
+        return entry.value.join();
+    }
+
+    private DeckPage loadPage(String order, Cursor after, int size) {
+        String field = sortField(order);
+        Query query = new Query(Criteria.where("isPublic").is(true));
+        if (after != null) {
+            Object value = SORT_NEWEST.equals(order) ? LocalDateTime.parse(after.value) : (Object) Double.parseDouble(after.value);
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where(field).lt(value),
+                    Criteria.where(field).is(value).and("_id").lt(new ObjectId(after.lastId))));
+        }
+        query.with(Sort.by(Sort.Order.desc(field), Sort.Order.desc("_id"))).limit(size + 1);
+        List<Deck> decks = mongoTemplate.find(query, Deck.class);
+
+        String nextCursor = null;
+        if (decks.size() > size) {
+            decks = decks.subList(0, size);
+            Deck last = decks.get(size - 1);
+            nextCursor = new Cursor(after != null ? after.pageIndex + 1 : 1, sortValue(order, last), last.getId()).encode();
+        }
+        return new DeckPage(decks, nextCursor, countPublicDecks());
+    }
+
+    private static String sortField(String order) {
+        switch (order) {
+            case SORT_POPULAR:
+                return "popularityScore";
+            case SORT_TRENDING:
+                return "trendingScore";
+            default:
+                return "createdAt";
+        }
+    }
+
+    private static String sortValue(String order, Deck deck) {
+        switch (order) {
+            case SORT_POPULAR:
+                return Double.toString(deck.getPopularityScore());
+            case SORT_TRENDING:
+                return Double.toString(deck.getTrendingScore());
+            default:
+                return deck.getCreatedAt().toString();
+        }
+    }
+
+    /**
+     * Position after the last deck of a page: its sort value and id, plus the index of the next page.
+     */
+    private static final class Cursor {
+        final int pageIndex;
+        final String value;
+        final String lastId;
+
+        Cursor(int pageIndex, String value, String lastId) {
+            this.pageIndex = pageIndex;
+            this.value = value;
+            this.lastId = lastId;
+        }
+
+        String encode() {
+            String raw = pageIndex + "|" + value + "|" + lastId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|", 3);
+                if (!ObjectId.isValid(parts[2])) {
+                    throw new IllegalArgumentException();
+                }
+                return new Cursor(Integer.parseInt(parts[0]), parts[1], parts[2]);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+    }
+}
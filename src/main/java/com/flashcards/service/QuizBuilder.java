@@ -0,0 +1,117 @@
+package com.flashcards.service;
+
+import com.flashcards.model.Flashcard;
+import com.flashcards.model.Quiz;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Builds multiple-choice questions for one quiz. The distinct answers of the deck are pooled once,
+ * and each question draws its distractors with a partial Fisher-Yates shuffle over the pool's
+ * indices, so the cost per question is constant rather than proportional to the deck size.
+ * When a similarity index is supplied, the answers closest to the correct one are used first.
+ */
+class QuizBuilder {
+
+    static final int OPTIONS_PER_QUESTION = 4;
+    static final String FILLER_OPTION = "None of the above";
+
+    private final List<String> answers;
+    private final List<String> answerCardIds;
+    private final Map<String, Integer> answerIndex;
+    private final int[] order;
+    private final Random random;
+    private final AnswerSimilarityIndex similarAnswers;
+
+    QuizBuilder(List<Flashcard> deckAnswers, Random random) {
+        this(deckAnswers, random, null);
+    }
+
+    QuizBuilder(List<Flashcard> deckAnswers, Random random, AnswerSimilarityIndex similarAnswers) {
+        this.random = random;
+        this.similarAnswers = similarAnswers;
+        this.answers = new ArrayList<>(deckAnswers.size());
+        this.answerCardIds = new ArrayList<>(deckAnswers.size());
+        this.answerIndex = new HashMap<>(deckAnswers.size() * 2);
+        for (Flashcard card : deckAnswers) {
+            String answer = card.getBack();
+            if (answer != null && answerIndex.putIfAbsent(answer, answers.size()) == null) {
+                answers.add(answer);
+                answerCardIds.add(card.getId());
+            }
+        }
+        this.order = new int[answers.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+    }
+
+    int distinctAnswerCount() {
+        return answers.size();
+    }
+
+    Quiz.QuizQuestion buildQuestion(Flashcard correctCard) {
+        String correctAnswer = correctCard.getBack();
+        List<String> options = new ArrayList<>(OPTIONS_PER_QUESTION);
+        options.add(correctAnswer);
+        if (similarAnswers != null) {
+            for (String similar : similarAnswers.nearest(correctAnswer, OPTIONS_PER_QUESTION - 1)) {
+                if (answerIndex.containsKey(similar) && !options.contains(similar)) {
+                    options.add(similar);
+                }
+            }
+        }
+        addDistractors(options, answerIndex.getOrDefault(correctAnswer, -1));
+
+        // If we don't have enough incorrect answers, add generic ones
+        while (options.size() < OPTIONS_PER_QUESTION) {
+            options.add(FILLER_OPTION);
+        }
+
+        Collections.shuffle(options, random);
+
+        // Options are stored as references to the card each answer came from
+        int correctOptionIndex = options.indexOf(correctAnswer);
+        List<String> optionCardIds = new ArrayList<>(options.size());
+        for (int i = 0; i < options.size(); i++) {
+            if (i == correctOptionIndex) {
+                optionCardIds.add(correctCard.getId());
+            } else {
+                Integer index = answerIndex.get(options.get(i));
+                optionCardIds.add(index != null ? answerCardIds.get(index) : null);
+            }
+        }
+
+        Quiz.QuizQuestion question = new Quiz.QuizQuestion();
+        question.setQuestionId(correctCard.getId());
+        question.setQuestion(correctCard.getFront());
+        question.setOptions(options);
+        question.setOptionCardIds(optionCardIds);
+        question.setCorrectOptionIndex(correctOptionIndex);
+        question.setSelectedOptionIndex(-1);
+        question.setCorrect(false);
+        return question;
+    }
+
+    /**
+     * Partial Fisher-Yates: position k receives a uniformly random index from the unvisited tail.
+     * The index array is left permuted, which is still a uniform starting state for the next question.
+     */
+    private void addDistractors(List<String> options, int correctIndex) {
+        int n = order.length;
+        for (int k = 0; k < n && options.size() < OPTIONS_PER_QUESTION; k++) {
+            int j = k + random.nextInt(n - k);
+            int picked = order[j];
+            order[j] = order[k];
+            order[k] = picked;
+            if (picked != correctIndex && !options.contains(answers.get(picked))) {
+                options.add(answers.get(picked));
+            }
+        }
+    }
+}
@@ -1,93 +1,107 @@
 package com.flashcards.service;
 
+import com.flashcards.dto.QuizSummary;
+import com.flashcards.model.Deck;
 import com.flashcards.model.Flashcard;
 import com.flashcards.model.Quiz;
 import com.flashcards.repository.FlashcardRepository;
 import com.flashcards.repository.QuizRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class QuizService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("startedAt"), Sort.Order.desc("_id"));
+    static final String DELETED_CARD_TEXT = "[deleted card]";
+
     private final QuizRepository quizRepository;
     private final FlashcardRepository flashcardRepository;
-
-    public QuizService(QuizRepository quizRepository, FlashcardRepository flashcardRepository) {
+    private final DistractorIndexService distractorIndexService;
+    private final DeckForkService deckForkService;
+    private final Timer createTimer;
+    private final Timer submitTimer;
+    private final Random random = new Random();
+
+    public QuizService(QuizRepository quizRepository, 
+                      FlashcardRepository flashcardRepository,
+                      DistractorIndexService distractorIndexService,
+                      DeckForkService deckForkService,
+                      MeterRegistry meterRegistry) {
         this.quizRepository = quizRepository;
         this.flashcardRepository = flashcardRepository;
+        this.distractorIndexService = distractorIndexService;
+        this.deckForkService = deckForkService;
+        this.createTimer = meterRegistry.timer("flashcards.quiz.create");
+        this.submitTimer = meterRegistry.timer("flashcards.quiz.submit");
     }
 
     public Quiz createQuiz(String deckId, String userId, int numberOfQuestions) {
-        // Get flashcards from the deck
-        List<Flashcard> flashcards = flashcardRepository.findByDeckIdOrderByOrderIndex(deckId);
+        return createTimer.record(() -> buildQuiz(deckId, userId, numberOfQuestions));
+    }
+
+    private Quiz buildQuiz(String deckId, String userId, int numberOfQuestions) {
+        // A fork's cards live in two decks, so they are merged and sampled here rather than by Mongo
+        Deck fork = deckForkService.findFork(deckId);
+        String baseDeckId = fork != null ? fork.getBaseDeckId() : null;
+        long indexVersion = distractorIndexService.version(deckId, baseDeckId);
+
+        // Only _id and answer are needed to build the distractor pool
+        List<Flashcard> answerPool = fork != null
+                ? deckForkService.getStoredCards(fork)
+                : flashcardRepository.findAnswersByDeckId(deckId);
         
-        if (flashcards.isEmpty()) {
+        if (answerPool.isEmpty()) {
             throw new RuntimeException("No flashcards available for quiz");
         }
 
-        // Shuffle flashcards and take the requested number
-        Collections.shuffle(flashcards);
-        int questionsToUse = Math.min(numberOfQuestions, flashcards.size());
-        List<Flashcard> selectedCards = flashcards.subList(0, questionsToUse);
+        // Let Mongo pick the question cards at random
+        int questionsToUse = Math.max(1, Math.min(numberOfQuestions, answerPool.size()));
+        List<Flashcard> selectedCards;
+        if (fork != null) {
+            List<Flashcard> shuffled = new ArrayList<>(answerPool);
+            Collections.shuffle(shuffled, random);
+            selectedCards = shuffled.subList(0, questionsToUse);
+        } else {
+            selectedCards = flashcardRepository.sampleByDeckId(deckId, questionsToUse);
+        }
 
         // Create quiz questions
-        List<Quiz.QuizQuestion> quizQuestions = new ArrayList<>();
+        AnswerSimilarityIndex similarAnswers = distractorIndexService.isEnabled()
+                ? distractorIndexService.getIndex(deckId, baseDeckId, indexVersion, answerPool)
+                : null;
+        QuizBuilder builder = new QuizBuilder(answerPool, random, similarAnswers);
+        List<Quiz.QuizQuestion> quizQuestions = new ArrayList<>(selectedCards.size());
         for (Flashcard card : selectedCards) {
-            Quiz.QuizQuestion question = createQuizQuestion(card, flashcards);
-            quizQuestions.add(question);
+            quizQuestions.add(builder.buildQuestion(card));
         }
 
         // Create quiz
-        Quiz quiz = new Quiz(deckId, userId, "Quiz on " + deckId, questionsToUse);
+        Quiz quiz = new Quiz(deckId, userId, "Quiz on " + deckId, quizQuestions.size());
         quiz.setQuestions(quizQuestions);
         
-        return quizRepository.save(quiz);
+        return saveCompact(quiz);
     }
 
-    private Quiz.QuizQuestion createQuizQuestion(Flashcard correctCard, List<Flashcard> allCards) {
-        // Create 4 options: 1 correct + 3 random incorrect
-        List<String> options = new ArrayList<>();
-        options.add(correctCard.getBack()); // Correct answer
-        
-        // Get 3 random incorrect answers
-        List<String> incorrectAnswers = allCards.stream()
-                .filter(card -> !card.getId().equals(correctCard.getId()))
-                .map(Flashcard::getBack)
-                .distinct()
-                .collect(Collectors.toList());
-        
-        Collections.shuffle(incorrectAnswers);
-        for (int i = 0; i < Math.min(3, incorrectAnswers.size()); i++) {
-            options.add(incorrectAnswers.get(i));
-        }
-        
-        // If we don't have enough incorrect answers, add generic ones
-        while (options.size() < 4) {
-            options.add("None of the above");
-        }
-        
-        // Shuffle options
-        Collections.shuffle(options);
-        
-        // Find the index of the correct answer
-        int correctIndex = options.indexOf(correctCard.getBack());
-        
-        Quiz.QuizQuestion question = new Quiz.QuizQuestion();
-        question.setQuestionId(correctCard.getId());
-        question.setQuestion(correctCard.getFront());
-        question.setOptions(options);
-        question.setCorrectOptionIndex(correctIndex);
-        question.setSelectedOptionIndex(-1);
-        question.setCorrect(false);
-        
-        return question;
+    Quiz.QuizQuestion createQuizQuestion(Flashcard correctCard, List<Flashcard> allCards) {
+        // Single-question convenience - createQuiz shares one builder across all questions
+        return new QuizBuilder(allCards, random).buildQuestion(correctCard);
     }
 
     public Quiz submitQuiz(String quizId, Map<String, Integer> answers) {
+        return submitTimer.record(() -> scoreQuiz(quizId, answers));
+    }
+
+    private Quiz scoreQuiz(String quizId, Map<String, Integer> answers) {
         Quiz quiz = quizRepository.findById(quizId)
                 .orElseThrow(() -> new RuntimeException("Quiz not found"));
 
@@ -111,20 +125,99 @@ public class QuizService {
         quiz.setCompletedAt(LocalDateTime.now());
         quiz.setStatus("completed");
         
-        return quizRepository.save(quiz);
+        return resolveQuestionText(quizRepository.save(quiz));
     }
 
-    public List<Quiz> getUserQuizHistory(String userId) {
-        return quizRepository.findByUserIdOrderByStartedAtDesc(userId);
+    public List<QuizSummary> getUserQuizHistory(String userId, LocalDateTime before, String lastId, int limit) {
+        Pageable page = historyPage(limit);
+        if (before == null || lastId == null || !ObjectId.isValid(lastId)) {
+            return quizRepository.findSummariesByUserId(userId, page);
+        }
+        return quizRepository.findSummariesByUserIdOlderThan(userId, before, new ObjectId(lastId), page);
     }
 
-    public List<Quiz> getDeckQuizHistory(String deckId, String userId) {
-        return quizRepository.findByDeckIdAndUserIdOrderByStartedAtDesc(deckId, userId);
+    public List<QuizSummary> getDeckQuizHistory(String deckId, String userId, LocalDateTime before, String lastId, int limit) {
+        Pageable page = historyPage(limit);
+        if (before == null || lastId == null || !ObjectId.isValid(lastId)) {
+            return quizRepository.findSummariesByDeckIdAndUserId(deckId, userId, page);
+        }
+        return quizRepository.findSummariesByDeckIdAndUserIdOlderThan(deckId, userId, before, new ObjectId(lastId), page);
     }
 
     public Quiz getQuiz(String quizId) {
-        return quizRepository.findById(quizId)
+        Quiz quiz = quizRepository.findById(quizId)
                 .orElseThrow(() -> new RuntimeException("Quiz not found"));
+        return resolveQuestionText(quiz);
+    }
+
+    /**
+     * Persists the quiz with question and option text stripped - only card references are stored.
+     * The returned quiz keeps the text the caller built it with.
+     */
+    private Quiz saveCompact(Quiz quiz) {
+        List<Quiz.QuizQuestion> withText = quiz.getQuestions();
+        List<Quiz.QuizQuestion> compact = new ArrayList<>(withText.size());
+        for (Quiz.QuizQuestion question : withText) {
+            compact.add(new Quiz.QuizQuestion(question.getQuestionId(), null, null, question.getOptionCardIds(),
+                    question.getCorrectOptionIndex(), question.getSelectedOptionIndex(), question.isCorrect()));
+        }
+        quiz.setQuestions(compact);
+        quiz.setStorageVersion(Quiz.COMPACT_STORAGE_VERSION);
+        Quiz saved = quizRepository.save(quiz);
+        saved.setQuestions(withText);
+        return saved;
+    }
+
+    /**
+     * Fills question and option text from the referenced flashcards with a single projected lookup.
+     * Legacy quizzes that still carry their text are returned as stored.
+     */
+    Quiz resolveQuestionText(Quiz quiz) {
+        if (quiz.getQuestions() == null) {
+            return quiz;
+        }
+        Set<String> cardIds = new HashSet<>();
+        for (Quiz.QuizQuestion question : quiz.getQuestions()) {
+            if (question.getOptions() == null && question.getOptionCardIds() != null) {
+                cardIds.add(question.getQuestionId());
+                for (String optionCardId : question.getOptionCardIds()) {
+                    if (optionCardId != null) {
+                        cardIds.add(optionCardId);
+                    }
+                }
+            }
+        }
+        if (cardIds.isEmpty()) {
+            return quiz;
+        }
+
+        Map<String, Flashcard> cards = new HashMap<>();
+        for (Flashcard card : flashcardRepository.findTextsByIdIn(cardIds)) {
+            cards.put(card.getId(), card);
+        }
+        for (Quiz.QuizQuestion question : quiz.getQuestions()) {
+            if (question.getOptions() != null || question.getOptionCardIds() == null) {
+                continue;
+            }
+            Flashcard questionCard = cards.get(question.getQuestionId());
+            question.setQuestion(questionCard != null ? questionCard.getFront() : DELETED_CARD_TEXT);
+            List<String> options = new ArrayList<>(question.getOptionCardIds().size());
+            for (String optionCardId : question.getOptionCardIds()) {
+                if (optionCardId == null) {
+                    options.add(QuizBuilder.FILLER_OPTION);
+                } else {
+                    Flashcard optionCard = cards.get(optionCardId);
+                    options.add(optionCard != null ? optionCard.getBack() : DELETED_CARD_TEXT);
+                }
+            }
+            question.setOptions(options);
+        }
+        return quiz;
+    }
+
+    private Pageable historyPage(int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        return PageRequest.of(0, size, NEWEST_FIRST);
     }
 
     public void deleteQuiz(String quizId, String userId) {
@@ -0,0 +1,131 @@
+package com.flashcards.service;
+
+import com.flashcards.model.Flashcard;
+import com.flashcards.model.Quiz;
+import com.flashcards.repository.FlashcardRepository;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-off migration of quizzes stored before card references existed. Question and option text is
+ * replaced by the ids of the flashcards it came from. Questions whose text no longer matches any card
+ * in the deck keep their text so nothing is lost. Safe to re-run: migrated quizzes are marked with
+ * {@link Quiz#COMPACT_STORAGE_VERSION} and skipped.
+ */
+@Service
+public class QuizStorageMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuizStorageMigration.class);
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final FlashcardRepository flashcardRepository;
+
+    @Value("${quiz.migration.compact-questions:true}")
+    private boolean enabled = true;
+
+    public QuizStorageMigration(MongoTemplate mongoTemplate, FlashcardRepository flashcardRepository) {
+        this.mongoTemplate = mongoTemplate;
+        this.flashcardRepository = flashcardRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int migrated = migrate();
+            if (migrated > 0) {
+                logger.info("Migrated {} quizzes to compact question storage", migrated);
+            }
+        } catch (Exception e) {
+            logger.warn("Quiz storage migration did not complete: {}", e.getMessage());
+        }
+    }
+
+    public int migrate() {
+        Query legacy = new Query(Criteria.where("storageVersion").ne(Quiz.COMPACT_STORAGE_VERSION)).limit(BATCH_SIZE);
+        legacy.fields().include("deckId").include("questions");
+
+        int migrated = 0;
+        Map<String, Map<String, String>> cardIdByAnswerPerDeck = new HashMap<>();
+        List<Document> batch;
+        do {
+            batch = mongoTemplate.find(legacy, Document.class, "quizzes");
+            for (Document quiz : batch) {
+                String deckId = quiz.getString("deckId");
+                Map<String, String> cardIdByAnswer = cardIdByAnswerPerDeck.computeIfAbsent(
+                        deckId != null ? deckId : "", this::loadCardIdsByAnswer);
+                List<Document> questions = quiz.getList("questions", Document.class, List.of());
+
+                List<Document> compacted = new ArrayList<>(questions.size());
+                for (Document question : questions) {
+                    compacted.add(compactQuestion(question, cardIdByAnswer));
+                }
+                mongoTemplate.updateFirst(
+                        new Query(Criteria.where("_id").is(quiz.get("_id"))),
+                        new Update().set("questions", compacted).set("storageVersion", Quiz.COMPACT_STORAGE_VERSION),
+                        "quizzes");
+                migrated++;
+            }
+            // Keep the per-deck answer maps from growing without bound on large collections
+            if (cardIdByAnswerPerDeck.size() > 1000) {
+                cardIdByAnswerPerDeck.clear();
+            }
+        } while (batch.size() == BATCH_SIZE);
+        return migrated;
+    }
+
+    private Document compactQuestion(Document question, Map<String, String> cardIdByAnswer) {
+        List<String> options = question.getList("options", String.class);
+        if (options == null) {
+            return question; // Already reference-based
+        }
+        List<String> optionCardIds = new ArrayList<>(options.size());
+        int correctIndex = question.getInteger("correctOptionIndex", -1);
+        for (int i = 0; i < options.size(); i++) {
+            String option = options.get(i);
+            if (i == correctIndex && cardIdByAnswer.containsKey(option)) {
+                optionCardIds.add(question.getString("questionId"));
+            } else if (QuizBuilder.FILLER_OPTION.equals(option)) {
+                optionCardIds.add(null);
+            } else {
+                String cardId = cardIdByAnswer.get(option);
+                if (cardId == null) {
+                    return question; // Card edited or deleted since - keep the stored text
+                }
+                optionCardIds.add(cardId);
+            }
+        }
+        Document compact = new Document(question);
+        compact.remove("question");
+        compact.remove("options");
+        compact.put("optionCardIds", optionCardIds);
+        return compact;
+    }
+
+    private Map<String, String> loadCardIdsByAnswer(String deckId) {
+        Map<String, String> cardIdByAnswer = new HashMap<>();
+        for (Flashcard card : flashcardRepository.findAnswersByDeckId(deckId)) {
+            if (card.getAnswer() != null) {
+                cardIdByAnswer.putIfAbsent(card.getAnswer(), card.getId());
+            }
+        }
+        return cardIdByAnswer;
+    }
+}
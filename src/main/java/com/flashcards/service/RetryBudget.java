@@ -0,0 +1,36 @@
+package com.flashcards.service;
+
+/**
+ * Limits retries (and hedged requests) to a share of the calls made, so a struggling upstream gets at
+ * most that much extra load instead of a multiple of it. Every call adds {@code ratio} of a token, up to
+ * {@code maxTokens}; a retry spends a whole one. The bucket starts full, which covers the occasional
+ * retry when traffic is light.
+ */
+public final class RetryBudget {
+
+    private final double ratio;
+    private final double maxTokens;
+    private double tokens;
+
+    public RetryBudget(double ratio, int maxTokens) {
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+    }
+
+    synchronized void onCall() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    synchronized boolean tryRetry() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    synchronized double tokens() {
+        return tokens;
+    }
+}
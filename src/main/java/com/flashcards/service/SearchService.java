@@ -0,0 +1,175 @@
+package com.flashcards.service;
+
+import com.flashcards.model.Deck;
+import com.flashcards.model.Flashcard;
+import org.apache.lucene.search.IndexSearcher;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Relevance-ranked search over decks and flashcards backed by MongoDB text indexes
+ * (see MongoIndexConfig). Card search is served by the embedded {@link LuceneCardIndex} instead
+ * when it is enabled. Results are limited to the caller's own content plus public content.
+ */
+@Service
+public class SearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchService.class);
+    static final int MAX_PAGE_SIZE = 50;
+    static final int MAX_QUERY_LENGTH = 200;
+
+    private final MongoTemplate mongoTemplate;
+    private final LuceneCardIndex cardIndex;
+
+    @Value("${search.backfill-card-visibility:true}")
+    private boolean backfillCardVisibility = true;
+
+    public SearchService(MongoTemplate mongoTemplate, LuceneCardIndex cardIndex) {
+        this.mongoTemplate = mongoTemplate;
+        this.cardIndex = cardIndex;
+    }
+
+    public List<Deck> searchDecks(String term, String userId, int page, int size) {
+        TextCriteria text = textCriteria(term);
+        if (text == null) {
+            return List.of();
+        }
+        Criteria visible = userId != null
+                ? new Criteria().orOperator(Criteria.where("isPublic").is(true), Criteria.where("userId").is(userId))
+                : Criteria.where("isPublic").is(true);
+        Query query = TextQuery.queryText(text).sortByScore().addCriteria(visible).with(pageRequest(page, size));
+        return mongoTemplate.find(query, Deck.class);
+    }
+
+    public List<Flashcard> searchFlashcards(String term, String userId, String language, int page, int size) {
+        if (cardIndex.isEnabled()) {
+            try {
+                return loadInOrder(cardIndex.search(term, userId, language, Math.max(0, page),
+                        Math.max(1, Math.min(size, MAX_PAGE_SIZE))));
+            } catch (IOException | IndexSearcher.TooManyClauses e) {
+                logger.warn("Search index query failed, falling back to MongoDB: {}", e.getMessage());
+            }
+        }
+        TextCriteria text = textCriteria(term);
+        if (text == null) {
+            return List.of();
+        }
+        Criteria visible = userId != null
+                ? new Criteria().orOperator(Criteria.where("deckPublic").is(true), Criteria.where("userId").is(userId))
+                : Criteria.where("deckPublic").is(true);
+        Query query = TextQuery.queryText(text).sortByScore().addCriteria(visible).with(pageRequest(page, size));
+        return mongoTemplate.find(query, Flashcard.class);
+    }
+
+    private List<Flashcard> loadInOrder(List<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Flashcard> byId = new HashMap<>();
+        for (Flashcard card : mongoTemplate.find(new Query(Criteria.where("_id").in(ids)), Flashcard.class)) {
+            byId.put(card.getId(), card);
+        }
+        List<Flashcard> ordered = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Flashcard card = byId.get(id);
+            if (card != null) {
+                ordered.add(card); // Skips cards deleted since the index was last refreshed
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Keeps the denormalized deckPublic flag on a deck's cards in step with the deck.
+     */
+    public void updateCardVisibility(String deckId, boolean deckPublic) {
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("deckId").is(deckId)),
+                new Update().set("deckPublic", deckPublic),
+                Flashcard.class);
+        cardIndex.onDeckChanged(deckId);
+    }
+
+    public void onCardSaved(Flashcard card) {
+        cardIndex.onCardSaved(card);
+    }
+
+    public void onCardDeleted(String cardId) {
+        cardIndex.onCardDeleted(cardId);
+    }
+
+    public void onDeckDeleted(String deckId) {
+        cardIndex.onDeckDeleted(deckId);
+    }
+
+    /**
+     * Cards written before deckPublic existed default to private; mark the ones in public decks.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillCardVisibility() {
+        if (!backfillCardVisibility) {
+            return;
+        }
+        try {
+            Query publicDecks = new Query(Criteria.where("isPublic").is(true));
+            publicDecks.fields().include("_id");
+            List<String> batch = new ArrayList<>();
+            try (Stream<Document> decks = mongoTemplate.stream(publicDecks, Document.class, "decks")) {
+                decks.forEach(deck -> {
+                    batch.add(deck.getObjectId("_id").toHexString());
+                    if (batch.size() == 1000) {
+                        markPublic(batch);
+                        batch.clear();
+                    }
+                });
+            }
+            if (!batch.isEmpty()) {
+                markPublic(batch);
+            }
+        } catch (Exception e) {
+            logger.warn("Flashcard visibility backfill did not complete: {}", e.getMessage());
+        }
+    }
+
+    private void markPublic(List<String> deckIds) {
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("deckId").in(deckIds).and("deckPublic").ne(true)),
+                new Update().set("deckPublic", true),
+                Flashcard.class);
+    }
+
+    private TextCriteria textCriteria(String term) {
+        if (term == null || term.isBlank()) {
+            return null;
+        }
+        String trimmed = term.trim();
+        if (trimmed.length() > MAX_QUERY_LENGTH) {
+            trimmed = trimmed.substring(0, MAX_QUERY_LENGTH);
+        }
+        // Terms are matched by the text index, never interpreted as a regular expression
+        return TextCriteria.forDefaultLanguage().matching(trimmed);
+    }
+
+    private PageRequest pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+}
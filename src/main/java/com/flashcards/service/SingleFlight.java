@@ -0,0 +1,71 @@
+package com.flashcards.service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs at most one call per key at a time. A caller arriving while a call for its key is running waits
+ * for that call's result instead of starting its own; once the call completes the next caller starts a
+ * new one, so results are shared but never cached.
+ */
+final class SingleFlight<K, V> {
+
+    @FunctionalInterface
+    interface Call<V> {
+        V run() throws IOException;
+    }
+
+    /**
+     * A call's value, and whether it came from another caller's call.
+     */
+    record Result<V>(V value, boolean shared) {
+    }
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Runs {@code call}, or waits up to {@code maxWaitMillis} for the one already running for {@code key}.
+     * A failure of the running call is rethrown to everyone waiting on it.
+     *
+     * @throws IOException when the call fails or the wait runs out
+     */
+    Result<V> execute(K key, Call<V> call, long maxWaitMillis) throws IOException {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+        if (running == null) {
+            try {
+                V value = call.run();
+                own.complete(value);
+                return new Result<>(value, false);
+            } catch (IOException | RuntimeException | Error e) {
+                own.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, own);
+            }
+        }
+
+        try {
+            return new Result<>(running.get(maxWaitMillis, TimeUnit.MILLISECONDS), true);
+        } catch (ExecutionException e) {
+            throw new IOException("Shared call failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("Shared call did not finish within " + maxWaitMillis + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for shared call");
+        }
+    }
+
+    /**
+     * Calls currently running.
+     */
+    int inFlight() {
+        return inFlight.size();
+    }
+}
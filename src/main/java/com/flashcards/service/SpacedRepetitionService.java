@@ -2,6 +2,8 @@ package com.flashcards.service;
 
 import com.flashcards.model.UserProgress;
 import com.flashcards.repository.UserProgressRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -10,12 +12,18 @@ import java.time.LocalDateTime;
 public class SpacedRepetitionService {
 
     private final UserProgressRepository userProgressRepository;
+    private final Timer updateProgressTimer;
 
-    public SpacedRepetitionService(UserProgressRepository userProgressRepository) {
+    public SpacedRepetitionService(UserProgressRepository userProgressRepository, MeterRegistry meterRegistry) {
         this.userProgressRepository = userProgressRepository;
+        this.updateProgressTimer = meterRegistry.timer("flashcards.study.progress.update");
     }
 
     public void updateProgress(String userId, String flashcardId, String deckId, int score) {
+        updateProgressTimer.record(() -> applyReview(userId, flashcardId, deckId, score));
+    }
+
+    private void applyReview(String userId, String flashcardId, String deckId, int score) {
         UserProgress progress = userProgressRepository
                 .findByUserIdAndFlashcardId(userId, flashcardId)
                 .orElse(new UserProgress(userId, flashcardId, deckId));
@@ -38,7 +46,7 @@ public class SpacedRepetitionService {
         userProgressRepository.save(progress);
     }
 
-    private void updateIntervalAndEaseFactor(UserProgress progress, int score) {
+    void updateIntervalAndEaseFactor(UserProgress progress, int score) {
         double easeFactor = progress.getEaseFactor();
         int interval = progress.getInterval();
 
@@ -62,7 +70,7 @@ public class SpacedRepetitionService {
         progress.setInterval(interval);
     }
 
-    private LocalDateTime calculateNextReviewDate(UserProgress progress) {
+    LocalDateTime calculateNextReviewDate(UserProgress progress) {
         return LocalDateTime.now().plusDays(progress.getInterval());
     }
 
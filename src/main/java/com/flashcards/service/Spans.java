@@ -0,0 +1,33 @@
+package com.flashcards.service;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+
+import java.io.IOException;
+
+/**
+ * Runs a step of request handling in a child span of the current one. The step gets the span so it
+ * can tag what it worked on; failures are recorded on the span and rethrown.
+ */
+final class Spans {
+
+    @FunctionalInterface
+    interface Step<T> {
+        T run(Span span) throws IOException;
+    }
+
+    private Spans() {
+    }
+
+    static <T> T inSpan(Tracer tracer, String name, Step<T> step) throws IOException {
+        Span span = tracer.nextSpan().name(name).start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            return step.run(span);
+        } catch (IOException | RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.flashcards.service;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingRegistry;
+import com.knuddels.jtokkit.api.EncodingResult;
+import com.knuddels.jtokkit.api.EncodingType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sizes OpenAI calls in tokens, counted with the model's own BPE vocabulary (bundled with jtokkit).
+ * The completion budget follows the number of cards requested, large requests can go to a model with
+ * a bigger context window, and source text that still does not fit is cut at a sentence or word
+ * boundary instead of being rejected by the API or crowding out the reply.
+ */
+@Component
+public class TokenBudget {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenBudget.class);
+
+    // Token counts of the pieces of a prompt do not add up exactly, the boundaries can merge differently
+    private static final int SAFETY_TOKENS = 16;
+
+    @Value("${ai.openai.model:gpt-3.5-turbo}")
+    private String model = "gpt-3.5-turbo";
+
+    @Value("${ai.openai.context-tokens:16385}")
+    private int contextTokens = 16385;
+
+    @Value("${ai.openai.max-completion-tokens:4096}")
+    private int maxCompletionTokens = 4096;
+
+    // Empty disables switching; requests needing more than the threshold (prompt + completion) use the large model
+    @Value("${ai.openai.large-model:}")
+    private String largeModel = "";
+
+    @Value("${ai.openai.large-model.threshold-tokens:12000}")
+    private int largeModelThresholdTokens = 12000;
+
+    @Value("${ai.openai.large-model.context-tokens:128000}")
+    private int largeModelContextTokens = 128000;
+
+    @Value("${ai.openai.large-model.max-completion-tokens:16384}")
+    private int largeModelMaxCompletionTokens = 16384;
+
+    @Value("${ai.openai.completion.tokens-per-card:80}")
+    private int tokensPerCard = 80;
+
+    @Value("${ai.openai.completion.overhead-tokens:40}")
+    private int completionOverheadTokens = 40;
+
+    private final EncodingRegistry registry = Encodings.newLazyEncodingRegistry();
+    private final Map<String, Encoding> encodings = new ConcurrentHashMap<>();
+
+    /**
+     * How to call the model for one request.
+     *
+     * @param text         the source text to put in the prompt, trimmed if it did not fit
+     * @param promptTokens estimated tokens of the whole prompt
+     * @param maxTokens    completion budget, sent as max_tokens
+     */
+    record Plan(String model, String text, int promptTokens, int maxTokens, boolean trimmed) {
+    }
+
+    /**
+     * Plans a call whose prompt is {@code promptWithoutText} with {@code text} inserted.
+     */
+    Plan plan(String promptWithoutText, String text, int cards) {
+        String chosenModel = model;
+        Encoding encoding = encoding(model);
+        int overhead = encoding.countTokens(promptWithoutText) + SAFETY_TOKENS;
+        int textTokens = encoding.countTokens(text);
+        int completion = completionTokens(cards, maxCompletionTokens);
+        int context = contextTokens;
+
+        if (!largeModel.isEmpty() && overhead + textTokens + completion > largeModelThresholdTokens) {
+            chosenModel = largeModel;
+            Encoding largeEncoding = encoding(largeModel);
+            if (!largeEncoding.getName().equals(encoding.getName())) {
+                encoding = largeEncoding;
+                overhead = encoding.countTokens(promptWithoutText) + SAFETY_TOKENS;
+                textTokens = encoding.countTokens(text);
+            }
+            completion = completionTokens(cards, largeModelMaxCompletionTokens);
+            context = largeModelContextTokens;
+        }
+
+        int textBudget = Math.max(0, context - completion - overhead);
+        if (textTokens <= textBudget) {
+            return new Plan(chosenModel, text, overhead + textTokens, completion, false);
+        }
+        String trimmed = trim(encoding, text, textBudget);
+        logger.info("Source text trimmed from {} to {} tokens to fit {} ({} context, {} for the reply)",
+                textTokens, textBudget, chosenModel, context, completion);
+        return new Plan(chosenModel, trimmed, overhead + textBudget, completion, true);
+    }
+
+    /**
+     * Tokens for a reply of {@code cards} cards, at most {@code limit}.
+     */
+    int completionTokens(int cards, int limit) {
+        long wanted = (long) Math.max(1, cards) * tokensPerCard + completionOverheadTokens;
+        return (int) Math.min(wanted, limit);
+    }
+
+    /**
+     * The longest start of the text within {@code maxTokens}, cut back to the end of its last sentence
+     * when that keeps most of it, otherwise to its last whitespace.
+     */
+    private static String trim(Encoding encoding, String text, int maxTokens) {
+        if (maxTokens == 0) {
+            return "";
+        }
+        EncodingResult result = encoding.encode(text, maxTokens);
+        String head = encoding.decode(result.getTokens());
+        // A token can end inside a multi-byte character, which decodes to a replacement character
+        int end = head.length();
+        while (end > 0 && head.charAt(end - 1) == '\uFFFD') {
+            end--;
+        }
+        int sentenceEnd = Math.max(head.lastIndexOf(". ", end), Math.max(head.lastIndexOf(".\n", end), head.lastIndexOf('\n', end)));
+        if (sentenceEnd > end * 4 / 5) {
+            return head.substring(0, sentenceEnd + 1).stripTrailing();
+        }
+        int wordEnd = end;
+        while (wordEnd > 0 && !Character.isWhitespace(head.charAt(wordEnd - 1))) {
+            wordEnd--;
+        }
+        return head.substring(0, wordEnd > 0 ? wordEnd : end).stripTrailing();
+    }
+
+    private Encoding encoding(String modelName) {
+        return encodings.computeIfAbsent(modelName, name -> registry.getEncodingForModel(name)
+                .orElseGet(() -> {
+                    logger.warn("No tokenizer known for model {}, counting with cl100k_base", name);
+                    return registry.getEncoding(EncodingType.CL100K_BASE);
+                }));
+    }
+
+    /**
+     * Loads the vocabularies up front; the first load takes a moment and should not delay a request.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadVocabularies() {
+        encoding(model).countTokens("warm up");
+        if (!largeModel.isEmpty()) {
+            encoding(largeModel).countTokens("warm up");
+        }
+    }
+}
@@ -2,13 +2,21 @@ package com.flashcards.service;
 
 import com.flashcards.model.UserActivity;
 import com.flashcards.repository.UserActivityRepository;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
 public class UserActivityService {
     
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("_id"));
+    
     private final UserActivityRepository userActivityRepository;
     
     public UserActivityService(UserActivityRepository userActivityRepository) {
@@ -21,11 +29,25 @@ public class UserActivityService {
     }
     
     public List<UserActivity> getUserRecentActivity(String userId, int limit) {
-        List<UserActivity> activities = userActivityRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        return activities.stream().limit(limit).toList();
+        return userActivityRepository.findByUserId(userId, firstPage(limit));
+    }
+    
+    /**
+     * Next page of activity after the last item the caller has seen, using (createdAt, id) as the keyset
+     */
+    public List<UserActivity> getUserActivityBefore(String userId, LocalDateTime createdAt, String lastId, int limit) {
+        if (createdAt == null || lastId == null || !ObjectId.isValid(lastId)) {
+            return getUserRecentActivity(userId, limit);
+        }
+        return userActivityRepository.findOlderThan(userId, createdAt, new ObjectId(lastId), firstPage(limit));
     }
     
     public List<UserActivity> getUserActivityByType(String userId, String activityType) {
         return userActivityRepository.findByUserIdAndActivityTypeOrderByCreatedAtDesc(userId, activityType);
     }
-} 
\ No newline at end of file
+    
+    private Pageable firstPage(int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return PageRequest.of(0, size, NEWEST_FIRST);
+    }
+}
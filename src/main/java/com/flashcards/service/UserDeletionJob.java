@@ -0,0 +1,359 @@
+package com.flashcards.service;
+
+import com.flashcards.model.Deck;
+import com.flashcards.model.JobCheckpoint;
+import com.flashcards.model.User;
+import com.mongodb.MongoInterruptedException;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Deletes a user together with everything they own, in the background. Each collection is emptied
+ * of the user's documents in small id batches with a pause in between, so a user with millions of
+ * documents never holds up foreground queries. Progress is checkpointed after every batch in
+ * job_checkpoints; a deletion interrupted by a restart resumes at its stage on startup. Every stage
+ * deletes by owner, so repeating part of one is harmless.
+ *
+ * <p>The account is disabled as soon as deletion is requested; the user document itself goes last.
+ */
+@Service
+public class UserDeletionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDeletionJob.class);
+    static final String JOB_PREFIX = "user-deletion:";
+
+    static final String STATUS_QUEUED = "queued";
+    static final String STATUS_RUNNING = "running";
+    static final String STATUS_DONE = "done";
+    static final String STATUS_FAILED = "failed";
+
+    // In order. Forks of the user's decks are given their own cards before those cards are deleted,
+    // and decks go after their cards so a crash never leaves cards without a deck to find them by.
+    static final List<String> STAGES = List.of(
+            "forks", "flashcards", "user_progress", "quizzes", "user_activities", "user_preferences",
+            "feedback", "decks", "password_reset_tokens", "users");
+
+    private final MongoTemplate mongoTemplate;
+    private final DeckForkService deckForkService;
+    private final DistractorIndexService distractorIndexService;
+    private final SearchService searchService;
+    private final AutocompleteService autocompleteService;
+    private final PublicCatalogService publicCatalogService;
+
+    @Value("${user-deletion.batch-size:1000}")
+    private int batchSize = 1000;
+
+    @Value("${user-deletion.batch-pause-ms:100}")
+    private long batchPauseMillis = 100;
+
+    private ThreadPoolExecutor executor;
+
+    public UserDeletionJob(MongoTemplate mongoTemplate,
+                           DeckForkService deckForkService,
+                           DistractorIndexService distractorIndexService,
+                           SearchService searchService,
+                           AutocompleteService autocompleteService,
+                           PublicCatalogService publicCatalogService) {
+        this.mongoTemplate = mongoTemplate;
+        this.deckForkService = deckForkService;
+        this.distractorIndexService = distractorIndexService;
+        this.searchService = searchService;
+        this.autocompleteService = autocompleteService;
+        this.publicCatalogService = publicCatalogService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "user-deletion");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Query unfinished = new Query(Criteria.where("_id").regex("^" + Pattern.quote(JOB_PREFIX))
+                    .and("status").in(STATUS_QUEUED, STATUS_RUNNING));
+            for (JobCheckpoint checkpoint : mongoTemplate.find(unfinished, JobCheckpoint.class)) {
+                String userId = checkpoint.getId().substring(JOB_PREFIX.length());
+                logger.info("Resuming deletion of user {} at stage {}", userId, checkpoint.getStage());
+                executor.execute(() -> runSafely(userId));
+            }
+        } catch (Exception e) {
+            logger.warn("Could not resume user deletions: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Disables the account, makes the user's decks private and queues deletion of the user and their
+     * data. Requesting the deletion of
+     * a user whose deletion is already under way just returns its progress; a failed one is retried.
+     */
+    public synchronized Map<String, Object> submit(String userId) {
+        JobCheckpoint checkpoint = mongoTemplate.findById(JOB_PREFIX + userId, JobCheckpoint.class);
+        if (checkpoint != null && isUnfinished(checkpoint)) {
+            return progress(checkpoint);
+        }
+        if (checkpoint != null && STATUS_FAILED.equals(checkpoint.getStatus())) {
+            // Retry from the stage that failed
+            checkpoint.setStatus(STATUS_QUEUED);
+            mongoTemplate.save(checkpoint);
+            if (executor != null) {
+                executor.execute(() -> runSafely(userId));
+            }
+            return progress(checkpoint);
+        }
+        if (mongoTemplate.findById(userId, User.class) == null) {
+            throw new RuntimeException("User not found");
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(userId)),
+                new Update().set("enabled", false), User.class);
+        hideDecks(userId);
+
+        checkpoint = new JobCheckpoint(JOB_PREFIX + userId);
+        checkpoint.setStatus(STATUS_QUEUED);
+        checkpoint.setStage(STAGES.get(0));
+        checkpoint.setStartedAt(LocalDateTime.now());
+        mongoTemplate.save(checkpoint);
+        if (executor != null) {
+            executor.execute(() -> runSafely(userId));
+        }
+        return progress(checkpoint);
+    }
+
+    /**
+     * Takes the user's decks out of the catalog and search, so nobody can fork one after the forks
+     * stage has given the existing forks their own cards.
+     */
+    private void hideDecks(String userId) {
+        Query publicDecks = new Query(Criteria.where("userId").is(userId).and("isPublic").is(true));
+        List<Deck> decks = mongoTemplate.find(publicDecks, Deck.class);
+        if (decks.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(publicDecks, new Update().set("isPublic", false), Deck.class);
+        for (Deck deck : decks) {
+            deck.setPublic(false);
+            searchService.updateCardVisibility(deck.getId(), false);
+            autocompleteService.onDeckSaved(deck);
+        }
+        publicCatalogService.invalidate();
+    }
+
+    /**
+     * Deletions waiting for the one running to finish.
+     */
+    public int getQueuedCount() {
+        return executor != null ? executor.getQueue().size() : 0;
+    }
+
+    public Map<String, Object> getProgress(String userId) {
+        JobCheckpoint checkpoint = mongoTemplate.findById(JOB_PREFIX + userId, JobCheckpoint.class);
+        if (checkpoint == null) {
+            throw new RuntimeException("No deletion found for user");
+        }
+        return progress(checkpoint);
+    }
+
+    private void runSafely(String userId) {
+        try {
+            run(userId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Shutting down; resumed from the checkpoint on next start
+        } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted() || isInterruption(e)) {
+                // Shut down in the middle of a MongoDB call, same as above
+                Thread.currentThread().interrupt();
+                return;
+            }
+            logger.error("Deletion of user {} failed", userId, e);
+            JobCheckpoint checkpoint = mongoTemplate.findById(JOB_PREFIX + userId, JobCheckpoint.class);
+            if (checkpoint != null) {
+                checkpoint.setStatus(STATUS_FAILED);
+                checkpoint.setLastRunAt(LocalDateTime.now());
+                mongoTemplate.save(checkpoint);
+            }
+        }
+    }
+
+    /**
+     * Runs the deletion from its checkpointed stage to the end.
+     */
+    void run(String userId) throws InterruptedException {
+        JobCheckpoint checkpoint = mongoTemplate.findById(JOB_PREFIX + userId, JobCheckpoint.class);
+        if (checkpoint == null || STATUS_DONE.equals(checkpoint.getStatus())) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        checkpoint.setStatus(STATUS_RUNNING);
+        int first = Math.max(0, STAGES.indexOf(checkpoint.getStage()));
+        for (int i = first; i < STAGES.size(); i++) {
+            checkpoint.setStage(STAGES.get(i));
+            save(checkpoint);
+            runStage(userId, checkpoint);
+        }
+        checkpoint.setStatus(STATUS_DONE);
+        checkpoint.setStage(null);
+        checkpoint.setLastRunMillis(checkpoint.getLastRunMillis() + System.currentTimeMillis() - started);
+        save(checkpoint);
+        logger.info("Deleted user {} and {} documents they owned", userId, checkpoint.getItemsDone());
+    }
+
+    private void runStage(String userId, JobCheckpoint checkpoint) throws InterruptedException {
+        Criteria owned = Criteria.where("userId").is(userId);
+        switch (checkpoint.getStage()) {
+            case "forks":
+                materializeForeignForks(userId);
+                break;
+            case "decks":
+                deleteInBatches(checkpoint, "decks", owned, this::onDecksDeleting);
+                publicCatalogService.invalidate();
+                break;
+            case "password_reset_tokens":
+                User user = mongoTemplate.findById(userId, User.class);
+                if (user != null && user.getEmail() != null) {
+                    deleteInBatches(checkpoint, "password_reset_tokens", Criteria.where("email").is(user.getEmail()), null);
+                }
+                break;
+            case "users":
+                deleteInBatches(checkpoint, "users", Criteria.where("_id").is(userId), null);
+                break;
+            default:
+                deleteInBatches(checkpoint, checkpoint.getStage(), owned, null);
+        }
+    }
+
+    /**
+     * Other users' forks read their cards from this user's decks; they get their own copies first.
+     */
+    private void materializeForeignForks(String userId) throws InterruptedException {
+        ObjectId lastId = null;
+        while (true) {
+            Query decks = new Query(Criteria.where("userId").is(userId));
+            if (lastId != null) {
+                decks.addCriteria(Criteria.where("_id").gt(lastId));
+            }
+            decks.with(Sort.by("_id")).limit(batchSize).fields().include("_id");
+            List<Document> batch = mongoTemplate.find(decks, Document.class, "decks");
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<String> deckIds = new ArrayList<>(batch.size());
+            for (Document deck : batch) {
+                deckIds.add(deck.getObjectId("_id").toHexString());
+            }
+            lastId = batch.get(batch.size() - 1).getObjectId("_id");
+            Query forks = new Query(Criteria.where("baseDeckId").in(deckIds).and("userId").ne(userId));
+            for (Deck fork : mongoTemplate.find(forks, Deck.class)) {
+                deckForkService.materialize(fork);
+            }
+            pause();
+        }
+    }
+
+    private void onDecksDeleting(List<Object> deckIds) {
+        for (Object id : deckIds) {
+            String deckId = id instanceof ObjectId ? ((ObjectId) id).toHexString() : String.valueOf(id);
+            distractorIndexService.evictDeck(deckId);
+            searchService.onDeckDeleted(deckId);
+            autocompleteService.onDeckDeleted(deckId);
+        }
+    }
+
+    /**
+     * Deletes the matching documents a batch of ids at a time, checkpointing after each batch.
+     */
+    private void deleteInBatches(JobCheckpoint checkpoint, String collection, Criteria criteria,
+                                 Consumer<List<Object>> beforeDelete) throws InterruptedException {
+        while (true) {
+            Query batch = new Query(criteria).limit(batchSize);
+            batch.fields().include("_id");
+            List<Object> ids = new ArrayList<>();
+            for (Document document : mongoTemplate.find(batch, Document.class, collection)) {
+                ids.add(document.get("_id"));
+            }
+            if (ids.isEmpty()) {
+                return;
+            }
+            if (beforeDelete != null) {
+                beforeDelete.accept(ids);
+            }
+            long deleted = mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), collection).getDeletedCount();
+            checkpoint.setItemsDone(checkpoint.getItemsDone() + deleted);
+            save(checkpoint);
+            if (ids.size() < batchSize) {
+                return;
+            }
+            pause();
+        }
+    }
+
+    private void save(JobCheckpoint checkpoint) {
+        checkpoint.setLastRunAt(LocalDateTime.now());
+        mongoTemplate.save(checkpoint);
+    }
+
+    private void pause() throws InterruptedException {
+        if (batchPauseMillis > 0) {
+            Thread.sleep(batchPauseMillis);
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    private static boolean isInterruption(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoInterruptedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isUnfinished(JobCheckpoint checkpoint) {
+        return STATUS_QUEUED.equals(checkpoint.getStatus()) || STATUS_RUNNING.equals(checkpoint.getStatus());
+    }
+
+    private static Map<String, Object> progress(JobCheckpoint checkpoint) {
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("userId", checkpoint.getId().substring(JOB_PREFIX.length()));
+        progress.put("status", checkpoint.getStatus());
+        progress.put("stage", checkpoint.getStage());
+        progress.put("stagesCompleted", checkpoint.getStage() != null
+                ? Math.max(0, STAGES.indexOf(checkpoint.getStage())) : STAGES.size());
+        progress.put("stagesTotal", STAGES.size());
+        progress.put("documentsDeleted", checkpoint.getItemsDone());
+        progress.put("startedAt", checkpoint.getStartedAt());
+        progress.put("updatedAt", checkpoint.getLastRunAt());
+        return progress;
+    }
+}
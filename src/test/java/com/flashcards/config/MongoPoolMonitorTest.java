@@ -0,0 +1,67 @@
+package com.flashcards.config;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ConnectionPoolSettings;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoPoolMonitorTest {
+
+    private final ClusterId cluster = new ClusterId();
+    private final ServerId primary = new ServerId(cluster, new ServerAddress("db1", 27017));
+    private final ServerId secondary = new ServerId(cluster, new ServerAddress("db2", 27017));
+    private MongoPoolMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        monitor = new MongoPoolMonitor();
+        monitor.connectionPoolCreated(new ConnectionPoolCreatedEvent(primary, ConnectionPoolSettings.builder().maxSize(2).build()));
+        monitor.connectionPoolCreated(new ConnectionPoolCreatedEvent(secondary, ConnectionPoolSettings.builder().maxSize(2).build()));
+    }
+
+    private void checkOut(ServerId server) {
+        monitor.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(server));
+        monitor.connectionCheckedOut(new ConnectionCheckedOutEvent(new ConnectionId(server)));
+    }
+
+    @Test
+    void testSaturated_WhenOneServerIsFullAndOthersIdle() {
+        checkOut(primary);
+        checkOut(primary);
+        assertFalse(monitor.isSaturated());
+
+        monitor.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(primary));
+        assertTrue(monitor.isSaturated());
+
+        monitor.connectionCheckedIn(new ConnectionCheckedInEvent(new ConnectionId(primary)));
+        monitor.connectionCheckedOut(new ConnectionCheckedOutEvent(new ConnectionId(primary)));
+        monitor.connectionCheckedIn(new ConnectionCheckedInEvent(new ConnectionId(primary)));
+        assertFalse(monitor.isSaturated());
+    }
+
+    @Test
+    void testPoolClosed_KeepsOtherServers() {
+        checkOut(secondary);
+        monitor.connectionPoolClosed(new ConnectionPoolClosedEvent(primary));
+
+        List<?> servers = (List<?>) monitor.getStats().get("servers");
+        assertEquals(1, servers.size());
+        Map<?, ?> remaining = (Map<?, ?>) servers.get(0);
+        assertEquals("db2:27017", remaining.get("address"));
+        assertEquals(2, remaining.get("maxSize"));
+        assertEquals(1, remaining.get("inUse"));
+    }
+}
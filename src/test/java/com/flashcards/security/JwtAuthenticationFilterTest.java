@@ -0,0 +1,72 @@
+package com.flashcards.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest {
+
+    private JwtUtil jwtUtil;
+    private UserDetailsService userDetailsService;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = mock(JwtUtil.class);
+        userDetailsService = mock(UserDetailsService.class);
+        filter = new JwtAuthenticationFilter(jwtUtil, userDetailsService);
+        when(jwtUtil.getEmailFromToken("token")).thenReturn("a@example.com");
+        when(jwtUtil.validateToken("token")).thenReturn(true);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private Authentication authenticate() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/decks");
+        request.addHeader("Authorization", "Bearer token");
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> seen.set(SecurityContextHolder.getContext().getAuthentication()));
+        return seen.get();
+    }
+
+    @Test
+    void testFilter_EnabledUser_IsAuthenticated() throws Exception {
+        when(userDetailsService.loadUserByUsername("a@example.com"))
+                .thenReturn(new User("a@example.com", "hash", true, true, true, true, List.of()));
+
+        assertEquals("a@example.com", authenticate().getName());
+    }
+
+    @Test
+    void testFilter_DisabledUser_IsNotAuthenticated() throws Exception {
+        when(userDetailsService.loadUserByUsername("a@example.com"))
+                .thenReturn(new User("a@example.com", "hash", false, true, true, true, List.of()));
+
+        assertNull(authenticate());
+    }
+
+    @Test
+    void testFilter_DeletedUser_IsNotAuthenticated() throws Exception {
+        when(userDetailsService.loadUserByUsername("a@example.com"))
+                .thenThrow(new UsernameNotFoundException("User not found"));
+
+        assertNull(authenticate());
+    }
+}
@@ -0,0 +1,42 @@
+package com.flashcards.security;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestIdFilterTest {
+
+    private final RequestIdFilter filter = new RequestIdFilter();
+
+    @Test
+    void testFilter_ReusesCallerIdForTheChain() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/ai/generate");
+        request.addHeader(RequestIdFilter.HEADER, "abc-123");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> seen = new AtomicReference<>();
+
+        filter.doFilter(request, response, (req, res) -> seen.set(MDC.get(RequestIdFilter.MDC_KEY)));
+
+        assertEquals("abc-123", seen.get());
+        assertEquals("abc-123", response.getHeader(RequestIdFilter.HEADER));
+        assertNull(MDC.get(RequestIdFilter.MDC_KEY)); // Not leaked to the next request on this thread
+    }
+
+    @Test
+    void testFilter_ReplacesUnsafeId() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/decks");
+        request.addHeader(RequestIdFilter.HEADER, "id\nFAKE LOG LINE");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> { });
+
+        String requestId = response.getHeader(RequestIdFilter.HEADER);
+        assertNotNull(requestId);
+        assertEquals(36, requestId.length());
+    }
+}
@@ -0,0 +1,133 @@
+package com.flashcards.service;
+
+import com.flashcards.dto.ListingPage;
+import com.flashcards.model.User;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AdminListingServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private AdminListingService listings;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        listings = new AdminListingService(mongoTemplate);
+    }
+
+    private static Document user(int i) {
+        return new Document("_id", new ObjectId())
+                .append("email", "user" + i + "@example.com")
+                .append("role", "USER")
+                .append("createdAt", new Date(1_700_000_000_000L - i * 1000L));
+    }
+
+    private static List<Document> users(int count) {
+        List<Document> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(user(i));
+        }
+        return users;
+    }
+
+    @Test
+    void testListUsers_PagesWithKeysetCursor() {
+        List<Document> all = users(3);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("users"))).thenReturn(all);
+
+        ListingPage<User> first = listings.listUsers(Map.of("size", "2", "role", "USER"));
+
+        assertEquals(2, first.getItems().size());
+        assertEquals("user0@example.com", first.getItems().get(0).getEmail());
+        assertNotNull(first.getNextCursor());
+
+        listings.listUsers(Map.of("size", "2", "role", "USER", "cursor", first.getNextCursor()));
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queries.capture(), eq(Document.class), eq("users"));
+        Query second = queries.getAllValues().get(1);
+        assertEquals("USER", second.getQueryObject().get("role"));
+        assertTrue(second.getQueryObject().containsKey("$or"));
+        assertEquals(3, second.getLimit());
+        assertEquals(0, second.getFieldsObject().get("password"));
+    }
+
+    @Test
+    void testCursor_KeepsValueTypes() {
+        ObjectId id = new ObjectId();
+        Date date = new Date(1_700_000_000_000L);
+
+        assertEquals(date, AdminListingService.Cursor.decode(new AdminListingService.Cursor(date, id).encode()).value);
+        assertEquals(4.0, AdminListingService.Cursor.decode(new AdminListingService.Cursor(4, id).encode()).value);
+        assertEquals("a|b", AdminListingService.Cursor.decode(new AdminListingService.Cursor("a|b", id).encode()).value);
+        AdminListingService.Cursor none = AdminListingService.Cursor.decode(new AdminListingService.Cursor(null, id).encode());
+        assertNull(none.value);
+        assertEquals(id, none.lastId);
+        assertThrows(RuntimeException.class, () -> AdminListingService.Cursor.decode("not-a-cursor"));
+    }
+
+    @Test
+    void testList_RejectsUnlistedSortField() {
+        assertThrows(RuntimeException.class, () -> listings.listUsers(Map.of("sort", "password")));
+    }
+
+    @Test
+    void testExport_StreamsMillionDocumentsWithoutBuffering() throws Exception {
+        int total = 1_000_000;
+        Document template = user(0);
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("users")))
+                .thenAnswer(invocation -> Stream.generate(() -> template).limit(total));
+        long[] lines = new long[1];
+        OutputStream counting = new OutputStream() {
+            @Override
+            public void write(int b) {
+                if (b == '\n') {
+                    lines[0]++;
+                }
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                for (int i = offset; i < offset + length; i++) {
+                    write(bytes[i]);
+                }
+            }
+        };
+
+        listings.export("users", Map.of()).writeTo(counting);
+
+        assertEquals(total, lines[0]);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(Document.class), eq("users"));
+        assertEquals(0, query.getValue().getFieldsObject().get("password"));
+        verify(mongoTemplate, never()).find(any(Query.class), any(), any());
+    }
+}
@@ -0,0 +1,173 @@
+package com.flashcards.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.flashcards.dto.AiGenerationRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sends concurrent generation requests to a stub that holds every reply until the test releases it,
+ * so the requests are all in flight together.
+ */
+class AiServiceCoalescingTest {
+
+    private static final String TEXT = "Photosynthesis converts light energy into chemical energy. Chloroplasts hold the "
+            + "chlorophyll that captures the light, and the Calvin cycle fixes carbon dioxide into sugars.";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private StubOpenAi stub;
+    private MeterRegistry registry;
+    private AiService aiService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new StubOpenAi(this::complete);
+        registry = new SimpleMeterRegistry();
+        aiService = stub.aiService(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        stub.close();
+    }
+
+    private StubOpenAi.Reply complete(JsonNode request, int call) throws InterruptedException, IOException {
+        release.await(10, TimeUnit.SECONDS);
+        ArrayNode array = objectMapper.createArrayNode();
+        for (int i = 1; i <= 3; i++) {
+            array.addObject().put("question", "Stub question " + i + " of call " + call).put("answer", "Stub answer " + i);
+        }
+        return StubOpenAi.Reply.ok(StubOpenAi.completion(objectMapper.writeValueAsString(array), "stop"));
+    }
+
+    private static AiGenerationRequest request(String text) {
+        AiGenerationRequest request = new AiGenerationRequest();
+        request.setText(text);
+        request.setNumberOfCards(3);
+        return request;
+    }
+
+    /**
+     * Starts a thread per request; results land at the request's index.
+     */
+    private List<Thread> generateConcurrently(List<AiGenerationRequest> requests, List<List<AiService.FlashcardData>> results) {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            int index = i;
+            results.add(null);
+            Thread thread = new Thread(() -> {
+                List<AiService.FlashcardData> cards = aiService.generateFlashcards(requests.get(index));
+                synchronized (results) {
+                    results.set(index, cards);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        return threads;
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static long waiting(List<Thread> threads) {
+        return threads.stream().filter(thread -> thread.getState() == Thread.State.TIMED_WAITING).count();
+    }
+
+    private static void joinAll(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join(10_000);
+        }
+    }
+
+    private double count(String name) {
+        Counter counter = registry.find(name).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    @Test
+    void testIdenticalConcurrentRequests_OneUpstreamCall() throws InterruptedException {
+        int n = 8;
+        List<AiGenerationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            // Differences in whitespace only still render the same prompt
+            requests.add(request(i % 2 == 0 ? TEXT : TEXT.replace(". ", ".\n  ")));
+        }
+        List<List<AiService.FlashcardData>> results = new ArrayList<>();
+
+        List<Thread> threads = generateConcurrently(requests, results);
+        // The first request is at the stub, everyone else waits for its result
+        awaitCondition(() -> stub.calls() >= 1 && waiting(threads) >= n - 1);
+        release.countDown();
+        joinAll(threads);
+
+        assertEquals(1, stub.calls());
+        assertEquals(n - 1, count("flashcards.ai.openai.coalesced"));
+        assertEquals(0, count("flashcards.ai.openai.fallbacks"));
+        for (List<AiService.FlashcardData> cards : results) {
+            assertEquals(3, cards.size());
+            assertEquals("Stub question 1 of call 1", cards.get(0).getFront());
+        }
+
+        // Results are shared while the call runs, not cached after it
+        aiService.generateFlashcards(request(TEXT));
+        assertEquals(2, stub.calls());
+    }
+
+    @Test
+    void testDifferentRequests_SeparateUpstreamCalls() throws InterruptedException {
+        List<AiGenerationRequest> requests = List.of(request(TEXT), request(TEXT + " Plants release the oxygen."));
+        List<List<AiService.FlashcardData>> results = new ArrayList<>();
+
+        List<Thread> threads = generateConcurrently(requests, results);
+        awaitCondition(() -> stub.calls() >= 2);
+        release.countDown();
+        joinAll(threads);
+
+        assertEquals(2, stub.calls());
+        assertEquals(0, count("flashcards.ai.openai.coalesced"));
+        assertNotEquals(results.get(0).get(0).getFront(), results.get(1).get(0).getFront());
+    }
+
+    @Test
+    void testWaitBoundExceeded_WaiterFallsBack() throws InterruptedException {
+        ReflectionTestUtils.setField(aiService, "coalesceWaitMs", 50L);
+        List<List<AiService.FlashcardData>> results = new ArrayList<>();
+
+        List<Thread> leader = generateConcurrently(List.of(request(TEXT)), results);
+        awaitCondition(() -> stub.calls() >= 1);
+        List<AiService.FlashcardData> waiterCards = aiService.generateFlashcards(request(TEXT));
+        release.countDown();
+        joinAll(leader);
+
+        assertEquals(1, stub.calls());
+        assertEquals(1, count("flashcards.ai.openai.fallbacks"));
+        assertFalse(waiterCards.get(0).getFront().startsWith("Stub question"));
+        assertEquals(1, registry.get("flashcards.ai.generate").tag("path", "fallback").timer().count());
+        assertEquals(1, registry.get("flashcards.ai.generate").tag("path", "openai").timer().count());
+        assertEquals(3, registry.get("flashcards.ai.generate.cards").tag("path", "openai").summary().totalAmount());
+        assertEquals("Stub question 1 of call 1", results.get(0).get(0).getFront());
+    }
+}
@@ -1,11 +1,15 @@
 package com.flashcards.service;
 
 import com.flashcards.dto.AiGenerationRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
@@ -16,6 +20,18 @@ import static org.junit.jupiter.api.Assertions.*;
 @ExtendWith(MockitoExtension.class)
 class AiServiceTest {
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private Tracer tracer = Tracer.NOOP;
+
+    @Spy
+    private PromptTemplates promptTemplates = new PromptTemplates();
+
+    @Spy
+    private TokenBudget tokenBudget = new TokenBudget();
+
     @InjectMocks
     private AiService aiService;
 
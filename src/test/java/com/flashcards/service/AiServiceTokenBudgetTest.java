@@ -0,0 +1,120 @@
+package com.flashcards.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.flashcards.dto.AiGenerationRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs generation against a stub that, like the real API, cuts replies off at max_tokens.
+ */
+class AiServiceTokenBudgetTest {
+
+    private static final Pattern CARD_COUNT = Pattern.compile("Generate (\\d+)");
+    private static final int[] CARD_COUNTS = {5, 10, 15, 20, 30, 40};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Integer> maxTokensSeen = new ArrayList<>();
+    private StubOpenAi stub;
+    private MeterRegistry registry;
+    private TokenBudget tokenBudget;
+    private AiService aiService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new StubOpenAi(this::complete);
+        registry = new SimpleMeterRegistry();
+        tokenBudget = new TokenBudget();
+        aiService = stub.aiService(StubOpenAi.upstream(registry), tokenBudget, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    /**
+     * Answers with the requested number of cards, about 60 tokens each at 4 characters per token, cut at max_tokens.
+     */
+    private StubOpenAi.Reply complete(JsonNode request, int call) throws IOException {
+        int maxTokens = request.path("max_tokens").asInt();
+        synchronized (maxTokensSeen) {
+            maxTokensSeen.add(maxTokens);
+        }
+        Matcher matcher = CARD_COUNT.matcher(request.path("messages").path(0).path("content").asText());
+        int cards = matcher.find() ? Integer.parseInt(matcher.group(1)) : 1;
+
+        ArrayNode array = objectMapper.createArrayNode();
+        for (int i = 0; i < cards; i++) {
+            array.addObject()
+                    .put("question", "Which process described in paragraph " + i + " turns light into chemical energy?")
+                    .put("answer", "Photosynthesis, in which chloroplasts capture light to turn water and carbon dioxide "
+                            + "into glucose and oxygen (" + i + ")");
+        }
+        String content = objectMapper.writeValueAsString(array);
+        String finishReason = "stop";
+        if (content.length() / 4 > maxTokens) {
+            content = content.substring(0, maxTokens * 4);
+            finishReason = "length";
+        }
+        return StubOpenAi.Reply.ok(StubOpenAi.completion(content, finishReason));
+    }
+
+    private int generateAll() {
+        int cardsFromOpenAi = 0;
+        for (int cards : CARD_COUNTS) {
+            AiGenerationRequest request = new AiGenerationRequest();
+            request.setText("Photosynthesis converts light energy into chemical energy. Chloroplasts hold the chlorophyll "
+                    + "that captures the light, and the Calvin cycle fixes carbon dioxide into sugars.");
+            request.setNumberOfCards(cards);
+            List<AiService.FlashcardData> flashcards = aiService.generateFlashcards(request);
+            if (flashcards.get(0).getFront().startsWith("Which process")) {
+                cardsFromOpenAi += flashcards.size();
+            }
+        }
+        return cardsFromOpenAi;
+    }
+
+    private double fallbacks() {
+        Counter counter = registry.find("flashcards.ai.openai.fallbacks").counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    @Test
+    void testFixedMaxTokens_TruncatedRepliesFallBack() {
+        // What the hard-coded max_tokens=1000 did: room for about 16 of these cards
+        ReflectionTestUtils.setField(tokenBudget, "tokensPerCard", 0);
+        ReflectionTestUtils.setField(tokenBudget, "completionOverheadTokens", 1000);
+
+        int cardsFromOpenAi = generateAll();
+
+        assertEquals(List.of(1000, 1000, 1000, 1000, 1000, 1000), maxTokensSeen);
+        assertEquals(3, fallbacks()); // 20, 30 and 40 cards
+        assertEquals(5 + 10 + 15, cardsFromOpenAi);
+        assertEquals(3, registry.get("flashcards.ai.openai.truncated").counter().count());
+    }
+
+    @Test
+    void testCardBasedMaxTokens_NoFallbacks() {
+        int cardsFromOpenAi = generateAll();
+
+        assertEquals(List.of(440, 840, 1240, 1640, 2440, 3240), maxTokensSeen);
+        assertEquals(0, fallbacks());
+        assertEquals(5 + 10 + 15 + 20 + 30 + 40, cardsFromOpenAi);
+    }
+}
@@ -0,0 +1,72 @@
+package com.flashcards.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnswerSimilarityIndexTest {
+
+    private static AnswerSimilarityIndex indexOf(String... answers) {
+        AnswerSimilarityIndex index = new AnswerSimilarityIndex();
+        for (String answer : answers) {
+            index.add(answer);
+        }
+        return index;
+    }
+
+    @Test
+    void testNearest_PrefersLexicallyCloseAnswers() {
+        AnswerSimilarityIndex index = indexOf(
+            "Binary Search Tree", "Binary Tree", "Binary Heap", "Hash Table",
+            "Paris", "Tokyo", "Photosynthesis", "Mitochondria", "Queue", "Stack"
+        );
+
+        List<String> nearest = index.nearest("Binary Search Tree", 3);
+
+        assertEquals(3, nearest.size());
+        assertEquals("Binary Tree", nearest.get(0));
+        assertTrue(nearest.contains("Binary Heap"));
+        assertFalse(nearest.contains("Binary Search Tree"));
+    }
+
+    @Test
+    void testNearest_NeverReturnsTheAnswerItself() {
+        AnswerSimilarityIndex index = indexOf("Germany", "germany ", "Japan", "Jamaica");
+
+        List<String> nearest = index.nearest("Germany", 3);
+
+        // Case and whitespace variants of the correct answer are not usable distractors
+        assertFalse(nearest.contains("Germany"));
+        assertFalse(nearest.contains("germany "));
+    }
+
+    @Test
+    void testRemove_DropsAnswerOnlyWhenLastCardGoes() {
+        AnswerSimilarityIndex index = indexOf("Berlin", "Bern", "Bern", "Oslo");
+
+        index.remove("Bern");
+        assertTrue(index.nearest("Berlin", 3).contains("Bern"));
+
+        index.remove("Bern");
+        assertFalse(index.nearest("Berlin", 3).contains("Bern"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testCompaction_KeepsLookupsCorrect() {
+        AnswerSimilarityIndex index = new AnswerSimilarityIndex();
+        for (int i = 0; i < 200; i++) {
+            index.add("Answer number " + i);
+        }
+        for (int i = 0; i < 150; i++) {
+            index.remove("Answer number " + i);
+        }
+
+        assertEquals(50, index.size());
+        List<String> nearest = index.nearest("Answer number 175", 3);
+        assertEquals(3, nearest.size());
+        nearest.forEach(answer -> assertTrue(answer.startsWith("Answer number 1")));
+    }
+}
@@ -0,0 +1,76 @@
+package com.flashcards.service;
+
+import com.flashcards.dto.AutocompleteSuggestion;
+import com.flashcards.model.Deck;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AutocompleteServiceTest {
+
+    @TempDir
+    Path dataDir;
+
+    private static Deck deck(String id, String name, boolean isPublic, int views, String... tags) {
+        Deck deck = new Deck(name, "", "owner");
+        deck.setId(id);
+        deck.setPublic(isPublic);
+        deck.setTotalViews(views);
+        deck.setTags(List.of(tags));
+        return deck;
+    }
+
+    private static List<String> texts(List<AutocompleteSuggestion> suggestions) {
+        return suggestions.stream().map(AutocompleteSuggestion::getText).collect(Collectors.toList());
+    }
+
+    @Test
+    void testComplete_OnlyPublicDecksAndTheirTags() {
+        AutocompleteService service = new AutocompleteService(mock(MongoTemplate.class));
+        service.onDeckSaved(deck("1", "Spanish Verbs", true, 10, "spanish", "verbs"));
+        service.onDeckSaved(deck("2", "Spanish Secrets", false, 99, "secret"));
+
+        assertEquals(List.of("Spanish Verbs", "spanish"), texts(service.complete("spa", 10)));
+        assertTrue(service.complete("secr", 10).isEmpty());
+
+        service.onDeckSaved(deck("1", "Spanish Verbs", false, 10, "spanish", "verbs"));
+        assertTrue(service.complete("spa", 10).isEmpty());
+    }
+
+    @Test
+    void testTags_WeightedByNumberOfDecks() {
+        AutocompleteService service = new AutocompleteService(mock(MongoTemplate.class));
+        service.onDeckSaved(deck("1", "A", true, 0, "chemistry"));
+        service.onDeckSaved(deck("2", "B", true, 0, "chemistry", "chess"));
+        service.onDeckSaved(deck("3", "C", true, 0, "chemistry"));
+
+        assertEquals(List.of("chemistry", "chess"), texts(service.complete("che", 10)));
+
+        service.onDeckDeleted("2");
+        assertEquals(List.of("chemistry"), texts(service.complete("che", 10)));
+    }
+
+    @Test
+    void testSnapshot_RoundTrip() throws Exception {
+        Path snapshot = dataDir.resolve("autocomplete.snapshot");
+        AutocompleteService original = new AutocompleteService(mock(MongoTemplate.class));
+        original.onDeckSaved(deck("1", "World Capitals", true, 5, "geography"));
+        original.onDeckSaved(deck("2", "World History", true, 50, "history"));
+        original.saveSnapshot(snapshot);
+
+        AutocompleteService restored = new AutocompleteService(mock(MongoTemplate.class));
+        assertEquals(2, restored.loadSnapshot(snapshot));
+
+        List<AutocompleteSuggestion> suggestions = restored.complete("world", 10);
+        assertEquals(List.of("World History", "World Capitals"), texts(suggestions));
+        assertEquals("2", suggestions.get(0).getDeckId());
+        assertEquals(List.of("geography"), texts(restored.complete("geo", 10)));
+    }
+}
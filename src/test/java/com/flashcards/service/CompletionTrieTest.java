@@ -0,0 +1,67 @@
+package com.flashcards.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompletionTrieTest {
+
+    private static List<String> texts(List<CompletionTrie.Entry> entries) {
+        return entries.stream().map(entry -> entry.text).collect(Collectors.toList());
+    }
+
+    @Test
+    void testComplete_ReturnsHighestWeightsFirst() {
+        CompletionTrie trie = new CompletionTrie();
+        trie.put("deck:1", "Biology Basics", 10);
+        trie.put("deck:2", "Biochemistry", 50);
+        trie.put("deck:3", "Binary Trees", 30);
+        trie.put("deck:4", "Chemistry", 100);
+
+        assertEquals(List.of("Biochemistry", "Binary Trees", "Biology Basics"), texts(trie.complete("bi", 10)));
+        assertEquals(List.of("Biochemistry", "Biology Basics"), texts(trie.complete("BIO", 10)));
+        assertEquals(List.of("Biochemistry"), texts(trie.complete("bi", 1)));
+        assertTrue(trie.complete("physics", 10).isEmpty());
+    }
+
+    @Test
+    void testComplete_MatchesLaterWordsOnce() {
+        CompletionTrie trie = new CompletionTrie();
+        trie.put("deck:1", "Intro to Biology", 5);
+        trie.put("deck:2", "Biology of Cells", 3);
+
+        assertEquals(List.of("Intro to Biology", "Biology of Cells"), texts(trie.complete("biol", 10)));
+        assertEquals(List.of("Biology of Cells"), texts(trie.complete("cell", 10)));
+    }
+
+    @Test
+    void testPut_ReplacesEntryWithSameId() {
+        CompletionTrie trie = new CompletionTrie();
+        trie.put("deck:1", "Spanish Verbs", 5);
+        trie.put("deck:2", "Spanish Nouns", 10);
+
+        trie.put("deck:1", "Spanish Verbs", 20);
+        assertEquals(List.of("Spanish Verbs", "Spanish Nouns"), texts(trie.complete("span", 10)));
+
+        trie.put("deck:1", "French Verbs", 20);
+        assertEquals(List.of("Spanish Nouns"), texts(trie.complete("span", 10)));
+        assertEquals(2, trie.size());
+    }
+
+    @Test
+    void testRemove_PrunesAndKeepsSiblings() {
+        CompletionTrie trie = new CompletionTrie();
+        trie.put("tag:java", "java", 3);
+        trie.put("tag:javascript", "javascript", 7);
+        trie.put("tag:jvm", "jvm", 1);
+
+        trie.remove("tag:javascript");
+
+        assertEquals(List.of("java"), texts(trie.complete("jav", 10)));
+        assertEquals(List.of("java", "jvm"), texts(trie.complete("j", 10)));
+        assertTrue(trie.complete("javas", 10).isEmpty());
+    }
+}
@@ -0,0 +1,61 @@
+package com.flashcards.service;
+
+import com.flashcards.model.Deck;
+import com.flashcards.model.Feedback;
+import com.flashcards.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DashboardStatsServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private DashboardStatsService statsService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        statsService = new DashboardStatsService(mongoTemplate);
+        when(mongoTemplate.estimatedCount(User.class)).thenReturn(1000L);
+        when(mongoTemplate.estimatedCount(Deck.class)).thenReturn(50L);
+        when(mongoTemplate.estimatedCount(Feedback.class)).thenReturn(7L);
+        when(mongoTemplate.count(any(Query.class), eq(User.class))).thenReturn(120L);
+        when(mongoTemplate.count(any(Query.class), eq(Deck.class))).thenReturn(20L);
+        when(mongoTemplate.count(any(Query.class), eq(Feedback.class))).thenReturn(3L);
+    }
+
+    @Test
+    void testGetSnapshot_CountsWithoutLoadingDocuments() {
+        Map<String, Object> stats = statsService.getSnapshot();
+
+        assertEquals(1000L, stats.get("totalUsers"));
+        assertEquals(120L, stats.get("activeUsers"));
+        assertEquals(20L, stats.get("publicDecks"));
+        assertEquals(3L, stats.get("pendingFeedback"));
+        verify(mongoTemplate, atLeastOnce()).count(
+                argThat((Query query) -> query.getQueryObject().containsKey("lastLoginAt")), eq(User.class));
+        verify(mongoTemplate, never()).find(any(Query.class), any());
+        verify(mongoTemplate, never()).findAll(any());
+    }
+
+    @Test
+    void testGetSnapshot_IsServedFromMemoryUntilRefreshed() {
+        Map<String, Object> first = statsService.getSnapshot();
+        Map<String, Object> second = statsService.getSnapshot();
+
+        assertSame(first, second);
+        verify(mongoTemplate, times(1)).estimatedCount(User.class);
+
+        statsService.refresh();
+        assertNotSame(first, statsService.getSnapshot());
+    }
+}
@@ -0,0 +1,155 @@
+package com.flashcards.service;
+
+import com.flashcards.model.Deck;
+import com.flashcards.model.Flashcard;
+import com.flashcards.model.UserProgress;
+import com.flashcards.repository.DeckRepository;
+import com.flashcards.repository.FlashcardRepository;
+import com.flashcards.repository.UserProgressRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class DeckForkServiceTest {
+
+    private DeckRepository deckRepository;
+    private FlashcardRepository flashcardRepository;
+    private UserProgressRepository userProgressRepository;
+    private DeckForkService forks;
+    private Deck fork;
+
+    @BeforeEach
+    void setUp() {
+        deckRepository = mock(DeckRepository.class);
+        flashcardRepository = mock(FlashcardRepository.class);
+        userProgressRepository = mock(UserProgressRepository.class);
+        forks = new DeckForkService(deckRepository, flashcardRepository, mock(SearchService.class),
+                userProgressRepository);
+        when(deckRepository.save(any(Deck.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(flashcardRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        fork = new Deck("Biology (Copy)", "", "forker");
+        fork.setId("fork");
+        fork.setBaseDeckId("base");
+        when(deckRepository.findById("fork")).thenReturn(Optional.of(fork));
+        when(flashcardRepository.findByDeckIdOrderByOrderIndex("base")).thenReturn(List.of(
+                card("b1", "base", "owner", "Q1", 0),
+                card("b2", "base", "owner", "Q2", 1),
+                card("b3", "base", "owner", "Q3", 2)));
+    }
+
+    private static Flashcard card(String id, String deckId, String userId, String question, int orderIndex) {
+        Flashcard card = new Flashcard(question, "A" + question.substring(1), deckId, userId);
+        card.setId(id);
+        card.setOrderIndex(orderIndex);
+        return card;
+    }
+
+    @Test
+    void testGetCards_MergesBaseCardsWithOverlay() {
+        Flashcard edited = card("o1", "fork", "forker", "Q2 edited", 1);
+        edited.setBaseCardId("b2");
+        Flashcard deleted = card("o2", "fork", "forker", "Q3", 2);
+        deleted.setBaseCardId("b3");
+        deleted.setHidden(true);
+        Flashcard added = card("o3", "fork", "forker", "Q4", 3);
+        when(flashcardRepository.findByDeckIdOrderByOrderIndex("fork")).thenReturn(List.of(edited, deleted, added));
+
+        List<Flashcard> cards = forks.getCards(fork);
+
+        assertEquals(3, cards.size());
+        assertEquals("fork~b1", cards.get(0).getId());
+        assertEquals("fork", cards.get(0).getDeckId());
+        assertEquals("forker", cards.get(0).getUserId());
+        assertEquals("Q2 edited", cards.get(1).getQuestion());
+        assertEquals("o3", cards.get(2).getId());
+    }
+
+    @Test
+    void testResolve_PresentsBaseCardOnlyUntilOverridden() {
+        when(flashcardRepository.findById("b1")).thenReturn(Optional.of(card("b1", "base", "owner", "Q1", 0)));
+        when(flashcardRepository.findByDeckIdAndBaseCardId("fork", "b1")).thenReturn(Optional.empty());
+
+        Flashcard resolved = forks.resolve("fork~b1").orElseThrow();
+        assertEquals("forker", resolved.getUserId());
+        assertEquals("b1", resolved.getBaseCardId());
+
+        Flashcard override = card("o1", "fork", "forker", "Q1 edited", 0);
+        override.setBaseCardId("b1");
+        when(flashcardRepository.findByDeckIdAndBaseCardId("fork", "b1")).thenReturn(Optional.of(override));
+        assertTrue(forks.resolve("fork~b1").isEmpty());
+    }
+
+    @Test
+    void testForkOfFork_SharesBaseAndCopiesOverlay() {
+        Flashcard edited = card("o1", "fork", "forker", "Q2 edited", 1);
+        edited.setBaseCardId("b2");
+        when(flashcardRepository.findByDeckIdOrderByOrderIndex("fork")).thenReturn(List.of(edited));
+        Deck copy = new Deck("Biology (Copy) (Copy)", "", "third");
+        copy.setId("copy");
+
+        Deck saved = forks.fork(fork, copy);
+
+        assertEquals("base", saved.getBaseDeckId());
+        verify(deckRepository).updateCardsById("copy", "base", saved.getCardCount());
+        verify(deckRepository, never()).save(any(Deck.class)); // Would overwrite the popularity scores
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Flashcard>> overlay = ArgumentCaptor.forClass(List.class);
+        verify(flashcardRepository).saveAll(overlay.capture());
+        Flashcard copied = overlay.getValue().get(0);
+        assertNull(copied.getId());
+        assertEquals("copy", copied.getDeckId());
+        assertEquals("third", copied.getUserId());
+        assertEquals("b2", copied.getBaseCardId());
+    }
+
+    @Test
+    void testMaterialize_CopiesUntouchedBaseCards() {
+        Flashcard deleted = card("o2", "fork", "forker", "Q3", 2);
+        deleted.setBaseCardId("b3");
+        deleted.setHidden(true);
+        when(flashcardRepository.findByDeckIdOrderByOrderIndex("fork")).thenReturn(new ArrayList<>(List.of(deleted)));
+        when(flashcardRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Flashcard> cards = invocation.getArgument(0);
+            List<Flashcard> stored = new ArrayList<>();
+            for (Flashcard card : cards) {
+                Flashcard copy = card("c" + card.getOrderIndex(), card.getDeckId(), card.getUserId(),
+                        card.getQuestion(), card.getOrderIndex());
+                stored.add(copy);
+            }
+            return stored;
+        });
+        UserProgress reviewed = new UserProgress("forker", "fork~b2", "fork");
+        when(userProgressRepository.findByFlashcardId(anyString())).thenReturn(List.of());
+        when(userProgressRepository.findByFlashcardId("fork~b2")).thenReturn(List.of(reviewed));
+
+        Deck materialized = forks.materialize(fork);
+
+        assertNull(materialized.getBaseDeckId());
+        assertEquals(2, materialized.getCardCount());
+        verify(deckRepository).updateCardsById("fork", null, 2);
+        verify(deckRepository, never()).save(any(Deck.class));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Flashcard>> saved = ArgumentCaptor.forClass(List.class);
+        verify(flashcardRepository).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+        for (Flashcard card : saved.getValue()) {
+            assertNull(card.getId());
+            assertNull(card.getBaseCardId());
+            assertEquals("fork", card.getDeckId());
+        }
+        verify(flashcardRepository).deleteByDeckIdAndHiddenTrue("fork");
+        // Progress on the base card now belongs to the fork's own copy of it
+        assertEquals("c1", reviewed.getFlashcardId());
+        verify(userProgressRepository).saveAll(List.of(reviewed));
+    }
+}
@@ -0,0 +1,178 @@
+package com.flashcards.service;
+
+import com.flashcards.model.JobCheckpoint;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DeckPopularityJobTest {
+
+    private MongoTemplate mongoTemplate;
+    private BulkOperations bulk;
+    private PublicCatalogService publicCatalogService;
+    private DeckPopularityJob job;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        bulk = mock(BulkOperations.class);
+        publicCatalogService = mock(PublicCatalogService.class);
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), any(Class.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(JobCheckpoint.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), any(Class.class))).thenReturn(bulk);
+        when(mongoTemplate.aggregate(any(Aggregation.class), any(String.class), eq(Document.class)))
+                .thenReturn(results());
+        job = new DeckPopularityJob(mongoTemplate, publicCatalogService);
+    }
+
+    private static AggregationResults<Document> results(Document... rows) {
+        return new AggregationResults<>(List.of(rows), new Document());
+    }
+
+    private static Document row(String deckId, double popularity, double trending) {
+        return new Document("_id", deckId).append("popularity", popularity).append("trending", trending);
+    }
+
+    private static JobCheckpoint checkpoint(LocalDateTime processedUntil) {
+        JobCheckpoint checkpoint = new JobCheckpoint(DeckPopularityJob.JOB_ID);
+        checkpoint.setProcessedUntil(processedUntil);
+        checkpoint.setLandmarkAt(processedUntil.minusDays(1));
+        return checkpoint;
+    }
+
+    /**
+     * The $set of the update that finished the run.
+     */
+    private Document finished() {
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), updates.capture(), eq(JobCheckpoint.class));
+        return (Document) updates.getAllValues().get(1).getUpdateObject().get("$set");
+    }
+
+    @Test
+    void testRun_CombinesWeightedSignalsPerDeck() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("decks"), eq(Document.class)))
+                .thenReturn(results(row("d1", 2, 4)));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("quizzes"), eq(Document.class)))
+                .thenReturn(results(row("d1", 1, 1), row("d2", 1, 0.5)));
+
+        assertEquals(2, job.run(LocalDateTime.now()));
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).updateOne(queries.capture(), updates.capture());
+        verify(bulk).execute();
+        verify(publicCatalogService).invalidate();
+
+        int d1 = "d1".equals(queries.getAllValues().get(0).getQueryObject().get("_id")) ? 0 : 1;
+        Document inc = (Document) updates.getAllValues().get(d1).getUpdateObject().get("$inc");
+        assertEquals(DeckPopularityJob.COPY_WEIGHT * 2 + DeckPopularityJob.QUIZ_WEIGHT, (double) inc.get("popularityScore"), 1e-9);
+        assertEquals(DeckPopularityJob.COPY_WEIGHT * 4 + DeckPopularityJob.QUIZ_WEIGHT, (double) inc.get("trendingScore"), 1e-9);
+    }
+
+    @Test
+    void testRun_SavesCheckpointAndSkipsProcessedWindow() {
+        LocalDateTime until = LocalDateTime.now();
+        job.run(until);
+
+        ArgumentCaptor<JobCheckpoint> created = ArgumentCaptor.forClass(JobCheckpoint.class);
+        verify(mongoTemplate).insert(created.capture());
+        assertEquals(until, created.getValue().getLandmarkAt());
+        Document done = finished();
+        assertEquals(until, done.get("processedUntil"));
+        assertEquals(until, done.get("landmarkAt"));
+        verify(bulk, never()).execute();
+
+        when(mongoTemplate.findById(DeckPopularityJob.JOB_ID, JobCheckpoint.class)).thenReturn(checkpoint(until));
+        assertEquals(0, job.run(until));
+        verify(mongoTemplate, times(3)).aggregate(any(Aggregation.class), any(String.class), eq(Document.class));
+    }
+
+    @Test
+    void testRun_FirstRunBackfillsMissingScores() {
+        job.run(LocalDateTime.now());
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateMulti(queries.capture(), updates.capture(), any(Class.class));
+        assertEquals(new Document("popularityScore", new Document("$exists", false)), queries.getAllValues().get(0).getQueryObject());
+        assertEquals(new Document("trendingScore", 0.0), updates.getAllValues().get(1).getUpdateObject().get("$set"));
+
+        when(mongoTemplate.findById(DeckPopularityJob.JOB_ID, JobCheckpoint.class))
+                .thenReturn(checkpoint(LocalDateTime.now()));
+        job.run(LocalDateTime.now().plusMinutes(1));
+        verify(mongoTemplate, times(2)).updateMulti(any(Query.class), any(Update.class), any(Class.class));
+    }
+
+    @Test
+    void testRun_WindowClaimedByAnotherInstance_Skips() {
+        LocalDateTime processed = LocalDateTime.now().minusMinutes(15);
+        JobCheckpoint checkpoint = checkpoint(processed);
+        checkpoint.setPendingUntil(processed.plusMinutes(5));
+        checkpoint.setPendingLandmarkAt(checkpoint.getLandmarkAt());
+        checkpoint.setClaimedAt(LocalDateTime.now().minusMinutes(1));
+        when(mongoTemplate.findById(DeckPopularityJob.JOB_ID, JobCheckpoint.class)).thenReturn(checkpoint);
+
+        assertEquals(0, job.run(LocalDateTime.now()));
+
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(JobCheckpoint.class));
+        verify(mongoTemplate, never()).aggregate(any(Aggregation.class), any(String.class), eq(Document.class));
+    }
+
+    @Test
+    void testRun_LosesClaimRace_Skips() {
+        when(mongoTemplate.findById(DeckPopularityJob.JOB_ID, JobCheckpoint.class))
+                .thenReturn(checkpoint(LocalDateTime.now().minusMinutes(15)));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(JobCheckpoint.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertEquals(0, job.run(LocalDateTime.now()));
+
+        ArgumentCaptor<Query> claim = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(claim.capture(), any(Update.class), eq(JobCheckpoint.class));
+        assertTrue(claim.getValue().getQueryObject().containsKey("processedUntil"));
+        verify(mongoTemplate, never()).aggregate(any(Aggregation.class), any(String.class), eq(Document.class));
+        verify(bulk, never()).execute();
+    }
+
+    @Test
+    void testRun_AbandonedClaim_ReplaysWindowOnlyOnDecksWithoutIt() {
+        LocalDateTime processed = LocalDateTime.now().minusHours(2);
+        LocalDateTime pending = processed.plusMinutes(15);
+        JobCheckpoint checkpoint = checkpoint(processed);
+        checkpoint.setPendingUntil(pending);
+        checkpoint.setPendingLandmarkAt(checkpoint.getLandmarkAt());
+        checkpoint.setClaimedAt(LocalDateTime.now().minusHours(1));
+        when(mongoTemplate.findById(DeckPopularityJob.JOB_ID, JobCheckpoint.class)).thenReturn(checkpoint);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("quizzes"), eq(Document.class)))
+                .thenReturn(results(row("d1", 1, 1)));
+
+        assertEquals(1, job.run(LocalDateTime.now()));
+
+        // The abandoned window, not (processed, now]
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk).updateOne(queries.capture(), updates.capture());
+        assertEquals(new Document("$not", new Document("$gte", pending)), queries.getValue().getQueryObject().get("scoresUntil"));
+        assertEquals(pending, ((Document) updates.getValue().getUpdateObject().get("$set")).get("scoresUntil"));
+        assertEquals(pending, finished().get("processedUntil"));
+    }
+}
@@ -0,0 +1,53 @@
+package com.flashcards.service;
+
+import com.flashcards.model.Flashcard;
+import com.flashcards.repository.FlashcardRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class DistractorIndexServiceTest {
+
+    private final DistractorIndexService distractors = new DistractorIndexService(mock(FlashcardRepository.class), 500);
+
+    private static List<Flashcard> pool(String... answers) {
+        return Arrays.stream(answers).map(answer -> new Flashcard("Q", answer, "deck", "owner")).toList();
+    }
+
+    private AnswerSimilarityIndex index(String deckId, String baseDeckId, List<Flashcard> pool) {
+        return distractors.getIndex(deckId, baseDeckId, distractors.version(deckId, baseDeckId), pool);
+    }
+
+    @Test
+    void testGetIndex_ForkRebuiltWhenBaseCardChanges() {
+        AnswerSimilarityIndex fork = index("fork", "base", pool("Paris", "Rome"));
+        assertSame(fork, index("fork", "base", pool("Paris", "Rome")));
+        AnswerSimilarityIndex other = index("other", null, pool("Oslo"));
+
+        distractors.onCardUpdated("base", "Rome", "Madrid");
+
+        AnswerSimilarityIndex rebuilt = index("fork", "base", pool("Paris", "Madrid"));
+        assertNotSame(fork, rebuilt);
+        assertEquals(2, rebuilt.size());
+        assertSame(other, index("other", null, pool("Oslo")));
+    }
+
+    @Test
+    void testGetIndex_CardAddedWhilePoolWasRead_NotCached() {
+        long version = distractors.version("deck", null);
+        List<Flashcard> stale = pool("Paris");
+        distractors.onCardAdded("deck", "Rome"); // Nothing cached yet to add it to
+
+        AnswerSimilarityIndex first = distractors.getIndex("deck", null, version, stale);
+        assertEquals(1, first.size());
+
+        AnswerSimilarityIndex second = index("deck", null, pool("Paris", "Rome"));
+        assertNotSame(first, second);
+        assertEquals(2, second.size());
+        assertSame(second, index("deck", null, pool("Paris")));
+    }
+}
@@ -0,0 +1,132 @@
+package com.flashcards.service;
+
+import com.flashcards.model.EmailOutboxMessage;
+import com.flashcards.repository.EmailOutboxRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.mongodb.client.result.UpdateResult;
+import jakarta.mail.internet.MimeMessage;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class EmailOutboxWorkerTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private EmailOutboxRepository emailOutboxRepository;
+    private MongoTemplate mongoTemplate;
+    private JavaMailSenderImpl mailSender;
+    private EmailOutboxWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        emailOutboxRepository = mock(EmailOutboxRepository.class);
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+
+        mongoTemplate = mock(MongoTemplate.class);
+        worker = new EmailOutboxWorker(emailOutboxRepository, mongoTemplate, mailSender);
+        ReflectionTestUtils.setField(worker, "fromEmail", "noreply@flashcards.test");
+    }
+
+    @Test
+    void testDeliver_SendsWholeBatch() throws Exception {
+        List<EmailOutboxMessage> batch = List.of(
+            new EmailOutboxMessage("a@flashcards.test", "Reset", "Body A"),
+            new EmailOutboxMessage("b@flashcards.test", "Reset", "Body B"),
+            new EmailOutboxMessage("c@flashcards.test", "Feedback", "Body C")
+        );
+
+        worker.deliver(batch);
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(3, received.length);
+        for (EmailOutboxMessage message : batch) {
+            assertEquals("sent", message.getStatus());
+            assertEquals(1, message.getAttempts());
+            assertNotNull(message.getSentAt());
+        }
+        verify(emailOutboxRepository).saveAll(batch);
+    }
+
+    @Test
+    void testDeliver_SmtpDownSchedulesRetry() {
+        mailSender.setPort(1); // Nothing listens here
+        EmailOutboxMessage message = new EmailOutboxMessage("a@flashcards.test", "Reset", "Body");
+        LocalDateTime before = LocalDateTime.now();
+
+        worker.deliver(List.of(message));
+
+        assertEquals("pending", message.getStatus());
+        assertEquals(1, message.getAttempts());
+        assertNotNull(message.getLastError());
+        assertTrue(message.getNextAttemptAt().isAfter(before));
+    }
+
+    @Test
+    void testDeliver_GivesUpAfterMaxAttempts() {
+        mailSender.setPort(1);
+        EmailOutboxMessage message = new EmailOutboxMessage("a@flashcards.test", "Reset", "Body");
+        message.setAttempts(5);
+        ReflectionTestUtils.setField(worker, "maxAttempts", 6);
+
+        worker.deliver(List.of(message));
+
+        assertEquals("failed", message.getStatus());
+    }
+
+    @Test
+    void testClaimBatch_ExpiredClaimsCountAsAnAttempt() {
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(EmailOutboxMessage.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        ReflectionTestUtils.setField(worker, "maxAttempts", 6);
+        LocalDateTime before = LocalDateTime.now();
+
+        assertTrue(worker.claimBatch().isEmpty());
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateMulti(queries.capture(), updates.capture(), eq(EmailOutboxMessage.class));
+        // Out of attempts first, then everything else still stale
+        Document lastAttempt = queries.getAllValues().get(0).getQueryObject();
+        assertEquals(new Document("$gte", 5), lastAttempt.get("attempts"));
+        LocalDateTime cutoff = (LocalDateTime) ((Document) lastAttempt.get("claimedAt")).get("$lt");
+        assertTrue(cutoff.isBefore(before.minusMinutes(14)));
+        assertEquals("failed", ((Document) updates.getAllValues().get(0).getUpdateObject().get("$set")).get("status"));
+        assertNull(queries.getAllValues().get(1).getQueryObject().get("attempts"));
+        for (Update update : updates.getAllValues()) {
+            assertEquals(new Document("attempts", 1), update.getUpdateObject().get("$inc"));
+        }
+        assertEquals("pending", ((Document) updates.getAllValues().get(1).getUpdateObject().get("$set")).get("status"));
+        assertEquals(1L, worker.getStats().get("failedSinceStartup"));
+    }
+
+    @Test
+    void testBackoffMillis_GrowsAndIsCapped() {
+        ReflectionTestUtils.setField(worker, "baseBackoffMs", 1000L);
+        ReflectionTestUtils.setField(worker, "maxBackoffMs", 10000L);
+
+        assertEquals(1000L, worker.backoffMillis(1));
+        long third = worker.backoffMillis(3);
+        assertTrue(third >= 1000L && third <= 4000L);
+        assertTrue(worker.backoffMillis(30) <= 10000L);
+    }
+}
@@ -0,0 +1,103 @@
+package com.flashcards.service;
+
+import com.flashcards.dto.FlashcardRequest;
+import com.flashcards.model.Deck;
+import com.flashcards.model.Flashcard;
+import com.flashcards.model.UserProgress;
+import com.flashcards.repository.DeckRepository;
+import com.flashcards.repository.FlashcardRepository;
+import com.flashcards.repository.UserProgressRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class FlashcardServiceTest {
+
+    private FlashcardRepository flashcardRepository;
+    private UserProgressRepository userProgressRepository;
+    private FlashcardService flashcardService;
+    private SpacedRepetitionService spacedRepetitionService;
+    // Stands in for the user_progress collection
+    private final List<UserProgress> progress = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        DeckRepository deckRepository = mock(DeckRepository.class);
+        flashcardRepository = mock(FlashcardRepository.class);
+        userProgressRepository = mock(UserProgressRepository.class);
+        SearchService searchService = mock(SearchService.class);
+        DeckForkService deckForkService = new DeckForkService(deckRepository, flashcardRepository, searchService,
+                userProgressRepository);
+        flashcardService = new FlashcardService(flashcardRepository, deckRepository, mock(DistractorIndexService.class),
+                searchService, deckForkService);
+        spacedRepetitionService = new SpacedRepetitionService(userProgressRepository, new SimpleMeterRegistry());
+
+        Deck fork = new Deck("Biology (Copy)", "", "forker");
+        fork.setId("fork");
+        fork.setBaseDeckId("base");
+        when(deckRepository.findById("fork")).thenReturn(Optional.of(fork));
+        Flashcard base = new Flashcard("Q1", "A1", "base", "owner");
+        base.setId("b1");
+        when(flashcardRepository.findById("b1")).thenReturn(Optional.of(base));
+        when(flashcardRepository.findByDeckIdAndBaseCardId("fork", "b1")).thenReturn(Optional.empty());
+        when(flashcardRepository.save(any(Flashcard.class))).thenAnswer(invocation -> {
+            Flashcard card = invocation.getArgument(0);
+            if (card.getId() == null) {
+                card.setId("o1");
+                when(flashcardRepository.findById("o1")).thenReturn(Optional.of(card));
+                when(flashcardRepository.findByDeckIdAndBaseCardId("fork", "b1")).thenReturn(Optional.of(card));
+            }
+            return card;
+        });
+
+        when(userProgressRepository.save(any(UserProgress.class))).thenAnswer(invocation -> {
+            UserProgress row = invocation.getArgument(0);
+            if (!progress.contains(row)) {
+                progress.add(row);
+            }
+            return row;
+        });
+        when(userProgressRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userProgressRepository.findByUserIdAndFlashcardId(anyString(), anyString())).thenAnswer(invocation ->
+                progress.stream()
+                        .filter(row -> row.getUserId().equals(invocation.getArgument(0))
+                                && row.getFlashcardId().equals(invocation.getArgument(1)))
+                        .findFirst());
+        when(userProgressRepository.findByFlashcardId(anyString())).thenAnswer(invocation -> progress.stream()
+                .filter(row -> row.getFlashcardId().equals(invocation.getArgument(0)))
+                .toList());
+        when(userProgressRepository.findDueCards(anyString(), any(LocalDateTime.class))).thenAnswer(invocation ->
+                progress.stream()
+                        .filter(row -> row.getUserId().equals(invocation.getArgument(0))
+                                && !row.getNextReviewDate().isAfter(invocation.getArgument(1)))
+                        .toList());
+    }
+
+    @Test
+    void testUpdateFlashcard_ForkedCard_KeepsStudyProgress() {
+        spacedRepetitionService.updateProgress("forker", "fork~b1", "fork", 2);
+
+        FlashcardRequest request = new FlashcardRequest();
+        request.setQuestion("Q1 edited");
+        request.setAnswer("A1");
+        Flashcard edited = flashcardService.updateFlashcard("fork~b1", request, "forker");
+        assertEquals("o1", edited.getId());
+
+        // Failed the review, so due again tomorrow
+        List<UserProgress> due = userProgressRepository.findDueCards("forker", LocalDateTime.now().plusDays(2));
+        assertEquals(1, due.size());
+        assertEquals(1, due.get(0).getIncorrectCount());
+        Flashcard card = flashcardService.getFlashcard(due.get(0).getFlashcardId()).orElseThrow();
+        assertEquals("Q1 edited", card.getQuestion());
+    }
+}
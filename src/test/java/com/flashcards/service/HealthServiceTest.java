@@ -0,0 +1,86 @@
+package com.flashcards.service;
+
+import com.flashcards.config.MongoPoolMonitor;
+import okhttp3.OkHttpClient;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class HealthServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private HealthService healthService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        healthService = new HealthService(mongoTemplate, new MongoPoolMonitor(), new OkHttpClient(),
+                mock(LuceneCardIndex.class), mock(UserDeletionJob.class));
+    }
+
+    @Test
+    void testReadiness_ServedFromLastProbe() {
+        assertFalse(healthService.isReady()); // Nothing probed yet
+
+        healthService.probeMongo();
+        Map<String, Object> first = healthService.readiness();
+        healthService.readiness();
+
+        assertTrue(healthService.isReady());
+        assertEquals("UP", first.get("status"));
+        verify(mongoTemplate, times(1)).executeCommand(any(Document.class));
+    }
+
+    @Test
+    void testReadiness_DownWhenPingFails() {
+        when(mongoTemplate.executeCommand(any(Document.class))).thenThrow(new RuntimeException("timed out"));
+
+        healthService.probeMongo();
+
+        assertFalse(healthService.isReady());
+        assertEquals("DOWN", healthService.readinessStatus());
+        Map<?, ?> mongo = (Map<?, ?>) healthService.readiness().get("mongo");
+        assertEquals("timed out", mongo.get("error"));
+    }
+
+    @Test
+    void testReadiness_DegradedWhenAiUnreachable() {
+        ReflectionTestUtils.setField(healthService, "aiUrl", "http://127.0.0.1:1/v1/chat/completions");
+
+        healthService.probeMongo();
+        healthService.probeAi();
+
+        assertTrue(healthService.isReady());
+        assertEquals("DEGRADED", healthService.readiness().get("status"));
+    }
+
+    @Test
+    void testReadiness_DegradedNotDownWhenPoolSaturated() {
+        MongoPoolMonitor pool = mock(MongoPoolMonitor.class);
+        when(pool.isSaturated()).thenReturn(true);
+        healthService = new HealthService(mongoTemplate, pool, new OkHttpClient(),
+                mock(LuceneCardIndex.class), mock(UserDeletionJob.class));
+
+        healthService.probeMongo();
+
+        assertTrue(healthService.isReady());
+        assertEquals("DEGRADED", healthService.readiness().get("status"));
+    }
+
+    @Test
+    void testLiveness_ReadsJvmStateOnly() {
+        Map<String, Object> liveness = healthService.liveness();
+
+        assertEquals("UP", liveness.get("status"));
+        assertTrue(((Map<?, ?>) liveness.get("jvm")).containsKey("heapUsedBytes"));
+        verifyNoInteractions(mongoTemplate);
+    }
+}
@@ -0,0 +1,128 @@
+package com.flashcards.service;
+
+import com.flashcards.model.Flashcard;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LuceneCardIndexTest {
+
+    @TempDir
+    Path indexDir;
+
+    private LuceneCardIndex index;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        index = new LuceneCardIndex(mock(MongoTemplate.class));
+        ReflectionTestUtils.setField(index, "enabled", true);
+        index.open(indexDir);
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.stop();
+    }
+
+    private static Flashcard card(String id, String question, String answer, String userId, boolean deckPublic) {
+        Flashcard card = new Flashcard(question, answer, "deck-" + userId, userId);
+        card.setId(id);
+        card.setDeckPublic(deckPublic);
+        return card;
+    }
+
+    @Test
+    void testSearch_MatchesPrefixAndTypos() throws Exception {
+        index.onCardSaved(card("1", "What converts light into chemical energy?", "Photosynthesis", "alice", true));
+        index.onCardSaved(card("2", "Powerhouse of the cell?", "Mitochondria", "alice", true));
+        index.applyPending();
+
+        assertEquals(List.of("1"), index.search("photosyn", "bob", null, 0, 10));
+        assertEquals(List.of("2"), index.search("mitochondira", "bob", null, 0, 10));
+    }
+
+    @Test
+    void testSearch_OnlyReturnsPublicOrOwnCards() throws Exception {
+        index.onCardSaved(card("1", "Capital of France?", "Paris", "alice", false));
+        index.onCardSaved(card("2", "Capital of Germany?", "Berlin", "bob", true));
+        index.applyPending();
+
+        assertEquals(List.of("2"), index.search("capital", "carol", null, 0, 10));
+        assertEquals(2, index.search("capital", "alice", null, 0, 10).size());
+        assertEquals(List.of("2"), index.search("capital", null, null, 0, 10));
+    }
+
+    @Test
+    void testSearch_UsesLanguageAnalyzer() throws Exception {
+        Flashcard spanish = card("1", "¿Qué animales maúllan?", "Los gatos", "alice", true);
+        spanish.setLanguage("spanish");
+        index.onCardSaved(spanish);
+        index.applyPending();
+
+        // The Spanish stemmer reduces both forms to the same term
+        assertEquals(List.of("1"), index.search("gato", "alice", "es", 0, 10));
+        assertTrue(index.search("gato", "alice", "english", 0, 10).isEmpty());
+    }
+
+    @Test
+    void testDeletes_AreVisibleAfterRefresh() throws Exception {
+        index.onCardSaved(card("1", "Largest planet?", "Jupiter", "alice", true));
+        index.onCardSaved(card("2", "Red planet?", "Mars", "alice", true));
+        index.applyPending();
+        assertEquals(2, index.search("planet", "alice", null, 0, 10).size());
+
+        index.onCardDeleted("1");
+        index.onDeckDeleted("deck-nobody");
+        index.applyPending();
+
+        assertEquals(List.of("2"), index.search("planet", "alice", null, 0, 10));
+    }
+
+    @Test
+    void testSearch_DenseVocabulary_StaysWithinClauseLimit() throws Exception {
+        // Seven letters from {a, b, c}: every query word is within two edits of about a hundred indexed words
+        Random random = new Random(42);
+        for (int i = 0; i < 3000; i++) {
+            Flashcard card = card(String.valueOf(i), words(random, 4), words(random, 4), "alice", true);
+            card.setTags(List.of(words(random, 1), words(random, 1)));
+            index.onCardSaved(card);
+        }
+        index.applyPending();
+
+        String query = words(random, 6);
+        assertFalse(index.search(query, "alice", null, 0, 10).isEmpty());
+        assertFalse(index.search(query, "alice", "standard", 0, 10).isEmpty());
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder words = new StringBuilder();
+        for (int w = 0; w < count; w++) {
+            if (w > 0) {
+                words.append(' ');
+            }
+            for (int c = 0; c < 7; c++) {
+                words.append((char) ('a' + random.nextInt(3)));
+            }
+        }
+        return words.toString();
+    }
+
+    @Test
+    void testSearch_PageBeyondIntRange_ReturnsNothing() throws Exception {
+        index.onCardSaved(card("1", "Largest planet?", "Jupiter", "alice", true));
+        index.applyPending();
+
+        // page * size overflows an int
+        assertTrue(index.search("planet", "alice", null, 214_748_365, 10).isEmpty());
+    }
+}
@@ -0,0 +1,271 @@
+package com.flashcards.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.flashcards.dto.AiGenerationRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Calls a stub that answers each request with the next planned fault - a status, a delay, a
+ * Retry-After header - and with a quick 200 once the plan is used up.
+ */
+class OpenAiUpstreamTest {
+
+    private static final String OK_BODY = "{\"choices\":[{\"finish_reason\":\"stop\",\"message\":{\"role\":\"assistant\","
+            + "\"content\":\"[{\\\"question\\\":\\\"Stub question\\\",\\\"answer\\\":\\\"Stub answer\\\"}]\"}}]}";
+
+    private record Fault(int status, long delayMs, String retryAfter) {
+        static Fault status(int status) {
+            return new Fault(status, 0, null);
+        }
+
+        static Fault delay(long delayMs) {
+            return new Fault(200, delayMs, null);
+        }
+    }
+
+    private final ConcurrentLinkedQueue<Fault> plan = new ConcurrentLinkedQueue<>();
+    private volatile Fault whenPlanUsedUp = Fault.status(200);
+    private StubOpenAi stub;
+    private MeterRegistry registry;
+    private OkHttpClient httpClient;
+    private CircuitBreaker breaker;
+    private OpenAiUpstream upstream;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = new StubOpenAi(this::complete);
+
+        httpClient = new OkHttpClient.Builder().readTimeout(2, TimeUnit.SECONDS).build();
+        create(new CircuitBreaker(4, 4, 50, 1_000, 50, 200, 2), new RetryBudget(0.2, 10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    private void create(CircuitBreaker circuitBreaker, RetryBudget retryBudget) {
+        breaker = circuitBreaker;
+        registry = new SimpleMeterRegistry();
+        upstream = new OpenAiUpstream(httpClient, breaker, retryBudget, registry, Tracer.NOOP);
+        ReflectionTestUtils.setField(upstream, "backoffMs", 10L);
+        ReflectionTestUtils.setField(upstream, "maxBackoffMs", 100L);
+    }
+
+    private StubOpenAi.Reply complete(JsonNode request, int call) throws InterruptedException {
+        Fault fault = plan.poll();
+        if (fault == null) {
+            fault = whenPlanUsedUp;
+        }
+        Thread.sleep(fault.delayMs());
+        return new StubOpenAi.Reply(fault.status(), fault.status() == 200 ? OK_BODY : "{\"error\":\"injected\"}",
+                fault.retryAfter());
+    }
+
+    private Request request() {
+        return new Request.Builder()
+                .url(stub.url())
+                .post(RequestBody.create("{}", MediaType.get("application/json")))
+                .build();
+    }
+
+    private double count(String name, String... tags) {
+        Counter counter = registry.find(name).tags(tags).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    @Test
+    void testServerErrors_RetriedUntilSuccess() throws IOException {
+        plan.add(Fault.status(503));
+        plan.add(Fault.status(502));
+
+        assertEquals(OK_BODY, upstream.send(request()));
+
+        assertEquals(3, stub.calls());
+        assertEquals(1, count("flashcards.ai.openai.retries", "status", "503"));
+        assertEquals(1, count("flashcards.ai.openai.retries", "status", "502"));
+        assertEquals(1, registry.get("flashcards.ai.openai.requests").tag("status", "200").timer().count());
+    }
+
+    @Test
+    void testClientError_NotRetried() {
+        plan.add(Fault.status(400));
+
+        IOException e = assertThrows(IOException.class, () -> upstream.send(request()));
+
+        assertTrue(e.getMessage().contains("400"));
+        assertEquals(1, stub.calls());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void testAttempts_StopAtMaximum() {
+        whenPlanUsedUp = Fault.status(500);
+
+        assertThrows(IOException.class, () -> upstream.send(request()));
+
+        assertEquals(3, stub.calls());
+    }
+
+    @Test
+    void testRetryAfterBeyondMaxBackoff_NotRetried() {
+        plan.add(new Fault(429, 0, "60"));
+
+        assertThrows(IOException.class, () -> upstream.send(request()));
+
+        assertEquals(1, stub.calls());
+    }
+
+    @Test
+    void testRetryBudget_LimitsRetriesAcrossCalls() {
+        create(new CircuitBreaker(20, 20, 50, 1_000, 50, 200, 2), new RetryBudget(0.0, 2));
+        whenPlanUsedUp = Fault.status(500);
+
+        assertThrows(IOException.class, () -> upstream.send(request())); // Two retries spend both tokens
+        assertThrows(IOException.class, () -> upstream.send(request())); // No retry left
+
+        assertEquals(3 + 1, stub.calls());
+        assertEquals(1, count("flashcards.ai.openai.retry.budget.exhausted"));
+    }
+
+    @Test
+    void testBreaker_OpensOnFailuresAndStopsCalling() {
+        ReflectionTestUtils.setField(upstream, "maxAttempts", 1);
+        whenPlanUsedUp = Fault.status(500);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IOException.class, () -> upstream.send(request()));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+        assertThrows(OpenAiUpstream.CircuitOpenException.class, () -> upstream.send(request()));
+        assertFalse(upstream.acceptsCalls());
+
+        assertEquals(4, stub.calls());
+        assertEquals(2, count("flashcards.ai.openai.breaker.rejected"));
+        assertEquals(1, count("flashcards.ai.openai.breaker.transitions", "to", "open"));
+        assertEquals(1, registry.get("flashcards.ai.openai.breaker.state").tag("state", "open").gauge().value());
+        assertEquals(0, registry.get("flashcards.ai.openai.breaker.state").tag("state", "closed").gauge().value());
+    }
+
+    @Test
+    void testBreaker_OpensOnSlowCalls() throws IOException {
+        plan.add(Fault.delay(1_100));
+        plan.add(Fault.delay(1_100));
+        for (int i = 0; i < 4; i++) {
+            upstream.send(request()); // Successful, but two of four took longer than 1s
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void testBreaker_ClosesAfterSuccessfulTrialCalls() throws Exception {
+        ReflectionTestUtils.setField(upstream, "maxAttempts", 1);
+        for (int i = 0; i < 4; i++) {
+            plan.add(Fault.status(503));
+        }
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IOException.class, () -> upstream.send(request()));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+        Thread.sleep(250); // Open period is 200 ms
+        upstream.send(request());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        upstream.send(request());
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(1, count("flashcards.ai.openai.breaker.transitions", "to", "closed"));
+    }
+
+    @Test
+    void testBreaker_FailedTrialCallReopens() throws Exception {
+        ReflectionTestUtils.setField(upstream, "maxAttempts", 1);
+        whenPlanUsedUp = Fault.status(503);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IOException.class, () -> upstream.send(request()));
+        }
+
+        Thread.sleep(250);
+        assertThrows(IOException.class, () -> upstream.send(request()));
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(5, stub.calls());
+        assertEquals(2, count("flashcards.ai.openai.breaker.transitions", "to", "open"));
+    }
+
+    @Test
+    void testHedge_SecondCallAnswersWhenFirstIsSlow() throws IOException {
+        ReflectionTestUtils.setField(upstream, "hedgeEnabled", true);
+        ReflectionTestUtils.setField(upstream, "hedgeMinSamples", 5);
+        ReflectionTestUtils.setField(upstream, "hedgeMinDelayMs", 50L);
+        for (int i = 0; i < 5; i++) {
+            upstream.send(request()); // Latency samples for the p95
+        }
+        plan.add(Fault.delay(1_500));
+
+        long started = System.nanoTime();
+        assertEquals(OK_BODY, upstream.send(request()));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertTrue(elapsedMs < 1_000, "took " + elapsedMs + " ms");
+        assertEquals(7, stub.calls());
+        assertEquals(1, count("flashcards.ai.openai.hedges", "outcome", "sent"));
+        assertEquals(1, count("flashcards.ai.openai.hedges", "outcome", "won"));
+    }
+
+    @Test
+    void testHedge_NotSentWithoutLatencySamples() throws IOException {
+        ReflectionTestUtils.setField(upstream, "hedgeEnabled", true);
+        plan.add(Fault.delay(300));
+
+        assertEquals(OK_BODY, upstream.send(request()));
+
+        assertEquals(1, stub.calls());
+        assertEquals(0, count("flashcards.ai.openai.hedges", "outcome", "sent"));
+    }
+
+    @Test
+    void testOpenBreaker_GenerationFallsBackWithoutWaiting() {
+        httpClient = new OkHttpClient.Builder().readTimeout(500, TimeUnit.MILLISECONDS).build();
+        create(new CircuitBreaker(4, 4, 50, 10_000, 50, 60_000, 2), new RetryBudget(0.2, 10));
+        whenPlanUsedUp = Fault.delay(1_500); // Every call times out
+        AiService aiService = stub.aiService(upstream, new TokenBudget(), registry);
+        AiGenerationRequest request = new AiGenerationRequest();
+        request.setText("Photosynthesis converts light energy into chemical energy. Chloroplasts hold the chlorophyll "
+                + "that captures the light, and the Calvin cycle fixes carbon dioxide into sugars.");
+        request.setNumberOfCards(3);
+
+        for (int i = 0; i < 4; i++) {
+            aiService.generateFlashcards(request); // Each waits out the read timeout
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+        long started = System.nanoTime();
+        assertFalse(aiService.generateFlashcards(request).isEmpty());
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertTrue(elapsedMs < 500, "took " + elapsedMs + " ms");
+        assertEquals(4, stub.calls());
+        // Every card came from the fallback, including the four timed out calls
+        assertEquals(5, registry.get("flashcards.ai.generate").tag("path", "fallback").timer().count());
+        assertNull(registry.find("flashcards.ai.generate").tag("path", "openai").timer());
+    }
+}
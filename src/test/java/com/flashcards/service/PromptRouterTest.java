@@ -0,0 +1,72 @@
+package com.flashcards.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptRouterTest {
+
+    // What isLanguageLearningRequest used to match, per line
+    private static final Pattern LANGUAGE_PHRASE = Pattern.compile(
+            "\\b(in|to) (hindi|spanish|french|german|italian|japanese|chinese|korean|portuguese|russian|arabic)\\b");
+
+    @Test
+    void testClassify_LanguagePhraseOnlyAsWholeWords() {
+        String[] texts = {
+                "Make vocabulary cards in Spanish", "translate these words TO hindi.", "begin german grammar",
+                "within spanishness", "in spanish_", "learn in-spanish phrases", "to korean", "Notes\non verbs in french"
+        };
+        for (String text : texts) {
+            assertEquals(LANGUAGE_PHRASE.matcher(text.toLowerCase()).find(),
+                    PromptRouter.classify(text, "General", "english").languageLearning(), text);
+        }
+    }
+
+    @Test
+    void testClassify_LanguageLearningFromTopicAndTranslationKeywords() {
+        assertTrue(PromptRouter.classify("", "Fruits to Hindi", "english").languageLearning());
+        assertTrue(PromptRouter.classify("Please make Translation Cards", "General", "english").languageLearning());
+        assertFalse(PromptRouter.classify("Spanish history of the 16th century", "General", "english").languageLearning());
+    }
+
+    @Test
+    void testClassify_TargetLanguagePreference() {
+        assertEquals("Spanish", PromptRouter.classify("", "General", "es").targetLanguage());
+        // Listed order wins over position in the text
+        assertEquals("Hindi", PromptRouter.classify("french and hindi", "General", "english").targetLanguage());
+        assertEquals("Japanese", PromptRouter.classify("", "日本語の単語", "english").targetLanguage());
+        assertEquals("Swahili", PromptRouter.classify("", "General", "swahili").targetLanguage());
+        assertEquals("English", PromptRouter.classify("", "General", "english").targetLanguage());
+    }
+
+    @Test
+    void testClassify_WhenToUse() {
+        PromptRouter.Intent prompt = PromptRouter.classify("Each question should be WHEN to use a list", "Python", "english");
+        assertTrue(prompt.whenToUse());
+        assertTrue(prompt.whenToUseFallback());
+
+        PromptRouter.Intent fallbackOnly = PromptRouter.classify("Pick the particular data structure", "Python", "english");
+        assertFalse(fallbackOnly.whenToUse());
+        assertTrue(fallbackOnly.whenToUseFallback());
+
+        assertTrue(PromptRouter.classify("", " PDS ", "english").whenToUseFallback());
+        assertTrue(PromptRouter.classify("", "Intro to Data Structures", "english").whenToUseFallback());
+        assertFalse(PromptRouter.classify("lists and sets", "Python", "english").whenToUseFallback());
+    }
+
+    @Test
+    void testClassify_Subjects() {
+        assertEquals(PromptRouter.Subject.CAR_BRANDS,
+                PromptRouter.classify("Car brands and their origin", "General", "english").subject());
+        // "car" without brand/origin/country falls through to the next subject
+        assertEquals(PromptRouter.Subject.ANIMALS,
+                PromptRouter.classify("a cartoon about wildlife", "General", "english").subject());
+        assertEquals(PromptRouter.Subject.COUNTRIES,
+                PromptRouter.classify("International relations", "General", "english").subject());
+        assertEquals(PromptRouter.Subject.NONE,
+                PromptRouter.classify("Photosynthesis converts light", "General", "english").subject());
+        assertTrue(PromptRouter.classify("Fruit names in Hindi", "General", "english").fruitVocabulary());
+    }
+}
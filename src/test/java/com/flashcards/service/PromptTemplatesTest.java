@@ -0,0 +1,100 @@
+package com.flashcards.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptTemplatesTest {
+
+    private static final String TEXT = "Stacks are LIFO. Use 100% of {braces} and %s literally.";
+
+    @Test
+    void testDefaultVersion_RendersPromptsAsBefore() {
+        PromptTemplates templates = new PromptTemplates();
+
+        // The String.format prompts v1 replaced
+        String defaultPrompt = String.format(
+                "Generate %d flashcards from the following text in %s language. " +
+                "Topic: %s, Difficulty: %s\n\n" +
+                "Text: %s\n\n" +
+                "Please respond with JSON format:\n" +
+                "[\n" +
+                "  {\"question\": \"Question 1\", \"answer\": \"Answer 1\"},\n" +
+                "  {\"question\": \"Question 2\", \"answer\": \"Answer 2\"}\n" +
+                "]\n\n" +
+                "Make questions clear and answers concise. Generate all content in %s language.",
+                5, "english", "Python", "medium", TEXT, "english");
+        assertEquals(defaultPrompt, templates.get(PromptTemplates.Kind.DEFAULT, "english")
+                .render("5", "english", "Python", "medium", TEXT));
+
+        String whenToUsePrompt = String.format(
+                "Generate %d flashcards about %s in %s language. " +
+                "Follow this specific format:\n" +
+                "- Each question should ask 'When do we use X?' or 'When should we use X?'\n" +
+                "- Each answer should be the specific data structure, algorithm, or concept name\n" +
+                "- Generate all content in %s language\n\n" +
+                "Instructions: %s\n\n" +
+                "Please respond with JSON format:\n" +
+                "[\n" +
+                "  {\"question\": \"When do we use X?\", \"answer\": \"Data Structure Name\"},\n" +
+                "  {\"question\": \"When should we use Y?\", \"answer\": \"Another Data Structure\"}\n" +
+                "]\n\n" +
+                "Make sure each question asks about WHEN to use something, and the answer is the specific name. Generate everything in %s.",
+                3, "PDS", "english", "english", TEXT, "english");
+        assertEquals(whenToUsePrompt, templates.get(PromptTemplates.Kind.WHEN_TO_USE, "english")
+                .render("3", "PDS", "english", TEXT));
+
+        String languagePrompt = String.format(
+                "Generate %d language learning flashcards. " +
+                "Topic: %s\n" +
+                "Request: %s\n" +
+                "Target Language: %s\n\n" +
+                "Create flashcards that help learn %s vocabulary/phrases:\n" +
+                "- Questions should be in English asking for the %s translation\n" +
+                "- Answers should be in %s\n" +
+                "- Focus on practical, useful vocabulary\n\n" +
+                "Please respond with JSON format:\n" +
+                "[\n" +
+                "  {\"question\": \"What is 'apple' in %s?\", \"answer\": \"सेब\"},\n" +
+                "  {\"question\": \"What is 'banana' in %s?\", \"answer\": \"केला\"}\n" +
+                "]\n\n" +
+                "Generate useful vocabulary flashcards for learning %s.",
+                4, "Fruits", TEXT, "Hindi", "Hindi", "Hindi", "Hindi", "Hindi", "Hindi", "Hindi");
+        assertEquals(languagePrompt, templates.get(PromptTemplates.Kind.LANGUAGE_LEARNING, "Hindi")
+                .render("4", "Fruits", TEXT, "Hindi"));
+    }
+
+    @Test
+    void testGet_PrefersLanguageVariantAndFallsBackToDefaultVersion() {
+        PromptTemplates templates = new PromptTemplates(Map.of(
+                "v1/default.txt", "v1 {{text}}",
+                "v1/default.spanish.txt", "v1 es {{text}}",
+                "v2/when-to-use.txt", "v2 {{instructions}}"));
+        ReflectionTestUtils.setField(templates, "experimentVersion", "v2");
+        ReflectionTestUtils.setField(templates, "experimentPercent", 100);
+
+        assertEquals("v1 es t", templates.get(PromptTemplates.Kind.DEFAULT, "Spanish").render("5", "spanish", "", "", "t"));
+        // v2 only changes the "when to use" prompt
+        PromptTemplate defaultPrompt = templates.get(PromptTemplates.Kind.DEFAULT, "english");
+        assertEquals("v1", defaultPrompt.version());
+        PromptTemplate whenToUse = templates.get(PromptTemplates.Kind.WHEN_TO_USE, "english");
+        assertEquals("v2", whenToUse.version());
+        assertEquals("v2 t", whenToUse.render("5", "", "", "t"));
+        assertThrows(IllegalStateException.class, () -> templates.get(PromptTemplates.Kind.LANGUAGE_LEARNING, "Hindi"));
+    }
+
+    @Test
+    void testCompile_RejectsUnknownPlaceholders() {
+        List<String> parameters = PromptTemplates.Kind.DEFAULT.parameters;
+        assertThrows(IllegalArgumentException.class,
+                () -> PromptTemplate.compile("default", "v9", "Cards: {{count}}", parameters));
+        assertThrows(IllegalArgumentException.class,
+                () -> PromptTemplate.compile("default", "v9", "Text: {{text", parameters));
+        assertEquals("{\"a\": null}", PromptTemplate.compile("default", "v9", "{\"a\": {{difficulty}}}", parameters)
+                .render("1", "english", "General", null, ""));
+    }
+}
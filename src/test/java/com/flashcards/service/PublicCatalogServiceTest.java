@@ -0,0 +1,105 @@
+package com.flashcards.service;
+
+import com.flashcards.dto.DeckPage;
+import com.flashcards.model.Deck;
+import com.flashcards.repository.DeckRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PublicCatalogServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private DeckRepository deckRepository;
+    private PublicCatalogService catalog;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        deckRepository = mock(DeckRepository.class);
+        catalog = new PublicCatalogService(mongoTemplate, deckRepository);
+        when(deckRepository.countByIsPublicTrue()).thenReturn(3L);
+    }
+
+    private static List<Deck> decks(int count) {
+        List<Deck> decks = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < count; i++) {
+            Deck deck = new Deck("Deck " + i, "", "owner");
+            deck.setId(new ObjectId().toHexString());
+            deck.setPublic(true);
+            deck.setCreatedAt(now.minusMinutes(i));
+            decks.add(deck);
+        }
+        return decks;
+    }
+
+    @Test
+    void testFirstPage_IsServedFromCacheUntilInvalidated() {
+        when(mongoTemplate.find(any(Query.class), eq(Deck.class))).thenReturn(decks(2));
+
+        DeckPage first = catalog.getPublicDecks("newest", null, 20);
+        DeckPage second = catalog.getPublicDecks("newest", null, 20);
+
+        assertSame(first, second);
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Deck.class));
+        verify(deckRepository, times(1)).countByIsPublicTrue();
+
+        catalog.invalidate();
+        catalog.getPublicDecks("newest", null, 20);
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(Deck.class));
+    }
+
+    @Test
+    void testNextCursor_OnlyWhenMoreDecksExist() {
+        List<Deck> three = decks(3);
+        when(mongoTemplate.find(any(Query.class), eq(Deck.class))).thenReturn(three, three.subList(2, 3));
+
+        DeckPage first = catalog.getPublicDecks("newest", null, 2);
+        assertEquals(2, first.getDecks().size());
+        assertEquals(3, first.getTotal());
+        assertNotNull(first.getNextCursor());
+
+        DeckPage second = catalog.getPublicDecks("newest", first.getNextCursor(), 2);
+        assertEquals(1, second.getDecks().size());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void testCursorPage_CachedOnlyForIssuedCursor() {
+        List<Deck> five = decks(5);
+        when(mongoTemplate.find(any(Query.class), eq(Deck.class))).thenReturn(five.subList(0, 3), five.subList(2, 5));
+
+        String issued = catalog.getPublicDecks("newest", null, 2).getNextCursor();
+        DeckPage second = catalog.getPublicDecks("newest", issued, 2);
+        assertSame(second, catalog.getPublicDecks("newest", issued, 2));
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(Deck.class));
+
+        // Same page index, but not a cursor this cache handed out
+        Deck other = five.get(3);
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("1|" + other.getCreatedAt() + "|" + other.getId()).getBytes(StandardCharsets.UTF_8));
+        catalog.getPublicDecks("newest", forged, 2);
+        catalog.getPublicDecks("newest", forged, 2);
+        verify(mongoTemplate, times(4)).find(any(Query.class), eq(Deck.class));
+        assertSame(second, catalog.getPublicDecks("newest", issued, 2));
+    }
+
+    @Test
+    void testInvalidCursor_IsRejected() {
+        assertThrows(RuntimeException.class, () -> catalog.getPublicDecks("popular", "not-a-cursor", 20));
+    }
+}
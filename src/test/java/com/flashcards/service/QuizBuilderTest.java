@@ -0,0 +1,89 @@
+package com.flashcards.service;
+
+import com.flashcards.model.Flashcard;
+import com.flashcards.model.Quiz;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuizBuilderTest {
+
+    private static Flashcard card(String id, String question, String answer) {
+        Flashcard card = new Flashcard(question, answer, "deck-1", "user-1");
+        card.setId(id);
+        return card;
+    }
+
+    private static List<Flashcard> deck(int size) {
+        List<Flashcard> cards = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            cards.add(card("c" + i, "Question " + i, "Answer " + i));
+        }
+        return cards;
+    }
+
+    @Test
+    void testBuildQuestion_DistinctOptionsWithCorrectAnswer() {
+        List<Flashcard> cards = deck(50);
+        QuizBuilder builder = new QuizBuilder(cards, new Random(42));
+
+        for (int round = 0; round < 200; round++) {
+            Flashcard correct = cards.get(round % cards.size());
+            Quiz.QuizQuestion question = builder.buildQuestion(correct);
+
+            List<String> options = question.getOptions();
+            assertEquals(4, options.size());
+            assertEquals(4, new HashSet<>(options).size());
+            assertEquals(correct.getBack(), options.get(question.getCorrectOptionIndex()));
+            assertEquals(1, options.stream().filter(correct.getBack()::equals).count());
+            assertEquals(correct.getId(), question.getQuestionId());
+            assertEquals(correct.getId(), question.getOptionCardIds().get(question.getCorrectOptionIndex()));
+            for (int i = 0; i < options.size(); i++) {
+                // Every option references the card whose answer it is
+                assertEquals(options.get(i), "Answer " + question.getOptionCardIds().get(i).substring(1));
+            }
+        }
+    }
+
+    @Test
+    void testBuildQuestion_DuplicateAnswersArePooledOnce() {
+        List<Flashcard> cards = List.of(
+            card("c1", "2 + 2?", "4"),
+            card("c2", "Square root of 16?", "4"),
+            card("c3", "3 + 2?", "5")
+        );
+        QuizBuilder builder = new QuizBuilder(cards, new Random(7));
+
+        assertEquals(2, builder.distinctAnswerCount());
+        Quiz.QuizQuestion question = builder.buildQuestion(cards.get(0));
+        // One real distractor, padded with filler options
+        assertEquals(List.of("4", "5", QuizBuilder.FILLER_OPTION, QuizBuilder.FILLER_OPTION).stream().sorted().toList(),
+                question.getOptions().stream().sorted().toList());
+    }
+
+    @Test
+    void testBuildQuestion_SingleCardDeck() {
+        List<Flashcard> cards = deck(1);
+        Quiz.QuizQuestion question = new QuizBuilder(cards, new Random(1)).buildQuestion(cards.get(0));
+
+        assertEquals(4, question.getOptions().size());
+        assertEquals("Answer 0", question.getOptions().get(question.getCorrectOptionIndex()));
+    }
+
+    @Test
+    void testBuildQuestion_DistractorsCoverWholePool() {
+        List<Flashcard> cards = deck(20);
+        QuizBuilder builder = new QuizBuilder(cards, new Random(3));
+
+        HashSet<String> seen = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            seen.addAll(builder.buildQuestion(cards.get(0)).getOptions());
+        }
+        assertEquals(20, seen.size());
+    }
+}
@@ -0,0 +1,86 @@
+package com.flashcards.service;
+
+import com.flashcards.dto.AiGenerationRequest;
+import com.flashcards.model.Quiz;
+import com.flashcards.repository.FlashcardRepository;
+import com.flashcards.repository.QuizRepository;
+import com.flashcards.repository.UserProgressRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ServiceMetricsTest {
+
+    private MeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testQuizTimers_RegisteredAndUpdated() {
+        QuizRepository quizRepository = mock(QuizRepository.class);
+        QuizService quizService = new QuizService(quizRepository, mock(FlashcardRepository.class),
+                mock(DistractorIndexService.class), mock(DeckForkService.class), registry);
+        Quiz quiz = new Quiz("deck-1", "user-1", "Quiz", 1);
+        quiz.setQuestions(new ArrayList<>());
+        when(quizRepository.findById("quiz-1")).thenReturn(Optional.of(quiz));
+        when(quizRepository.save(any(Quiz.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertEquals(0, registry.get("flashcards.quiz.create").timer().count());
+        quizService.submitQuiz("quiz-1", Map.of());
+
+        assertEquals(1, registry.get("flashcards.quiz.submit").timer().count());
+    }
+
+    @Test
+    void testProgressTimer_RegisteredAndUpdated() {
+        UserProgressRepository progressRepository = mock(UserProgressRepository.class);
+        when(progressRepository.findByUserIdAndFlashcardId(anyString(), anyString())).thenReturn(Optional.empty());
+        SpacedRepetitionService service = new SpacedRepetitionService(progressRepository, registry);
+
+        service.updateProgress("user-1", "card-1", "deck-1", 4);
+        service.updateProgress("user-1", "card-1", "deck-1", 1);
+
+        assertEquals(2, registry.get("flashcards.study.progress.update").timer().count());
+    }
+
+    @Test
+    void testExtractionMetrics_TaggedByContentType() throws Exception {
+        ContentProcessingService service = new ContentProcessingService(registry, Tracer.NOOP);
+
+        service.extractTextFromDocument("héllo world", "text");
+
+        assertEquals(12, registry.get("flashcards.content.input.bytes").tag("type", "text").summary().totalAmount());
+        assertEquals(1, registry.get("flashcards.content.extracted.bytes").tag("type", "text").summary().count());
+        assertThrows(IllegalArgumentException.class, () -> service.extractTextFromPdf(new byte[0]));
+    }
+
+    @Test
+    void testGenerateTimer_TaggedByPath() {
+        ContentProcessingService contentProcessingService = new ContentProcessingService(registry, Tracer.NOOP);
+        AiService aiService = new AiService(null, null, contentProcessingService, new PromptTemplates(),
+                new TokenBudget(), registry, Tracer.NOOP);
+        AiGenerationRequest request = new AiGenerationRequest();
+        request.setText("Photosynthesis converts light into chemical energy. Plants store it as glucose.");
+        request.setNumberOfCards(2);
+
+        aiService.generateFlashcards(request);
+
+        assertEquals(1, registry.get("flashcards.ai.generate").tag("path", "fallback").timer().count());
+        assertNotNull(registry.get("flashcards.ai.generate.cards").tag("path", "fallback").summary());
+        assertNull(registry.find("flashcards.ai.generate").tag("path", "openai").timer());
+    }
+}
@@ -0,0 +1,129 @@
+package com.flashcards.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Tracer;
+import okhttp3.OkHttpClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local stand-in for the OpenAI chat completions endpoint, for tests that go through a real socket.
+ * Every request is answered by the test's handler on its own thread, so handlers may block.
+ */
+final class StubOpenAi implements AutoCloseable {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    @FunctionalInterface
+    interface Handler {
+        /**
+         * The reply to the {@code call}th request (counting from 1). Throwing drops the connection.
+         */
+        Reply handle(JsonNode request, int call) throws Exception;
+    }
+
+    record Reply(int status, String body, String retryAfter) {
+        static Reply ok(String body) {
+            return new Reply(200, body, null);
+        }
+    }
+
+    private final Handler handler;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final ExecutorService threads = Executors.newCachedThreadPool();
+    private final HttpServer server;
+
+    StubOpenAi(Handler handler) throws IOException {
+        this.handler = handler;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", this::complete);
+        server.setExecutor(threads);
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions";
+    }
+
+    int calls() {
+        return calls.get();
+    }
+
+    /**
+     * A chat completion whose single choice has the given message content.
+     */
+    static String completion(String content, String finishReason) {
+        ObjectNode response = JSON.createObjectNode();
+        ObjectNode choice = response.putArray("choices").addObject();
+        choice.put("finish_reason", finishReason);
+        choice.putObject("message").put("role", "assistant").put("content", content);
+        return response.toString();
+    }
+
+    /**
+     * An upstream with the default breaker and retry budget, loose enough not to trip in these tests.
+     */
+    static OpenAiUpstream upstream(MeterRegistry registry) {
+        return new OpenAiUpstream(new OkHttpClient(), new CircuitBreaker(20, 10, 50, 20_000, 50, 30_000, 3),
+                new RetryBudget(0.2, 10), registry, Tracer.NOOP);
+    }
+
+    AiService aiService(MeterRegistry registry) {
+        return aiService(upstream(registry), new TokenBudget(), registry);
+    }
+
+    /**
+     * An AiService with an API key, calling this stub.
+     */
+    AiService aiService(OpenAiUpstream upstream, TokenBudget tokenBudget, MeterRegistry registry) {
+        AiService aiService = new AiService(upstream, JSON, new ContentProcessingService(registry, Tracer.NOOP),
+                new PromptTemplates(), tokenBudget, registry, Tracer.NOOP);
+        ReflectionTestUtils.setField(aiService, "apiKey", "test-key");
+        ReflectionTestUtils.setField(aiService, "apiUrl", url());
+        return aiService;
+    }
+
+    private void complete(HttpExchange exchange) throws IOException {
+        int call = calls.incrementAndGet();
+        Reply reply;
+        try {
+            reply = handler.handle(JSON.readTree(exchange.getRequestBody()), call);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+            return;
+        }
+        byte[] body = reply.body().getBytes(StandardCharsets.UTF_8);
+        if (reply.retryAfter() != null) {
+            exchange.getResponseHeaders().add("Retry-After", reply.retryAfter());
+        }
+        try {
+            exchange.sendResponseHeaders(reply.status(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException e) {
+            // The client gave up on this call, e.g. a hedge that lost
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        threads.shutdownNow();
+    }
+}
@@ -0,0 +1,94 @@
+package com.flashcards.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBudgetTest {
+
+    private static final String PROMPT = "Generate 5 flashcards from the following text in english language. Text: \n\n"
+            + "Please respond with JSON format.";
+    private static final String SENTENCE = "Photosynthesis converts light energy into chemical energy stored in glucose. ";
+
+    private TokenBudget tokenBudget;
+
+    @BeforeEach
+    void setUp() {
+        tokenBudget = new TokenBudget();
+    }
+
+    private static String sentences(int count) {
+        return SENTENCE.repeat(count).trim();
+    }
+
+    @Test
+    void testPlan_SmallRequestKeepsTextAndSizesReplyByCards() {
+        TokenBudget.Plan plan = tokenBudget.plan(PROMPT, sentences(3), 5);
+
+        assertEquals("gpt-3.5-turbo", plan.model());
+        assertFalse(plan.trimmed());
+        assertEquals(sentences(3), plan.text());
+        assertEquals(5 * 80 + 40, plan.maxTokens());
+        assertTrue(plan.promptTokens() > 30 && plan.promptTokens() < 100, "prompt tokens " + plan.promptTokens());
+    }
+
+    @Test
+    void testPlan_CardBudgetCappedByModelLimit() {
+        assertEquals(4096, tokenBudget.plan(PROMPT, "", 500).maxTokens());
+        assertEquals(120, tokenBudget.plan(PROMPT, "", 0).maxTokens()); // At least one card
+    }
+
+    @Test
+    void testPlan_OversizedTextTrimmedToSentenceWithinContext() {
+        ReflectionTestUtils.setField(tokenBudget, "contextTokens", 1000);
+        String text = sentences(200); // ~2800 tokens
+
+        TokenBudget.Plan plan = tokenBudget.plan(PROMPT, text, 5);
+
+        assertTrue(plan.trimmed());
+        assertTrue(text.startsWith(plan.text()));
+        assertTrue(plan.text().endsWith("glucose."), plan.text().substring(plan.text().length() - 20));
+        assertTrue(plan.promptTokens() + plan.maxTokens() <= 1000);
+        assertTrue(plan.text().length() > text.length() / 5, "kept " + plan.text().length());
+    }
+
+    @Test
+    void testPlan_TrimsMultiByteTextWithoutBrokenCharacters() {
+        ReflectionTestUtils.setField(tokenBudget, "contextTokens", 600);
+        String text = "नमस्ते दुनिया यह एक परीक्षण वाक्य है जिसमें कोई पूर्ण विराम नहीं ".repeat(100);
+
+        TokenBudget.Plan plan = tokenBudget.plan(PROMPT, text, 2);
+
+        assertTrue(plan.trimmed());
+        assertFalse(plan.text().isEmpty());
+        assertFalse(plan.text().contains("�"));
+        assertTrue(text.startsWith(plan.text()));
+    }
+
+    @Test
+    void testPlan_NoRoomForTextLeavesItOut() {
+        ReflectionTestUtils.setField(tokenBudget, "contextTokens", 500);
+
+        TokenBudget.Plan plan = tokenBudget.plan(PROMPT, sentences(50), 10); // 840 tokens for the reply alone
+
+        assertTrue(plan.trimmed());
+        assertEquals("", plan.text());
+    }
+
+    @Test
+    void testPlan_LargeRequestSwitchesModelInsteadOfTrimming() {
+        ReflectionTestUtils.setField(tokenBudget, "largeModel", "gpt-4o-mini");
+        ReflectionTestUtils.setField(tokenBudget, "largeModelThresholdTokens", 2000);
+        String text = sentences(200);
+
+        TokenBudget.Plan large = tokenBudget.plan(PROMPT, text, 60);
+        TokenBudget.Plan small = tokenBudget.plan(PROMPT, sentences(10), 5);
+
+        assertEquals("gpt-4o-mini", large.model());
+        assertFalse(large.trimmed());
+        assertEquals(60 * 80 + 40, large.maxTokens()); // Above the 4096 cap of the default model
+        assertEquals("gpt-3.5-turbo", small.model());
+    }
+}
@@ -0,0 +1,72 @@
+package com.flashcards.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flashcards.dto.AiGenerationRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.test.simple.SimpleSpan;
+import io.micrometer.tracing.test.simple.SimpleTracer;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracingSpansTest {
+
+    private SimpleTracer tracer;
+    private ContentProcessingService contentProcessingService;
+
+    @BeforeEach
+    void setUp() {
+        tracer = new SimpleTracer();
+        contentProcessingService = new ContentProcessingService(new SimpleMeterRegistry(), tracer);
+    }
+
+    @Test
+    void testExtraction_SpanRecordsFailure() {
+        assertThrows(Exception.class, () -> contentProcessingService.extractTextFromUrl("not a url"));
+
+        SimpleSpan span = tracer.onlySpan();
+        assertEquals("content.extract.url", span.getName());
+        assertNotNull(span.getError());
+        assertNotNull(span.getEndTimestamp());
+    }
+
+    @Test
+    void testGenerate_StepSpansNestedUnderGeneration() {
+        AiService aiService = new AiService(new OpenAiUpstream(new OkHttpClient(),
+                new CircuitBreaker(20, 10, 50, 20_000, 50, 30_000, 3), new RetryBudget(0.2, 10), new SimpleMeterRegistry(),
+                tracer), new ObjectMapper(), contentProcessingService, new PromptTemplates(), new TokenBudget(),
+                new SimpleMeterRegistry(), tracer);
+        ReflectionTestUtils.setField(aiService, "apiKey", "test-key");
+        ReflectionTestUtils.setField(aiService, "apiUrl", "http://127.0.0.1:1/v1/chat/completions");
+        AiGenerationRequest request = new AiGenerationRequest();
+        request.setText("Photosynthesis converts light energy into chemical energy. Plants store that energy as glucose "
+                + "and release oxygen as a by-product of the reaction.");
+        request.setNumberOfCards(2);
+
+        aiService.generateFlashcards(request);
+
+        Map<String, SimpleSpan> spans = tracer.getSpans().stream()
+                .collect(Collectors.toMap(SimpleSpan::getName, Function.identity()));
+        SimpleSpan generate = spans.get("ai.generate");
+        assertEquals("fallback", generate.getTags().get("path")); // The OpenAI call failed
+        assertEquals(String.valueOf(request.getText().length()), generate.getTags().get("text.length"));
+        assertNotNull(generate.getTags().get("cards.generated"));
+
+        SimpleSpan prompt = spans.get("ai.prompt.build");
+        assertEquals(generate.context().spanId(), prompt.getParentId());
+        assertNotNull(prompt.getTags().get("prompt.length"));
+        assertEquals("v1", prompt.getTags().get("prompt.version"));
+
+        SimpleSpan call = spans.get("ai.openai.call"); // Nothing listens on port 1
+        assertEquals(generate.context().spanId(), call.getParentId());
+        assertNotNull(call.getError());
+        assertEquals("IO_ERROR", call.getTags().get("http.status_code"));
+    }
+}
@@ -0,0 +1,128 @@
+package com.flashcards.service;
+
+import com.flashcards.model.Deck;
+import com.flashcards.model.JobCheckpoint;
+import com.flashcards.model.User;
+import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class UserDeletionJobTest {
+
+    private static final String USER_ID = "user-1";
+
+    private MongoTemplate mongoTemplate;
+    private SearchService searchService;
+    private PublicCatalogService publicCatalogService;
+    private UserDeletionJob job;
+    private JobCheckpoint checkpoint;
+    // Documents per collection still to be deleted
+    private final Map<String, Integer> remaining = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        searchService = mock(SearchService.class);
+        publicCatalogService = mock(PublicCatalogService.class);
+        job = new UserDeletionJob(mongoTemplate, mock(DeckForkService.class), mock(DistractorIndexService.class),
+                searchService, mock(AutocompleteService.class), publicCatalogService);
+        ReflectionTestUtils.setField(job, "batchSize", 2);
+        ReflectionTestUtils.setField(job, "batchPauseMillis", 0L);
+
+        checkpoint = new JobCheckpoint(UserDeletionJob.JOB_PREFIX + USER_ID);
+        checkpoint.setStatus(UserDeletionJob.STATUS_QUEUED);
+        checkpoint.setStage(UserDeletionJob.STAGES.get(0));
+        when(mongoTemplate.findById(checkpoint.getId(), JobCheckpoint.class)).thenAnswer(invocation -> checkpoint);
+        when(mongoTemplate.findById(USER_ID, User.class)).thenReturn(new User("a@example.com", "a", "hash", "A"));
+
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), anyString())).thenAnswer(invocation -> {
+            String collection = invocation.getArgument(2);
+            Query query = invocation.getArgument(0);
+            if (query.getQueryObject().get("_id") instanceof Document) {
+                return List.of(); // Second page of the fork scan over the user's decks
+            }
+            int batch = Math.min(remaining.getOrDefault(collection, 0), 2);
+            List<Document> ids = new ArrayList<>();
+            for (int i = 0; i < batch; i++) {
+                ids.add(new Document("_id", new ObjectId()));
+            }
+            return ids;
+        });
+        when(mongoTemplate.remove(any(Query.class), anyString())).thenAnswer(invocation -> {
+            String collection = invocation.getArgument(1);
+            Query query = invocation.getArgument(0);
+            List<?> ids = (List<?>) ((Document) query.getQueryObject().get("_id")).get("$in");
+            remaining.merge(collection, -ids.size(), Integer::sum);
+            return DeleteResult.acknowledged(ids.size());
+        });
+    }
+
+    @Test
+    void testRun_DeletesOwnedDocumentsInBatches() throws Exception {
+        remaining.put("flashcards", 5);
+        remaining.put("user_progress", 3);
+        remaining.put("decks", 1);
+        remaining.put("users", 1);
+
+        job.run(USER_ID);
+
+        assertEquals(UserDeletionJob.STATUS_DONE, checkpoint.getStatus());
+        assertEquals(10, checkpoint.getItemsDone());
+        verify(mongoTemplate, times(3)).remove(any(Query.class), eq("flashcards"));
+        verify(mongoTemplate, times(1)).remove(any(Query.class), eq("users"));
+        // Checkpointed after every batch
+        verify(mongoTemplate, atLeast(7)).save(checkpoint);
+    }
+
+    @Test
+    void testRun_ResumesAtCheckpointedStage() throws Exception {
+        checkpoint.setStatus(UserDeletionJob.STATUS_RUNNING);
+        checkpoint.setStage("decks");
+        checkpoint.setItemsDone(1000);
+        remaining.put("flashcards", 4);
+        remaining.put("decks", 2);
+
+        job.run(USER_ID);
+
+        assertEquals(UserDeletionJob.STATUS_DONE, checkpoint.getStatus());
+        assertEquals(1002, checkpoint.getItemsDone());
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), eq("flashcards"));
+    }
+
+    @Test
+    void testSubmit_DisablesAccountAndReportsProgress() {
+        checkpoint = null;
+        Deck deck = new Deck("Biology", "", USER_ID);
+        deck.setId("d1");
+        deck.setPublic(true);
+        when(mongoTemplate.find(any(Query.class), eq(Deck.class))).thenReturn(List.of(deck));
+
+        Map<String, Object> progress = job.submit(USER_ID);
+
+        assertEquals(UserDeletionJob.STATUS_QUEUED, progress.get("status"));
+        assertEquals("forks", progress.get("stage"));
+        verify(mongoTemplate).updateFirst(any(Query.class), eq(new Update().set("enabled", false)), eq(User.class));
+        verify(mongoTemplate).save(any(JobCheckpoint.class));
+        // Nobody can fork the decks once the forks stage has run
+        verify(mongoTemplate).updateMulti(any(Query.class), eq(new Update().set("isPublic", false)), eq(Deck.class));
+        verify(searchService).updateCardVisibility("d1", false);
+        verify(publicCatalogService).invalidate();
+    }
+}